@@ -18,7 +18,23 @@ JVM_MAX_METASPACE=${JVM_MAX_METASPACE:-256m}
 JVM_MAX_GC_PAUSE_MILLIS=${JVM_MAX_GC_PAUSE_MILLIS:-200}
 JVM_G1_HEAP_REGION_SIZE=${JVM_G1_HEAP_REGION_SIZE:-4m}
 
+# Continuous Flight Recorder recording with the default (low overhead) settings, which include the
+# notebook upload, validation, storage and token verification events. Kept on disk for
+# JFR_MAX_AGE / JFR_MAX_SIZE; dump it with `jcmd <pid> JFR.dump name=continuous filename=...`.
+JFR_ENABLED=${JFR_ENABLED:-true}
+JFR_REPOSITORY=${JFR_REPOSITORY:-/tmp/jfr}
+JFR_MAX_AGE=${JFR_MAX_AGE:-6h}
+JFR_MAX_SIZE=${JFR_MAX_SIZE:-256m}
+JFR_OPTS=""
+if [ "${JFR_ENABLED}" = "true" ]; then
+    mkdir -p "${JFR_REPOSITORY}"
+    JFR_OPTS="-XX:FlightRecorderOptions=repository=${JFR_REPOSITORY}"
+    JFR_OPTS="${JFR_OPTS} -XX:StartFlightRecording=name=continuous,settings=default,disk=true"
+    JFR_OPTS="${JFR_OPTS},maxage=${JFR_MAX_AGE},maxsize=${JFR_MAX_SIZE}"
+fi
+
 # Execute the application
+# shellcheck disable=SC2086 # JFR_OPTS holds several options
 exec java \
     -Xmx"${JVM_MAX_HEAP}" \
     -Xms"${JVM_MIN_HEAP}" \
@@ -28,4 +44,5 @@ exec java \
     -XX:MaxGCPauseMillis="${JVM_MAX_GC_PAUSE_MILLIS}" \
     -XX:G1HeapRegionSize="${JVM_G1_HEAP_REGION_SIZE}" \
     -XX:+UseStringDeduplication \
+    ${JFR_OPTS} \
     -jar /app/sharing-service.jar
@@ -0,0 +1,53 @@
+package org.jupytereverywhere.controller;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jupytereverywhere.corpus.NotebookCorpus;
+import org.jupytereverywhere.corpus.NotebookShape;
+import org.jupytereverywhere.filter.CachedBodyFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.observation.ObservationRegistry;
+
+/** Extraction of the raw notebook JSON from the cached body of an upload request. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RawNotebookExtractionBenchmark {
+
+  @Param({"1024", "102400", "1048576", "10485760"})
+  private int sizeBytes;
+
+  private JupyterNotebookController controller;
+  private MockHttpServletRequest request;
+
+  @Setup
+  public void setUp() {
+    // Extraction only uses the object mapper
+    controller =
+        new JupyterNotebookController(
+            null, null, null, new ObjectMapper(), ObservationRegistry.NOOP);
+    request = new MockHttpServletRequest("POST", "/api/v1/notebooks");
+    String notebook =
+        new NotebookCorpus(NotebookCorpus.DEFAULT_SEED)
+            .notebookOfSize(NotebookShape.DEFAULT, sizeBytes, 0);
+    request.setAttribute(
+        CachedBodyFilter.CACHED_BODY_ATTRIBUTE,
+        "{\"notebook\": " + notebook + ", \"password\": null}");
+  }
+
+  @Benchmark
+  public String extractRawNotebookJson() {
+    return controller.extractRawNotebookJsonFromRequest(request, null);
+  }
+}
@@ -0,0 +1,48 @@
+package org.jupytereverywhere.service;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/** Issuing, verifying and parsing of session tokens, as done for every authenticated request. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtTokenServiceBenchmark {
+
+  private JwtTokenService jwtTokenService;
+  private String sessionId;
+  private String token;
+
+  @Setup
+  public void setUp() {
+    jwtTokenService =
+        new JwtTokenService(
+            "benchmark-secret-key-of-at-least-256-bits!", 60, new BCryptPasswordEncoder());
+    sessionId = UUID.randomUUID().toString();
+    token = jwtTokenService.generateToken(sessionId);
+  }
+
+  @Benchmark
+  public String generateToken() {
+    return jwtTokenService.generateToken(sessionId);
+  }
+
+  @Benchmark
+  public boolean validateToken() {
+    return jwtTokenService.validateToken(token);
+  }
+
+  @Benchmark
+  public UUID extractSessionIdFromToken() {
+    return jwtTokenService.extractSessionIdFromToken(token);
+  }
+}
@@ -0,0 +1,50 @@
+package org.jupytereverywhere.service.utils;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jupytereverywhere.corpus.NotebookCorpus;
+import org.jupytereverywhere.corpus.NotebookShape;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.observation.ObservationRegistry;
+
+/** Parsing and schema validation of valid notebooks, by nbformat version and size. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JupyterNotebookValidatorBenchmark {
+
+  @Param({"0", "1", "2", "3", "4", "5"})
+  private int nbformatMinor;
+
+  @Param({"1024", "102400", "1048576", "10485760"})
+  private int sizeBytes;
+
+  private JupyterNotebookValidator validator;
+  private String notebookJson;
+
+  @Setup
+  public void setUp() {
+    validator = new JupyterNotebookValidator(new ObjectMapper(), ObservationRegistry.NOOP);
+    notebookJson =
+        new NotebookCorpus(NotebookCorpus.DEFAULT_SEED)
+            .notebookOfSize(NotebookShape.DEFAULT.withNbformatMinor(nbformatMinor), sizeBytes, 0);
+    if (!validator.validateNotebook(notebookJson)) {
+      throw new IllegalStateException("Benchmark notebook is not valid");
+    }
+  }
+
+  @Benchmark
+  public boolean validateNotebook() {
+    return validator.validateNotebook(notebookJson);
+  }
+}
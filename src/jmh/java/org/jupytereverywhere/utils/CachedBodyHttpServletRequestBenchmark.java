@@ -0,0 +1,59 @@
+package org.jupytereverywhere.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.jupytereverywhere.corpus.NotebookCorpus;
+import org.jupytereverywhere.corpus.NotebookShape;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.mock.web.DelegatingServletInputStream;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import jakarta.servlet.ServletInputStream;
+
+/** Buffering of a request body by CachedBodyHttpServletRequest, and reading it back. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CachedBodyHttpServletRequestBenchmark {
+
+  @Param({"1024", "102400", "1048576", "10485760"})
+  private int sizeBytes;
+
+  private MockHttpServletRequest request;
+
+  @Setup
+  public void setUp() {
+    byte[] body =
+        new NotebookCorpus(NotebookCorpus.DEFAULT_SEED)
+            .notebookOfSize(NotebookShape.DEFAULT, sizeBytes, 0)
+            .getBytes(StandardCharsets.UTF_8);
+    // Every call reads the body from the start, like a new request would
+    request =
+        new MockHttpServletRequest("POST", "/api/v1/notebooks") {
+          @Override
+          public ServletInputStream getInputStream() {
+            return new DelegatingServletInputStream(new ByteArrayInputStream(body));
+          }
+        };
+  }
+
+  @Benchmark
+  public int cacheBody() throws IOException {
+    return new CachedBodyHttpServletRequest(request).getCachedBodyLength();
+  }
+
+  @Benchmark
+  public String cacheBodyAndReadAsString() throws IOException {
+    return new CachedBodyHttpServletRequest(request).getCachedBody();
+  }
+}
@@ -0,0 +1,151 @@
+package org.jupytereverywhere.loadtest;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Open-model load generator for a running sharing service.
+ *
+ * <p>Requests start at a constant rate, picked at random from a weighted mix of operations, each on
+ * its own virtual thread, whether or not earlier requests have completed. Latencies are recorded
+ * per operation in HdrHistograms from each request's intended start, which avoids coordinated
+ * omission, and written as a JSON report plus one HdrHistogram percentile file per operation.
+ *
+ * <p>Run with {@code ./gradlew loadTest -PloadTestArgs="--rate 100 --duration 120"}; see {@link
+ * LoadTestOptions#USAGE} for the options.
+ */
+public class LoadTest {
+
+  private static final long AWAIT_COMPLETION_SECONDS = 120;
+
+  private final LoadTestOptions options;
+  private final Workload workload;
+  private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+  private final Operation[] operations;
+  private final int[] cumulativeWeights;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final LongAdder dropped = new LongAdder();
+
+  LoadTest(LoadTestOptions options, Workload workload) {
+    this.options = options;
+    this.workload = workload;
+    this.operations = options.mix().keySet().toArray(Operation[]::new);
+    this.cumulativeWeights = new int[operations.length];
+    int total = 0;
+    for (int i = 0; i < operations.length; i++) {
+      total += options.mix().get(operations[i]);
+      cumulativeWeights[i] = total;
+    }
+    for (Operation operation : Operation.values()) {
+      stats.put(operation, new OperationStats());
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+    LoadTestOptions options;
+    try {
+      options = LoadTestOptions.parse(args);
+    } catch (IllegalArgumentException e) {
+      System.err.println(e.getMessage());
+      System.err.print(LoadTestOptions.USAGE);
+      System.exit(2);
+      return;
+    }
+
+    ObjectMapper objectMapper = new ObjectMapper();
+    try (HttpClient client =
+        HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build()) {
+      Workload workload = new Workload(client, objectMapper, options);
+      workload.seed(options.sessions(), options.seedNotebooks());
+
+      LoadTest loadTest = new LoadTest(options, workload);
+      Instant startedAt = Instant.now();
+      loadTest.run();
+
+      LoadTestReport report =
+          new LoadTestReport(options, startedAt, loadTest.stats, loadTest.dropped.sum());
+      report.write(objectMapper);
+      report.print(System.out);
+    }
+  }
+
+  private void run() throws InterruptedException {
+    long intervalNanos = TimeUnit.SECONDS.toNanos(1) / options.rate();
+    long start = System.nanoTime();
+    long measureFrom = start + options.warmup().toNanos();
+    long end = measureFrom + options.duration().toNanos();
+
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (long i = 0; ; i++) {
+        long intendedStart = start + i * intervalNanos;
+        if (intendedStart >= end) {
+          break;
+        }
+        long wait = intendedStart - System.nanoTime();
+        if (wait > 0) {
+          LockSupport.parkNanos(wait);
+        }
+
+        boolean measured = intendedStart >= measureFrom;
+        if (inFlight.get() >= options.maxInFlight()) {
+          if (measured) {
+            dropped.increment();
+          }
+          continue;
+        }
+        Operation operation = nextOperation();
+        inFlight.incrementAndGet();
+        executor.execute(() -> send(operation, intendedStart, measured));
+      }
+      executor.shutdown();
+      if (!executor.awaitTermination(AWAIT_COMPLETION_SECONDS, TimeUnit.SECONDS)) {
+        System.err.println("Requests still in flight after the run: " + inFlight.get());
+        executor.shutdownNow();
+      }
+    }
+  }
+
+  private Operation nextOperation() {
+    int totalWeight = cumulativeWeights[cumulativeWeights.length - 1];
+    int roll = ThreadLocalRandom.current().nextInt(totalWeight);
+    for (int i = 0; i < cumulativeWeights.length; i++) {
+      if (roll < cumulativeWeights[i]) {
+        return operations[i];
+      }
+    }
+    throw new IllegalStateException("Unreachable");
+  }
+
+  private void send(Operation operation, long intendedStart, boolean measured) {
+    long sentAt = System.nanoTime();
+    int status;
+    try {
+      status = workload.execute(operation);
+    } catch (IOException e) {
+      status = OperationStats.NO_RESPONSE;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    } finally {
+      inFlight.decrementAndGet();
+    }
+    if (measured) {
+      stats.get(operation).record(intendedStart, sentAt, System.nanoTime(), status);
+    }
+  }
+}
@@ -0,0 +1,152 @@
+package org.jupytereverywhere.loadtest;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jupytereverywhere.corpus.NotebookCorpus;
+
+/**
+ * Command line options of {@link LoadTest}.
+ *
+ * @param baseUrl the API base URL, e.g. http://localhost:8080/api/v1
+ * @param rate requests started per second, whatever the response times
+ * @param duration length of the measured run
+ * @param warmup length of the unmeasured run before it, at the same rate
+ * @param mix relative weight of each operation
+ * @param sessions sessions created before the run
+ * @param seedNotebooks notebooks uploaded before the run, so fetches and updates have targets
+ * @param notebooks directory of .ipynb files to upload, unless a corpus is generated
+ * @param corpusSize number of synthetic notebooks to upload instead, 0 to use {@code notebooks}
+ * @param corpusSeed seed of the synthetic notebooks
+ * @param headers extra headers sent with every request, e.g. the extra auth header
+ * @param maxInFlight requests in flight above which new ones are dropped and counted
+ * @param reportDir where the JSON report and the HdrHistogram percentile files are written
+ */
+record LoadTestOptions(
+    String baseUrl,
+    int rate,
+    Duration duration,
+    Duration warmup,
+    Map<Operation, Integer> mix,
+    int sessions,
+    int seedNotebooks,
+    Path notebooks,
+    int corpusSize,
+    long corpusSeed,
+    List<String[]> headers,
+    int maxInFlight,
+    Path reportDir) {
+
+  static final String USAGE =
+      """
+      Usage: LoadTest [options]
+        --base-url URL          API base URL (default http://localhost:8080/api/v1)
+        --rate N                requests started per second (default 50)
+        --duration SECONDS      measured run (default 60)
+        --warmup SECONDS        unmeasured run before it (default 10)
+        --mix OP=W,...          weights of issue, refresh, upload, update and fetch
+                                (default issue=5,refresh=5,upload=20,update=15,fetch=55)
+        --sessions N            sessions created before the run (default 20)
+        --seed-notebooks N      notebooks uploaded before the run (default 20)
+        --notebooks DIR         .ipynb files to upload (default scripts/example-notebooks)
+        --corpus N              upload N generated notebooks instead of --notebooks
+        --corpus-seed SEED      seed of the generated notebooks (default 42)
+        --header NAME:VALUE     extra header sent with every request, repeatable
+        --max-in-flight N       requests in flight before new ones are dropped (default 10000)
+        --report-dir DIR        report directory (default build/reports/loadtest)
+      """;
+
+  static LoadTestOptions parse(String[] args) {
+    String baseUrl = "http://localhost:8080/api/v1";
+    int rate = 50;
+    Duration duration = Duration.ofSeconds(60);
+    Duration warmup = Duration.ofSeconds(10);
+    Map<Operation, Integer> mix = parseMix("issue=5,refresh=5,upload=20,update=15,fetch=55");
+    int sessions = 20;
+    int seedNotebooks = 20;
+    Path notebooks = Paths.get("scripts/example-notebooks");
+    int corpusSize = 0;
+    long corpusSeed = NotebookCorpus.DEFAULT_SEED;
+    List<String[]> headers = new ArrayList<>();
+    int maxInFlight = 10_000;
+    Path reportDir = Paths.get("build/reports/loadtest");
+
+    for (int i = 0; i < args.length; i++) {
+      String option = args[i];
+      if (i + 1 >= args.length) {
+        throw new IllegalArgumentException("Missing value for " + option);
+      }
+      String value = args[++i];
+      switch (option) {
+        case "--base-url" -> baseUrl = value.replaceAll("/+$", "");
+        case "--rate" -> rate = positive(option, value);
+        case "--duration" -> duration = Duration.ofSeconds(positive(option, value));
+        case "--warmup" -> warmup = Duration.ofSeconds(Integer.parseInt(value));
+        case "--mix" -> mix = parseMix(value);
+        case "--sessions" -> sessions = positive(option, value);
+        case "--seed-notebooks" -> seedNotebooks = positive(option, value);
+        case "--notebooks" -> notebooks = Paths.get(value);
+        case "--corpus" -> corpusSize = positive(option, value);
+        case "--corpus-seed" -> corpusSeed = Long.parseLong(value);
+        case "--header" -> headers.add(parseHeader(value));
+        case "--max-in-flight" -> maxInFlight = positive(option, value);
+        case "--report-dir" -> reportDir = Paths.get(value);
+        default -> throw new IllegalArgumentException("Unknown option " + option);
+      }
+    }
+    return new LoadTestOptions(
+        baseUrl,
+        rate,
+        duration,
+        warmup,
+        mix,
+        sessions,
+        seedNotebooks,
+        notebooks,
+        corpusSize,
+        corpusSeed,
+        headers,
+        maxInFlight,
+        reportDir);
+  }
+
+  private static int positive(String option, String value) {
+    int number = Integer.parseInt(value);
+    if (number <= 0) {
+      throw new IllegalArgumentException(option + " must be positive");
+    }
+    return number;
+  }
+
+  static Map<Operation, Integer> parseMix(String value) {
+    Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+    for (String entry : value.split(",")) {
+      String[] parts = entry.trim().split("=");
+      if (parts.length != 2) {
+        throw new IllegalArgumentException("Invalid mix entry " + entry);
+      }
+      int weight = Integer.parseInt(parts[1].trim());
+      if (weight < 0) {
+        throw new IllegalArgumentException("Negative weight in mix entry " + entry);
+      }
+      mix.put(Operation.fromName(parts[0].trim()), weight);
+    }
+    if (mix.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+      throw new IllegalArgumentException("The mix needs at least one positive weight");
+    }
+    return mix;
+  }
+
+  private static String[] parseHeader(String value) {
+    int colon = value.indexOf(':');
+    if (colon <= 0) {
+      throw new IllegalArgumentException("Invalid header " + value + ", expected NAME:VALUE");
+    }
+    return new String[] {value.substring(0, colon).trim(), value.substring(colon + 1).trim()};
+  }
+}
@@ -0,0 +1,126 @@
+package org.jupytereverywhere.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.HdrHistogram.Histogram;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Writes the results of a run to {@code report.json}, with throughput, status codes and latency
+ * percentiles in milliseconds per operation, and to one {@code <operation>.hgrm} file per operation
+ * with the full response time distribution, which HdrHistogram's plotter reads.
+ */
+class LoadTestReport {
+
+  private static final double NANOS_PER_MILLI = 1_000_000.0;
+  private static final double[] PERCENTILES = {50.0, 90.0, 99.0, 99.9};
+  private static final String[] PERCENTILE_KEYS = {"p50", "p90", "p99", "p999"};
+
+  private final LoadTestOptions options;
+  private final Instant startedAt;
+  private final Map<Operation, OperationStats> stats;
+  private final long dropped;
+
+  LoadTestReport(
+      LoadTestOptions options,
+      Instant startedAt,
+      Map<Operation, OperationStats> stats,
+      long dropped) {
+    this.options = options;
+    this.startedAt = startedAt;
+    this.stats = stats;
+    this.dropped = dropped;
+  }
+
+  void write(ObjectMapper objectMapper) throws IOException {
+    Path directory = options.reportDir();
+    Files.createDirectories(directory);
+    objectMapper
+        .writerWithDefaultPrettyPrinter()
+        .writeValue(directory.resolve("report.json").toFile(), toJson());
+    for (Map.Entry<Operation, OperationStats> entry : stats.entrySet()) {
+      if (entry.getValue().count() == 0) {
+        continue;
+      }
+      Path file = directory.resolve(entry.getKey().key() + ".hgrm");
+      try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+        entry.getValue().responseTime().outputPercentileDistribution(out, NANOS_PER_MILLI);
+      }
+    }
+  }
+
+  Map<String, Object> toJson() {
+    Map<String, Object> json = new LinkedHashMap<>();
+    json.put("baseUrl", options.baseUrl());
+    json.put("startedAt", startedAt.toString());
+    json.put("targetRatePerSecond", options.rate());
+    json.put("durationSeconds", options.duration().toSeconds());
+    json.put("warmupSeconds", options.warmup().toSeconds());
+    json.put("dropped", dropped);
+
+    Map<String, Object> operations = new LinkedHashMap<>();
+    for (Map.Entry<Operation, OperationStats> entry : stats.entrySet()) {
+      OperationStats operationStats = entry.getValue();
+      Map<String, Object> operation = new LinkedHashMap<>();
+      operation.put("endpoint", entry.getKey().endpoint());
+      operation.put("count", operationStats.count());
+      operation.put("errors", operationStats.errors());
+      operation.put(
+          "throughputPerSecond",
+          (double) operationStats.count() / options.duration().toSeconds());
+      operation.put("statuses", operationStats.statuses());
+      operation.put("responseTimeMs", percentiles(operationStats.responseTime()));
+      operation.put("serviceTimeMs", percentiles(operationStats.serviceTime()));
+      operations.put(entry.getKey().key(), operation);
+    }
+    json.put("operations", operations);
+    return json;
+  }
+
+  private static Map<String, Double> percentiles(Histogram histogram) {
+    Map<String, Double> percentiles = new LinkedHashMap<>();
+    if (histogram.getTotalCount() == 0) {
+      return percentiles;
+    }
+    for (int i = 0; i < PERCENTILES.length; i++) {
+      percentiles.put(
+          PERCENTILE_KEYS[i], histogram.getValueAtPercentile(PERCENTILES[i]) / NANOS_PER_MILLI);
+    }
+    percentiles.put("max", histogram.getMaxValue() / NANOS_PER_MILLI);
+    percentiles.put("mean", histogram.getMean() / NANOS_PER_MILLI);
+    return percentiles;
+  }
+
+  void print(PrintStream out) {
+    out.printf(
+        "%-22s %8s %7s %10s %10s %10s %10s %10s%n",
+        "endpoint", "count", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+    for (Map.Entry<Operation, OperationStats> entry : stats.entrySet()) {
+      if (entry.getValue().count() == 0) {
+        continue;
+      }
+      Histogram histogram = entry.getValue().responseTime();
+      out.printf(
+          "%-22s %8d %7d %10.2f %10.2f %10.2f %10.2f %10.2f%n",
+          entry.getKey().endpoint(),
+          entry.getValue().count(),
+          entry.getValue().errors(),
+          histogram.getValueAtPercentile(50.0) / NANOS_PER_MILLI,
+          histogram.getValueAtPercentile(90.0) / NANOS_PER_MILLI,
+          histogram.getValueAtPercentile(99.0) / NANOS_PER_MILLI,
+          histogram.getValueAtPercentile(99.9) / NANOS_PER_MILLI,
+          histogram.getMaxValue() / NANOS_PER_MILLI);
+    }
+    if (dropped > 0) {
+      out.println("Dropped above --max-in-flight: " + dropped);
+    }
+    out.println("Report written to " + options.reportDir().toAbsolutePath());
+  }
+}
@@ -0,0 +1,34 @@
+package org.jupytereverywhere.loadtest;
+
+import java.util.Locale;
+
+/** The requests replayed by {@link LoadTest}, one latency histogram each. */
+enum Operation {
+  ISSUE("POST /auth/issue"),
+  REFRESH("POST /auth/refresh"),
+  UPLOAD("POST /notebooks"),
+  UPDATE("PUT /notebooks/{id}"),
+  FETCH("GET /notebooks/{id}");
+
+  private final String endpoint;
+
+  Operation(String endpoint) {
+    this.endpoint = endpoint;
+  }
+
+  String endpoint() {
+    return endpoint;
+  }
+
+  String key() {
+    return name().toLowerCase(Locale.ROOT);
+  }
+
+  static Operation fromName(String name) {
+    try {
+      return valueOf(name.toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Unknown operation " + name, e);
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package org.jupytereverywhere.loadtest;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Latencies and outcomes of one {@link Operation}, recorded in nanoseconds.
+ *
+ * <p>The response time is measured from when the request was due to start, not from when it was
+ * sent, so a stalled server shows up in the percentiles instead of silently lowering the request
+ * rate. The service time, from send to response, is kept alongside for comparison.
+ */
+class OperationStats {
+
+  private static final int SIGNIFICANT_DIGITS = 3;
+  // Status recorded for requests that got no HTTP response at all
+  static final int NO_RESPONSE = 0;
+
+  private final Histogram responseTime = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+  private final Histogram serviceTime = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+  private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+  private final LongAdder errors = new LongAdder();
+
+  void record(long intendedStartNanos, long sentNanos, long endNanos, int status) {
+    responseTime.recordValue(endNanos - intendedStartNanos);
+    serviceTime.recordValue(endNanos - sentNanos);
+    statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+    if (status < 200 || status >= 300) {
+      errors.increment();
+    }
+  }
+
+  Histogram responseTime() {
+    return responseTime;
+  }
+
+  Histogram serviceTime() {
+    return serviceTime;
+  }
+
+  long count() {
+    return responseTime.getTotalCount();
+  }
+
+  long errors() {
+    return errors.sum();
+  }
+
+  Map<Integer, Long> statuses() {
+    Map<Integer, Long> counts = new TreeMap<>();
+    statuses.forEach((status, count) -> counts.put(status, count.sum()));
+    return counts;
+  }
+}
@@ -0,0 +1,188 @@
+package org.jupytereverywhere.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+import org.jupytereverywhere.corpus.NotebookCorpus;
+import org.jupytereverywhere.corpus.NotebookShape;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * The state shared by the requests of a run, sessions and the notebooks uploaded with them, and
+ * the HTTP calls of each {@link Operation}.
+ */
+class Workload {
+
+  private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(60);
+  private static final int MAX_NOTEBOOKS = 10_000;
+
+  /** A session token, replaced in place when refreshed so its notebooks stay updatable. */
+  private static final class Session {
+    private volatile String token;
+
+    private Session(String token) {
+      this.token = token;
+    }
+  }
+
+  private record Notebook(String id, Session owner) {}
+
+  private final HttpClient client;
+  private final ObjectMapper objectMapper;
+  private final String baseUrl;
+  private final List<String[]> headers;
+  private final List<String> notebookBodies;
+  private final List<Session> sessions = new CopyOnWriteArrayList<>();
+  private final List<Notebook> notebooks = new CopyOnWriteArrayList<>();
+
+  Workload(HttpClient client, ObjectMapper objectMapper, LoadTestOptions options)
+      throws IOException {
+    this.client = client;
+    this.objectMapper = objectMapper;
+    this.baseUrl = options.baseUrl();
+    this.headers = options.headers();
+    this.notebookBodies =
+        options.corpusSize() > 0
+            ? new NotebookCorpus(options.corpusSeed())
+                .notebooks(NotebookShape.DEFAULT, options.corpusSize())
+            : readNotebooks(options.notebooks());
+  }
+
+  private List<String> readNotebooks(Path directory) throws IOException {
+    List<String> bodies = new ArrayList<>();
+    try (Stream<Path> files = Files.list(directory)) {
+      for (Path file : files.filter(f -> f.toString().endsWith(".ipynb")).sorted().toList()) {
+        bodies.add(objectMapper.writeValueAsString(objectMapper.readTree(file.toFile())));
+      }
+    }
+    if (bodies.isEmpty()) {
+      throw new IllegalArgumentException("No .ipynb files in " + directory);
+    }
+    return bodies;
+  }
+
+  /** Creates the sessions and notebooks the measured requests pick from. */
+  void seed(int sessionCount, int notebookCount) throws IOException, InterruptedException {
+    for (int i = 0; i < sessionCount; i++) {
+      expectSuccess(Operation.ISSUE, execute(Operation.ISSUE));
+    }
+    for (int i = 0; i < notebookCount; i++) {
+      expectSuccess(Operation.UPLOAD, execute(Operation.UPLOAD));
+    }
+  }
+
+  private static void expectSuccess(Operation operation, int status) {
+    if (status < 200 || status >= 300) {
+      throw new IllegalStateException(
+          "Seeding failed: " + operation.endpoint() + " returned " + status);
+    }
+  }
+
+  /**
+   * Sends one request and returns its status code. Operations that need a session or a notebook
+   * fall back to issuing a session when there is none yet.
+   */
+  int execute(Operation operation) throws IOException, InterruptedException {
+    return switch (operation) {
+      case ISSUE -> issue();
+      case REFRESH -> sessions.isEmpty() ? issue() : refresh(pick(sessions));
+      case UPLOAD -> sessions.isEmpty() ? issue() : upload(pick(sessions));
+      case UPDATE -> notebooks.isEmpty() ? issue() : update(pick(notebooks));
+      case FETCH -> notebooks.isEmpty() ? issue() : fetch(pick(notebooks));
+    };
+  }
+
+  private int issue() throws IOException, InterruptedException {
+    HttpResponse<String> response =
+        send(request("/auth/issue").POST(BodyPublishers.noBody()));
+    if (isSuccess(response)) {
+      sessions.add(new Session(token(response)));
+    }
+    return response.statusCode();
+  }
+
+  private int refresh(Session session) throws IOException, InterruptedException {
+    ObjectNode body = objectMapper.createObjectNode().put("token", session.token);
+    HttpResponse<String> response =
+        send(
+            request("/auth/refresh")
+                .header("Content-Type", "application/json")
+                .POST(BodyPublishers.ofString(objectMapper.writeValueAsString(body))));
+    if (isSuccess(response)) {
+      session.token = token(response);
+    }
+    return response.statusCode();
+  }
+
+  private int upload(Session session) throws IOException, InterruptedException {
+    String body = "{\"notebook\":" + pick(notebookBodies) + "}";
+    HttpResponse<String> response =
+        send(
+            authorized(request("/notebooks"), session)
+                .header("Content-Type", "application/json")
+                .POST(BodyPublishers.ofString(body)));
+    if (isSuccess(response) && notebooks.size() < MAX_NOTEBOOKS) {
+      String id = objectMapper.readTree(response.body()).path("notebook").path("id").asText();
+      notebooks.add(new Notebook(id, session));
+    }
+    return response.statusCode();
+  }
+
+  private int update(Notebook notebook) throws IOException, InterruptedException {
+    HttpResponse<String> response =
+        send(
+            authorized(request("/notebooks/" + notebook.id()), notebook.owner())
+                .header("Content-Type", "application/json")
+                .PUT(BodyPublishers.ofString(pick(notebookBodies))));
+    return response.statusCode();
+  }
+
+  private int fetch(Notebook notebook) throws IOException, InterruptedException {
+    return send(authorized(request("/notebooks/" + notebook.id()), notebook.owner()).GET())
+        .statusCode();
+  }
+
+  private HttpRequest.Builder request(String path) {
+    HttpRequest.Builder builder =
+        HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(REQUEST_TIMEOUT);
+    for (String[] header : headers) {
+      builder.header(header[0], header[1]);
+    }
+    return builder;
+  }
+
+  private static HttpRequest.Builder authorized(HttpRequest.Builder builder, Session session) {
+    return builder.header("Authorization", "Bearer " + session.token);
+  }
+
+  private HttpResponse<String> send(HttpRequest.Builder builder)
+      throws IOException, InterruptedException {
+    return client.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+  }
+
+  private String token(HttpResponse<String> response) throws IOException {
+    return objectMapper.readTree(response.body()).path("token").asText();
+  }
+
+  private static boolean isSuccess(HttpResponse<?> response) {
+    return response.statusCode() >= 200 && response.statusCode() < 300;
+  }
+
+  private static <T> T pick(List<T> items) {
+    return items.get(ThreadLocalRandom.current().nextInt(items.size()));
+  }
+}
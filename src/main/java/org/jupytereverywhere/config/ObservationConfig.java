@@ -0,0 +1,26 @@
+package org.jupytereverywhere.config;
+
+import org.jupytereverywhere.service.metrics.FlightRecorderObservationHandler;
+import org.jupytereverywhere.service.metrics.NotebookObservationContext;
+import org.jupytereverywhere.service.metrics.ServerTimingObservationHandler;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Observation handlers that Spring Boot registers next to its meter and tracing handlers, so a
+ * {@link NotebookObservationContext} observation also feeds the {@code Server-Timing} header and
+ * Flight Recorder.
+ */
+@Configuration
+public class ObservationConfig {
+
+  @Bean
+  public ServerTimingObservationHandler serverTimingObservationHandler() {
+    return new ServerTimingObservationHandler();
+  }
+
+  @Bean
+  public FlightRecorderObservationHandler flightRecorderObservationHandler() {
+    return new FlightRecorderObservationHandler();
+  }
+}
@@ -0,0 +1,89 @@
+package org.jupytereverywhere.config;
+
+import javax.sql.DataSource;
+
+import org.jupytereverywhere.filter.ReadYourWritesFilter;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Adds a read replica when {@code database.replica.url} is not empty (an unset {@code
+ * DB_REPLICA_URL} resolves to an empty value, which {@code @ConditionalOnProperty} would accept).
+ * Read-only transactions are routed to it by {@link ReplicaRoutingDataSource}, with
+ * read-your-writes positions exchanged with clients by {@link ReadYourWritesFilter}; Flyway and
+ * all writes keep using the primary. The replica uses the primary's credentials unless {@code
+ * database.replica.username} and {@code database.replica.password} are set.
+ */
+@Configuration
+@ConditionalOnExpression("'${database.replica.url:}' != ''")
+public class ReadReplicaConfig {
+
+  @Bean
+  @FlywayDataSource
+  @ConfigurationProperties("spring.datasource.hikari")
+  public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+    HikariDataSource dataSource =
+        properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    dataSource.setPoolName("primary");
+    return dataSource;
+  }
+
+  @Bean
+  public HikariDataSource replicaDataSource(
+      DataSourceProperties properties,
+      @Value("${database.replica.url}") String url,
+      @Value("${database.replica.username:}") String username,
+      @Value("${database.replica.password:}") String password,
+      @Value("${database.replica.maximum-pool-size:10}") int maximumPoolSize) {
+    HikariDataSource dataSource =
+        properties.initializeDataSourceBuilder().type(HikariDataSource.class).url(url).build();
+    if (!username.isEmpty()) {
+      dataSource.setUsername(username);
+      dataSource.setPassword(password);
+    }
+    dataSource.setPoolName("replica");
+    dataSource.setMaximumPoolSize(maximumPoolSize);
+    dataSource.setReadOnly(true);
+    return dataSource;
+  }
+
+  @Bean
+  public ReplicaLagMonitor replicaLagMonitor(
+      @Qualifier("replicaDataSource") DataSource replicaDataSource,
+      @Value("${database.replica.max-lag-ms:1000}") long maxLagMs,
+      @Value("${database.replica.lag-check-interval-ms:1000}") long checkIntervalMs) {
+    return new ReplicaLagMonitor(replicaDataSource, maxLagMs, checkIntervalMs);
+  }
+
+  @Bean
+  @Primary
+  public DataSource dataSource(
+      @Qualifier("primaryDataSource") DataSource primaryDataSource,
+      @Qualifier("replicaDataSource") DataSource replicaDataSource,
+      ReplicaLagMonitor replicaLagMonitor) {
+    return new LazyConnectionDataSourceProxy(
+        new ReplicaRoutingDataSource(primaryDataSource, replicaDataSource, replicaLagMonitor));
+  }
+
+  /** Runs before CachedBodyFilter and the security filters, so their writes are covered too. */
+  @Bean
+  public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(
+      @Qualifier("primaryDataSource") DataSource primaryDataSource) {
+    FilterRegistrationBean<ReadYourWritesFilter> registration =
+        new FilterRegistrationBean<>(new ReadYourWritesFilter(primaryDataSource));
+    registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+    return registration;
+  }
+}
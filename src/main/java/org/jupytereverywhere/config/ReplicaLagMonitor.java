@@ -0,0 +1,114 @@
+package org.jupytereverywhere.config;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.apache.logging.log4j.message.StringMapMessage;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.lang.NonNull;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Periodically measures how far the read replica is behind the primary, and which WAL position it
+ * has replayed for read-your-writes routing. The replica is only used
+ * while the last measurement succeeded and was within {@code database.replica.max-lag-ms}; until
+ * the first measurement, and whenever the replica cannot be reached, reads go to the primary.
+ */
+@Log4j2
+public class ReplicaLagMonitor implements ApplicationListener<ApplicationReadyEvent> {
+
+  private static final String MESSAGE_KEY = "Message";
+
+  /**
+   * The lag, and the WAL position the replica has replayed. The lag is zero when everything
+   * received has been replayed: replay timestamps stand still while the primary is idle, so without
+   * this an idle but caught-up replica would look more and more behind. On a server that is not in
+   * recovery, which has no lag either, the replay position is its own current position.
+   */
+  static final String REPLICATION_SQL =
+      "SELECT COALESCE(CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0"
+          + " ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000 END, 0)"
+          + "::bigint,"
+          + " (COALESCE(pg_last_wal_replay_lsn(), pg_current_wal_insert_lsn()) - '0/0')::bigint";
+
+  private final JdbcTemplate replicaJdbcTemplate;
+  private final long maxLagMs;
+  private final long checkIntervalMs;
+
+  private volatile boolean replicaUsable;
+  private volatile long replayedLsn = -1L;
+  private ScheduledExecutorService checker;
+
+  public ReplicaLagMonitor(DataSource replicaDataSource, long maxLagMs, long checkIntervalMs) {
+    this.replicaJdbcTemplate = new JdbcTemplate(replicaDataSource);
+    this.maxLagMs = maxLagMs;
+    this.checkIntervalMs = checkIntervalMs;
+  }
+
+  public boolean isReplicaUsable() {
+    return replicaUsable;
+  }
+
+  /**
+   * Whether the replica had replayed WAL position {@code lsn} at the last measurement. A position
+   * below zero, i.e. no position, is always replayed.
+   */
+  public boolean hasReplayed(long lsn) {
+    return lsn < 0 || replayedLsn >= lsn;
+  }
+
+  @Override
+  public void onApplicationEvent(@NonNull ApplicationReadyEvent event) {
+    checker =
+        Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("replica-lag-monitor").daemon().factory());
+    checker.scheduleWithFixedDelay(this::check, 0L, checkIntervalMs, TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    if (checker != null) {
+      checker.shutdownNow();
+    }
+  }
+
+  void check() {
+    boolean usable;
+    String lag;
+    try {
+      long[] replication =
+          replicaJdbcTemplate.queryForObject(
+              REPLICATION_SQL, (rs, rowNum) -> new long[] {rs.getLong(1), rs.getLong(2)});
+      long lagMs = replication[0];
+      usable = lagMs <= maxLagMs;
+      lag = String.valueOf(lagMs);
+      replayedLsn = replication[1];
+    } catch (RuntimeException e) {
+      usable = false;
+      lag = "unknown";
+      log.debug(
+          new StringMapMessage()
+              .with(MESSAGE_KEY, "Replica lag check failed")
+              .with("Error", String.valueOf(e.getMessage())),
+          e);
+    }
+
+    if (usable != replicaUsable) {
+      log.info(
+          new StringMapMessage()
+              .with(
+                  MESSAGE_KEY,
+                  usable ? "Routing reads to the replica" : "Routing reads to the primary")
+              .with("ReplicaLagMs", lag)
+              .with("MaxLagMs", String.valueOf(maxLagMs)));
+    }
+    replicaUsable = usable;
+  }
+}
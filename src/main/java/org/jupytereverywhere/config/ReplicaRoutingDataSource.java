@@ -0,0 +1,66 @@
+package org.jupytereverywhere.config;
+
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.jupytereverywhere.utils.ReadYourWrites;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends read-only transactions to the replica and everything else to the primary.
+ *
+ * <p>A read-only transaction still goes to the primary while the replica is lagging (see {@link
+ * ReplicaLagMonitor}), and while the replica has not replayed the last write the client was told
+ * about (see {@link ReadYourWrites}), so a client always sees its own uploads and updates,
+ * whichever instance serves it.
+ *
+ * <p>The routing decision is made when a connection is first used, so this data source has to be
+ * wrapped in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}; otherwise
+ * the connection would be chosen before the transaction's read-only flag is set.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+  enum Target {
+    PRIMARY,
+    REPLICA
+  }
+
+  private final ReplicaLagMonitor lagMonitor;
+
+  public ReplicaRoutingDataSource(
+      DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor) {
+    this.lagMonitor = lagMonitor;
+    setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+    setDefaultTargetDataSource(primary);
+    afterPropertiesSet();
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+      if (ReadYourWrites.isTracking()
+          && TransactionSynchronizationManager.isSynchronizationActive()) {
+        recordWriteOnCommit();
+      }
+      return Target.PRIMARY;
+    }
+
+    return lagMonitor.isReplicaUsable() && lagMonitor.hasReplayed(ReadYourWrites.requiredLsn())
+        ? Target.REPLICA
+        : Target.PRIMARY;
+  }
+
+  /** Only committed writes are reported to the client: a rolled back one is not on the replica. */
+  private static void recordWriteOnCommit() {
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            ReadYourWrites.recordWrite();
+          }
+        });
+  }
+}
@@ -0,0 +1,59 @@
+package org.jupytereverywhere.config;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.jupytereverywhere.service.metrics.NotebookObservationContext;
+import org.jupytereverywhere.utils.ServerTiming;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.observation.ObservationRegistry;
+
+/**
+ * Observes Spring Data repository calls as {@code notebook.repository}, by repository and method,
+ * counting them towards the {@code db} stage of {@link ServerTiming} and tracing each as a span
+ * named after the repository and method, e.g. {@code JupyterNotebookRepository.saveAndFlush}.
+ */
+@Component
+public class RepositoryInstrumentationPostProcessor implements BeanPostProcessor {
+
+  private static final String OBSERVATION_NAME = "notebook.repository";
+
+  // Looked up on first use: post-processors are created before the observation registry
+  private final ObjectProvider<ObservationRegistry> observationRegistryProvider;
+
+  public RepositoryInstrumentationPostProcessor(
+      ObjectProvider<ObservationRegistry> observationRegistryProvider) {
+    this.observationRegistryProvider = observationRegistryProvider;
+  }
+
+  @Override
+  public Object postProcessBeforeInitialization(@NonNull Object bean, @NonNull String beanName) {
+    if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+      factoryBean.addRepositoryFactoryCustomizer(
+          factory ->
+              factory.addRepositoryProxyPostProcessor(
+                  (proxyFactory, repositoryInformation) ->
+                      proxyFactory.addAdvice(
+                          observing(
+                              repositoryInformation.getRepositoryInterface().getSimpleName()))));
+    }
+    return bean;
+  }
+
+  private MethodInterceptor observing(String repositoryName) {
+    return invocation -> {
+      String methodName = invocation.getMethod().getName();
+      return NotebookObservationContext.observation(
+              OBSERVATION_NAME,
+              ServerTiming.Stage.DB,
+              observationRegistryProvider.getIfAvailable(() -> ObservationRegistry.NOOP))
+          .contextualName(repositoryName + "." + methodName)
+          .lowCardinalityKeyValue("repository", repositoryName)
+          .lowCardinalityKeyValue("method", methodName)
+          .observeChecked(invocation::proceed);
+    };
+  }
+}
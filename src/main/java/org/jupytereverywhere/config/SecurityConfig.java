@@ -4,6 +4,7 @@ import java.util.Arrays;
 
 import org.jupytereverywhere.filter.JwtRequestFilter;
 import org.jupytereverywhere.filter.RequestSizeLimitFilter;
+import org.jupytereverywhere.utils.ReadYourWrites;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -78,6 +79,10 @@ public class SecurityConfig {
     } else {
       configuration.addExposedHeader("Authorization");
       configuration.addExposedHeader("Content-Type");
+      // The notebook version, sent back in If-Match by clients updating it
+      configuration.addExposedHeader("ETag");
+      // The read-your-writes position, sent back by clients when a read replica is used
+      configuration.addExposedHeader(ReadYourWrites.HEADER);
       configuration.addExposedHeader("X-Requested-With");
       configuration.addExposedHeader("Accept");
       configuration.addExposedHeader("Origin");
@@ -6,6 +6,9 @@ public class SecurityConstants {
   protected static final String[] PUBLIC_URLS = {
     ApiConstants.API_BASE_URL + "/auth/issue",
     ApiConstants.API_BASE_URL + "/auth/refresh",
-    ApiConstants.API_BASE_URL + "/health"
+    ApiConstants.API_BASE_URL + "/health",
+    // Served on the management port only
+    "/actuator/health",
+    "/actuator/prometheus"
   };
 }
@@ -1,6 +1,11 @@
 package org.jupytereverywhere.config;
 
+import java.nio.file.Paths;
+import java.time.Duration;
+
 import org.jupytereverywhere.service.StorageService;
+import org.jupytereverywhere.service.cache.LocalDiskCacheStorageService;
+import org.jupytereverywhere.service.metrics.MeteredStorageService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationContext;
@@ -8,20 +13,58 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 
+import io.micrometer.observation.ObservationRegistry;
+
 @Configuration
 public class StorageConfig {
 
   @Value("${storage.type:file}")
   private String storageType;
 
+  @Value("${storage.cache.enabled:false}")
+  private boolean cacheEnabled;
+
+  @Value("${storage.cache.path:/tmp/jupytereverywhere/notebook-cache}")
+  private String cachePath;
+
+  @Value("${storage.cache.max-size-bytes:1073741824}")
+  private long cacheMaxSizeBytes;
+
+  @Value("${storage.cache.max-age-seconds:300}")
+  private long cacheMaxAgeSeconds;
+
   @Autowired private ApplicationContext context;
 
+  @Autowired private ObservationRegistry observationRegistry;
+
+  /**
+   * The configured backend, optionally behind the local disk cache. Both are observed separately,
+   * so cache hits and backend latency can be told apart.
+   */
   @Bean
   @Primary
   public StorageService storageService() {
+    StorageService backend;
+    String backendName;
     if ("s3".equalsIgnoreCase(storageType)) {
-      return context.getBean("s3StorageService", StorageService.class);
+      backend = context.getBean("s3StorageService", StorageService.class);
+      backendName = "s3";
+    } else {
+      backend = context.getBean("fileStorageService", StorageService.class);
+      backendName = "file";
+    }
+    backend = new MeteredStorageService(backend, backendName, observationRegistry);
+
+    if (cacheEnabled) {
+      return new MeteredStorageService(
+          new LocalDiskCacheStorageService(
+              backend,
+              Paths.get(cachePath),
+              cacheMaxSizeBytes,
+              Duration.ofSeconds(cacheMaxAgeSeconds)),
+          "cache",
+          observationRegistry);
     }
-    return context.getBean("fileStorageService", StorageService.class);
+    return backend;
   }
 }
@@ -0,0 +1,64 @@
+package org.jupytereverywhere.config;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import org.jupytereverywhere.service.metrics.FileSpanExporter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.web.filter.ServerHttpObservationFilter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.observation.ObservationRegistry;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.instrumentation.awssdk.v2_2.AwsSdkTelemetry;
+import jakarta.servlet.DispatcherType;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+
+/**
+ * Tracing setup on top of Spring Boot's Micrometer Tracing auto-configuration, which samples
+ * requests at {@code management.tracing.sampling.probability} (none by default) and exports spans
+ * over OTLP.
+ *
+ * <p>The request observation, named after the controller route, is started by the observation
+ * filter registered here at HIGHEST_PRECEDENCE, so the observations of all other filters are its
+ * children.
+ * Spring Boot would otherwise register it at HIGHEST_PRECEDENCE + 1, after RequestSizeLimitFilter.
+ */
+@Configuration
+public class TracingConfig {
+
+  @Value("${tracing.file-exporter.path:}")
+  private String fileExporterPath;
+
+  @Bean
+  public FilterRegistrationBean<ServerHttpObservationFilter> webMvcObservationFilter(
+      ObservationRegistry observationRegistry) {
+    FilterRegistrationBean<ServerHttpObservationFilter> registration =
+        new FilterRegistrationBean<>(
+            new ServerHttpObservationFilter(
+                observationRegistry, new DefaultServerRequestObservationConvention()));
+    registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+    registration.setDispatcherTypes(DispatcherType.REQUEST, DispatcherType.ASYNC);
+    return registration;
+  }
+
+  /** Spans for the S3 requests made by the AWS SDK, as children of the storage spans. */
+  @Bean
+  public ExecutionInterceptor awsSdkTracingInterceptor(OpenTelemetry openTelemetry) {
+    return AwsSdkTelemetry.create(openTelemetry).newExecutionInterceptor();
+  }
+
+  /** Picked up by Spring Boot next to the OTLP exporter. */
+  @Bean
+  @ConditionalOnProperty(name = "tracing.file-exporter.path")
+  public FileSpanExporter fileSpanExporter(ObjectMapper objectMapper) throws IOException {
+    return new FileSpanExporter(Paths.get(fileExporterPath), objectMapper);
+  }
+}
@@ -0,0 +1,21 @@
+package org.jupytereverywhere.config;
+
+/** Names of the observation key values shared by the notebook upload stages. */
+public class TracingConstants {
+  private TracingConstants() {}
+
+  /** Size of the notebook JSON, in bytes. */
+  public static final String NOTEBOOK_SIZE_TAG = "notebook.size.bytes";
+
+  /** Length of the notebook JSON, in characters. */
+  public static final String NOTEBOOK_LENGTH_TAG = "notebook.length";
+
+  /** nbformat version of the notebook, e.g. "4.5". */
+  public static final String NOTEBOOK_NBFORMAT_TAG = "notebook.nbformat";
+
+  /** Id of the notebook being uploaded, once it is known. */
+  public static final String NOTEBOOK_ID_TAG = "notebook.id";
+
+  /** How the observed operation ended, e.g. "success" or "error". */
+  public static final String OUTCOME_TAG = "outcome";
+}
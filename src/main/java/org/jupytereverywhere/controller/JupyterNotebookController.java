@@ -1,36 +1,56 @@
 package org.jupytereverywhere.controller;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
 import java.util.UUID;
 
 import org.apache.logging.log4j.message.StringMapMessage;
 import org.jupytereverywhere.dto.JupyterNotebookDTO;
 import org.jupytereverywhere.exception.InvalidNotebookException;
+import org.jupytereverywhere.exception.InvalidNotebookPatchException;
 import org.jupytereverywhere.exception.InvalidNotebookPasswordException;
 import org.jupytereverywhere.exception.NotebookNotFoundException;
 import org.jupytereverywhere.exception.NotebookTooLargeException;
+import org.jupytereverywhere.exception.NotebookVersionConflictException;
 import org.jupytereverywhere.exception.SessionMismatchException;
+import org.jupytereverywhere.exception.UnauthorizedNotebookAccessException;
+import org.jupytereverywhere.model.request.JupyterNotebookBatchRequest;
 import org.jupytereverywhere.model.request.JupyterNotebookRequest;
 import org.jupytereverywhere.model.response.JupyterNotebookErrorResponse;
 import org.jupytereverywhere.model.response.JupyterNotebookResponse;
-import org.jupytereverywhere.model.response.JupyterNotebookRetrieved;
 import org.jupytereverywhere.model.response.JupyterNotebookSaved;
 import org.jupytereverywhere.model.response.JupyterNotebookSavedResponse;
+import org.jupytereverywhere.model.response.VersionedNotebook;
 import org.jupytereverywhere.service.JupyterNotebookService;
+import org.jupytereverywhere.service.NotebookBulkUploadService;
+import org.jupytereverywhere.service.NotebookUploadJobService;
+import org.jupytereverywhere.service.metrics.NotebookObservationContext;
 import org.jupytereverywhere.utils.HttpHeaderUtils;
+import org.jupytereverywhere.utils.ServerTiming;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.extern.log4j.Log4j2;
@@ -44,25 +64,51 @@ public class JupyterNotebookController {
   private static final String SESSION_ID_MESSAGE_KEY = "SessionID";
   private static final String NOTEBOOK_ID_MESSAGE_KEY = "NotebookID";
   private static final String READABLE_ID_MESSAGE_KEY = "ReadableID";
+  private static final String REVISION_MESSAGE_KEY = "Revision";
+
+  private static final String STREAMING_READ_MODE = "streaming";
+  private static final String JSON_PATCH_MEDIA_TYPE = "application/json-patch+json";
+  private static final String PREFER_HEADER = "Prefer";
+  private static final String PREFERENCE_APPLIED_HEADER = "Preference-Applied";
+  private static final String RESPOND_ASYNC_PREFERENCE = "respond-async";
+  private static final String JOB_ID_MESSAGE_KEY = "JobID";
 
   private final JupyterNotebookService notebookService;
+  private final NotebookUploadJobService uploadJobService;
+  private final NotebookBulkUploadService bulkUploadService;
   private final ObjectMapper objectMapper;
+  private final ObservationRegistry observationRegistry;
+
+  /**
+   * "buffered" loads notebook content into memory before responding; "streaming" copies it from
+   * storage straight into the response body.
+   */
+  @Value("${storage.read-mode:buffered}")
+  private String readMode;
 
   public JupyterNotebookController(
-      JupyterNotebookService notebookService, ObjectMapper objectMapper) {
+      JupyterNotebookService notebookService,
+      NotebookUploadJobService uploadJobService,
+      NotebookBulkUploadService bulkUploadService,
+      ObjectMapper objectMapper,
+      ObservationRegistry observationRegistry) {
     this.notebookService = notebookService;
+    this.uploadJobService = uploadJobService;
+    this.bulkUploadService = bulkUploadService;
     this.objectMapper = objectMapper;
+    this.observationRegistry = observationRegistry;
   }
 
   /**
    * Extracts the raw notebook JSON from a POST request body. For POST requests, the body contains a
-   * JupyterNotebookRequest wrapper with a "notebook" field that needs to be extracted.
+   * JupyterNotebookRequest wrapper with a "notebook" field that needs to be extracted. Observed as
+   * {@code notebook.raw.extraction}.
    *
    * @param request the HTTP servlet request
    * @param notebookRequest the deserialized request object (used as fallback)
    * @return raw notebook JSON string
    */
-  private String extractRawNotebookJsonFromRequest(
+  String extractRawNotebookJsonFromRequest(
       HttpServletRequest request, JupyterNotebookRequest notebookRequest) {
     String rawBody =
         (String)
@@ -74,7 +120,11 @@ public class JupyterNotebookController {
       throw new InvalidNotebookException("Failed to extract notebook from request");
     }
 
-    try {
+    Observation observation =
+        NotebookObservationContext.observation(
+                "notebook.raw.extraction", ServerTiming.Stage.PARSE, observationRegistry)
+            .start();
+    try (Observation.Scope ignored = observation.openScope()) {
       // Extract just the "notebook" field from the request body
       JsonNode rootNode = objectMapper.readTree(rawBody);
       JsonNode notebookNode = rootNode.get("notebook");
@@ -83,10 +133,14 @@ public class JupyterNotebookController {
       }
       throw new InvalidNotebookException("No 'notebook' field found in request body");
     } catch (InvalidNotebookException e) {
+      observation.error(e);
       throw e;
     } catch (Exception e) {
+      observation.error(e);
       log.error("Failed to extract raw notebook JSON from cached body", e);
       throw new InvalidNotebookException("Failed to extract notebook from request");
+    } finally {
+      observation.stop();
     }
   }
 
@@ -113,12 +167,36 @@ public class JupyterNotebookController {
     return rawBody;
   }
 
+  /**
+   * Lists the caller's notebooks, newest first. Pages are addressed by the {@code next_cursor} of
+   * the previous page rather than an offset.
+   */
+  @GetMapping
+  public ResponseEntity<JupyterNotebookResponse> listNotebooks(
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "20") int limit,
+      Authentication authentication) {
+    UUID sessionId = (UUID) authentication.getPrincipal();
+    logInfo("Received request to list notebooks", SESSION_ID_MESSAGE_KEY, sessionId.toString());
+    try {
+      return ResponseEntity.ok(notebookService.listSessionNotebooks(sessionId, cursor, limit));
+    } catch (InvalidNotebookException e) {
+      return handleException(HttpStatus.BAD_REQUEST, e.getMessage(), e, sessionId);
+    } catch (Exception e) {
+      return handleException(
+          HttpStatus.INTERNAL_SERVER_ERROR, "Error listing notebooks", e, sessionId);
+    }
+  }
+
   @GetMapping("/{uuid}")
   public ResponseEntity<JupyterNotebookResponse> getNotebook(@PathVariable UUID uuid) {
     logInfo("Received request to fetch notebook", NOTEBOOK_ID_MESSAGE_KEY, uuid.toString());
     try {
-      JupyterNotebookRetrieved notebookRetrieved = notebookService.getNotebookContent(uuid);
-      return ResponseEntity.ok(notebookRetrieved);
+      var notebookRetrieved =
+          isStreamingReadMode()
+              ? notebookService.getStreamedNotebookContent(uuid)
+              : notebookService.getNotebookContent(uuid);
+      return okWithETag(notebookRetrieved).body(notebookRetrieved);
     } catch (NotebookNotFoundException e) {
       return handleException(HttpStatus.NOT_FOUND, "Notebook not found", e, uuid);
     } catch (Exception e) {
@@ -130,8 +208,11 @@ public class JupyterNotebookController {
   public ResponseEntity<JupyterNotebookResponse> getNotebook(@PathVariable String readableId) {
     logInfo("Received request to fetch notebook", READABLE_ID_MESSAGE_KEY, readableId);
     try {
-      JupyterNotebookRetrieved notebookContent = notebookService.getNotebookContent(readableId);
-      return ResponseEntity.ok(notebookContent);
+      var notebookContent =
+          isStreamingReadMode()
+              ? notebookService.getStreamedNotebookContent(readableId)
+              : notebookService.getNotebookContent(readableId);
+      return okWithETag(notebookContent).body(notebookContent);
     } catch (NotebookNotFoundException e) {
       return handleException(HttpStatus.NOT_FOUND, "Notebook not found", e, readableId);
     } catch (Exception e) {
@@ -140,6 +221,143 @@ public class JupyterNotebookController {
     }
   }
 
+  /** Returns a notebook's metadata and content statistics without reading its content. */
+  @GetMapping("/{uuid}/metadata")
+  public ResponseEntity<JupyterNotebookResponse> getNotebookMetadata(@PathVariable UUID uuid) {
+    logInfo(
+        "Received request to fetch notebook metadata", NOTEBOOK_ID_MESSAGE_KEY, uuid.toString());
+    try {
+      var notebookMetadata = notebookService.getNotebookMetadata(uuid);
+      return okWithETag(notebookMetadata).body(notebookMetadata);
+    } catch (NotebookNotFoundException e) {
+      return handleException(HttpStatus.NOT_FOUND, "Notebook not found", e, uuid);
+    } catch (Exception e) {
+      return handleException(
+          HttpStatus.INTERNAL_SERVER_ERROR, "Error fetching notebook metadata", e, uuid);
+    }
+  }
+
+  @GetMapping("/get-by-readable-id/{readableId}/metadata")
+  public ResponseEntity<JupyterNotebookResponse> getNotebookMetadata(
+      @PathVariable String readableId) {
+    logInfo("Received request to fetch notebook metadata", READABLE_ID_MESSAGE_KEY, readableId);
+    try {
+      var notebookMetadata = notebookService.getNotebookMetadata(readableId);
+      return okWithETag(notebookMetadata).body(notebookMetadata);
+    } catch (NotebookNotFoundException e) {
+      return handleException(HttpStatus.NOT_FOUND, "Notebook not found", e, readableId);
+    } catch (Exception e) {
+      return handleException(
+          HttpStatus.INTERNAL_SERVER_ERROR, "Error fetching notebook metadata", e, readableId);
+    }
+  }
+
+  /**
+   * Returns {@code count} cells of a notebook starting at cell {@code start}, for previews. Only
+   * the part of the stored file up to the last requested cell is read.
+   */
+  @GetMapping("/{uuid}/cells")
+  public ResponseEntity<JupyterNotebookResponse> getNotebookCells(
+      @PathVariable UUID uuid,
+      @RequestParam(defaultValue = "0") int start,
+      @RequestParam(defaultValue = "10") int count) {
+    logInfo(
+        "Received request to fetch notebook cells",
+        NOTEBOOK_ID_MESSAGE_KEY,
+        uuid.toString(),
+        "Start",
+        String.valueOf(start),
+        "Count",
+        String.valueOf(count));
+    try {
+      var notebookCells = notebookService.getNotebookCells(uuid, start, count);
+      return okWithETag(notebookCells).body(notebookCells);
+    } catch (InvalidNotebookException e) {
+      return handleException(HttpStatus.BAD_REQUEST, e.getMessage(), e, uuid);
+    } catch (NotebookNotFoundException e) {
+      return handleException(HttpStatus.NOT_FOUND, "Notebook not found", e, uuid);
+    } catch (Exception e) {
+      return handleException(
+          HttpStatus.INTERNAL_SERVER_ERROR, "Error fetching notebook cells", e, uuid);
+    }
+  }
+
+  /**
+   * Fetches many notebooks in one request. The response is NDJSON with one line per requested
+   * notebook, written as soon as that notebook has been read from storage, so lines do not follow
+   * the request order. Notebooks that cannot be returned get a line with an {@code error} instead.
+   */
+  @PostMapping(value = "/batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> getNotebooks(
+      @RequestBody JupyterNotebookBatchRequest batchRequest) {
+    logInfo(
+        "Received request to fetch notebook batch",
+        "RequestedIds",
+        String.valueOf(batchRequest.getIds() != null ? batchRequest.getIds().size() : 0),
+        "RequestedReadableIds",
+        String.valueOf(
+            batchRequest.getReadableIds() != null ? batchRequest.getReadableIds().size() : 0));
+    try {
+      var batch =
+          notebookService.prepareBatch(batchRequest.getIds(), batchRequest.getReadableIds());
+
+      StreamingResponseBody body =
+          outputStream ->
+              notebookService.streamBatch(batch, item -> writeNdjsonLine(outputStream, item));
+      return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    } catch (InvalidNotebookException e) {
+      return streamedError(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+    } catch (Exception e) {
+      return streamedError(HttpStatus.INTERNAL_SERVER_ERROR, "Error fetching notebooks", e);
+    }
+  }
+
+  @GetMapping("/{uuid}/revisions")
+  public ResponseEntity<JupyterNotebookResponse> listNotebookRevisions(@PathVariable UUID uuid) {
+    logInfo(
+        "Received request to list notebook revisions", NOTEBOOK_ID_MESSAGE_KEY, uuid.toString());
+    try {
+      return ResponseEntity.ok(notebookService.listNotebookRevisions(uuid));
+    } catch (NotebookNotFoundException e) {
+      return handleException(HttpStatus.NOT_FOUND, "Notebook not found", e, uuid);
+    } catch (Exception e) {
+      return handleException(
+          HttpStatus.INTERNAL_SERVER_ERROR, "Error listing notebook revisions", e, uuid);
+    }
+  }
+
+  @GetMapping("/{uuid}/revisions/{revision}")
+  public ResponseEntity<JupyterNotebookResponse> getNotebookRevision(
+      @PathVariable UUID uuid, @PathVariable int revision) {
+    logInfo(
+        "Received request to fetch notebook revision",
+        NOTEBOOK_ID_MESSAGE_KEY,
+        uuid.toString(),
+        REVISION_MESSAGE_KEY,
+        String.valueOf(revision));
+    try {
+      return ResponseEntity.ok(notebookService.getNotebookRevision(uuid, revision));
+    } catch (NotebookNotFoundException e) {
+      return handleException(
+          HttpStatus.NOT_FOUND,
+          e.getMessage(),
+          e,
+          NOTEBOOK_ID_MESSAGE_KEY,
+          uuid,
+          REVISION_MESSAGE_KEY,
+          revision);
+    } catch (Exception e) {
+      return handleException(
+          HttpStatus.INTERNAL_SERVER_ERROR,
+          "Error fetching notebook revision",
+          e,
+          NOTEBOOK_ID_MESSAGE_KEY,
+          uuid,
+          REVISION_MESSAGE_KEY,
+          revision);
+    }
+  }
+
   @PostMapping
   public ResponseEntity<JupyterNotebookResponse> uploadNotebook(
       @Valid @RequestBody JupyterNotebookRequest notebookRequest,
@@ -153,6 +371,21 @@ public class JupyterNotebookController {
 
     try {
       String rawNotebookJson = extractRawNotebookJsonFromRequest(request, notebookRequest);
+
+      if (isAsyncUploadRequested(request)) {
+        var uploadJob =
+            uploadJobService.submit(notebookRequest, sessionId, domain, rawNotebookJson);
+        logInfo(
+            "Notebook upload accepted for asynchronous processing",
+            SESSION_ID_MESSAGE_KEY,
+            sessionId.toString(),
+            JOB_ID_MESSAGE_KEY,
+            uploadJob.getJobId().toString());
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+            .header(PREFERENCE_APPLIED_HEADER, RESPOND_ASYNC_PREFERENCE)
+            .body(uploadJob);
+      }
+
       JupyterNotebookSaved notebookSaved =
           notebookService.uploadNotebook(notebookRequest, sessionId, domain, rawNotebookJson);
       logInfo(
@@ -175,6 +408,84 @@ public class JupyterNotebookController {
     }
   }
 
+  /**
+   * Uploads many notebooks in one request, one JSON document per NDJSON line. The response is
+   * NDJSON with one result per document, written as soon as that document has been saved or
+   * rejected; {@code index} identifies the document.
+   */
+  @PostMapping(
+      value = "/bulk",
+      consumes = MediaType.APPLICATION_NDJSON_VALUE,
+      produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> uploadNotebooks(
+      Authentication authentication, HttpServletRequest request) {
+    UUID sessionId = (UUID) authentication.getPrincipal();
+    String domain = HttpHeaderUtils.getDomainFromRequest(request);
+
+    logInfo("Received bulk notebook upload request", SESSION_ID_MESSAGE_KEY, sessionId.toString());
+
+    try {
+      var source = bulkUploadService.ndjsonSource(request.getInputStream());
+      return bulkUploadResponse(sessionId, domain, source);
+    } catch (Exception e) {
+      return streamedError(HttpStatus.INTERNAL_SERVER_ERROR, "Error uploading notebooks", e);
+    }
+  }
+
+  /** Same as {@link #uploadNotebooks}, with one notebook per uploaded file. */
+  @PostMapping(
+      value = "/bulk",
+      consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+      produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> uploadNotebookFiles(
+      @RequestParam("notebooks") List<MultipartFile> notebooks,
+      Authentication authentication,
+      HttpServletRequest request) {
+    UUID sessionId = (UUID) authentication.getPrincipal();
+    String domain = HttpHeaderUtils.getDomainFromRequest(request);
+
+    logInfo(
+        "Received bulk notebook upload request",
+        SESSION_ID_MESSAGE_KEY,
+        sessionId.toString(),
+        "Files",
+        String.valueOf(notebooks.size()));
+
+    try {
+      return bulkUploadResponse(sessionId, domain, bulkUploadService.multipartSource(notebooks));
+    } catch (Exception e) {
+      return streamedError(HttpStatus.INTERNAL_SERVER_ERROR, "Error uploading notebooks", e);
+    }
+  }
+
+  private ResponseEntity<StreamingResponseBody> bulkUploadResponse(
+      UUID sessionId, String domain, NotebookBulkUploadService.BulkUploadSource source) {
+    StreamingResponseBody body =
+        outputStream ->
+            bulkUploadService.upload(
+                sessionId, domain, source, result -> writeNdjsonLine(outputStream, result));
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+  }
+
+  /** Status of an upload accepted with {@code Prefer: respond-async}. */
+  @GetMapping("/upload-jobs/{jobId}")
+  public ResponseEntity<JupyterNotebookResponse> getUploadJob(
+      @PathVariable UUID jobId, Authentication authentication) {
+    UUID sessionId = (UUID) authentication.getPrincipal();
+    try {
+      return ResponseEntity.ok(uploadJobService.getJob(jobId, sessionId));
+    } catch (NotebookNotFoundException e) {
+      return handleException(HttpStatus.NOT_FOUND, e.getMessage(), e, JOB_ID_MESSAGE_KEY, jobId);
+    } catch (Exception e) {
+      return handleException(
+          HttpStatus.INTERNAL_SERVER_ERROR,
+          "Error fetching upload job",
+          e,
+          JOB_ID_MESSAGE_KEY,
+          jobId);
+    }
+  }
+
   @PutMapping("/{uuid}")
   public ResponseEntity<JupyterNotebookResponse> updateNotebook(
       @PathVariable UUID uuid,
@@ -195,8 +506,11 @@ public class JupyterNotebookController {
       String token = HttpHeaderUtils.getTokenFromRequest(request);
       String rawNotebookJson = extractRawNotebookJsonFromDto(request, notebookDto);
 
+      Long expectedVersion = parseIfMatch(request);
+
       JupyterNotebookSaved notebookUpdated =
-          notebookService.updateNotebook(uuid, notebookDto, sessionId, token, rawNotebookJson);
+          notebookService.updateNotebook(
+              uuid, notebookDto, sessionId, token, rawNotebookJson, expectedVersion);
 
       logInfo(
           "Notebook updated successfully",
@@ -207,7 +521,9 @@ public class JupyterNotebookController {
 
       var response =
           new JupyterNotebookSavedResponse("Notebook updated successfully", notebookUpdated);
-      return ResponseEntity.ok(response);
+      return okWithETag(notebookUpdated).body(response);
+    } catch (NotebookVersionConflictException e) {
+      return handleException(HttpStatus.PRECONDITION_FAILED, e.getMessage(), e, uuid, sessionId);
     } catch (NotebookTooLargeException e) {
       return handleSizeLimitException(
           e, NOTEBOOK_ID_MESSAGE_KEY, uuid, SESSION_ID_MESSAGE_KEY, sessionId);
@@ -223,6 +539,66 @@ public class JupyterNotebookController {
     }
   }
 
+  /**
+   * Applies an RFC 6902 JSON Patch to a notebook, so a small edit does not require uploading the
+   * whole notebook. Cell-level edits are expressed as operations on {@code /cells/<index>/...}.
+   */
+  @PatchMapping(
+      value = "/{uuid}",
+      consumes = {JSON_PATCH_MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE})
+  public ResponseEntity<JupyterNotebookResponse> patchNotebook(
+      @PathVariable UUID uuid,
+      @RequestBody JsonNode patch,
+      Authentication authentication,
+      HttpServletRequest request) {
+
+    UUID sessionId = (UUID) authentication.getPrincipal();
+
+    logInfo(
+        "Received notebook patch request",
+        NOTEBOOK_ID_MESSAGE_KEY,
+        uuid.toString(),
+        SESSION_ID_MESSAGE_KEY,
+        sessionId.toString());
+
+    try {
+      String token = HttpHeaderUtils.getTokenFromRequest(request);
+
+      Long expectedVersion = parseIfMatch(request);
+
+      JupyterNotebookSaved notebookUpdated =
+          notebookService.patchNotebook(uuid, patch, sessionId, token, expectedVersion);
+
+      logInfo(
+          "Notebook patched successfully",
+          NOTEBOOK_ID_MESSAGE_KEY,
+          uuid.toString(),
+          SESSION_ID_MESSAGE_KEY,
+          sessionId.toString());
+
+      var response =
+          new JupyterNotebookSavedResponse("Notebook updated successfully", notebookUpdated);
+      return okWithETag(notebookUpdated).body(response);
+    } catch (NotebookNotFoundException e) {
+      return handleException(HttpStatus.NOT_FOUND, "Notebook not found", e, uuid, sessionId);
+    } catch (UnauthorizedNotebookAccessException e) {
+      return handleException(
+          HttpStatus.FORBIDDEN, "Not allowed to update this notebook", e, uuid, sessionId);
+    } catch (NotebookVersionConflictException e) {
+      return handleException(HttpStatus.PRECONDITION_FAILED, e.getMessage(), e, uuid, sessionId);
+    } catch (InvalidNotebookPatchException e) {
+      return handleException(HttpStatus.UNPROCESSABLE_ENTITY, e.getMessage(), e, uuid, sessionId);
+    } catch (NotebookTooLargeException e) {
+      return handleSizeLimitException(
+          e, NOTEBOOK_ID_MESSAGE_KEY, uuid, SESSION_ID_MESSAGE_KEY, sessionId);
+    } catch (InvalidNotebookException e) {
+      return handleException(HttpStatus.BAD_REQUEST, "Invalid notebook format", e, uuid, sessionId);
+    } catch (Exception e) {
+      return handleException(
+          HttpStatus.INTERNAL_SERVER_ERROR, "Error updating notebook", e, uuid, sessionId);
+    }
+  }
+
   @PutMapping("/update-by-readable-id/{readableId}")
   public ResponseEntity<JupyterNotebookResponse> updateNotebook(
       @PathVariable String readableId,
@@ -241,9 +617,11 @@ public class JupyterNotebookController {
       String token = HttpHeaderUtils.getTokenFromRequest(request);
       String rawNotebookJson = extractRawNotebookJsonFromDto(request, notebookDto);
 
+      Long expectedVersion = parseIfMatch(request);
+
       JupyterNotebookSaved notebookUpdated =
           notebookService.updateNotebook(
-              readableId, notebookDto, sessionId, token, rawNotebookJson);
+              readableId, notebookDto, sessionId, token, rawNotebookJson, expectedVersion);
       logInfo(
           "Notebook updated successfully",
           NOTEBOOK_ID_MESSAGE_KEY,
@@ -253,7 +631,10 @@ public class JupyterNotebookController {
 
       var response =
           new JupyterNotebookSavedResponse("Notebook updated successfully", notebookUpdated);
-      return ResponseEntity.ok(response);
+      return okWithETag(notebookUpdated).body(response);
+    } catch (NotebookVersionConflictException e) {
+      return handleException(
+          HttpStatus.PRECONDITION_FAILED, e.getMessage(), e, readableId, sessionId);
     } catch (NotebookTooLargeException e) {
       return handleSizeLimitException(
           e, READABLE_ID_MESSAGE_KEY, readableId, SESSION_ID_MESSAGE_KEY, sessionId);
@@ -269,6 +650,56 @@ public class JupyterNotebookController {
     }
   }
 
+  /**
+   * Reads the notebook version a client expects from {@code If-Match}. Returns null when the
+   * header is absent or {@code *}, meaning the update is unconditional. Only a single strong entity
+   * tag can match; anything else fails the precondition.
+   */
+  private static Long parseIfMatch(HttpServletRequest request) {
+    String ifMatch = request.getHeader(HttpHeaders.IF_MATCH);
+    if (ifMatch == null || ifMatch.isBlank() || "*".equals(ifMatch.trim())) {
+      return null;
+    }
+
+    String tag = ifMatch.trim();
+    if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+      tag = tag.substring(1, tag.length() - 1);
+    }
+    try {
+      return Long.parseLong(tag);
+    } catch (NumberFormatException e) {
+      throw new NotebookVersionConflictException("If-Match does not match any notebook version");
+    }
+  }
+
+  private static ResponseEntity.BodyBuilder okWithETag(VersionedNotebook notebook) {
+    ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+    if (notebook != null && notebook.getVersion() != null) {
+      builder.eTag(String.valueOf(notebook.getVersion()));
+    }
+    return builder;
+  }
+
+  /** Clients opt in to asynchronous uploads with the RFC 7240 {@code respond-async} preference. */
+  private boolean isAsyncUploadRequested(HttpServletRequest request) {
+    if (!uploadJobService.isEnabled()) {
+      return false;
+    }
+    var preferences = request.getHeaders(PREFER_HEADER);
+    while (preferences != null && preferences.hasMoreElements()) {
+      for (String preference : preferences.nextElement().split(",")) {
+        if (RESPOND_ASYNC_PREFERENCE.equalsIgnoreCase(preference.trim())) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private boolean isStreamingReadMode() {
+    return STREAMING_READ_MODE.equalsIgnoreCase(readMode);
+  }
+
   private void logInfo(String message, String... params) {
     StringMapMessage logMessage = new StringMapMessage().with(MESSAGE_KEY, message);
     for (int i = 0; i < params.length; i += 2) {
@@ -290,9 +721,35 @@ public class JupyterNotebookController {
     log.error(logMessage, e);
 
     var response = new JupyterNotebookErrorResponse(status.name(), message);
+    if (e instanceof InvalidNotebookException invalid && !invalid.getValidationErrors().isEmpty()) {
+      response.addDetail("validation_errors", invalid.getValidationErrors());
+      response.addDetail("validation_errors_truncated", invalid.isValidationErrorsTruncated());
+    }
     return ResponseEntity.status(status).body(response);
   }
 
+  /** Error response for endpoints whose successful responses are streamed. */
+  private ResponseEntity<StreamingResponseBody> streamedError(
+      HttpStatus status, String message, Exception e) {
+    ResponseEntity<JupyterNotebookResponse> error = handleException(status, message, e);
+    byte[] body;
+    try {
+      body = objectMapper.writeValueAsBytes(error.getBody());
+    } catch (Exception serializationError) {
+      body = new byte[0];
+    }
+    byte[] errorBody = body;
+    return ResponseEntity.status(status)
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(outputStream -> outputStream.write(errorBody));
+  }
+
+  private void writeNdjsonLine(OutputStream outputStream, Object item) throws IOException {
+    outputStream.write(objectMapper.writeValueAsBytes(item));
+    outputStream.write('\n');
+    outputStream.flush();
+  }
+
   private ResponseEntity<JupyterNotebookResponse> handleSizeLimitException(
       NotebookTooLargeException e, Object... params) {
     StringMapMessage logMessage =
@@ -1,7 +1,28 @@
 package org.jupytereverywhere.exception;
 
+import java.util.List;
+
+import org.jupytereverywhere.model.response.NotebookValidationError;
+
+import lombok.Getter;
+
+@Getter
 public class InvalidNotebookException extends RuntimeException {
+  private final List<NotebookValidationError> validationErrors;
+  private final boolean validationErrorsTruncated;
+
   public InvalidNotebookException(String message) {
     super(message);
+    this.validationErrors = List.of();
+    this.validationErrorsTruncated = false;
+  }
+
+  public InvalidNotebookException(
+      String message,
+      List<NotebookValidationError> validationErrors,
+      boolean validationErrorsTruncated) {
+    super(message);
+    this.validationErrors = List.copyOf(validationErrors);
+    this.validationErrorsTruncated = validationErrorsTruncated;
   }
 }
@@ -0,0 +1,11 @@
+package org.jupytereverywhere.exception;
+
+public class InvalidNotebookPatchException extends RuntimeException {
+  public InvalidNotebookPatchException(String message) {
+    super(message);
+  }
+
+  public InvalidNotebookPatchException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
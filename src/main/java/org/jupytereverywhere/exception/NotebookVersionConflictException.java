@@ -0,0 +1,7 @@
+package org.jupytereverywhere.exception;
+
+public class NotebookVersionConflictException extends RuntimeException {
+  public NotebookVersionConflictException(String message) {
+    super(message);
+  }
+}
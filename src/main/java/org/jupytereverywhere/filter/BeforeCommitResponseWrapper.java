@@ -0,0 +1,63 @@
+package org.jupytereverywhere.filter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * Calls {@link #beforeCommit} once, just before the response starts to be written, so a filter can
+ * add headers that depend on work done while handling the request. Filters call {@link
+ * #commitHeaders} after the chain too, for responses without a body.
+ */
+abstract class BeforeCommitResponseWrapper extends HttpServletResponseWrapper {
+
+  private boolean headersAdded;
+
+  BeforeCommitResponseWrapper(HttpServletResponse response) {
+    super(response);
+  }
+
+  /** Adds the headers; called at most once, while the response is not committed yet. */
+  protected abstract void beforeCommit();
+
+  void commitHeaders() {
+    if (headersAdded || isCommitted()) {
+      return;
+    }
+    headersAdded = true;
+    beforeCommit();
+  }
+
+  @Override
+  public ServletOutputStream getOutputStream() throws IOException {
+    commitHeaders();
+    return super.getOutputStream();
+  }
+
+  @Override
+  public PrintWriter getWriter() throws IOException {
+    commitHeaders();
+    return super.getWriter();
+  }
+
+  @Override
+  public void flushBuffer() throws IOException {
+    commitHeaders();
+    super.flushBuffer();
+  }
+
+  @Override
+  public void sendError(int sc, String msg) throws IOException {
+    commitHeaders();
+    super.sendError(sc, msg);
+  }
+
+  @Override
+  public void sendError(int sc) throws IOException {
+    commitHeaders();
+    super.sendError(sc);
+  }
+}
@@ -2,12 +2,19 @@ package org.jupytereverywhere.filter;
 
 import java.io.IOException;
 
+import org.jupytereverywhere.config.TracingConstants;
+import org.jupytereverywhere.service.metrics.NotebookObservationContext;
 import org.jupytereverywhere.utils.CachedBodyHttpServletRequest;
+import org.jupytereverywhere.utils.ServerTiming;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -21,26 +28,58 @@ import jakarta.servlet.http.HttpServletResponse;
  * necessary to: 1. Validate the raw incoming JSON against the nbformat schema 2. Allow Spring MVC
  * to deserialize the same JSON into DTOs
  *
- * <p>The filter runs at HIGHEST_PRECEDENCE + 2, after RequestSizeLimitFilter (which prevents
- * caching of oversized requests) but before JwtRequestFilter.
+ * <p>The filter runs at HIGHEST_PRECEDENCE + 3, after RequestSizeLimitFilter (which prevents
+ * caching of oversized requests) and ServerTimingFilter but before JwtRequestFilter.
  *
  * <p>Note: This filter only caches bodies for notebook-related endpoints to minimize memory usage.
  * Other endpoints use the standard request handling.
+ *
+ * <p>Reading a body is observed as {@code notebook.request.body.caching}, counted towards the
+ * {@code parse} Server-Timing stage, and its size is recorded as {@code
+ * notebook.request.body.size}.
  */
 @Component
-@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+@Order(Ordered.HIGHEST_PRECEDENCE + 3)
 public class CachedBodyFilter extends OncePerRequestFilter {
 
   /** Request attribute key for storing the cached request body */
   public static final String CACHED_BODY_ATTRIBUTE = "cachedRequestBody";
 
+  private final DistributionSummary bodySize;
+  private final ObservationRegistry observationRegistry;
+
+  public CachedBodyFilter(MeterRegistry meterRegistry, ObservationRegistry observationRegistry) {
+    this.observationRegistry = observationRegistry;
+    this.bodySize =
+        DistributionSummary.builder("notebook.request.body.size")
+            .description("Size of cached notebook request bodies")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+  }
+
   @Override
   protected void doFilterInternal(
       HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
       throws ServletException, IOException {
 
     if (shouldCacheBody(request)) {
-      CachedBodyHttpServletRequest cachedRequest = new CachedBodyHttpServletRequest(request);
+      Observation observation =
+          NotebookObservationContext.observation(
+                  "notebook.request.body.caching", ServerTiming.Stage.PARSE, observationRegistry)
+              .start();
+      CachedBodyHttpServletRequest cachedRequest;
+      try (Observation.Scope ignored = observation.openScope()) {
+        cachedRequest = new CachedBodyHttpServletRequest(request);
+        observation.highCardinalityKeyValue(
+            TracingConstants.NOTEBOOK_SIZE_TAG,
+            String.valueOf(cachedRequest.getCachedBodyLength()));
+      } catch (IOException | RuntimeException e) {
+        observation.error(e);
+        throw e;
+      } finally {
+        observation.stop();
+      }
+      bodySize.record(cachedRequest.getCachedBodyLength());
       // Store cached body as request attribute so it survives wrapper layers
       request.setAttribute(CACHED_BODY_ATTRIBUTE, cachedRequest.getCachedBody());
       filterChain.doFilter(cachedRequest, response);
@@ -6,6 +6,8 @@ import java.util.UUID;
 
 import org.apache.logging.log4j.message.StringMapMessage;
 import org.jupytereverywhere.service.JwtTokenService;
+import org.jupytereverywhere.service.metrics.NotebookObservationContext;
+import org.jupytereverywhere.utils.ServerTiming;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -14,6 +16,8 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import io.jsonwebtoken.ExpiredJwtException;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -32,12 +36,17 @@ public class JwtRequestFilter extends OncePerRequestFilter {
   private final JwtTokenService jwtTokenService;
   private final JwtExtractor jwtExtractor;
   private final JwtValidator jwtValidator;
+  private final ObservationRegistry observationRegistry;
 
   public JwtRequestFilter(
-      JwtTokenService jwtTokenService, JwtExtractor jwtExtractor, JwtValidator jwtValidator) {
+      JwtTokenService jwtTokenService,
+      JwtExtractor jwtExtractor,
+      JwtValidator jwtValidator,
+      ObservationRegistry observationRegistry) {
     this.jwtTokenService = jwtTokenService;
     this.jwtExtractor = jwtExtractor;
     this.jwtValidator = jwtValidator;
+    this.observationRegistry = observationRegistry;
   }
 
   @Override
@@ -47,6 +56,33 @@ public class JwtRequestFilter extends OncePerRequestFilter {
       @NonNull FilterChain chain)
       throws ServletException, IOException {
 
+    Observation observation =
+        NotebookObservationContext.observation(
+                "notebook.request.authentication", ServerTiming.Stage.AUTH, observationRegistry)
+            .start();
+    boolean authenticated;
+    try (Observation.Scope ignored = observation.openScope()) {
+      authenticated = authenticate(request, response);
+      observation.lowCardinalityKeyValue("authenticated", String.valueOf(authenticated));
+    } catch (IOException | RuntimeException e) {
+      observation.error(e);
+      throw e;
+    } finally {
+      observation.stop();
+    }
+    if (authenticated) {
+      chain.doFilter(request, response);
+    }
+  }
+
+  /**
+   * Checks the extra auth header and the JWT, if any, and sets the authentication of a valid
+   * session.
+   *
+   * @return false if the request was rejected and an error response sent
+   */
+  private boolean authenticate(HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
     // Extra auth header logic: only enforce if both name and secret are set and header is present
     boolean extraAuthConfigured =
         jwtExtractor.extraAuthHeaderName != null
@@ -56,7 +92,7 @@ public class JwtRequestFilter extends OncePerRequestFilter {
     if (extraAuthConfigured) {
       if (!jwtExtractor.validateExtraAuthHeader(request)) {
         handleInvalidExtraAuth(response);
-        return;
+        return false;
       }
     }
 
@@ -70,18 +106,17 @@ public class JwtRequestFilter extends OncePerRequestFilter {
           setAuthentication(request, sessionId);
         } else {
           handleInvalidToken(response);
-          return;
+          return false;
         }
       } catch (ExpiredJwtException e) {
         handleExpiredToken(response, e);
-        return;
+        return false;
       } catch (Exception e) {
         handleTokenProcessingError(response, e);
-        return;
+        return false;
       }
     }
-
-    chain.doFilter(request, response);
+    return true;
   }
 
   private void setAuthentication(HttpServletRequest request, UUID sessionId) {
@@ -1,17 +1,49 @@
 package org.jupytereverywhere.filter;
 
+import org.jupytereverywhere.config.TracingConstants;
 import org.jupytereverywhere.service.JwtTokenService;
+import org.jupytereverywhere.service.metrics.NotebookObservationContext;
+import org.jupytereverywhere.service.metrics.TokenVerificationEvent;
 import org.springframework.stereotype.Component;
 
+import io.jsonwebtoken.ExpiredJwtException;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+
+/**
+ * Verifies JWTs, observing each verification as {@code jwt.verification} by outcome and recording
+ * it as a {@link TokenVerificationEvent}.
+ */
 @Component
 public class JwtValidator {
+  private static final String OBSERVATION_NAME = "jwt.verification";
+
   private final JwtTokenService jwtTokenService;
+  private final ObservationRegistry observationRegistry;
 
-  public JwtValidator(JwtTokenService jwtTokenService) {
+  public JwtValidator(JwtTokenService jwtTokenService, ObservationRegistry observationRegistry) {
     this.jwtTokenService = jwtTokenService;
+    this.observationRegistry = observationRegistry;
   }
 
   public boolean isValid(String jwt) {
-    return jwtTokenService.validateToken(jwt);
+    Observation observation =
+        NotebookObservationContext.observation(
+                OBSERVATION_NAME, null, TokenVerificationEvent::new, observationRegistry)
+            .start();
+    String outcome = "error";
+    try (Observation.Scope ignored = observation.openScope()) {
+      boolean valid = jwtTokenService.validateToken(jwt);
+      outcome = valid ? "valid" : "invalid";
+      return valid;
+    } catch (ExpiredJwtException e) {
+      outcome = "expired";
+      throw e;
+    } catch (RuntimeException e) {
+      observation.error(e);
+      throw e;
+    } finally {
+      observation.lowCardinalityKeyValue(TracingConstants.OUTCOME_TAG, outcome).stop();
+    }
   }
 }
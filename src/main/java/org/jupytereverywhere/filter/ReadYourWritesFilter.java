@@ -0,0 +1,102 @@
+package org.jupytereverywhere.filter;
+
+import java.io.IOException;
+
+import javax.sql.DataSource;
+
+import org.apache.logging.log4j.message.StringMapMessage;
+import org.jupytereverywhere.utils.ReadYourWrites;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Carries the read-your-writes position between a client and the read replica routing (see {@link
+ * ReadYourWrites}): reads the position the client last saw from the {@code X-Last-Write-Lsn}
+ * request header and, when the request committed a write, returns the primary's current WAL
+ * position in the response header.
+ *
+ * <p>The position is read just before the response is committed, after the request's transactions
+ * have released their connections, so it covers every write of the request. For responses that
+ * are committed while a write is still open, such as streamed ones, no position is returned.
+ * Registered by {@link org.jupytereverywhere.config.ReadReplicaConfig} when a replica is set up.
+ */
+@Log4j2
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+  /** The primary's WAL insert position, past the commit record of every committed write. */
+  static final String CURRENT_LSN_SQL = "SELECT (pg_current_wal_insert_lsn() - '0/0')::bigint";
+
+  private final JdbcTemplate primaryJdbcTemplate;
+
+  public ReadYourWritesFilter(DataSource primaryDataSource) {
+    this.primaryJdbcTemplate = new JdbcTemplate(primaryDataSource);
+  }
+
+  @Override
+  protected void doFilterInternal(
+      @NonNull HttpServletRequest request,
+      @NonNull HttpServletResponse response,
+      @NonNull FilterChain filterChain)
+      throws ServletException, IOException {
+
+    ReadYourWritesResponse trackedResponse =
+        new ReadYourWritesResponse(
+            response,
+            ReadYourWrites.start(parseLsn(request.getHeader(ReadYourWrites.HEADER))));
+    try {
+      filterChain.doFilter(request, trackedResponse);
+    } finally {
+      // Responses without a body
+      trackedResponse.commitHeaders();
+      ReadYourWrites.stop();
+    }
+  }
+
+  static long parseLsn(String header) {
+    if (header == null || header.isBlank()) {
+      return ReadYourWrites.ANY_POSITION;
+    }
+    try {
+      return Long.parseLong(header.trim());
+    } catch (NumberFormatException e) {
+      return ReadYourWrites.ANY_POSITION;
+    }
+  }
+
+  /** Adds the position header just before the response is committed. */
+  private class ReadYourWritesResponse extends BeforeCommitResponseWrapper {
+
+    private final ReadYourWrites state;
+
+    ReadYourWritesResponse(HttpServletResponse response, ReadYourWrites state) {
+      super(response);
+      this.state = state;
+    }
+
+    @Override
+    protected void beforeCommit() {
+      if (!state.wrote()) {
+        return;
+      }
+      try {
+        Long lsn = primaryJdbcTemplate.queryForObject(CURRENT_LSN_SQL, Long.class);
+        if (lsn != null) {
+          setHeader(ReadYourWrites.HEADER, String.valueOf(lsn));
+        }
+      } catch (DataAccessException e) {
+        log.warn(
+            new StringMapMessage()
+                .with("Message", "Could not read the primary WAL position after a write")
+                .with("Error", String.valueOf(e.getMessage())));
+      }
+    }
+  }
+}
@@ -3,6 +3,7 @@ package org.jupytereverywhere.filter;
 import java.io.IOException;
 
 import org.apache.logging.log4j.message.StringMapMessage;
+import org.jupytereverywhere.service.metrics.NotebookObservationContext;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
@@ -10,6 +11,8 @@ import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -20,15 +23,20 @@ import lombok.extern.log4j.Log4j2;
  * Servlet filter that validates request size BEFORE request body deserialization. This provides
  * early rejection of oversized requests to prevent memory exhaustion.
  *
- * <p>Executes with HIGHEST_PRECEDENCE to run before JWT authentication and request body parsing.
+ * <p>Executes with HIGHEST_PRECEDENCE + 1 to run before JWT authentication and request body
+ * parsing, right after the observation filter that starts the request span (see TracingConfig).
+ *
+ * <p>Bulk uploads carry many notebooks and are read incrementally, so they are checked against
+ * their own, larger limit; each notebook in them is still held to the notebook limit.
  */
 @Log4j2
 @Component
-@Order(Ordered.HIGHEST_PRECEDENCE)
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
 public class RequestSizeLimitFilter extends OncePerRequestFilter {
 
   private static final String MESSAGE_KEY = "Message";
   private static final String CONTENT_LENGTH_HEADER = "Content-Length";
+  private static final String BULK_UPLOAD_PATH = "/notebooks/bulk";
 
   // Buffer factor to account for JSON overhead and HTTP headers (50% margin)
   private static final double SIZE_BUFFER_FACTOR = 1.5;
@@ -36,6 +44,15 @@ public class RequestSizeLimitFilter extends OncePerRequestFilter {
   @Value("${notebook.max-size-bytes}")
   private long maxNotebookSizeBytes;
 
+  @Value("${notebook.bulk.max-request-bytes:1073741824}")
+  private long maxBulkRequestBytes;
+
+  private final ObservationRegistry observationRegistry;
+
+  public RequestSizeLimitFilter(ObservationRegistry observationRegistry) {
+    this.observationRegistry = observationRegistry;
+  }
+
   @Override
   protected void doFilterInternal(
       @NonNull HttpServletRequest request,
@@ -43,15 +60,42 @@ public class RequestSizeLimitFilter extends OncePerRequestFilter {
       @NonNull FilterChain chain)
       throws ServletException, IOException {
 
+    Observation observation =
+        NotebookObservationContext.observation("notebook.request.size.check", observationRegistry)
+            .start();
+    boolean withinLimit;
+    try (Observation.Scope ignored = observation.openScope()) {
+      withinLimit = checkSize(request, response, observation);
+    } catch (IOException | RuntimeException e) {
+      observation.error(e);
+      throw e;
+    } finally {
+      observation.stop();
+    }
+    if (withinLimit) {
+      chain.doFilter(request, response);
+    }
+  }
+
+  /**
+   * @return false if the request is too large and an error response was sent
+   */
+  private boolean checkSize(
+      HttpServletRequest request, HttpServletResponse response, Observation observation)
+      throws IOException {
     String contentLengthHeader = request.getHeader(CONTENT_LENGTH_HEADER);
 
     if (contentLengthHeader != null && !contentLengthHeader.isEmpty()) {
       try {
         long requestSize = Long.parseLong(contentLengthHeader);
-        long maxAllowedSize = (long) (maxNotebookSizeBytes * SIZE_BUFFER_FACTOR);
+        observation.highCardinalityKeyValue("http.request.body.size", String.valueOf(requestSize));
+        boolean bulkUpload = isBulkUpload(request);
+        long maxAllowedSize =
+            bulkUpload ? maxBulkRequestBytes : (long) (maxNotebookSizeBytes * SIZE_BUFFER_FACTOR);
 
         if (requestSize > maxAllowedSize) {
-          long maxSizeMB = maxNotebookSizeBytes / (1024 * 1024);
+          long maxSizeMB =
+              (bulkUpload ? maxBulkRequestBytes : maxNotebookSizeBytes) / (1024 * 1024);
           String errorMessage =
               String.format(
                   "Request size (%d bytes) exceeds maximum allowed size of %d MB",
@@ -67,7 +111,7 @@ public class RequestSizeLimitFilter extends OncePerRequestFilter {
                   .with("Method", request.getMethod()));
 
           response.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE, errorMessage);
-          return;
+          return false;
         }
 
         log.debug(
@@ -85,7 +129,11 @@ public class RequestSizeLimitFilter extends OncePerRequestFilter {
         // Continue processing - let downstream validation handle it
       }
     }
+    return true;
+  }
 
-    chain.doFilter(request, response);
+  private static boolean isBulkUpload(HttpServletRequest request) {
+    String path = request.getRequestURI();
+    return "POST".equals(request.getMethod()) && path != null && path.endsWith(BULK_UPLOAD_PATH);
   }
 }
@@ -0,0 +1,85 @@
+package org.jupytereverywhere.filter;
+
+import java.io.IOException;
+
+import org.jupytereverywhere.utils.ServerTiming;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Adds a {@code Server-Timing} header to notebook endpoint responses, with the time spent on
+ * authentication, parsing, validation, the database and storage (see {@link ServerTiming}), so
+ * browser developer tools can show where the time of a request went.
+ *
+ * <p>The header is added when the response starts to be written, so it covers all work done before
+ * the body; for streamed responses, content read from storage while streaming is not included.
+ * Enabled with {@code server-timing.enabled}; {@code server-timing.allow-origin} sets {@code
+ * Timing-Allow-Origin} so pages on other origins can read the timings too.
+ *
+ * <p>Runs at HIGHEST_PRECEDENCE + 2, after RequestSizeLimitFilter and before CachedBodyFilter and
+ * JwtRequestFilter, whose work it times.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+  static final String SERVER_TIMING_HEADER = "Server-Timing";
+  static final String TIMING_ALLOW_ORIGIN_HEADER = "Timing-Allow-Origin";
+
+  @Value("${server-timing.enabled:true}")
+  private boolean enabled;
+
+  @Value("${server-timing.allow-origin:}")
+  private String allowOrigin;
+
+  @Override
+  protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+    String path = request.getRequestURI();
+    return !enabled || path == null || !path.contains("/notebooks");
+  }
+
+  @Override
+  protected void doFilterInternal(
+      @NonNull HttpServletRequest request,
+      @NonNull HttpServletResponse response,
+      @NonNull FilterChain filterChain)
+      throws ServletException, IOException {
+
+    ServerTimingResponse timedResponse = new ServerTimingResponse(response, ServerTiming.start());
+    try {
+      filterChain.doFilter(request, timedResponse);
+    } finally {
+      // Responses without a body
+      timedResponse.commitHeaders();
+      ServerTiming.stop();
+    }
+  }
+
+  /** Adds the timing headers just before the response is committed. */
+  private class ServerTimingResponse extends BeforeCommitResponseWrapper {
+
+    private final ServerTiming timing;
+
+    ServerTimingResponse(HttpServletResponse response, ServerTiming timing) {
+      super(response);
+      this.timing = timing;
+    }
+
+    @Override
+    protected void beforeCommit() {
+      setHeader(SERVER_TIMING_HEADER, timing.headerValue());
+      if (!allowOrigin.isEmpty()) {
+        setHeader(TIMING_ALLOW_ORIGIN_HEADER, allowOrigin);
+      }
+    }
+  }
+}
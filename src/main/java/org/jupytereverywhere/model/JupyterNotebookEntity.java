@@ -46,4 +46,19 @@ public class JupyterNotebookEntity {
 
   @Column(nullable = false)
   private Timestamp createdAt;
+
+  /** Size in bytes of the stored content; null for notebooks not written since it was added. */
+  private Long sizeBytes;
+
+  private Integer cellCount;
+
+  /** Hex-encoded SHA-256 of the stored content. */
+  private String contentDigest;
+
+  /** When the notebook is deleted by the expiry sweeper; null if it never expires. */
+  private Timestamp expiresAt;
+
+  /** Incremented by every update; only written through the repository's version queries. */
+  @Column(nullable = false, insertable = false, updatable = false)
+  private long version;
 }
@@ -0,0 +1,49 @@
+package org.jupytereverywhere.model;
+
+import java.sql.Timestamp;
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.ToString;
+
+@Entity
+@Table(name = "jupyter_notebook_revisions")
+@Data
+public class JupyterNotebookRevisionEntity {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.AUTO)
+  private UUID id;
+
+  @Column(nullable = false)
+  private UUID notebookId;
+
+  @Column(nullable = false)
+  private int revisionNumber;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  private NotebookRevisionType revisionType;
+
+  /** Gzip-compressed snapshot content or delta. */
+  @ToString.Exclude
+  @Column(nullable = false)
+  private byte[] payload;
+
+  @Column(nullable = false)
+  private long contentSizeBytes;
+
+  @Column(nullable = false)
+  private UUID sessionId;
+
+  @Column(nullable = false)
+  private Timestamp createdAt;
+}
@@ -0,0 +1,9 @@
+package org.jupytereverywhere.model;
+
+/** How a revision's payload is stored. */
+public enum NotebookRevisionType {
+  /** The full notebook content. */
+  SNAPSHOT,
+  /** A binary delta against the previous revision. */
+  DELTA
+}
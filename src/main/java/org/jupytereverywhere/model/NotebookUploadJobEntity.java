@@ -0,0 +1,54 @@
+package org.jupytereverywhere.model;
+
+import java.sql.Timestamp;
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.ToString;
+
+@Entity
+@Table(name = "notebook_upload_jobs")
+@Data
+public class NotebookUploadJobEntity {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.AUTO)
+  private UUID id;
+
+  @Column(nullable = false)
+  private UUID notebookId;
+
+  private String readableId;
+
+  @Column(nullable = false)
+  private String domain;
+
+  @Column(nullable = false)
+  private UUID sessionId;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  private NotebookUploadJobStatus status;
+
+  /** Gzip-compressed notebook JSON as uploaded; cleared once the job has finished. */
+  @ToString.Exclude private byte[] payload;
+
+  @Column(nullable = false)
+  private int attempts;
+
+  private String errorMessage;
+
+  @Column(nullable = false)
+  private Timestamp createdAt;
+
+  @Column(nullable = false)
+  private Timestamp updatedAt;
+}
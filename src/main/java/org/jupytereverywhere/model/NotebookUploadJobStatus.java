@@ -0,0 +1,8 @@
+package org.jupytereverywhere.model;
+
+public enum NotebookUploadJobStatus {
+  PENDING,
+  PROCESSING,
+  SUCCEEDED,
+  FAILED
+}
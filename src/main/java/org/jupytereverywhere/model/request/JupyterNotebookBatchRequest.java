@@ -0,0 +1,22 @@
+package org.jupytereverywhere.model.request;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Notebooks to fetch in one request, by id, by readable id, or both. */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class JupyterNotebookBatchRequest {
+  private List<UUID> ids = new ArrayList<>();
+
+  @JsonProperty("readable_ids")
+  private List<String> readableIds = new ArrayList<>();
+}
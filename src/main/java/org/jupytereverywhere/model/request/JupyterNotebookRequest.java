@@ -2,6 +2,8 @@ package org.jupytereverywhere.model.request;
 
 import org.jupytereverywhere.dto.JupyterNotebookDTO;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
@@ -14,6 +16,10 @@ import lombok.NoArgsConstructor;
 public class JupyterNotebookRequest {
   private String password;
 
+  /** Seconds until the notebook expires; the configured default applies when absent. */
+  @JsonProperty("ttl_seconds")
+  private Long ttlSeconds;
+
   @NotNull(message = "Notebook field is required and cannot be null")
   @Valid
   private JupyterNotebookDTO notebook;
@@ -0,0 +1,48 @@
+package org.jupytereverywhere.model.response;
+
+import java.util.UUID;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One line of a batch fetch. Found notebooks have the same fields as {@link
+ * JupyterNotebookRetrieved}; notebooks that could not be returned only echo the requested id or
+ * readable id together with an {@code error}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class JupyterNotebookBatchItem {
+
+  public static final String NOT_FOUND = "NOT_FOUND";
+  public static final String STORAGE_ERROR = "STORAGE_ERROR";
+
+  private UUID id;
+
+  @JsonProperty("domain_id")
+  private String domain;
+
+  @JsonProperty("readable_id")
+  private String readableId;
+
+  @JsonRawValue
+  @JsonProperty("content")
+  private String notebookContent;
+
+  private String error;
+
+  public static JupyterNotebookBatchItem notFound(UUID id, String readableId) {
+    return failed(id, readableId, NOT_FOUND);
+  }
+
+  public static JupyterNotebookBatchItem failed(UUID id, String readableId, String error) {
+    return new JupyterNotebookBatchItem(id, null, readableId, null, error);
+  }
+}
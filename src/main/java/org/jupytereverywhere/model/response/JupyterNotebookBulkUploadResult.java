@@ -0,0 +1,50 @@
+package org.jupytereverywhere.model.response;
+
+import java.util.UUID;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one notebook of a bulk upload. {@code index} is the notebook's zero-based position in
+ * the request; saved notebooks carry the same fields as {@link JupyterNotebookSaved}, rejected ones
+ * an {@code error} code and a {@code message}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class JupyterNotebookBulkUploadResult {
+
+  public static final String INVALID_NOTEBOOK = "INVALID_NOTEBOOK";
+  public static final String NOTEBOOK_TOO_LARGE = "NOTEBOOK_TOO_LARGE";
+  public static final String TOO_MANY_NOTEBOOKS = "TOO_MANY_NOTEBOOKS";
+  public static final String STORAGE_ERROR = "STORAGE_ERROR";
+
+  private int index;
+
+  private UUID id;
+
+  @JsonProperty("domain_id")
+  private String domain;
+
+  @JsonProperty("readable_id")
+  private String readableId;
+
+  private String error;
+
+  private String message;
+
+  public static JupyterNotebookBulkUploadResult saved(
+      int index, UUID id, String domain, String readableId) {
+    return new JupyterNotebookBulkUploadResult(index, id, domain, readableId, null, null);
+  }
+
+  public static JupyterNotebookBulkUploadResult failed(int index, String error, String message) {
+    return new JupyterNotebookBulkUploadResult(index, null, null, null, error, message);
+  }
+}
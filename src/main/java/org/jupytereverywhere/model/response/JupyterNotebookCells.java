@@ -0,0 +1,42 @@
+package org.jupytereverywhere.model.response;
+
+import java.util.UUID;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A range of a notebook's cells. {@code cells} is a JSON array that is read from storage while the
+ * response is being written; {@code cell_count} is the notebook's total, when known.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonPropertyOrder({"id", "domain_id", "readable_id", "start", "cell_count", "cells"})
+public class JupyterNotebookCells implements JupyterNotebookResponse, VersionedNotebook {
+
+  private UUID id;
+
+  @JsonProperty("domain_id")
+  private String domain;
+
+  @JsonProperty("readable_id")
+  private String readableId;
+
+  private int start;
+
+  @JsonProperty("cell_count")
+  private Integer cellCount;
+
+  @JsonSerialize(using = StreamedNotebookContentSerializer.class)
+  @JsonProperty("cells")
+  private StreamedNotebookContent cells;
+
+  @JsonIgnore private Long version;
+}
@@ -0,0 +1,55 @@
+package org.jupytereverywhere.model.response;
+
+import java.sql.Timestamp;
+import java.util.UUID;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** What is known about a notebook without reading its content from storage. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JupyterNotebookMetadataRetrieved
+    implements JupyterNotebookResponse, VersionedNotebook {
+
+  private UUID id;
+
+  @JsonProperty("domain_id")
+  private String domain;
+
+  @JsonProperty("readable_id")
+  private String readableId;
+
+  @JsonProperty("kernel_name")
+  private String kernelName;
+
+  @JsonProperty("kernel_display_name")
+  private String kernelDisplayName;
+
+  private String language;
+
+  @JsonProperty("language_version")
+  private String languageVersion;
+
+  @JsonProperty("file_extension")
+  private String fileExtension;
+
+  @JsonProperty("size_bytes")
+  private Long sizeBytes;
+
+  @JsonProperty("cell_count")
+  private Integer cellCount;
+
+  @JsonProperty("content_digest")
+  private String contentDigest;
+
+  @JsonProperty("created_at")
+  private Timestamp createdAt;
+
+  @JsonIgnore private Long version;
+}
@@ -0,0 +1,24 @@
+package org.jupytereverywhere.model.response;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One page of a notebook listing, newest first. {@code next_cursor} is absent on the last page;
+ * otherwise it is passed back as {@code cursor} to fetch the next one.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JupyterNotebookPage implements JupyterNotebookResponse {
+
+  private List<JupyterNotebookMetadataRetrieved> notebooks;
+
+  @JsonProperty("next_cursor")
+  private String nextCursor;
+}
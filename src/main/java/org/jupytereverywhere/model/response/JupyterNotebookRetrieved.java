@@ -2,6 +2,7 @@ package org.jupytereverywhere.model.response;
 
 import java.util.UUID;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonRawValue;
 
@@ -12,7 +13,7 @@ import lombok.NoArgsConstructor;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class JupyterNotebookRetrieved implements JupyterNotebookResponse {
+public class JupyterNotebookRetrieved implements JupyterNotebookResponse, VersionedNotebook {
 
   private UUID id;
 
@@ -25,4 +26,14 @@ public class JupyterNotebookRetrieved implements JupyterNotebookResponse {
   @JsonRawValue
   @JsonProperty("content")
   private String notebookContent;
+
+  @JsonIgnore private Long version;
+
+  public JupyterNotebookRetrieved(
+      UUID id, String domain, String readableId, String notebookContent) {
+    this.id = id;
+    this.domain = domain;
+    this.readableId = readableId;
+    this.notebookContent = notebookContent;
+  }
 }
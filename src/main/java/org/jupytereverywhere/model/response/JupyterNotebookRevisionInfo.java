@@ -0,0 +1,23 @@
+package org.jupytereverywhere.model.response;
+
+import java.sql.Timestamp;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JupyterNotebookRevisionInfo {
+
+  private int revision;
+
+  @JsonProperty("size_bytes")
+  private long sizeBytes;
+
+  @JsonProperty("created_at")
+  private Timestamp createdAt;
+}
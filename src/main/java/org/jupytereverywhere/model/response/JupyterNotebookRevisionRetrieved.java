@@ -0,0 +1,30 @@
+package org.jupytereverywhere.model.response;
+
+import java.util.UUID;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JupyterNotebookRevisionRetrieved implements JupyterNotebookResponse {
+
+  private UUID id;
+
+  @JsonProperty("domain_id")
+  private String domain;
+
+  @JsonProperty("readable_id")
+  private String readableId;
+
+  private int revision;
+
+  @JsonRawValue
+  @JsonProperty("content")
+  private String notebookContent;
+}
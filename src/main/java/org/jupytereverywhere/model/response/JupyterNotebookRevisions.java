@@ -0,0 +1,18 @@
+package org.jupytereverywhere.model.response;
+
+import java.util.List;
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JupyterNotebookRevisions implements JupyterNotebookResponse {
+
+  private UUID id;
+
+  private List<JupyterNotebookRevisionInfo> revisions;
+}
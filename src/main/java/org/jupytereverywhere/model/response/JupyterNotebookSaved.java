@@ -2,6 +2,7 @@ package org.jupytereverywhere.model.response;
 
 import java.util.UUID;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import lombok.AllArgsConstructor;
@@ -11,7 +12,7 @@ import lombok.NoArgsConstructor;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class JupyterNotebookSaved {
+public class JupyterNotebookSaved implements VersionedNotebook {
 
   private UUID id;
 
@@ -20,4 +21,13 @@ public class JupyterNotebookSaved {
 
   @JsonProperty("readable_id")
   private String readableId;
+
+  /** Sent as the ETag header rather than in the body. */
+  @JsonIgnore private Long version;
+
+  public JupyterNotebookSaved(UUID id, String domain, String readableId) {
+    this.id = id;
+    this.domain = domain;
+    this.readableId = readableId;
+  }
 }
@@ -0,0 +1,45 @@
+package org.jupytereverywhere.model.response;
+
+import java.util.UUID;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Same JSON shape as {@link JupyterNotebookRetrieved}, but the notebook content is copied from
+ * storage into the response while it is being written.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonPropertyOrder({"id", "domain_id", "readable_id", "content"})
+public class JupyterNotebookStreamed implements JupyterNotebookResponse, VersionedNotebook {
+
+  private UUID id;
+
+  @JsonProperty("domain_id")
+  private String domain;
+
+  @JsonProperty("readable_id")
+  private String readableId;
+
+  @JsonSerialize(using = StreamedNotebookContentSerializer.class)
+  @JsonProperty("content")
+  private StreamedNotebookContent notebookContent;
+
+  @JsonIgnore private Long version;
+
+  public JupyterNotebookStreamed(
+      UUID id, String domain, String readableId, StreamedNotebookContent notebookContent) {
+    this.id = id;
+    this.domain = domain;
+    this.readableId = readableId;
+    this.notebookContent = notebookContent;
+  }
+}
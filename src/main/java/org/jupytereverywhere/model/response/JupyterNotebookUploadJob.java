@@ -0,0 +1,29 @@
+package org.jupytereverywhere.model.response;
+
+import java.util.UUID;
+
+import org.jupytereverywhere.model.NotebookUploadJobStatus;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JupyterNotebookUploadJob implements JupyterNotebookResponse {
+
+  @JsonProperty("job_id")
+  private UUID jobId;
+
+  private NotebookUploadJobStatus status;
+
+  /** The notebook the upload will create; it can be fetched once the job has succeeded. */
+  private JupyterNotebookSaved notebook;
+
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private String error;
+}
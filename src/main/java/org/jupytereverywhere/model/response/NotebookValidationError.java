@@ -0,0 +1,11 @@
+package org.jupytereverywhere.model.response;
+
+/**
+ * One nbformat schema violation, as reported to clients in the {@code validation_errors} detail of
+ * an invalid notebook error.
+ *
+ * @param path the JSON path of the offending value, e.g. {@code $.cells[3].source}
+ * @param keyword the schema keyword that failed, e.g. {@code required} or {@code type}
+ * @param message what is wrong with the value
+ */
+public record NotebookValidationError(String path, String keyword, String message) {}
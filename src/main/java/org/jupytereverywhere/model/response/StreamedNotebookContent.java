@@ -0,0 +1,17 @@
+package org.jupytereverywhere.model.response;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/** Notebook JSON that is written straight from storage to the response instead of a String. */
+@FunctionalInterface
+public interface StreamedNotebookContent {
+
+  /**
+   * Writes the raw notebook JSON to the target stream.
+   *
+   * @param target the stream to write to; it must not be closed
+   * @throws IOException if reading from storage or writing to the stream fails
+   */
+  void writeTo(OutputStream target) throws IOException;
+}
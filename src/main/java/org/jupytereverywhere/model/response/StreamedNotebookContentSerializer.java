@@ -0,0 +1,34 @@
+package org.jupytereverywhere.model.response;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+/**
+ * Serializes {@link StreamedNotebookContent} as a raw JSON value. When the generator writes to an
+ * output stream (as it does for HTTP responses) the generator is flushed and the notebook bytes are
+ * copied directly into that stream, so the notebook is never held in memory as a whole.
+ */
+public class StreamedNotebookContentSerializer extends JsonSerializer<StreamedNotebookContent> {
+
+  @Override
+  public void serialize(
+      StreamedNotebookContent value, JsonGenerator gen, SerializerProvider serializers)
+      throws IOException {
+    if (gen.getOutputTarget() instanceof OutputStream outputStream) {
+      // Lets the generator emit the field separator and mark the value as written
+      gen.writeRawValue("");
+      gen.flush();
+      value.writeTo(outputStream);
+    } else {
+      ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+      value.writeTo(buffer);
+      gen.writeRawValue(buffer.toString(StandardCharsets.UTF_8));
+    }
+  }
+}
@@ -0,0 +1,8 @@
+package org.jupytereverywhere.model.response;
+
+/** A notebook response carrying the version that clients send back in {@code If-Match}. */
+public interface VersionedNotebook {
+
+  /** The notebook's version, or null if it is not known. */
+  Long getVersion();
+}
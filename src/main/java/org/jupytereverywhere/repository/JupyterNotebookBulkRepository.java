@@ -0,0 +1,82 @@
+package org.jupytereverywhere.repository;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.jupytereverywhere.model.JupyterNotebookEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Writes notebook metadata rows in JDBC batches for bulk uploads. Inserting through JPA would send
+ * one statement per row and re-read every row to pick up the readable id set by the insert trigger.
+ */
+@Repository
+public class JupyterNotebookBulkRepository {
+
+  private static final String INSERT_SQL =
+      "INSERT INTO jupyter_notebooks_metadata (id, session_id, kernel_name, kernel_display_name,"
+          + " language, language_version, file_extension, domain, storage_url, password,"
+          + " created_at, size_bytes, cell_count, content_digest, expires_at)"
+          + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+  private static final String READABLE_IDS_SQL =
+      "SELECT id, readable_id FROM jupyter_notebooks_metadata WHERE id = ANY(?)";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public JupyterNotebookBulkRepository(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Inserts all notebooks in one transaction. Ids must already be assigned.
+   *
+   * @return the readable id the database assigned to each notebook, by notebook id
+   */
+  @Transactional
+  public Map<UUID, String> insertAll(List<JupyterNotebookEntity> notebooks) {
+    jdbcTemplate.batchUpdate(
+        INSERT_SQL,
+        notebooks,
+        notebooks.size(),
+        (statement, notebook) -> {
+          statement.setObject(1, notebook.getId());
+          statement.setObject(2, notebook.getSessionId());
+          statement.setString(3, notebook.getKernelName());
+          statement.setString(4, notebook.getKernelDisplayName());
+          statement.setString(5, notebook.getLanguage());
+          statement.setString(6, notebook.getLanguageVersion());
+          statement.setString(7, notebook.getFileExtension());
+          statement.setString(8, notebook.getDomain());
+          statement.setString(9, notebook.getStorageUrl());
+          statement.setString(10, notebook.getPassword());
+          statement.setTimestamp(11, notebook.getCreatedAt());
+          statement.setObject(12, notebook.getSizeBytes(), Types.BIGINT);
+          statement.setObject(13, notebook.getCellCount(), Types.INTEGER);
+          statement.setString(14, notebook.getContentDigest());
+          statement.setTimestamp(15, notebook.getExpiresAt());
+        });
+
+    UUID[] ids = notebooks.stream().map(JupyterNotebookEntity::getId).toArray(UUID[]::new);
+    Map<UUID, String> readableIds = new HashMap<>();
+    jdbcTemplate.query(
+        (Connection connection) -> {
+          Array idArray = connection.createArrayOf("uuid", ids);
+          var statement = connection.prepareStatement(READABLE_IDS_SQL);
+          statement.setArray(1, idArray);
+          return statement;
+        },
+        resultSet -> {
+          readableIds.put(
+              resultSet.getObject("id", UUID.class), resultSet.getString("readable_id"));
+        });
+    return readableIds;
+  }
+}
@@ -1,16 +1,127 @@
 package org.jupytereverywhere.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import org.jupytereverywhere.model.JupyterNotebookEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface JupyterNotebookRepository extends JpaRepository<JupyterNotebookEntity, UUID> {
+
+  /** Columns of {@link NotebookSummary}, aliased to its property names. */
+  String SUMMARY_COLUMNS =
+      "id, domain, readable_id AS \"readableId\", kernel_name AS \"kernelName\","
+          + " kernel_display_name AS \"kernelDisplayName\", language,"
+          + " language_version AS \"languageVersion\", file_extension AS \"fileExtension\","
+          + " size_bytes AS \"sizeBytes\", cell_count AS \"cellCount\","
+          + " content_digest AS \"contentDigest\", created_at AS \"createdAt\", version";
+
   List<JupyterNotebookEntity> findBySessionId(UUID sessionId);
 
+  /**
+   * First page of a session's stored notebooks, newest first. Served from the {@code (session_id,
+   * created_at, id)} index; see {@link #findSessionPageAfter} for the following pages.
+   */
+  @Query(
+      value =
+          "SELECT "
+              + SUMMARY_COLUMNS
+              + " FROM jupyter_notebooks_metadata"
+              + " WHERE session_id = :sessionId AND storage_url <> ''"
+              + " ORDER BY created_at DESC, id DESC LIMIT :limit",
+      nativeQuery = true)
+  List<NotebookSummary> findSessionPage(
+      @Param("sessionId") UUID sessionId, @Param("limit") int limit);
+
+  /**
+   * Page of a session's stored notebooks that follows the notebook created at {@code createdAt}
+   * with id {@code id}. The row comparison seeks straight to that position in the index, so deep
+   * pages cost the same as the first one.
+   */
+  @Query(
+      value =
+          "SELECT "
+              + SUMMARY_COLUMNS
+              + " FROM jupyter_notebooks_metadata"
+              + " WHERE session_id = :sessionId AND storage_url <> ''"
+              + " AND (created_at, id) < (:createdAt, :id)"
+              + " ORDER BY created_at DESC, id DESC LIMIT :limit",
+      nativeQuery = true)
+  List<NotebookSummary> findSessionPageAfter(
+      @Param("sessionId") UUID sessionId,
+      @Param("createdAt") LocalDateTime createdAt,
+      @Param("id") UUID id,
+      @Param("limit") int limit);
+
   Optional<JupyterNotebookEntity> findNotebookById(UUID notebookId);
 
   Optional<JupyterNotebookEntity> findByReadableId(String readableId);
+
+  /**
+   * Read-only even when called outside a service transaction, so that the lookup can be served by
+   * a read replica.
+   */
+  @Transactional(readOnly = true)
+  Optional<NotebookLocation> findLocationById(UUID id);
+
+  @Transactional(readOnly = true)
+  Optional<NotebookLocation> findLocationByReadableId(String readableId);
+
+  List<NotebookLocation> findLocationsByIdIn(Collection<UUID> ids);
+
+  List<NotebookLocation> findLocationsByReadableIdIn(Collection<String> readableIds);
+
+  List<NotebookLocation> findLocationsByIdInOrReadableIdIn(
+      Collection<UUID> ids, Collection<String> readableIds);
+
+  @Modifying
+  @Transactional
+  @Query(
+      "UPDATE JupyterNotebookEntity n SET n.storageUrl = :newStorageUrl"
+          + " WHERE n.storageUrl = :oldStorageUrl")
+  int updateStorageUrl(
+      @Param("oldStorageUrl") String oldStorageUrl, @Param("newStorageUrl") String newStorageUrl);
+
+  /**
+   * Claims the next version of a notebook if it is still at {@code expectedVersion}. The updated
+   * row stays locked until the surrounding transaction ends, so concurrent writers on other
+   * instances wait and then fail the version check.
+   *
+   * <p>Not {@code @Modifying}: the {@code RETURNING} row has to be read as a query result, which
+   * {@code executeUpdate} cannot do. The statement therefore bypasses the persistence context, and
+   * a notebook entity already loaded in the transaction keeps its old version; callers must set
+   * the returned version on it. {@code version} is not updatable through the entity, so saving it
+   * afterwards never writes the stale value back.
+   *
+   * @return the new version, or empty if the notebook is missing or was updated concurrently
+   */
+  @Transactional
+  @Query(
+      value =
+          "UPDATE jupyter_notebooks_metadata SET version = version + 1"
+              + " WHERE id = :id AND version = :expectedVersion RETURNING version",
+      nativeQuery = true)
+  Optional<Long> incrementVersionIfMatches(
+      @Param("id") UUID id, @Param("expectedVersion") long expectedVersion);
+
+  /**
+   * Claims the next version of a notebook regardless of its current version. As with {@link
+   * #incrementVersionIfMatches}, callers must set the returned version on a loaded entity.
+   *
+   * @return the new version, or empty if the notebook is missing
+   */
+  @Transactional
+  @Query(
+      value =
+          "UPDATE jupyter_notebooks_metadata SET version = version + 1"
+              + " WHERE id = :id RETURNING version",
+      nativeQuery = true)
+  Optional<Long> incrementVersion(@Param("id") UUID id);
 }
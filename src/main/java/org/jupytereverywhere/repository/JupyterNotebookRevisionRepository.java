@@ -0,0 +1,65 @@
+package org.jupytereverywhere.repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.jupytereverywhere.model.JupyterNotebookRevisionEntity;
+import org.jupytereverywhere.model.NotebookRevisionType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface JupyterNotebookRevisionRepository
+    extends JpaRepository<JupyterNotebookRevisionEntity, UUID> {
+
+  List<NotebookRevisionSummary> findByNotebookIdOrderByRevisionNumberDesc(UUID notebookId);
+
+  Optional<NotebookRevisionSummary> findFirstByNotebookIdOrderByRevisionNumberDesc(
+      UUID notebookId);
+
+  Optional<NotebookRevisionSummary>
+      findFirstByNotebookIdAndRevisionTypeOrderByRevisionNumberDesc(
+          UUID notebookId, NotebookRevisionType revisionType);
+
+  Optional<NotebookRevisionSummary>
+      findFirstByNotebookIdAndCreatedAtGreaterThanEqualOrderByRevisionNumberAsc(
+          UUID notebookId, Timestamp createdAt);
+
+  List<JupyterNotebookRevisionEntity>
+      findByNotebookIdAndRevisionNumberBetweenOrderByRevisionNumberAsc(
+          UUID notebookId, int fromRevision, int toRevision);
+
+  /** The closest full snapshot at or before the given revision. */
+  @Query(
+      value =
+          "SELECT * FROM jupyter_notebook_revisions WHERE notebook_id = :notebookId"
+              + " AND revision_type = 'SNAPSHOT' AND revision_number <= :revisionNumber"
+              + " ORDER BY revision_number DESC LIMIT 1",
+      nativeQuery = true)
+  Optional<JupyterNotebookRevisionEntity> findSnapshotAtOrBefore(
+      @Param("notebookId") UUID notebookId, @Param("revisionNumber") int revisionNumber);
+
+  /** The number of the closest full snapshot at or before the given revision. */
+  @Query(
+      value =
+          "SELECT revision_number FROM jupyter_notebook_revisions WHERE notebook_id = :notebookId"
+              + " AND revision_type = 'SNAPSHOT' AND revision_number <= :revisionNumber"
+              + " ORDER BY revision_number DESC LIMIT 1",
+      nativeQuery = true)
+  Optional<Integer> findSnapshotNumberAtOrBefore(
+      @Param("notebookId") UUID notebookId, @Param("revisionNumber") int revisionNumber);
+
+  @Modifying
+  @Transactional
+  @Query(
+      value =
+          "DELETE FROM jupyter_notebook_revisions WHERE notebook_id = :notebookId"
+              + " AND revision_number < :revisionNumber",
+      nativeQuery = true)
+  int deleteRevisionsBefore(
+      @Param("notebookId") UUID notebookId, @Param("revisionNumber") int revisionNumber);
+}
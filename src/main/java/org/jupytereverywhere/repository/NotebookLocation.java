@@ -0,0 +1,19 @@
+package org.jupytereverywhere.repository;
+
+import java.util.UUID;
+
+/**
+ * Notebook columns needed to serve its content, without the password hash or kernel metadata. All
+ * of them are in the covering indexes on {@code id} and {@code readable_id}.
+ */
+public interface NotebookLocation {
+  UUID getId();
+
+  String getDomain();
+
+  String getReadableId();
+
+  String getStorageUrl();
+
+  long getVersion();
+}
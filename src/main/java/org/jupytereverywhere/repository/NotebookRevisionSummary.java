@@ -0,0 +1,12 @@
+package org.jupytereverywhere.repository;
+
+import java.sql.Timestamp;
+
+/** Revision columns needed for listing, without the payload. */
+public interface NotebookRevisionSummary {
+  int getRevisionNumber();
+
+  long getContentSizeBytes();
+
+  Timestamp getCreatedAt();
+}
@@ -0,0 +1,33 @@
+package org.jupytereverywhere.repository;
+
+import java.sql.Timestamp;
+import java.util.UUID;
+
+/** Notebook columns shown in listings, without the session, password hash or storage URL. */
+public interface NotebookSummary {
+  UUID getId();
+
+  String getDomain();
+
+  String getReadableId();
+
+  String getKernelName();
+
+  String getKernelDisplayName();
+
+  String getLanguage();
+
+  String getLanguageVersion();
+
+  String getFileExtension();
+
+  Long getSizeBytes();
+
+  Integer getCellCount();
+
+  String getContentDigest();
+
+  Timestamp getCreatedAt();
+
+  long getVersion();
+}
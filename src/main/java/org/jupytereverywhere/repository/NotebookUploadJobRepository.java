@@ -0,0 +1,71 @@
+package org.jupytereverywhere.repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.jupytereverywhere.model.NotebookUploadJobEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface NotebookUploadJobRepository extends JpaRepository<NotebookUploadJobEntity, UUID> {
+
+  Optional<NotebookUploadJobSummary> findSummaryById(UUID id);
+
+  /**
+   * Moves a pending job to processing, so that only one worker across all instances runs it.
+   *
+   * @return the job id, or empty if the job is no longer pending
+   */
+  @Transactional
+  @Query(
+      value =
+          "UPDATE notebook_upload_jobs SET status = 'PROCESSING', attempts = attempts + 1,"
+              + " updated_at = NOW() WHERE id = :id AND status = 'PENDING' RETURNING id",
+      nativeQuery = true)
+  Optional<UUID> claimPending(@Param("id") UUID id);
+
+  @Query(
+      value =
+          "SELECT id FROM notebook_upload_jobs WHERE status = 'PENDING'"
+              + " ORDER BY created_at LIMIT :limit",
+      nativeQuery = true)
+  List<UUID> findPendingIds(@Param("limit") int limit);
+
+  /**
+   * Hands jobs left processing by a stopped or stuck worker back to the pending queue, unless they
+   * have used up their attempts.
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      value =
+          "UPDATE notebook_upload_jobs SET status = 'PENDING', updated_at = NOW()"
+              + " WHERE status = 'PROCESSING' AND attempts < :maxAttempts"
+              + " AND updated_at < NOW() - :staleAfterMs * INTERVAL '1 millisecond'",
+      nativeQuery = true)
+  int requeueStale(@Param("staleAfterMs") long staleAfterMs, @Param("maxAttempts") int maxAttempts);
+
+  /**
+   * Fails the jobs left processing by a stopped or stuck worker on their last attempt, e.g. because
+   * processing them crashed the worker, so they are not retried forever.
+   *
+   * @return the ids of their notebooks
+   */
+  @Transactional
+  @Query(
+      value =
+          "UPDATE notebook_upload_jobs SET status = 'FAILED', payload = NULL,"
+              + " error_message = :errorMessage, updated_at = NOW()"
+              + " WHERE status = 'PROCESSING' AND attempts >= :maxAttempts"
+              + " AND updated_at < NOW() - :staleAfterMs * INTERVAL '1 millisecond'"
+              + " RETURNING notebook_id",
+      nativeQuery = true)
+  List<UUID> failStale(
+      @Param("staleAfterMs") long staleAfterMs,
+      @Param("maxAttempts") int maxAttempts,
+      @Param("errorMessage") String errorMessage);
+}
@@ -0,0 +1,22 @@
+package org.jupytereverywhere.repository;
+
+import java.util.UUID;
+
+import org.jupytereverywhere.model.NotebookUploadJobStatus;
+
+/** Upload job columns needed to report its status, without the staged content. */
+public interface NotebookUploadJobSummary {
+  UUID getId();
+
+  UUID getNotebookId();
+
+  String getReadableId();
+
+  String getDomain();
+
+  UUID getSessionId();
+
+  NotebookUploadJobStatus getStatus();
+
+  String getErrorMessage();
+}
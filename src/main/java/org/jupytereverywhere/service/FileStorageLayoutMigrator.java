@@ -0,0 +1,158 @@
+package org.jupytereverywhere.service;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+import org.apache.logging.log4j.message.StringMapMessage;
+import org.jupytereverywhere.repository.JupyterNotebookRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Moves notebooks stored directly under {@code storage.path.local} (the layout used before
+ * sharding) into their hash-prefixed shard directories and repoints the metadata rows.
+ *
+ * <p>The migration is safe to run while the service is serving traffic: each notebook is
+ * hard-linked into its shard before the database is updated and the old file removed, and
+ * {@link FileStorageService} falls back to the shard when a stored flat path no longer exists. A
+ * shard copy written by a concurrent update is never overwritten.
+ *
+ * <p>Enable with {@code storage.file.migrate-flat-layout=true}; it then runs once in the
+ * background after startup. Re-running is harmless.
+ */
+@Log4j2
+@Component
+public class FileStorageLayoutMigrator implements ApplicationListener<ApplicationReadyEvent> {
+
+  private static final String MESSAGE = "Message";
+  private static final String NOTEBOOK_PATH = "NotebookPath";
+
+  private final FileStorageService fileStorageService;
+  private final JupyterNotebookRepository notebookRepository;
+
+  @Value("${storage.file.migrate-flat-layout:false}")
+  private boolean migrateOnStartup;
+
+  public FileStorageLayoutMigrator(
+      FileStorageService fileStorageService, JupyterNotebookRepository notebookRepository) {
+    this.fileStorageService = fileStorageService;
+    this.notebookRepository = notebookRepository;
+  }
+
+  @Override
+  public void onApplicationEvent(@NonNull ApplicationReadyEvent event) {
+    if (!migrateOnStartup) {
+      return;
+    }
+    Thread.ofVirtual().name("file-storage-layout-migration").start(this::migrateFlatLayout);
+  }
+
+  /**
+   * Migrates every notebook found directly under the storage root.
+   *
+   * @return counts of migrated, skipped and failed notebooks
+   */
+  public MigrationResult migrateFlatLayout() {
+    Path root = fileStorageService.getStorageRoot();
+    int migrated = 0;
+    int skipped = 0;
+    int failed = 0;
+
+    log.info(
+        new StringMapMessage()
+            .with(MESSAGE, "Starting flat storage layout migration")
+            .with("StorageRoot", root.toString()));
+
+    if (Files.isDirectory(root)) {
+      try (DirectoryStream<Path> stream = Files.newDirectoryStream(root, "*.ipynb")) {
+        for (Path flatPath : stream) {
+          if (!Files.isRegularFile(flatPath)) {
+            continue;
+          }
+          try {
+            if (migrateNotebook(flatPath)) {
+              migrated++;
+            } else {
+              skipped++;
+            }
+          } catch (IOException | RuntimeException e) {
+            failed++;
+            log.error(
+                new StringMapMessage()
+                    .with(MESSAGE, "Failed to migrate notebook to sharded layout")
+                    .with(NOTEBOOK_PATH, flatPath.toString())
+                    .with("Error", String.valueOf(e.getMessage())),
+                e);
+          }
+        }
+      } catch (IOException e) {
+        log.error(
+            new StringMapMessage()
+                .with(MESSAGE, "Could not list storage root for migration")
+                .with("StorageRoot", root.toString())
+                .with("Error", String.valueOf(e.getMessage())),
+            e);
+      }
+    }
+
+    MigrationResult result = new MigrationResult(migrated, skipped, failed);
+    log.info(
+        new StringMapMessage()
+            .with(MESSAGE, "Flat storage layout migration finished")
+            .with("Migrated", String.valueOf(result.migrated()))
+            .with("Skipped", String.valueOf(result.skipped()))
+            .with("Failed", String.valueOf(result.failed())));
+    return result;
+  }
+
+  /**
+   * Moves a single flat-layout notebook into its shard.
+   *
+   * @return true if the notebook was migrated, false if it disappeared concurrently
+   */
+  boolean migrateNotebook(Path flatPath) throws IOException {
+    String notebookName = flatPath.getFileName().toString();
+    Path shardedPath = fileStorageService.resolveNotebookPath(notebookName);
+    fileStorageService.ensureDirectoryExists(shardedPath.getParent());
+
+    try {
+      Files.createLink(shardedPath, flatPath);
+    } catch (FileAlreadyExistsException e) {
+      // An update already wrote a newer copy into the shard; keep it
+    } catch (UnsupportedOperationException e) {
+      copyIfAbsent(flatPath, shardedPath);
+    } catch (NoSuchFileException e) {
+      return false;
+    }
+
+    int updatedRows =
+        notebookRepository.updateStorageUrl(flatPath.toString(), shardedPath.toString());
+    Files.deleteIfExists(flatPath);
+
+    log.debug(
+        new StringMapMessage()
+            .with(MESSAGE, "Notebook migrated to sharded layout")
+            .with(NOTEBOOK_PATH, shardedPath.toString())
+            .with("UpdatedRows", String.valueOf(updatedRows)));
+    return true;
+  }
+
+  private static void copyIfAbsent(Path source, Path target) throws IOException {
+    try {
+      Files.copy(source, target);
+    } catch (FileAlreadyExistsException e) {
+      // Newer copy already present
+    }
+  }
+
+  public record MigrationResult(int migrated, int skipped, int failed) {}
+}
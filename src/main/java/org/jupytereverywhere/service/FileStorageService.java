@@ -1,10 +1,28 @@
 package org.jupytereverywhere.service;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.regex.Pattern;
 
 import org.apache.logging.log4j.message.StringMapMessage;
 import org.jupytereverywhere.exception.NotebookNotFoundException;
@@ -14,6 +32,17 @@ import org.springframework.stereotype.Service;
 
 import lombok.extern.log4j.Log4j2;
 
+/**
+ * Stores notebooks on the local filesystem under {@code storage.path.local}.
+ *
+ * <p>Notebooks are spread over a two-level directory tree derived from a hash of the file name
+ * (for example {@code 3f/a2/{uuid}.ipynb}) so no single directory grows without bound. Writes go
+ * to a temporary file in the target directory which is then atomically renamed into place, so
+ * readers never observe a partially written notebook.
+ *
+ * <p>Notebooks written by earlier versions directly under the storage root are still served and
+ * can be moved into the sharded layout with {@link FileStorageLayoutMigrator}.
+ */
 @Log4j2
 @Service("fileStorageService")
 public class FileStorageService implements StorageService {
@@ -23,6 +52,11 @@ public class FileStorageService implements StorageService {
   public static final String NOTEBOOK_PATH = "NotebookPath";
   public static final String ERROR = "Error";
 
+  static final String TEMP_FILE_SUFFIX = ".tmp";
+  private static final String NOTEBOOK_SUFFIX = ".ipynb";
+  private static final int SHARD_HEX_CHARS = 2;
+  private static final Pattern SHARD_DIRECTORY = Pattern.compile("[0-9a-f]{2}");
+
   @Value("${storage.path.local}")
   private String localStoragePath;
 
@@ -37,16 +71,51 @@ public class FileStorageService implements StorageService {
     }
   }
 
+  Path getStorageRoot() {
+    return Paths.get(localStoragePath);
+  }
+
+  /**
+   * Resolves the sharded location of a notebook, e.g. {@code <root>/3f/a2/<notebookName>}.
+   *
+   * @param notebookName the notebook file name
+   * @return the path the notebook is stored at
+   */
+  Path resolveNotebookPath(String notebookName) {
+    String hash = shardHash(notebookName);
+    return getStorageRoot()
+        .resolve(hash.substring(0, SHARD_HEX_CHARS))
+        .resolve(hash.substring(SHARD_HEX_CHARS, 2 * SHARD_HEX_CHARS))
+        .resolve(notebookName);
+  }
+
+  /** Location used before the sharded layout was introduced. */
+  Path resolveLegacyNotebookPath(String notebookName) {
+    return getStorageRoot().resolve(notebookName);
+  }
+
+  static String shardHash(String notebookName) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      byte[] hash = digest.digest(notebookName.getBytes(StandardCharsets.UTF_8));
+      return HexFormat.of().formatHex(hash, 0, SHARD_HEX_CHARS);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
   @Override
   public String uploadNotebook(String notebookJsonString, String notebookName) {
     Path notebookPath = null;
     try {
-      Path directoryPath = Paths.get(localStoragePath);
-      notebookPath = Paths.get(directoryPath.toString(), notebookName);
+      notebookPath = resolveNotebookPath(notebookName);
 
       ensureDirectoryExists(notebookPath.getParent());
 
-      Files.write(notebookPath, notebookJsonString.getBytes(StandardCharsets.UTF_8));
+      writeAtomically(notebookPath, notebookJsonString.getBytes(StandardCharsets.UTF_8));
+
+      // A copy in the old flat layout is now stale
+      Files.deleteIfExists(resolveLegacyNotebookPath(notebookName));
 
       StringMapMessage logMessage =
           new StringMapMessage()
@@ -62,7 +131,7 @@ public class FileStorageService implements StorageService {
           new StringMapMessage()
               .with(MESSAGE, "Error saving notebook")
               .with(NOTEBOOK_NAME, notebookName)
-              .with(NOTEBOOK_PATH, notebookPath.toString())
+              .with(NOTEBOOK_PATH, String.valueOf(notebookPath))
               .with(ERROR, e.getMessage());
       log.error(errorLog, e);
       throw new NotebookStorageException(
@@ -70,6 +139,33 @@ public class FileStorageService implements StorageService {
     }
   }
 
+  /**
+   * Writes the content to a temporary file next to the target, forces it to disk and renames it
+   * over the target, so a crash leaves either the old or the new notebook but never a truncated
+   * one.
+   */
+  void writeAtomically(Path target, byte[] content) throws IOException {
+    Path tempPath =
+        Files.createTempFile(target.getParent(), "." + target.getFileName(), TEMP_FILE_SUFFIX);
+    try {
+      try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.WRITE)) {
+        ByteBuffer buffer = ByteBuffer.wrap(content);
+        while (buffer.hasRemaining()) {
+          channel.write(buffer);
+        }
+        channel.force(true);
+      }
+      try {
+        Files.move(
+            tempPath, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(tempPath, target, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(tempPath);
+    }
+  }
+
   @Override
   public String downloadNotebookAsJson(String fullPath) {
     try {
@@ -80,6 +176,10 @@ public class FileStorageService implements StorageService {
       log.info(loadLog);
 
       if (!Files.exists(path)) {
+        path = relocatedPath(path);
+      }
+
+      if (path == null) {
         StringMapMessage notFoundLog =
             new StringMapMessage()
                 .with(MESSAGE, "Notebook not found")
@@ -103,16 +203,201 @@ public class FileStorageService implements StorageService {
     }
   }
 
+  /**
+   * Copies the stored notebook into the target stream with {@link FileChannel#transferTo}, without
+   * decoding it or loading it onto the heap.
+   */
+  @Override
+  public void transferNotebookTo(String fullPath, OutputStream target) throws IOException {
+    Path path = Paths.get(fullPath);
+    FileChannel channel;
+    try {
+      channel = FileChannel.open(path, StandardOpenOption.READ);
+    } catch (NoSuchFileException e) {
+      Path relocated = relocatedPath(path);
+      if (relocated == null) {
+        StringMapMessage notFoundLog =
+            new StringMapMessage()
+                .with(MESSAGE, "Notebook not found")
+                .with(NOTEBOOK_PATH, fullPath);
+        log.error(notFoundLog);
+        throw new NotebookNotFoundException("Notebook not found: " + fullPath);
+      }
+      channel = FileChannel.open(relocated, StandardOpenOption.READ);
+    }
+
+    try (channel) {
+      WritableByteChannel targetChannel = Channels.newChannel(target);
+      long position = 0;
+      long size = channel.size();
+      while (position < size) {
+        long transferred = channel.transferTo(position, size - position, targetChannel);
+        if (transferred <= 0) {
+          break;
+        }
+        position += transferred;
+      }
+
+      log.debug(
+          new StringMapMessage()
+              .with(MESSAGE, "Notebook streamed")
+              .with(NOTEBOOK_PATH, fullPath)
+              .with("Bytes", String.valueOf(position)));
+    }
+  }
+
+  @Override
+  public InputStream openNotebook(String fullPath) throws IOException {
+    Path path = Paths.get(fullPath);
+    try {
+      return Files.newInputStream(path);
+    } catch (NoSuchFileException e) {
+      Path relocated = relocatedPath(path);
+      if (relocated == null) {
+        log.error(
+            new StringMapMessage()
+                .with(MESSAGE, "Notebook not found")
+                .with(NOTEBOOK_PATH, fullPath));
+        throw new NotebookNotFoundException("Notebook not found: " + fullPath);
+      }
+      return Files.newInputStream(relocated);
+    }
+  }
+
+  /**
+   * Lists notebooks in {@link ListingOrder#SHARD} order by walking the shard directories in order,
+   * starting at the shard of {@code startAfter}. Each shard directory visited is read and sorted as
+   * a whole, so a page costs the directories it covers rather than the whole tree. Notebooks still
+   * in the flat layout are not listed; move them with {@link FileStorageLayoutMigrator} first.
+   */
+  @Override
+  public List<NotebookObject> listNotebooks(String startAfter, int limit) {
+    Path root = getStorageRoot();
+    if (!Files.isDirectory(root)) {
+      return List.of();
+    }
+
+    String startShard = startAfter == null ? null : shardHash(startAfter);
+    String startFirst = startShard == null ? "" : startShard.substring(0, SHARD_HEX_CHARS);
+    String startSecond = startShard == null ? "" : startShard.substring(SHARD_HEX_CHARS);
+    List<NotebookObject> notebooks = new ArrayList<>();
+    try {
+      for (String first : shardDirectories(root, startFirst)) {
+        Path firstDirectory = root.resolve(first);
+        for (String second :
+            shardDirectories(firstDirectory, first.equals(startFirst) ? startSecond : "")) {
+          boolean startsHere = first.equals(startFirst) && second.equals(startSecond);
+          listShard(
+              firstDirectory.resolve(second),
+              startsHere ? startAfter : null,
+              limit - notebooks.size(),
+              notebooks);
+          if (notebooks.size() >= limit) {
+            return notebooks;
+          }
+        }
+      }
+    } catch (IOException e) {
+      log.error(
+          new StringMapMessage()
+              .with(MESSAGE, "Error listing notebooks in local storage")
+              .with("StorageRoot", root.toString())
+              .with(ERROR, e.getMessage()),
+          e);
+      throw new NotebookStorageException("Error listing notebooks in local storage", e);
+    }
+    return notebooks;
+  }
+
+  @Override
+  public ListingOrder listingOrder() {
+    return ListingOrder.SHARD;
+  }
+
+  /** The shard directories directly under {@code directory} named {@code from} or later, sorted. */
+  private static List<String> shardDirectories(Path directory, String from) throws IOException {
+    List<String> names = new ArrayList<>();
+    try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+      for (Path entry : entries) {
+        String name = entry.getFileName().toString();
+        if (SHARD_DIRECTORY.matcher(name).matches()
+            && name.compareTo(from) >= 0
+            && Files.isDirectory(entry)) {
+          names.add(name);
+        }
+      }
+    } catch (NoSuchFileException e) {
+      // Removed while listing
+      return List.of();
+    }
+    names.sort(null);
+    return names;
+  }
+
+  /**
+   * Adds the first {@code limit} notebooks of a shard directory, by name, that sort after {@code
+   * startAfter}.
+   */
+  private static void listShard(
+      Path shardDirectory, String startAfter, int limit, List<NotebookObject> notebooks)
+      throws IOException {
+    List<String> names = new ArrayList<>();
+    try (DirectoryStream<Path> entries =
+        Files.newDirectoryStream(shardDirectory, "*" + NOTEBOOK_SUFFIX)) {
+      for (Path entry : entries) {
+        String name = entry.getFileName().toString();
+        if (startAfter == null || name.compareTo(startAfter) > 0) {
+          names.add(name);
+        }
+      }
+    } catch (NoSuchFileException e) {
+      return;
+    }
+    names.sort(null);
+
+    int added = 0;
+    for (String name : names) {
+      if (added >= limit) {
+        break;
+      }
+      try {
+        BasicFileAttributes attributes =
+            Files.readAttributes(shardDirectory.resolve(name), BasicFileAttributes.class);
+        if (attributes.isRegularFile()) {
+          notebooks.add(new NotebookObject(name, attributes.lastModifiedTime().toInstant()));
+          added++;
+        }
+      } catch (NoSuchFileException e) {
+        // Deleted while listing
+      }
+    }
+  }
+
+  /**
+   * Finds a notebook whose stored path is out of date, i.e. a flat-layout path whose file has since
+   * been moved into its shard by an update or by the layout migration.
+   *
+   * @return the current location, or null if the notebook does not exist
+   */
+  Path relocatedPath(Path storedPath) {
+    if (localStoragePath == null || storedPath.getFileName() == null) {
+      return null;
+    }
+    Path shardedPath = resolveNotebookPath(storedPath.getFileName().toString());
+    return Files.exists(shardedPath) ? shardedPath : null;
+  }
+
   @Override
   public void deleteNotebook(String fileName) {
     Path notebookPath = null;
     try {
-      Path directoryPath = Paths.get(localStoragePath);
-      notebookPath = Paths.get(directoryPath.toString(), fileName);
+      notebookPath = resolveNotebookPath(fileName);
+      Path legacyPath = resolveLegacyNotebookPath(fileName);
 
-      if (Files.exists(notebookPath)) {
-        Files.delete(notebookPath);
+      boolean deleted = Files.deleteIfExists(notebookPath);
+      deleted |= Files.deleteIfExists(legacyPath);
 
+      if (deleted) {
         StringMapMessage deleteLog =
             new StringMapMessage()
                 .with(MESSAGE, "Notebook deleted")
@@ -133,7 +418,7 @@ public class FileStorageService implements StorageService {
           new StringMapMessage()
               .with(MESSAGE, "Error deleting notebook")
               .with(NOTEBOOK_NAME, fileName)
-              .with(NOTEBOOK_PATH, notebookPath.toString())
+              .with(NOTEBOOK_PATH, String.valueOf(notebookPath))
               .with(ERROR, e.getMessage());
       log.error(errorLog, e);
       throw new NotebookStorageException(
@@ -1,34 +1,82 @@
 package org.jupytereverywhere.service;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.sql.Timestamp;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HexFormat;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 
 import org.apache.logging.log4j.message.StringMapMessage;
+import org.jupytereverywhere.config.TracingConstants;
 import org.jupytereverywhere.dto.JupyterNotebookDTO;
 import org.jupytereverywhere.dto.MetadataDTO;
 import org.jupytereverywhere.exception.InvalidNotebookException;
 import org.jupytereverywhere.exception.NotebookNotFoundException;
 import org.jupytereverywhere.exception.NotebookStorageException;
 import org.jupytereverywhere.exception.NotebookTooLargeException;
+import org.jupytereverywhere.exception.NotebookVersionConflictException;
 import org.jupytereverywhere.exception.UnauthorizedNotebookAccessException;
 import org.jupytereverywhere.model.JupyterNotebookEntity;
 import org.jupytereverywhere.model.request.JupyterNotebookRequest;
+import org.jupytereverywhere.model.response.JupyterNotebookBatchItem;
+import org.jupytereverywhere.model.response.JupyterNotebookCells;
+import org.jupytereverywhere.model.response.JupyterNotebookMetadataRetrieved;
+import org.jupytereverywhere.model.response.JupyterNotebookPage;
 import org.jupytereverywhere.model.response.JupyterNotebookRetrieved;
+import org.jupytereverywhere.model.response.JupyterNotebookRevisionInfo;
+import org.jupytereverywhere.model.response.JupyterNotebookRevisionRetrieved;
+import org.jupytereverywhere.model.response.JupyterNotebookRevisions;
 import org.jupytereverywhere.model.response.JupyterNotebookSaved;
+import org.jupytereverywhere.model.response.JupyterNotebookStreamed;
 import org.jupytereverywhere.repository.JupyterNotebookRepository;
+import org.jupytereverywhere.repository.NotebookLocation;
+import org.jupytereverywhere.repository.NotebookSummary;
+import org.jupytereverywhere.service.metrics.NotebookObservationContext;
+import org.jupytereverywhere.service.metrics.NotebookUploadEvent;
+import org.jupytereverywhere.service.utils.JsonPatch;
 import org.jupytereverywhere.service.utils.JupyterNotebookValidator;
+import org.jupytereverywhere.service.utils.NotebookCells;
+import org.jupytereverywhere.service.utils.NotebookListCursor;
+import org.jupytereverywhere.service.utils.NotebookValidationResult;
 import org.jupytereverywhere.utils.DateUtils;
+import org.jupytereverywhere.utils.ServerTiming;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.fasterxml.jackson.core.JsonPointer;
 import com.fasterxml.jackson.core.JsonProcessingException;
-
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.MissingNode;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import jakarta.persistence.EntityManager;
-import jakarta.transaction.Transactional;
 import lombok.extern.log4j.Log4j2;
 
 @Log4j2
@@ -41,6 +89,7 @@ public class JupyterNotebookService {
   public static final String DOMAIN_MESSAGE_KEY = "Domain";
 
   private static final String NOTEBOOK_NOT_FOUND_MESSAGE = "Notebook not found";
+  private static final String CELLS_FIELD = "cells";
   public static final String NOTEBOOK_VALIDATION_FAILED_MESSAGE = "Notebook validation failed";
 
   private final StorageService storageService;
@@ -50,55 +99,444 @@ public class JupyterNotebookService {
 
   private final JwtTokenService jwtTokenService;
   private final PasswordEncoder passwordEncoder;
+  private final NotebookRevisionService notebookRevisionService;
+  private final NotebookUpdateLocks notebookUpdateLocks;
+  private final ObjectMapper objectMapper;
+
+  private final Timer sizeCheckTimer;
+  private final DistributionSummary notebookSize;
+  private final Timer insertTimer;
+  private final Timer readableIdTimer;
+  private final ObservationRegistry observationRegistry;
 
   @Value("${notebook.max-size-bytes}")
   private long maxNotebookSizeBytes;
 
+  @Value("${notebook.cells.max-range:100}")
+  private int maxCellRange;
+
+  @Value("${notebook.list.max-page-size:100}")
+  private int maxListPageSize;
+
+  @Value("${notebook.batch.max-size:100}")
+  private int maxBatchSize;
+
+  @Value("${notebook.batch.fetch-concurrency:8}")
+  private int batchFetchConcurrency;
+
+  @Value("${notebook.expiry.default-ttl-seconds:0}")
+  private long defaultTtlSeconds;
+
+  @Value("${notebook.expiry.max-ttl-seconds:0}")
+  private long maxTtlSeconds;
+
+  /** Receives the items of a batch fetch one at a time, on the thread that runs the batch. */
+  @FunctionalInterface
+  public interface BatchItemWriter {
+    void write(JupyterNotebookBatchItem item) throws IOException;
+  }
+
+  /** Notebooks of a batch fetch that were found, and items for the ones that were not. */
+  public record NotebookBatch(
+      List<NotebookLocation> notebooks, List<JupyterNotebookBatchItem> missing) {}
+
   public JupyterNotebookService(
       StorageService storageService,
       JupyterNotebookValidator jupyterNotebookValidator,
       JupyterNotebookRepository notebookRepository,
       EntityManager entityManager,
       JwtTokenService jwtTokenService,
-      PasswordEncoder passwordEncoder) {
+      PasswordEncoder passwordEncoder,
+      NotebookRevisionService notebookRevisionService,
+      NotebookUpdateLocks notebookUpdateLocks,
+      ObjectMapper objectMapper,
+      MeterRegistry meterRegistry,
+      ObservationRegistry observationRegistry) {
     this.storageService = storageService;
     this.jupyterNotebookValidator = jupyterNotebookValidator;
     this.notebookRepository = notebookRepository;
     this.entityManager = entityManager;
     this.jwtTokenService = jwtTokenService;
     this.passwordEncoder = passwordEncoder;
+    this.notebookRevisionService = notebookRevisionService;
+    this.notebookUpdateLocks = notebookUpdateLocks;
+    this.objectMapper = objectMapper;
+    this.observationRegistry = observationRegistry;
+    this.sizeCheckTimer =
+        Timer.builder("notebook.size.check")
+            .description("Time to measure a notebook against notebook.max-size-bytes")
+            .register(meterRegistry);
+    this.notebookSize =
+        DistributionSummary.builder("notebook.size")
+            .description("Size of uploaded notebooks")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+    this.insertTimer =
+        Timer.builder("notebook.db.insert")
+            .description("Time to insert the metadata row of a new notebook")
+            .register(meterRegistry);
+    this.readableIdTimer =
+        Timer.builder("notebook.readable.id.assignment")
+            .description("Time to read back the readable id assigned on insert")
+            .register(meterRegistry);
   }
 
+  /**
+   * Not transactional: the lookup runs in its own read-only transaction, so no database connection
+   * is held while the content is downloaded from storage.
+   */
   public JupyterNotebookRetrieved getNotebookContent(UUID notebookId) {
+    return toRetrievedNotebook(findLocation(notebookId));
+  }
+
+  private NotebookLocation findLocation(UUID notebookId) {
+    return notebookRepository
+        .findLocationById(notebookId)
+        .orElseThrow(
+            () -> {
+              log.error(
+                  new StringMapMessage()
+                      .with(MESSAGE_KEY, NOTEBOOK_NOT_FOUND_MESSAGE)
+                      .with(NOTEBOOK_ID_MESSAGE_KEY, notebookId.toString()));
+              return new NotebookNotFoundException(NOTEBOOK_NOT_FOUND_MESSAGE);
+            });
+  }
+
+  private NotebookLocation findLocation(String readableId) {
+    return notebookRepository
+        .findLocationByReadableId(readableId)
+        .orElseThrow(
+            () -> {
+              log.error(
+                  new StringMapMessage()
+                      .with(MESSAGE_KEY, NOTEBOOK_NOT_FOUND_MESSAGE)
+                      .with("ReadableId", readableId));
+              return new NotebookNotFoundException(NOTEBOOK_NOT_FOUND_MESSAGE);
+            });
+  }
+
+  private JupyterNotebookRetrieved toRetrievedNotebook(NotebookLocation location) {
+    requireStored(location.getId(), location.getStorageUrl());
+    String notebookContent = fetchNotebookContent(location.getId(), location.getStorageUrl());
+
+    return new JupyterNotebookRetrieved(
+        location.getId(),
+        location.getDomain(),
+        location.getReadableId(),
+        notebookContent,
+        location.getVersion());
+  }
+
+  /**
+   * Resolves the notebook metadata and returns a response whose content is copied from storage
+   * into the response stream while it is being written, instead of being loaded as a String.
+   */
+  @Transactional(readOnly = true)
+  public JupyterNotebookStreamed getStreamedNotebookContent(UUID notebookId) {
+    return toStreamedNotebook(findLocation(notebookId));
+  }
+
+  @Transactional(readOnly = true)
+  public JupyterNotebookStreamed getStreamedNotebookContent(String readableId) {
+    return toStreamedNotebook(findLocation(readableId));
+  }
+
+  private JupyterNotebookStreamed toStreamedNotebook(NotebookLocation location) {
+    String storageUrl = location.getStorageUrl();
+    UUID notebookId = location.getId();
+    requireStored(notebookId, storageUrl);
+
+    return new JupyterNotebookStreamed(
+        notebookId,
+        location.getDomain(),
+        location.getReadableId(),
+        target -> {
+          try {
+            storageService.transferNotebookTo(storageUrl, target);
+          } catch (IOException | RuntimeException e) {
+            log.error(
+                new StringMapMessage()
+                    .with(MESSAGE_KEY, "Error streaming notebook content from storage")
+                    .with(NOTEBOOK_ID_MESSAGE_KEY, notebookId.toString())
+                    .with("Error", String.valueOf(e.getMessage())),
+                e);
+            throw e;
+          }
+        },
+        location.getVersion());
+  }
+
+  /** Describes a notebook from its metadata row alone; storage is not read. */
+  @Transactional(readOnly = true)
+  public JupyterNotebookMetadataRetrieved getNotebookMetadata(UUID notebookId) {
+    return toNotebookMetadata(findStoredNotebook(notebookId));
+  }
+
+  @Transactional(readOnly = true)
+  public JupyterNotebookMetadataRetrieved getNotebookMetadata(String readableId) {
     JupyterNotebookEntity notebookEntity =
         notebookRepository
-            .findById(notebookId)
+            .findByReadableId(readableId)
             .orElseThrow(
                 () -> {
                   log.error(
                       new StringMapMessage()
                           .with(MESSAGE_KEY, NOTEBOOK_NOT_FOUND_MESSAGE)
-                          .with(NOTEBOOK_ID_MESSAGE_KEY, notebookId.toString()));
+                          .with("ReadableId", readableId));
                   return new NotebookNotFoundException(NOTEBOOK_NOT_FOUND_MESSAGE);
                 });
+    requireStored(notebookEntity);
+    return toNotebookMetadata(notebookEntity);
+  }
 
-    String notebookContent = fetchNotebookContent(notebookEntity);
-
-    return new JupyterNotebookRetrieved(
+  private static JupyterNotebookMetadataRetrieved toNotebookMetadata(
+      JupyterNotebookEntity notebookEntity) {
+    return new JupyterNotebookMetadataRetrieved(
         notebookEntity.getId(),
         notebookEntity.getDomain(),
         notebookEntity.getReadableId(),
-        notebookContent);
+        notebookEntity.getKernelName(),
+        notebookEntity.getKernelDisplayName(),
+        notebookEntity.getLanguage(),
+        notebookEntity.getLanguageVersion(),
+        notebookEntity.getFileExtension(),
+        notebookEntity.getSizeBytes(),
+        notebookEntity.getCellCount(),
+        notebookEntity.getContentDigest(),
+        notebookEntity.getCreatedAt(),
+        notebookEntity.getVersion());
+  }
+
+  /**
+   * Lists the stored notebooks of a session, newest first, {@code limit} at a time. Pass the
+   * previous page's {@code next_cursor} to get the next page.
+   *
+   * @throws InvalidNotebookException if the cursor is malformed or the limit is out of range
+   */
+  @Transactional(readOnly = true)
+  public JupyterNotebookPage listSessionNotebooks(UUID sessionId, String cursor, int limit) {
+    if (limit < 1 || limit > maxListPageSize) {
+      throw new InvalidNotebookException(
+          "Limit must be between 1 and " + maxListPageSize + " notebooks");
+    }
+
+    // One extra row tells whether there is a next page
+    List<NotebookSummary> rows;
+    if (cursor == null || cursor.isEmpty()) {
+      rows = notebookRepository.findSessionPage(sessionId, limit + 1);
+    } else {
+      NotebookListCursor position = NotebookListCursor.decode(cursor);
+      rows =
+          notebookRepository.findSessionPageAfter(
+              sessionId, position.createdAt(), position.id(), limit + 1);
+    }
+
+    String nextCursor = null;
+    if (rows.size() > limit) {
+      rows = rows.subList(0, limit);
+      NotebookSummary last = rows.get(limit - 1);
+      nextCursor =
+          new NotebookListCursor(last.getCreatedAt().toLocalDateTime(), last.getId()).encode();
+    }
+
+    List<JupyterNotebookMetadataRetrieved> notebooks = new ArrayList<>(rows.size());
+    for (NotebookSummary row : rows) {
+      notebooks.add(
+          new JupyterNotebookMetadataRetrieved(
+              row.getId(),
+              row.getDomain(),
+              row.getReadableId(),
+              row.getKernelName(),
+              row.getKernelDisplayName(),
+              row.getLanguage(),
+              row.getLanguageVersion(),
+              row.getFileExtension(),
+              row.getSizeBytes(),
+              row.getCellCount(),
+              row.getContentDigest(),
+              row.getCreatedAt(),
+              row.getVersion()));
+    }
+    return new JupyterNotebookPage(notebooks, nextCursor);
+  }
+
+  /**
+   * Returns up to {@code count} cells starting at {@code start}. Only the requested cells are
+   * parsed out of storage, while the response is being written.
+   *
+   * @throws InvalidNotebookException if the range is negative, empty or larger than {@code
+   *     notebook.cells.max-range}
+   */
+  @Transactional(readOnly = true)
+  public JupyterNotebookCells getNotebookCells(UUID notebookId, int start, int count) {
+    if (start < 0 || count < 1 || count > maxCellRange) {
+      throw new InvalidNotebookException(
+          "Cell range must start at 0 or later and contain between 1 and "
+              + maxCellRange
+              + " cells");
+    }
+
+    JupyterNotebookEntity notebookEntity = findStoredNotebook(notebookId);
+    String storageUrl = notebookEntity.getStorageUrl();
+
+    return new JupyterNotebookCells(
+        notebookId,
+        notebookEntity.getDomain(),
+        notebookEntity.getReadableId(),
+        start,
+        notebookEntity.getCellCount(),
+        target -> {
+          try (InputStream in = storageService.openNotebook(storageUrl)) {
+            NotebookCells.copyRange(objectMapper.getFactory(), in, target, start, count);
+          } catch (IOException | RuntimeException e) {
+            log.error(
+                new StringMapMessage()
+                    .with(MESSAGE_KEY, "Error streaming notebook cells from storage")
+                    .with(NOTEBOOK_ID_MESSAGE_KEY, notebookId.toString())
+                    .with("Error", String.valueOf(e.getMessage())),
+                e);
+            throw e;
+          }
+        },
+        notebookEntity.getVersion());
+  }
+
+  private JupyterNotebookEntity findStoredNotebook(UUID notebookId) {
+    JupyterNotebookEntity notebookEntity =
+        notebookRepository
+            .findById(notebookId)
+            .orElseThrow(
+                () -> {
+                  log.error(
+                      new StringMapMessage()
+                          .with(MESSAGE_KEY, NOTEBOOK_NOT_FOUND_MESSAGE)
+                          .with(NOTEBOOK_ID_MESSAGE_KEY, notebookId.toString()));
+                  return new NotebookNotFoundException(NOTEBOOK_NOT_FOUND_MESSAGE);
+                });
+    requireStored(notebookEntity);
+    return notebookEntity;
+  }
+
+  /**
+   * Resolves the metadata of every requested notebook with a single query.
+   *
+   * @throws InvalidNotebookException if the request is empty or larger than {@code
+   *     notebook.batch.max-size}
+   */
+  @Transactional(readOnly = true)
+  public NotebookBatch prepareBatch(List<UUID> ids, List<String> readableIds) {
+    Set<UUID> requestedIds = ids != null ? new LinkedHashSet<>(ids) : new LinkedHashSet<>();
+    Set<String> requestedReadableIds =
+        readableIds != null ? new LinkedHashSet<>(readableIds) : new LinkedHashSet<>();
+    requestedIds.remove(null);
+    requestedReadableIds.remove(null);
+
+    int requested = requestedIds.size() + requestedReadableIds.size();
+    if (requested == 0 || requested > maxBatchSize) {
+      throw new InvalidNotebookException(
+          "A batch must request between 1 and " + maxBatchSize + " notebooks");
+    }
+
+    List<NotebookLocation> found;
+    if (requestedReadableIds.isEmpty()) {
+      found = notebookRepository.findLocationsByIdIn(requestedIds);
+    } else if (requestedIds.isEmpty()) {
+      found = notebookRepository.findLocationsByReadableIdIn(requestedReadableIds);
+    } else {
+      found =
+          notebookRepository.findLocationsByIdInOrReadableIdIn(requestedIds, requestedReadableIds);
+    }
+
+    Map<UUID, NotebookLocation> notebooks = new LinkedHashMap<>();
+    for (NotebookLocation location : found) {
+      if (isStored(location.getStorageUrl())) {
+        notebooks.put(location.getId(), location);
+        requestedIds.remove(location.getId());
+        requestedReadableIds.remove(location.getReadableId());
+      }
+    }
+
+    List<JupyterNotebookBatchItem> missing = new ArrayList<>();
+    requestedIds.forEach(id -> missing.add(JupyterNotebookBatchItem.notFound(id, null)));
+    requestedReadableIds.forEach(
+        readableId -> missing.add(JupyterNotebookBatchItem.notFound(null, readableId)));
+
+    log.info(
+        new StringMapMessage()
+            .with(MESSAGE_KEY, "Notebook batch resolved")
+            .with("Requested", String.valueOf(requested))
+            .with("Found", String.valueOf(notebooks.size())));
+
+    return new NotebookBatch(List.copyOf(notebooks.values()), missing);
+  }
+
+  /**
+   * Writes every item of a batch: the missing ones first, then each found notebook as soon as its
+   * content has been read. Reads run on virtual threads, and at most {@code
+   * notebook.batch.fetch-concurrency} notebooks are being read or waiting to be written at a time,
+   * so a slow client bounds the memory held rather than letting every read complete. If writing
+   * fails (e.g. the client went away) the outstanding reads are cancelled.
+   */
+  public void streamBatch(NotebookBatch batch, BatchItemWriter writer) throws IOException {
+    for (JupyterNotebookBatchItem item : batch.missing()) {
+      writer.write(item);
+    }
+
+    Semaphore permits = new Semaphore(Math.max(1, batchFetchConcurrency));
+    ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    try {
+      CompletionService<JupyterNotebookBatchItem> completions =
+          new ExecutorCompletionService<>(executor);
+      for (NotebookLocation location : batch.notebooks()) {
+        completions.submit(
+            () -> {
+              // Released by the writing loop once the item is written
+              permits.acquire();
+              return fetchBatchItem(location);
+            });
+      }
+
+      for (int i = 0; i < batch.notebooks().size(); i++) {
+        writer.write(completions.take().get());
+        permits.release();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while fetching notebooks", e);
+    } catch (ExecutionException e) {
+      // fetchBatchItem reports storage errors as items; anything else is unexpected
+      throw new NotebookStorageException("Error fetching notebook batch", e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private JupyterNotebookBatchItem fetchBatchItem(NotebookLocation location) {
+    try {
+      return new JupyterNotebookBatchItem(
+          location.getId(),
+          location.getDomain(),
+          location.getReadableId(),
+          fetchNotebookContent(location.getId(), location.getStorageUrl()),
+          null);
+    } catch (NotebookStorageException e) {
+      return JupyterNotebookBatchItem.failed(
+          location.getId(), location.getReadableId(), JupyterNotebookBatchItem.STORAGE_ERROR);
+    }
   }
 
   public String fetchNotebookContent(JupyterNotebookEntity notebookEntity) {
+    return fetchNotebookContent(notebookEntity.getId(), notebookEntity.getStorageUrl());
+  }
+
+  private String fetchNotebookContent(UUID notebookId, String storageUrl) {
     try {
-      return storageService.downloadNotebookAsJson(notebookEntity.getStorageUrl());
+      return storageService.downloadNotebookAsJson(storageUrl);
     } catch (Exception e) {
       log.error(
           new StringMapMessage()
               .with(MESSAGE_KEY, "Error fetching notebook content from storage")
-              .with(NOTEBOOK_ID_MESSAGE_KEY, notebookEntity.getId().toString())
+              .with(NOTEBOOK_ID_MESSAGE_KEY, notebookId.toString())
               .with("Error", e.getMessage()),
           e);
       throw new NotebookStorageException("Error fetching notebook content from storage", e);
@@ -134,10 +572,19 @@ public class JupyterNotebookService {
     try {
 
       JupyterNotebookEntity notebookEntity =
-          validateAndStoreNotebook(notebookDto, sessionId, domain, password, rawNotebookJson);
+          validateAndStoreNotebook(
+              notebookDto,
+              sessionId,
+              domain,
+              password,
+              jupyterNotebookRequest.getTtlSeconds(),
+              rawNotebookJson);
 
       return new JupyterNotebookSaved(
-          notebookEntity.getId(), notebookEntity.getDomain(), notebookEntity.getReadableId());
+          notebookEntity.getId(),
+          notebookEntity.getDomain(),
+          notebookEntity.getReadableId(),
+          notebookEntity.getVersion());
     } catch (NotebookTooLargeException e) {
       log.error(
           new StringMapMessage()
@@ -170,32 +617,153 @@ public class JupyterNotebookService {
       UUID sessionId,
       String domain,
       String password,
+      Long ttlSeconds,
       String rawNotebookJson)
       throws InvalidNotebookException, JsonProcessingException {
 
-    // Validate the raw incoming JSON (not re-serialized DTO) to preserve user's exact input
+    Observation observation = uploadObservation().start();
+    String outcome = "error";
+    try (Observation.Scope ignored = observation.openScope()) {
+      // Validate the raw incoming JSON (not re-serialized DTO) to preserve user's exact input
+      validateNotebookSize(rawNotebookJson, sessionId);
+
+      NotebookValidationResult validation = jupyterNotebookValidator.validate(rawNotebookJson);
+      if (!validation.valid()) {
+        log.error(
+            new StringMapMessage()
+                .with(MESSAGE_KEY, NOTEBOOK_VALIDATION_FAILED_MESSAGE)
+                .with(SESSION_ID_MESSAGE_KEY, sessionId.toString()));
+        throw validationFailed(validation);
+      }
+
+      JupyterNotebookEntity notebookEntity =
+          saveNotebookMetadata(
+              sessionId, notebookDto.getMetadata(), domain, password, ttlSeconds);
+      observation.highCardinalityKeyValue(
+          TracingConstants.NOTEBOOK_ID_TAG, notebookEntity.getId().toString());
+
+      // Store the raw JSON (not re-serialized) to preserve user's exact input
+      storeContent(notebookEntity, rawNotebookJson);
+      notebookRepository.save(notebookEntity);
+
+      outcome = "stored";
+      return notebookEntity;
+    } catch (NotebookTooLargeException e) {
+      outcome = "too_large";
+      observation.error(e);
+      throw e;
+    } catch (InvalidNotebookException e) {
+      outcome = "invalid";
+      observation.error(e);
+      throw e;
+    } catch (RuntimeException e) {
+      observation.error(e);
+      throw e;
+    } finally {
+      observation.lowCardinalityKeyValue(TracingConstants.OUTCOME_TAG, outcome).stop();
+    }
+  }
+
+  /**
+   * Validation and storage of an uploaded notebook, by outcome, also recorded as a {@link
+   * NotebookUploadEvent}.
+   */
+  private Observation uploadObservation() {
+    return NotebookObservationContext.observation(
+        "notebook.upload", null, NotebookUploadEvent::new, observationRegistry);
+  }
+
+  /**
+   * First half of an asynchronous upload: checks what is cheap to check and creates the metadata
+   * row, so the notebook's id and readable id are known before its content is validated and stored
+   * by {@link #completeStagedUpload}.
+   */
+  @Transactional
+  public JupyterNotebookEntity reserveNotebook(
+      JupyterNotebookRequest jupyterNotebookRequest,
+      UUID sessionId,
+      String domain,
+      String rawNotebookJson) {
+    JupyterNotebookDTO notebookDto = jupyterNotebookRequest.getNotebook();
+    if (notebookDto == null) {
+      throw new InvalidNotebookException("Notebook field is required and cannot be null");
+    }
+
     validateNotebookSize(rawNotebookJson, sessionId);
 
-    if (!jupyterNotebookValidator.validateNotebook(rawNotebookJson)) {
-      log.error(
-          new StringMapMessage()
-              .with(MESSAGE_KEY, NOTEBOOK_VALIDATION_FAILED_MESSAGE)
-              .with(SESSION_ID_MESSAGE_KEY, sessionId.toString()));
-      throw new InvalidNotebookException(NOTEBOOK_VALIDATION_FAILED_MESSAGE);
+    return saveNotebookMetadata(
+        sessionId,
+        notebookDto.getMetadata(),
+        domain,
+        jupyterNotebookRequest.getPassword(),
+        jupyterNotebookRequest.getTtlSeconds());
+  }
+
+  /**
+   * Second half of an asynchronous upload. Storing the content again after a retried job is
+   * harmless, since the file name only depends on the notebook id.
+   *
+   * @throws InvalidNotebookException if the staged content is not a valid notebook
+   */
+  @Transactional
+  public void completeStagedUpload(UUID notebookId, String rawNotebookJson) {
+    Observation observation =
+        uploadObservation()
+            .highCardinalityKeyValue(TracingConstants.NOTEBOOK_ID_TAG, notebookId.toString())
+            .start();
+    String outcome = "error";
+    try (Observation.Scope ignored = observation.openScope()) {
+      JupyterNotebookEntity notebookEntity = getNotebookById(notebookId);
+
+      NotebookValidationResult validation = jupyterNotebookValidator.validate(rawNotebookJson);
+      if (!validation.valid()) {
+        outcome = "invalid";
+        throw validationFailed(validation);
+      }
+
+      storeContent(notebookEntity, rawNotebookJson);
+      notebookRepository.save(notebookEntity);
+      observation.highCardinalityKeyValue(
+          TracingConstants.NOTEBOOK_SIZE_TAG, String.valueOf(notebookEntity.getSizeBytes()));
+      outcome = "stored";
+    } catch (RuntimeException e) {
+      observation.error(e);
+      throw e;
+    } finally {
+      observation.lowCardinalityKeyValue(TracingConstants.OUTCOME_TAG, outcome).stop();
     }
+  }
 
-    JupyterNotebookEntity notebookEntity =
-        saveNotebookMetadata(sessionId, notebookDto.getMetadata(), domain, password);
+  /** Removes the metadata row of an asynchronous upload that will never be stored. */
+  @Transactional
+  public void discardStagedUpload(UUID notebookId) {
+    notebookRepository
+        .findById(notebookId)
+        .filter(notebookEntity -> !isStored(notebookEntity))
+        .ifPresent(notebookRepository::delete);
+  }
 
-    String fileName = notebookEntity.getId().toString() + ".ipynb";
+  private static boolean isStored(JupyterNotebookEntity notebookEntity) {
+    return isStored(notebookEntity.getStorageUrl());
+  }
 
-    // Store the raw JSON (not re-serialized) to preserve user's exact input
-    String storageUrl = storeNotebook(rawNotebookJson, fileName);
+  private static boolean isStored(String storageUrl) {
+    return storageUrl != null && !storageUrl.isEmpty();
+  }
 
-    notebookEntity.setStorageUrl(storageUrl);
-    notebookRepository.save(notebookEntity);
+  private void requireStored(JupyterNotebookEntity notebookEntity) {
+    requireStored(notebookEntity.getId(), notebookEntity.getStorageUrl());
+  }
 
-    return notebookEntity;
+  /** A notebook whose asynchronous upload has not completed yet does not exist to readers. */
+  private void requireStored(UUID notebookId, String storageUrl) {
+    if (!isStored(storageUrl)) {
+      log.info(
+          new StringMapMessage()
+              .with(MESSAGE_KEY, "Notebook upload not completed yet")
+              .with(NOTEBOOK_ID_MESSAGE_KEY, notebookId.toString()));
+      throw new NotebookNotFoundException(NOTEBOOK_NOT_FOUND_MESSAGE);
+    }
   }
 
   @Transactional
@@ -208,6 +776,28 @@ public class JupyterNotebookService {
       throws UnauthorizedNotebookAccessException,
           InvalidNotebookException,
           JsonProcessingException {
+    return updateNotebook(notebookId, notebookDto, sessionId, token, rawNotebookJson, null);
+  }
+
+  /**
+   * Replaces a notebook's content.
+   *
+   * @param expectedVersion the version the client based its changes on (from {@code If-Match}), or
+   *     null to overwrite whatever is stored
+   * @throws NotebookVersionConflictException if the notebook is no longer at {@code
+   *     expectedVersion}
+   */
+  @Transactional
+  public JupyterNotebookSaved updateNotebook(
+      UUID notebookId,
+      JupyterNotebookDTO notebookDto,
+      UUID sessionId,
+      String token,
+      String rawNotebookJson,
+      Long expectedVersion)
+      throws UnauthorizedNotebookAccessException,
+          InvalidNotebookException,
+          JsonProcessingException {
 
     JupyterNotebookEntity storedNotebook =
         notebookRepository
@@ -215,6 +805,91 @@ public class JupyterNotebookService {
             .orElseThrow(
                 () -> new NotebookNotFoundException("Notebook not found with ID: " + notebookId));
 
+    requireStored(storedNotebook);
+    authorizeUpdate(storedNotebook, sessionId, token);
+    checkVersion(storedNotebook, expectedVersion);
+
+    // Validate the raw incoming JSON (not re-serialized DTO) to preserve user's exact input
+    validateNotebookSize(rawNotebookJson, sessionId);
+
+    NotebookValidationResult validation = jupyterNotebookValidator.validate(rawNotebookJson);
+    if (!validation.valid()) {
+      throw validationFailed(validation);
+    }
+
+    try (NotebookUpdateLocks.Handle lock = notebookUpdateLocks.acquire(notebookId)) {
+      claimNextVersion(storedNotebook, expectedVersion);
+
+      if (notebookRevisionService.isEnabled()) {
+        recordRevision(storedNotebook, sessionId, rawNotebookJson);
+      }
+
+      // Store the raw JSON (not re-serialized) to preserve user's exact input. The backend may
+      // place the notebook somewhere new (e.g. a flat-layout file moving into its shard).
+      storeContent(storedNotebook, rawNotebookJson);
+
+      updateNotebookMetadata(storedNotebook, notebookDto, sessionId);
+    }
+
+    return new JupyterNotebookSaved(
+        storedNotebook.getId(),
+        storedNotebook.getDomain(),
+        storedNotebook.getReadableId(),
+        storedNotebook.getVersion());
+  }
+
+  /** Fails fast, before validation, when the client's copy is already known to be outdated. */
+  private void checkVersion(JupyterNotebookEntity storedNotebook, Long expectedVersion) {
+    if (expectedVersion != null && storedNotebook.getVersion() != expectedVersion) {
+      throw versionConflict(storedNotebook.getId(), expectedVersion, storedNotebook.getVersion());
+    }
+  }
+
+  /**
+   * Atomically moves the notebook to its next version, which also locks its row until the
+   * transaction ends so that updates from other instances wait for this one to be stored.
+   *
+   * @throws NotebookVersionConflictException if another update claimed {@code expectedVersion}
+   *     first
+   */
+  private void claimNextVersion(JupyterNotebookEntity storedNotebook, Long expectedVersion) {
+    UUID notebookId = storedNotebook.getId();
+    Optional<Long> newVersion =
+        expectedVersion != null
+            ? notebookRepository.incrementVersionIfMatches(notebookId, expectedVersion)
+            : notebookRepository.incrementVersion(notebookId);
+
+    if (newVersion.isEmpty()) {
+      if (expectedVersion == null) {
+        throw new NotebookNotFoundException("Notebook not found with ID: " + notebookId);
+      }
+      throw versionConflict(notebookId, expectedVersion, null);
+    }
+    if (newVersion.get() != storedNotebook.getVersion() + 1) {
+      // Updated elsewhere since it was loaded; pick up e.g. a storage URL that has moved
+      entityManager.refresh(storedNotebook);
+    }
+    storedNotebook.setVersion(newVersion.get());
+  }
+
+  private NotebookVersionConflictException versionConflict(
+      UUID notebookId, long expectedVersion, Long currentVersion) {
+    log.warn(
+        new StringMapMessage()
+            .with(MESSAGE_KEY, "Notebook version conflict")
+            .with(NOTEBOOK_ID_MESSAGE_KEY, notebookId.toString())
+            .with("ExpectedVersion", String.valueOf(expectedVersion))
+            .with("CurrentVersion", String.valueOf(currentVersion)));
+    return new NotebookVersionConflictException(
+        "Notebook was modified since version " + expectedVersion);
+  }
+
+  /**
+   * Allows an update from the session that created or last saved the notebook, or from any session
+   * holding a token issued for this notebook.
+   */
+  private void authorizeUpdate(JupyterNotebookEntity storedNotebook, UUID sessionId, String token) {
+    UUID notebookId = storedNotebook.getId();
     Map<String, String> commonLogDetails =
         Map.of(
             NOTEBOOK_ID_MESSAGE_KEY,
@@ -226,55 +901,259 @@ public class JupyterNotebookService {
 
     if (sessionId.equals(storedNotebook.getSessionId())) {
       logInfo("Session IDs match", commonLogDetails);
-    } else {
-      logInfo("Session ID mismatch", commonLogDetails);
+      return;
+    }
+
+    logInfo("Session ID mismatch", commonLogDetails);
 
-      String notebookIdFromToken = jwtTokenService.extractNotebookIdFromToken(token);
+    String notebookIdFromToken = jwtTokenService.extractNotebookIdFromToken(token);
 
-      if (notebookIdFromToken == null) {
-        logInfo(
-            "Notebook ID missing in token", Map.of(NOTEBOOK_ID_MESSAGE_KEY, notebookId.toString()));
-        throw new UnauthorizedNotebookAccessException(
-            "You do not have permission to update this notebook");
+    if (notebookIdFromToken == null) {
+      logInfo(
+          "Notebook ID missing in token", Map.of(NOTEBOOK_ID_MESSAGE_KEY, notebookId.toString()));
+      throw new UnauthorizedNotebookAccessException(
+          "You do not have permission to update this notebook");
+    }
+
+    if (!notebookId.equals(UUID.fromString(notebookIdFromToken))) {
+      logInfo(
+          "Unauthorized notebook update attempt",
+          Map.of(
+              NOTEBOOK_ID_MESSAGE_KEY,
+              notebookId.toString(),
+              "NotebookIdFromToken",
+              notebookIdFromToken));
+      throw new UnauthorizedNotebookAccessException(
+          "You do not have permission to update this notebook");
+    }
+
+    logInfo(
+        "Notebook ID validation succeeded", Map.of(NOTEBOOK_ID_MESSAGE_KEY, notebookId.toString()));
+  }
+
+  /**
+   * Applies an RFC 6902 JSON Patch to a stored notebook and saves the result.
+   *
+   * <p>When every operation targets the inside of {@code /cells}, only the cells that were added or
+   * modified are validated; the rest of the notebook was valid when it was stored and is unchanged.
+   * Operations touching anything else (metadata, nbformat, the cells array itself) fall back to
+   * validating the whole notebook.
+   */
+  @Transactional
+  public JupyterNotebookSaved patchNotebook(
+      UUID notebookId, JsonNode patch, UUID sessionId, String token, Long expectedVersion)
+      throws JsonProcessingException {
+
+    JupyterNotebookEntity storedNotebook =
+        notebookRepository
+            .findById(notebookId)
+            .orElseThrow(
+                () -> new NotebookNotFoundException("Notebook not found with ID: " + notebookId));
+
+    requireStored(storedNotebook);
+    authorizeUpdate(storedNotebook, sessionId, token);
+    checkVersion(storedNotebook, expectedVersion);
+
+    List<JsonPatch.Operation> operations = JsonPatch.parse(patch);
+
+    try (NotebookUpdateLocks.Handle lock = notebookUpdateLocks.acquire(notebookId)) {
+      // Claimed before reading the content, so the patch applies to the latest stored version
+      claimNextVersion(storedNotebook, expectedVersion);
+
+      String previousContent = fetchNotebookContent(storedNotebook);
+      JsonNode notebook = objectMapper.readTree(previousContent);
+
+      Set<JsonNode> touchedCells = Collections.newSetFromMap(new IdentityHashMap<>());
+      boolean validateWholeNotebook = false;
+      boolean metadataChanged = false;
+
+      for (JsonPatch.Operation operation : operations) {
+        JsonPatch.OperationType type = operation.type();
+        JsonPointer path = operation.path();
+        JsonPointer from = operation.from();
+
+        // A cell that loses a field through a move must be revalidated too
+        JsonNode movedFromCell =
+            type == JsonPatch.OperationType.MOVE && isInsideCell(from)
+                ? cellAt(notebook, from.tail().getMatchingProperty())
+                : MissingNode.getInstance();
+
+        notebook = JsonPatch.apply(notebook, operation);
+
+        if (type == JsonPatch.OperationType.TEST) {
+          continue;
+        }
+
+        if (isInsideCell(path) || (isWholeCell(path) && type != JsonPatch.OperationType.REMOVE)) {
+          touchedCells.add(cellAt(notebook, path.tail().getMatchingProperty()));
+        } else if (!isWholeCell(path)) {
+          validateWholeNotebook = true;
+          metadataChanged |= touchesMetadata(path);
+        }
+
+        if (!movedFromCell.isMissingNode()) {
+          touchedCells.add(movedFromCell);
+        } else if (type == JsonPatch.OperationType.MOVE && !isWholeCell(from)) {
+          validateWholeNotebook = true;
+          metadataChanged |= touchesMetadata(from);
+        }
       }
 
-      if (!notebookId.equals(UUID.fromString(notebookIdFromToken))) {
-        logInfo(
-            "Unauthorized notebook update attempt",
-            Map.of(
-                NOTEBOOK_ID_MESSAGE_KEY,
-                notebookId.toString(),
-                "NotebookIdFromToken",
-                notebookIdFromToken));
-        throw new UnauthorizedNotebookAccessException(
-            "You do not have permission to update this notebook");
+      String patchedNotebookJson = objectMapper.writeValueAsString(notebook);
+      validateNotebookSize(patchedNotebookJson, sessionId);
+
+      NotebookValidationResult validation;
+      if (validateWholeNotebook || !notebook.path(CELLS_FIELD).isArray()) {
+        validation = jupyterNotebookValidator.validate(patchedNotebookJson);
+      } else {
+        // Cells touched by an earlier operation may have been removed by a later one
+        List<JsonNode> cellsToValidate = new ArrayList<>();
+        for (JsonNode cell : notebook.get(CELLS_FIELD)) {
+          if (touchedCells.contains(cell)) {
+            cellsToValidate.add(cell);
+          }
+        }
+        validation = jupyterNotebookValidator.validate(notebook, cellsToValidate);
       }
 
-      logInfo(
-          "Notebook ID validation succeeded",
-          Map.of(NOTEBOOK_ID_MESSAGE_KEY, notebookId.toString()));
+      log.info(
+          new StringMapMessage()
+              .with(MESSAGE_KEY, "Notebook patch applied")
+              .with(NOTEBOOK_ID_MESSAGE_KEY, notebookId.toString())
+              .with("Operations", String.valueOf(operations.size()))
+              .with("ValidatedWholeNotebook", String.valueOf(validateWholeNotebook))
+              .with("ValidatedCells", String.valueOf(touchedCells.size())));
+
+      if (!validation.valid()) {
+        throw validationFailed(validation);
+      }
+
+      if (notebookRevisionService.isEnabled()) {
+        notebookRevisionService.recordRevision(
+            storedNotebook, sessionId, () -> previousContent, patchedNotebookJson);
+      }
+
+      storeContent(storedNotebook, patchedNotebookJson);
+
+      storedNotebook.setSessionId(sessionId);
+      if (metadataChanged && notebook.get("metadata") != null) {
+        setNotebookEntityMetadata(
+            storedNotebook, objectMapper.treeToValue(notebook.get("metadata"), MetadataDTO.class));
+      }
+      notebookRepository.save(storedNotebook);
     }
 
-    // Validate the raw incoming JSON (not re-serialized DTO) to preserve user's exact input
-    validateNotebookSize(rawNotebookJson, sessionId);
+    return new JupyterNotebookSaved(
+        storedNotebook.getId(),
+        storedNotebook.getDomain(),
+        storedNotebook.getReadableId(),
+        storedNotebook.getVersion());
+  }
+
+  /** True for pointers below a single cell, e.g. {@code /cells/3/source}. */
+  private static boolean isInsideCell(JsonPointer path) {
+    return isUnderCells(path) && !path.tail().tail().matches();
+  }
+
+  /** True for pointers naming a single cell, e.g. {@code /cells/3} or {@code /cells/-}. */
+  private static boolean isWholeCell(JsonPointer path) {
+    return isUnderCells(path) && path.tail().tail().matches();
+  }
+
+  private static boolean isUnderCells(JsonPointer path) {
+    return path != null
+        && !path.matches()
+        && CELLS_FIELD.equals(path.getMatchingProperty())
+        && !path.tail().matches();
+  }
+
+  private static boolean touchesMetadata(JsonPointer path) {
+    return path.matches() || "metadata".equals(path.getMatchingProperty());
+  }
+
+  /** The cell at an index token of a cell pointer ({@code -} being the last cell). */
+  private static JsonNode cellAt(JsonNode notebook, String token) {
+    JsonNode cells = notebook.path(CELLS_FIELD);
+    if ("-".equals(token)) {
+      return cells.path(cells.size() - 1);
+    }
+    try {
+      return cells.path(Integer.parseInt(token));
+    } catch (NumberFormatException e) {
+      return MissingNode.getInstance();
+    }
+  }
+
+  /**
+   * Records the incoming content in the notebook's revision history. The content being replaced is
+   * only read from storage on the first tracked update, to keep the original version; if it cannot
+   * be read the new revision is stored as a full snapshot instead.
+   */
+  private void recordRevision(
+      JupyterNotebookEntity storedNotebook, UUID sessionId, String rawNotebookJson) {
+    notebookRevisionService.recordRevision(
+        storedNotebook, sessionId, () -> readCurrentContent(storedNotebook), rawNotebookJson);
+  }
 
-    if (!jupyterNotebookValidator.validateNotebook(rawNotebookJson)) {
-      throw new InvalidNotebookException(NOTEBOOK_VALIDATION_FAILED_MESSAGE);
+  private String readCurrentContent(JupyterNotebookEntity storedNotebook) {
+    try {
+      return storageService.downloadNotebookAsJson(storedNotebook.getStorageUrl());
+    } catch (RuntimeException e) {
+      log.warn(
+          new StringMapMessage()
+              .with(MESSAGE_KEY, "Could not read current notebook content for revision history")
+              .with(NOTEBOOK_ID_MESSAGE_KEY, storedNotebook.getId().toString())
+              .with("Error", String.valueOf(e.getMessage())));
+      return null;
     }
+  }
 
-    String fileName = storedNotebook.getId().toString() + ".ipynb";
-    // Store the raw JSON (not re-serialized) to preserve user's exact input
-    storeNotebook(rawNotebookJson, fileName);
+  @Transactional(readOnly = true)
+  public JupyterNotebookRevisions listNotebookRevisions(UUID notebookId) {
+    JupyterNotebookEntity notebookEntity = getNotebookById(notebookId);
+
+    List<JupyterNotebookRevisionInfo> revisions =
+        notebookRevisionService.listRevisions(notebookEntity.getId()).stream()
+            .map(
+                revision ->
+                    new JupyterNotebookRevisionInfo(
+                        revision.getRevisionNumber(),
+                        revision.getContentSizeBytes(),
+                        revision.getCreatedAt()))
+            .toList();
+
+    return new JupyterNotebookRevisions(notebookEntity.getId(), revisions);
+  }
 
-    updateNotebookMetadata(storedNotebook, notebookDto, sessionId);
+  @Transactional(readOnly = true)
+  public JupyterNotebookRevisionRetrieved getNotebookRevision(UUID notebookId, int revision) {
+    JupyterNotebookEntity notebookEntity = getNotebookById(notebookId);
 
-    return new JupyterNotebookSaved(
-        storedNotebook.getId(), storedNotebook.getDomain(), storedNotebook.getReadableId());
+    String content = notebookRevisionService.getRevisionContent(notebookEntity.getId(), revision);
+
+    return new JupyterNotebookRevisionRetrieved(
+        notebookEntity.getId(),
+        notebookEntity.getDomain(),
+        notebookEntity.getReadableId(),
+        revision,
+        content);
   }
 
-  void validateNotebookSize(String notebookJsonString, UUID sessionId) {
+  /**
+   * @return the size of the notebook, in bytes
+   * @throws NotebookTooLargeException if it is larger than notebook.max-size-bytes
+   */
+  long validateNotebookSize(String notebookJsonString, UUID sessionId) {
+    Timer.Sample sample = Timer.start();
     long notebookSizeBytes =
         notebookJsonString.getBytes(java.nio.charset.StandardCharsets.UTF_8).length;
+    sample.stop(sizeCheckTimer);
+    notebookSize.record(notebookSizeBytes);
+    Observation observation = observationRegistry.getCurrentObservation();
+    if (observation != null) {
+      observation.highCardinalityKeyValue(
+          TracingConstants.NOTEBOOK_SIZE_TAG, String.valueOf(notebookSizeBytes));
+    }
 
     if (notebookSizeBytes > maxNotebookSizeBytes) {
       long maxSizeMB = maxNotebookSizeBytes / (1024 * 1024);
@@ -292,13 +1171,82 @@ public class JupyterNotebookService {
 
       throw new NotebookTooLargeException(errorMessage, notebookSizeBytes, maxNotebookSizeBytes);
     }
+    return notebookSizeBytes;
+  }
+
+  /** The exception for a notebook that failed validation, carrying the violations found. */
+  static InvalidNotebookException validationFailed(NotebookValidationResult validation) {
+    return new InvalidNotebookException(
+        NOTEBOOK_VALIDATION_FAILED_MESSAGE, validation.errors(), validation.truncated());
   }
 
   String storeNotebook(String notebookJsonString, String fileName) {
     return storageService.uploadNotebook(notebookJsonString, fileName);
   }
 
+  /**
+   * Stores the content under the notebook's id and records its size, cell count and digest on the
+   * entity, so they can be served without reading the content back.
+   */
+  void storeContent(JupyterNotebookEntity notebookEntity, String notebookJsonString) {
+    byte[] content = notebookJsonString.getBytes(StandardCharsets.UTF_8);
+    notebookEntity.setStorageUrl(
+        storeNotebook(notebookJsonString, notebookEntity.getId() + ".ipynb"));
+    notebookEntity.setSizeBytes((long) content.length);
+    notebookEntity.setContentDigest(sha256Hex(content));
+    try {
+      notebookEntity.setCellCount(NotebookCells.count(objectMapper.getFactory(), content));
+    } catch (IOException e) {
+      // Validation has already accepted the content; leave the count unknown rather than fail
+      notebookEntity.setCellCount(null);
+    }
+  }
+
+  private static String sha256Hex(byte[] content) {
+    try {
+      return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+  }
+
   JupyterNotebookEntity saveNotebookMetadata(
+      UUID sessionId, MetadataDTO metadata, String domain, String password, Long ttlSeconds) {
+
+    JupyterNotebookEntity notebookEntity =
+        newNotebookEntity(sessionId, metadata, domain, password);
+    applyTtl(notebookEntity, ttlSeconds);
+
+    Observation observation =
+        NotebookObservationContext.observation(
+                "notebook.metadata.insert", ServerTiming.Stage.DB, observationRegistry)
+            .start();
+    JupyterNotebookEntity savedNotebook;
+    try (Observation.Scope ignored = observation.openScope()) {
+      savedNotebook = insertTimer.record(() -> notebookRepository.saveAndFlush(notebookEntity));
+      // The readable id is assigned by a trigger on insert
+      readableIdTimer.record(() -> entityManager.refresh(savedNotebook));
+    } catch (RuntimeException e) {
+      observation.error(e);
+      throw e;
+    } finally {
+      observation.stop();
+    }
+
+    log.info(
+        new StringMapMessage()
+            .with(MESSAGE_KEY, "Notebook metadata saved in database")
+            .with(NOTEBOOK_ID_MESSAGE_KEY, notebookEntity.getId().toString())
+            .with("CreatedAt", notebookEntity.getCreatedAt().toString()));
+
+    return savedNotebook;
+  }
+
+  /**
+   * Builds the metadata row of a new notebook without saving it; it has no id or storage yet. It
+   * expires after {@code notebook.expiry.default-ttl-seconds}, if set.
+   */
+  JupyterNotebookEntity newNotebookEntity(
       UUID sessionId, MetadataDTO metadata, String domain, String password) {
 
     JupyterNotebookEntity notebookEntity = new JupyterNotebookEntity();
@@ -315,17 +1263,33 @@ public class JupyterNotebookService {
     Timestamp createdAt = DateUtils.utcDateToTimestamp(Date.from(Instant.now()));
 
     notebookEntity.setCreatedAt(createdAt);
+    if (defaultTtlSeconds > 0) {
+      notebookEntity.setExpiresAt(expiryTime(createdAt, defaultTtlSeconds));
+    }
 
-    JupyterNotebookEntity savedNotebook = notebookRepository.saveAndFlush(notebookEntity);
-    entityManager.refresh(savedNotebook);
+    return notebookEntity;
+  }
 
-    log.info(
-        new StringMapMessage()
-            .with(MESSAGE_KEY, "Notebook metadata saved in database")
-            .with(NOTEBOOK_ID_MESSAGE_KEY, notebookEntity.getId().toString())
-            .with("CreatedAt", createdAt.toString()));
+  /**
+   * Makes a new notebook expire {@code ttlSeconds} after it was created, replacing the default
+   * expiry. Does nothing when {@code ttlSeconds} is null.
+   *
+   * @throws InvalidNotebookException if the TTL is not positive or above {@code
+   *     notebook.expiry.max-ttl-seconds}
+   */
+  void applyTtl(JupyterNotebookEntity notebookEntity, Long ttlSeconds) {
+    if (ttlSeconds == null) {
+      return;
+    }
+    long maxTtl = maxTtlSeconds > 0 ? maxTtlSeconds : Integer.MAX_VALUE;
+    if (ttlSeconds <= 0 || ttlSeconds > maxTtl) {
+      throw new InvalidNotebookException("ttl_seconds must be between 1 and " + maxTtl);
+    }
+    notebookEntity.setExpiresAt(expiryTime(notebookEntity.getCreatedAt(), ttlSeconds));
+  }
 
-    return savedNotebook;
+  private static Timestamp expiryTime(Timestamp createdAt, long ttlSeconds) {
+    return Timestamp.from(createdAt.toInstant().plusSeconds(ttlSeconds));
   }
 
   void updateNotebookMetadata(
@@ -376,25 +1340,7 @@ public class JupyterNotebookService {
   }
 
   public JupyterNotebookRetrieved getNotebookContent(String readableId) {
-    JupyterNotebookEntity notebookEntity =
-        notebookRepository
-            .findByReadableId(readableId)
-            .orElseThrow(
-                () -> {
-                  log.error(
-                      new StringMapMessage()
-                          .with(MESSAGE_KEY, NOTEBOOK_NOT_FOUND_MESSAGE)
-                          .with("ReadableId", readableId));
-                  return new NotebookNotFoundException(NOTEBOOK_NOT_FOUND_MESSAGE);
-                });
-
-    String notebookContent = fetchNotebookContent(notebookEntity);
-
-    return new JupyterNotebookRetrieved(
-        notebookEntity.getId(),
-        notebookEntity.getDomain(),
-        notebookEntity.getReadableId(),
-        notebookContent);
+    return toRetrievedNotebook(findLocation(readableId));
   }
 
   public JupyterNotebookSaved updateNotebook(
@@ -404,6 +1350,18 @@ public class JupyterNotebookService {
       String token,
       String rawNotebookJson)
       throws JsonProcessingException {
+    return updateNotebook(readableId, notebookDto, sessionId, token, rawNotebookJson, null);
+  }
+
+  @Transactional
+  public JupyterNotebookSaved updateNotebook(
+      String readableId,
+      JupyterNotebookDTO notebookDto,
+      UUID sessionId,
+      String token,
+      String rawNotebookJson,
+      Long expectedVersion)
+      throws JsonProcessingException {
     JupyterNotebookEntity notebookEntity =
         notebookRepository
             .findByReadableId(readableId)
@@ -416,10 +1374,8 @@ public class JupyterNotebookService {
                   return new NotebookNotFoundException(NOTEBOOK_NOT_FOUND_MESSAGE);
                 });
 
-    updateNotebook(notebookEntity.getId(), notebookDto, sessionId, token, rawNotebookJson);
-
-    return new JupyterNotebookSaved(
-        notebookEntity.getId(), notebookEntity.getDomain(), notebookEntity.getReadableId());
+    return updateNotebook(
+        notebookEntity.getId(), notebookDto, sessionId, token, rawNotebookJson, expectedVersion);
   }
 
   public JupyterNotebookEntity getNotebookById(UUID notebookId) {
@@ -0,0 +1,374 @@
+package org.jupytereverywhere.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import org.apache.logging.log4j.message.StringMapMessage;
+import org.jupytereverywhere.dto.JupyterNotebookDTO;
+import org.jupytereverywhere.exception.InvalidNotebookException;
+import org.jupytereverywhere.exception.NotebookStorageException;
+import org.jupytereverywhere.exception.NotebookTooLargeException;
+import org.jupytereverywhere.model.JupyterNotebookEntity;
+import org.jupytereverywhere.model.response.JupyterNotebookBulkUploadResult;
+import org.jupytereverywhere.repository.JupyterNotebookBulkRepository;
+import org.jupytereverywhere.service.utils.JupyterNotebookValidator;
+import org.jupytereverywhere.service.utils.NdjsonReader;
+import org.jupytereverywhere.service.utils.NotebookValidationResult;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Bulk notebook uploads.
+ *
+ * <p>Notebooks are read from the request one at a time and handed to a bounded number of virtual
+ * threads that parse, validate and store them, so reading, validation and storage writes overlap.
+ * Stored notebooks are collected by the request thread and their metadata rows are inserted in JDBC
+ * batches. Each notebook gets its own result line: a notebook that cannot be saved does not fail
+ * the others.
+ *
+ * <p>Each document is either a notebook or an object with a {@code notebook} field and an optional
+ * {@code password} and {@code ttl_seconds}, like the body of {@code POST /notebooks}.
+ */
+@Log4j2
+@Service
+public class NotebookBulkUploadService {
+
+  private static final String MESSAGE_KEY = "Message";
+  private static final String NOTEBOOK_FIELD = "notebook";
+  private static final String PASSWORD_FIELD = "password";
+  private static final String TTL_SECONDS_FIELD = "ttl_seconds";
+
+  private final JupyterNotebookService notebookService;
+  private final JupyterNotebookValidator jupyterNotebookValidator;
+  private final JupyterNotebookBulkRepository bulkRepository;
+  private final StorageService storageService;
+  private final ObjectMapper objectMapper;
+
+  @Value("${notebook.max-size-bytes}")
+  private long maxNotebookSizeBytes;
+
+  @Value("${notebook.bulk.concurrency:8}")
+  private int concurrency;
+
+  @Value("${notebook.bulk.insert-batch-size:100}")
+  private int insertBatchSize;
+
+  @Value("${notebook.bulk.max-items:1000}")
+  private int maxItems;
+
+  /** Documents of a bulk upload, in request order. */
+  @FunctionalInterface
+  public interface BulkUploadSource {
+    /**
+     * Returns the next document, or null when there are no more.
+     *
+     * @throws NotebookTooLargeException if the next document is over the size limit; it is skipped
+     * @throws IOException if the request cannot be read any further
+     */
+    String next() throws IOException;
+  }
+
+  /** Receives one result per document, on the thread that runs the upload. */
+  @FunctionalInterface
+  public interface BulkUploadResultWriter {
+    void write(JupyterNotebookBulkUploadResult result) throws IOException;
+  }
+
+  /** A document after validation and storage: either a notebook to insert or a failure. */
+  private record PreparedNotebook(
+      int index, JupyterNotebookEntity notebook, JupyterNotebookBulkUploadResult failure) {}
+
+  public NotebookBulkUploadService(
+      JupyterNotebookService notebookService,
+      JupyterNotebookValidator jupyterNotebookValidator,
+      JupyterNotebookBulkRepository bulkRepository,
+      StorageService storageService,
+      ObjectMapper objectMapper) {
+    this.notebookService = notebookService;
+    this.jupyterNotebookValidator = jupyterNotebookValidator;
+    this.bulkRepository = bulkRepository;
+    this.storageService = storageService;
+    this.objectMapper = objectMapper;
+  }
+
+  /** One document per line; a line longer than the notebook size limit is rejected and skipped. */
+  public BulkUploadSource ndjsonSource(InputStream body) {
+    NdjsonReader reader = new NdjsonReader(body, maxNotebookSizeBytes);
+    return reader::readLine;
+  }
+
+  /** One document per uploaded file. */
+  public BulkUploadSource multipartSource(List<MultipartFile> files) {
+    Iterator<MultipartFile> remaining = files.iterator();
+    return () -> {
+      if (!remaining.hasNext()) {
+        return null;
+      }
+      MultipartFile file = remaining.next();
+      if (file.getSize() > maxNotebookSizeBytes) {
+        throw new NotebookTooLargeException(
+            String.format(
+                "Notebook size (%d bytes) exceeds maximum allowed size of %d MB",
+                file.getSize(), maxNotebookSizeBytes / (1024 * 1024)),
+            file.getSize(),
+            maxNotebookSizeBytes);
+      }
+      return new String(file.getBytes(), StandardCharsets.UTF_8);
+    };
+  }
+
+  /**
+   * Saves every document of the source and writes one result per document, in completion order.
+   * At most {@code notebook.bulk.concurrency} documents are being validated and stored at once;
+   * reading pauses while all of them are busy.
+   *
+   * @throws IOException if the source cannot be read or a result cannot be written; notebooks
+   *     already reported as saved stay saved
+   */
+  public void upload(
+      UUID sessionId, String domain, BulkUploadSource source, BulkUploadResultWriter writer)
+      throws IOException {
+    log.info(
+        new StringMapMessage()
+            .with(MESSAGE_KEY, "Starting bulk notebook upload")
+            .with(JupyterNotebookService.SESSION_ID_MESSAGE_KEY, sessionId.toString())
+            .with(JupyterNotebookService.DOMAIN_MESSAGE_KEY, domain));
+
+    Semaphore permits = new Semaphore(Math.max(1, concurrency));
+    ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    List<PreparedNotebook> stored = new ArrayList<>();
+    int index = 0;
+    int submitted = 0;
+    int collected = 0;
+    int saved = 0;
+
+    try {
+      CompletionService<PreparedNotebook> completions = new ExecutorCompletionService<>(executor);
+
+      while (true) {
+        String document;
+        JupyterNotebookBulkUploadResult rejected = null;
+        try {
+          document = source.next();
+          if (document == null) {
+            break;
+          }
+        } catch (NotebookTooLargeException e) {
+          document = null;
+          rejected =
+              JupyterNotebookBulkUploadResult.failed(
+                  index, JupyterNotebookBulkUploadResult.NOTEBOOK_TOO_LARGE, e.getMessage());
+        }
+
+        if (index >= maxItems) {
+          writer.write(
+              JupyterNotebookBulkUploadResult.failed(
+                  index,
+                  JupyterNotebookBulkUploadResult.TOO_MANY_NOTEBOOKS,
+                  "A bulk upload may contain at most " + maxItems + " notebooks"));
+          break;
+        }
+
+        int documentIndex = index++;
+        if (rejected != null) {
+          writer.write(rejected);
+          continue;
+        }
+
+        permits.acquire();
+        String pending = document;
+        completions.submit(
+            () -> {
+              try {
+                return prepare(documentIndex, pending, sessionId, domain);
+              } finally {
+                permits.release();
+              }
+            });
+        submitted++;
+
+        Future<PreparedNotebook> done;
+        while ((done = completions.poll()) != null) {
+          collected++;
+          saved += collect(done.get(), stored, writer);
+        }
+      }
+
+      while (collected < submitted) {
+        collected++;
+        saved += collect(completions.take().get(), stored, writer);
+      }
+      saved += insertStored(stored, writer);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted during bulk upload", e);
+    } catch (ExecutionException e) {
+      // prepare() reports failures as results; anything else is unexpected
+      throw new NotebookStorageException("Error during bulk upload", e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+
+    log.info(
+        new StringMapMessage()
+            .with(MESSAGE_KEY, "Bulk notebook upload finished")
+            .with(JupyterNotebookService.SESSION_ID_MESSAGE_KEY, sessionId.toString())
+            .with("Notebooks", String.valueOf(index))
+            .with("Saved", String.valueOf(saved)));
+  }
+
+  /** Reports a failure right away; stored notebooks wait until a full batch can be inserted. */
+  private int collect(
+      PreparedNotebook prepared, List<PreparedNotebook> stored, BulkUploadResultWriter writer)
+      throws IOException {
+    if (prepared.failure() != null) {
+      writer.write(prepared.failure());
+      return 0;
+    }
+    stored.add(prepared);
+    return stored.size() >= insertBatchSize ? insertStored(stored, writer) : 0;
+  }
+
+  private int insertStored(List<PreparedNotebook> stored, BulkUploadResultWriter writer)
+      throws IOException {
+    if (stored.isEmpty()) {
+      return 0;
+    }
+
+    List<JupyterNotebookEntity> notebooks =
+        stored.stream().map(PreparedNotebook::notebook).toList();
+    List<JupyterNotebookBulkUploadResult> results = new ArrayList<>(stored.size());
+    int saved = 0;
+    try {
+      Map<UUID, String> readableIds = bulkRepository.insertAll(notebooks);
+      for (PreparedNotebook prepared : stored) {
+        JupyterNotebookEntity notebook = prepared.notebook();
+        results.add(
+            JupyterNotebookBulkUploadResult.saved(
+                prepared.index(),
+                notebook.getId(),
+                notebook.getDomain(),
+                readableIds.get(notebook.getId())));
+      }
+      saved = stored.size();
+    } catch (RuntimeException e) {
+      log.error(
+          new StringMapMessage()
+              .with(MESSAGE_KEY, "Error saving bulk notebook metadata")
+              .with("Notebooks", String.valueOf(stored.size()))
+              .with("Error", String.valueOf(e.getMessage())),
+          e);
+      for (PreparedNotebook prepared : stored) {
+        deleteStoredContent(prepared.notebook());
+        results.add(
+            JupyterNotebookBulkUploadResult.failed(
+                prepared.index(),
+                JupyterNotebookBulkUploadResult.STORAGE_ERROR,
+                "Error saving notebook metadata"));
+      }
+    }
+    stored.clear();
+
+    for (JupyterNotebookBulkUploadResult result : results) {
+      writer.write(result);
+    }
+    return saved;
+  }
+
+  /** Parses, validates and stores one document. Runs on a worker thread. */
+  private PreparedNotebook prepare(int index, String document, UUID sessionId, String domain) {
+    try {
+      JsonNode root = objectMapper.readTree(document);
+      JsonNode notebookNode = root;
+      String password = null;
+      Long ttlSeconds = null;
+      String rawNotebookJson = document;
+
+      if (root.isObject() && root.has(NOTEBOOK_FIELD)) {
+        notebookNode = root.get(NOTEBOOK_FIELD);
+        JsonNode passwordNode = root.get(PASSWORD_FIELD);
+        password = passwordNode != null && passwordNode.isTextual() ? passwordNode.asText() : null;
+        JsonNode ttlNode = root.get(TTL_SECONDS_FIELD);
+        ttlSeconds = ttlNode != null && ttlNode.isIntegralNumber() ? ttlNode.asLong() : null;
+        rawNotebookJson = objectMapper.writeValueAsString(notebookNode);
+      }
+
+      notebookService.validateNotebookSize(rawNotebookJson, sessionId);
+      NotebookValidationResult validation = jupyterNotebookValidator.validate(rawNotebookJson);
+      if (!validation.valid()) {
+        throw JupyterNotebookService.validationFailed(validation);
+      }
+
+      JupyterNotebookDTO notebookDto =
+          objectMapper.treeToValue(notebookNode, JupyterNotebookDTO.class);
+      if (notebookDto.getMetadata() == null) {
+        throw new InvalidNotebookException("Metadata is missing");
+      }
+
+      JupyterNotebookEntity notebook =
+          notebookService.newNotebookEntity(sessionId, notebookDto.getMetadata(), domain, password);
+      notebookService.applyTtl(notebook, ttlSeconds);
+      notebook.setId(UUID.randomUUID());
+      notebookService.storeContent(notebook, rawNotebookJson);
+      return new PreparedNotebook(index, notebook, null);
+    } catch (NotebookTooLargeException e) {
+      return failure(index, JupyterNotebookBulkUploadResult.NOTEBOOK_TOO_LARGE, e.getMessage());
+    } catch (InvalidNotebookException e) {
+      return failure(index, JupyterNotebookBulkUploadResult.INVALID_NOTEBOOK, e.getMessage());
+    } catch (JsonProcessingException e) {
+      return failure(index, JupyterNotebookBulkUploadResult.INVALID_NOTEBOOK, "Malformed JSON");
+    } catch (RuntimeException e) {
+      log.error(
+          new StringMapMessage()
+              .with(MESSAGE_KEY, "Error storing bulk uploaded notebook")
+              .with(JupyterNotebookService.SESSION_ID_MESSAGE_KEY, sessionId.toString())
+              .with("Index", String.valueOf(index))
+              .with("Error", String.valueOf(e.getMessage())),
+          e);
+      return failure(
+          index, JupyterNotebookBulkUploadResult.STORAGE_ERROR, "Error storing notebook");
+    }
+  }
+
+  private static PreparedNotebook failure(int index, String error, String message) {
+    return new PreparedNotebook(
+        index, null, JupyterNotebookBulkUploadResult.failed(index, error, message));
+  }
+
+  /** Content without a metadata row is never served, so it is removed on a best-effort basis. */
+  private void deleteStoredContent(JupyterNotebookEntity notebook) {
+    try {
+      storageService.deleteNotebook(fileName(notebook));
+    } catch (RuntimeException e) {
+      log.warn(
+          new StringMapMessage()
+              .with(MESSAGE_KEY, "Could not delete content of unsaved notebook")
+              .with(JupyterNotebookService.NOTEBOOK_ID_MESSAGE_KEY, notebook.getId().toString())
+              .with("Error", String.valueOf(e.getMessage())));
+    }
+  }
+
+  private static String fileName(JupyterNotebookEntity notebook) {
+    return notebook.getId() + ".ipynb";
+  }
+}
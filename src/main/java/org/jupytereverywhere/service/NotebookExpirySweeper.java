@@ -0,0 +1,317 @@
+package org.jupytereverywhere.service;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.message.StringMapMessage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Deletes notebooks whose {@code expires_at} has passed, every {@code
+ * notebook.expiry.sweep-interval-ms}. When {@code notebook.retention.months} is set, the same
+ * sweep then deletes notebooks created longer ago than that, in {@code (created_at, id)} order.
+ *
+ * <p>Expired notebooks are visited in {@code (expires_at, id)} order, {@code
+ * notebook.expiry.batch-size} at a time. Each batch is one transaction: its rows are locked with
+ * {@code FOR UPDATE SKIP LOCKED}, so instances sweeping at the same time and notebooks being
+ * updated are skipped rather than waited for. The batch's content is deleted from storage by
+ * {@code notebook.expiry.delete-concurrency} parallel {@link StorageService#deleteNotebooks} calls,
+ * then the rows and revisions of the notebooks whose content is gone are deleted. Notebooks whose
+ * content could not be deleted are kept and retried by the next sweep.
+ *
+ * <p>A sweep deletes at most {@code notebook.expiry.max-deletes-per-second} notebooks per second,
+ * pausing between batches, so a large backlog of expired notebooks does not compete with requests
+ * for the database and storage.
+ */
+@Log4j2
+@Component
+public class NotebookExpirySweeper implements ApplicationListener<ApplicationReadyEvent> {
+
+  private static final String MESSAGE = "Message";
+
+  static final String SELECT_EXPIRED_SQL =
+      "SELECT id, storage_url, expires_at FROM jupyter_notebooks_metadata"
+          + " WHERE expires_at <= ? AND (expires_at, id) > (?, ?)"
+          + " ORDER BY expires_at, id LIMIT ? FOR UPDATE SKIP LOCKED";
+
+  /** Reads created_at as expires_at, so both kinds of sweep share {@link ExpiredNotebook}. */
+  static final String SELECT_PAST_RETENTION_SQL =
+      "SELECT id, storage_url, created_at AS expires_at FROM jupyter_notebooks_metadata"
+          + " WHERE created_at <= ? AND (created_at, id) > (?, ?)"
+          + " ORDER BY created_at, id LIMIT ? FOR UPDATE SKIP LOCKED";
+
+  static final String DELETE_REVISIONS_SQL =
+      "DELETE FROM jupyter_notebook_revisions WHERE notebook_id = ANY(?)";
+
+  static final String DELETE_NOTEBOOKS_SQL =
+      "DELETE FROM jupyter_notebooks_metadata WHERE id = ANY(?)";
+
+  /** Keyset position before the first expired notebook. */
+  static final ExpiredNotebook START = new ExpiredNotebook(new UUID(0L, 0L), "", new Timestamp(0L));
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final StorageService storageService;
+  private final Clock clock;
+
+  @Value("${notebook.expiry.sweep-interval-ms:60000}")
+  private long sweepIntervalMs;
+
+  @Value("${notebook.expiry.batch-size:200}")
+  private int batchSize;
+
+  @Value("${notebook.expiry.delete-concurrency:4}")
+  private int deleteConcurrency;
+
+  @Value("${notebook.expiry.max-deletes-per-second:100}")
+  private int maxDeletesPerSecond;
+
+  @Value("${notebook.retention.months:0}")
+  private int retentionMonths;
+
+  private ScheduledExecutorService scheduler;
+
+  public NotebookExpirySweeper(
+      JdbcTemplate jdbcTemplate,
+      PlatformTransactionManager transactionManager,
+      StorageService storageService) {
+    this(jdbcTemplate, transactionManager, storageService, Clock.systemUTC());
+  }
+
+  NotebookExpirySweeper(
+      JdbcTemplate jdbcTemplate,
+      PlatformTransactionManager transactionManager,
+      StorageService storageService,
+      Clock clock) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.storageService = storageService;
+    this.clock = clock;
+  }
+
+  @Override
+  public void onApplicationEvent(@NonNull ApplicationReadyEvent event) {
+    if (sweepIntervalMs <= 0) {
+      return;
+    }
+    scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("notebook-expiry-sweeper").daemon().factory());
+    scheduler.scheduleWithFixedDelay(this::sweep, 0L, sweepIntervalMs, TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+    }
+  }
+
+  void sweep() {
+    try {
+      logResult("Expired notebooks deleted", sweepExpired());
+      logResult("Notebooks past retention deleted", sweepPastRetention());
+    } catch (RuntimeException e) {
+      log.error(
+          new StringMapMessage()
+              .with(MESSAGE, "Expired notebook sweep failed")
+              .with("Error", String.valueOf(e.getMessage())),
+          e);
+    }
+  }
+
+  private static void logResult(String message, SweepResult result) {
+    if (result.deleted() > 0 || result.failed() > 0) {
+      log.info(
+          new StringMapMessage()
+              .with(MESSAGE, message)
+              .with("Deleted", String.valueOf(result.deleted()))
+              .with("Failed", String.valueOf(result.failed())));
+    }
+  }
+
+  /**
+   * Deletes the notebooks that had expired when the sweep started, batch by batch.
+   *
+   * @return counts of deleted notebooks and of notebooks whose content could not be deleted
+   */
+  SweepResult sweepExpired() {
+    return sweepBatches(SELECT_EXPIRED_SQL, Timestamp.from(clock.instant()));
+  }
+
+  /**
+   * Deletes the notebooks created more than {@code notebook.retention.months} before the sweep
+   * started, batch by batch; nothing when no retention period is set.
+   */
+  SweepResult sweepPastRetention() {
+    if (retentionMonths <= 0) {
+      return new SweepResult(0, 0);
+    }
+    return sweepBatches(
+        SELECT_PAST_RETENTION_SQL,
+        Timestamp.from(
+            clock.instant().atZone(ZoneOffset.UTC).minusMonths(retentionMonths).toInstant()));
+  }
+
+  private SweepResult sweepBatches(String selectSql, Timestamp cutoff) {
+    ExpiredNotebook position = START;
+    int deleted = 0;
+    int failed = 0;
+
+    while (!Thread.currentThread().isInterrupted()) {
+      long startedAt = System.nanoTime();
+      ExpiredNotebook after = position;
+      BatchResult batch =
+          transactionTemplate.execute(status -> deleteBatch(selectSql, cutoff, after));
+      if (batch == null || batch.selected() == 0) {
+        break;
+      }
+      deleted += batch.deleted();
+      failed += batch.failed();
+      position = batch.last();
+      if (batch.selected() < batchSize) {
+        break;
+      }
+      throttle(batch.selected(), startedAt);
+    }
+    return new SweepResult(deleted, failed);
+  }
+
+  /** Locks the next batch after {@code after} and deletes it. Runs in the batch's transaction. */
+  BatchResult deleteBatch(String selectSql, Timestamp cutoff, ExpiredNotebook after) {
+    List<ExpiredNotebook> batch =
+        jdbcTemplate.query(
+            selectSql,
+            ExpiredNotebook.ROW_MAPPER,
+            cutoff,
+            after.expiresAt(),
+            after.id(),
+            batchSize);
+    if (batch.isEmpty()) {
+      return new BatchResult(0, 0, 0, after);
+    }
+
+    Set<UUID> failedIds = deleteContent(batch);
+    UUID[] ids =
+        batch.stream()
+            .map(ExpiredNotebook::id)
+            .filter(id -> !failedIds.contains(id))
+            .toArray(UUID[]::new);
+    if (ids.length > 0) {
+      jdbcTemplate.update(DELETE_REVISIONS_SQL, (Object) ids);
+      jdbcTemplate.update(DELETE_NOTEBOOKS_SQL, (Object) ids);
+    }
+    return new BatchResult(batch.size(), ids.length, failedIds.size(), batch.get(batch.size() - 1));
+  }
+
+  /**
+   * Deletes the stored content of a batch, split into {@code notebook.expiry.delete-concurrency}
+   * parts deleted in parallel.
+   *
+   * @return the ids of the notebooks whose content could not be deleted
+   */
+  private Set<UUID> deleteContent(List<ExpiredNotebook> batch) {
+    List<String> fileNames =
+        batch.stream()
+            .filter(notebook -> notebook.storageUrl() != null && !notebook.storageUrl().isEmpty())
+            .map(notebook -> fileName(notebook.id()))
+            .toList();
+    if (fileNames.isEmpty()) {
+      return Set.of();
+    }
+
+    int partSize = Math.ceilDiv(fileNames.size(), Math.max(1, deleteConcurrency));
+    List<List<String>> parts = new ArrayList<>();
+    for (int from = 0; from < fileNames.size(); from += partSize) {
+      parts.add(fileNames.subList(from, Math.min(from + partSize, fileNames.size())));
+    }
+
+    Set<String> failedNames = new HashSet<>();
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      List<Future<Set<String>>> futures = new ArrayList<>(parts.size());
+      for (List<String> part : parts) {
+        futures.add(executor.submit(() -> storageService.deleteNotebooks(part)));
+      }
+      for (int i = 0; i < parts.size(); i++) {
+        try {
+          failedNames.addAll(futures.get(i).get());
+        } catch (ExecutionException e) {
+          log.warn(
+              new StringMapMessage()
+                  .with(MESSAGE, "Failed to delete content of expired notebooks")
+                  .with("Count", String.valueOf(parts.get(i).size()))
+                  .with("Error", String.valueOf(e.getCause().getMessage())),
+              e.getCause());
+          failedNames.addAll(parts.get(i));
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          failedNames.addAll(parts.get(i));
+        }
+      }
+    }
+
+    Set<UUID> failedIds = new HashSet<>();
+    for (ExpiredNotebook notebook : batch) {
+      if (failedNames.contains(fileName(notebook.id()))) {
+        failedIds.add(notebook.id());
+      }
+    }
+    return failedIds;
+  }
+
+  /** Sleeps long enough that {@code count} deletions took at least their share of a second. */
+  private void throttle(int count, long startedAt) {
+    if (maxDeletesPerSecond <= 0) {
+      return;
+    }
+    long minimumNanos = count * TimeUnit.SECONDS.toNanos(1) / maxDeletesPerSecond;
+    long remainingNanos = minimumNanos - (System.nanoTime() - startedAt);
+    if (remainingNanos > 0) {
+      try {
+        TimeUnit.NANOSECONDS.sleep(remainingNanos);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private static String fileName(UUID notebookId) {
+    return notebookId + ".ipynb";
+  }
+
+  record ExpiredNotebook(UUID id, String storageUrl, Timestamp expiresAt) {
+    static final RowMapper<ExpiredNotebook> ROW_MAPPER =
+        (resultSet, rowNum) ->
+            new ExpiredNotebook(
+                resultSet.getObject("id", UUID.class),
+                resultSet.getString("storage_url"),
+                resultSet.getTimestamp("expires_at"));
+  }
+
+  record BatchResult(int selected, int deleted, int failed, ExpiredNotebook last) {}
+
+  public record SweepResult(int deleted, int failed) {}
+}
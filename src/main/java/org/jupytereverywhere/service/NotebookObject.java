@@ -0,0 +1,11 @@
+package org.jupytereverywhere.service;
+
+import java.time.Instant;
+
+/**
+ * A notebook file found in storage by {@link StorageService#listNotebooks}.
+ *
+ * @param fileName the name the notebook was stored under, e.g. {@code <uuid>.ipynb}
+ * @param lastModified when the notebook was last written
+ */
+public record NotebookObject(String fileName, Instant lastModified) {}
@@ -0,0 +1,436 @@
+package org.jupytereverywhere.service;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.apache.logging.log4j.message.StringMapMessage;
+import org.jupytereverywhere.service.StorageService.ListingOrder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Finds notebooks whose metadata and stored content disagree:
+ *
+ * <ul>
+ *   <li>orphan objects: stored notebooks without a metadata row, left behind when an upload's
+ *       transaction rolled back after its content was written;
+ *   <li>unstored rows: metadata rows whose content was never stored ({@code storage_url} is empty),
+ *       left behind when storing failed after the row was inserted;
+ *   <li>missing content: rows pointing at content that is not in storage.
+ * </ul>
+ *
+ * <p>The storage listing and the metadata table, both read in the backend's {@link
+ * StorageService.ListingOrder}, are merge-joined one page of {@code notebook.reconcile.page-size}
+ * from each at a time, so memory use does not depend on the number of notebooks. Up to {@code
+ * notebook.reconcile.pages-per-run} pages are reconciled every {@code
+ * notebook.reconcile.interval-ms}; the position in both is checkpointed in {@code
+ * notebook_reconciliation} after every page, so a pass over millions of notebooks is spread over
+ * many runs and survives restarts.
+ *
+ * <p>Orphan objects and unstored rows younger than {@code notebook.reconcile.grace-period-ms} may
+ * belong to uploads still in progress and are ignored. Mismatches are logged and counted per pass;
+ * with {@code notebook.reconcile.repair=true} orphan objects and unstored rows are also deleted.
+ * Rows with missing content are only reported, since their metadata may still be useful.
+ */
+@Log4j2
+@Component
+public class NotebookReconciler implements ApplicationListener<ApplicationReadyEvent> {
+
+  private static final String MESSAGE = "Message";
+  private static final String NOTEBOOK_SUFFIX = ".ipynb";
+  private static final int MAX_LOGGED_IDS = 10;
+  private static final Pattern NOTEBOOK_ID =
+      Pattern.compile("[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}");
+
+  /** Arbitrary key of the advisory lock held while reconciling. */
+  static final long LOCK_KEY = 0x6a75707974657232L;
+
+  static final String TRY_LOCK_SQL = "SELECT pg_try_advisory_lock(?)";
+  static final String UNLOCK_SQL = "SELECT pg_advisory_unlock(?)";
+
+  static final String LOAD_CHECKPOINT_SQL =
+      "SELECT pass_started_at, object_cursor, row_cursor, orphan_objects, unstored_rows,"
+          + " missing_content, repaired FROM notebook_reconciliation WHERE id = 1";
+
+  static final String SAVE_CHECKPOINT_SQL =
+      "UPDATE notebook_reconciliation SET pass_started_at = ?, object_cursor = ?, row_cursor = ?,"
+          + " orphan_objects = ?, unstored_rows = ?, missing_content = ?, repaired = ?,"
+          + " updated_at = NOW() WHERE id = 1";
+
+  /** The uuid order of the id index matches the order of the ids' string form. */
+  static final String FIRST_ROWS_SQL =
+      "SELECT id, storage_url FROM jupyter_notebooks_metadata ORDER BY id LIMIT ?";
+
+  static final String NEXT_ROWS_SQL =
+      "SELECT id, storage_url FROM jupyter_notebooks_metadata WHERE id > ? ORDER BY id LIMIT ?";
+
+  /** For {@link ListingOrder#SHARD}; notebook_storage_shard matches FileStorageService. */
+  static final String FIRST_ROWS_BY_SHARD_SQL =
+      "SELECT id, storage_url FROM jupyter_notebooks_metadata"
+          + " ORDER BY notebook_storage_shard(id), id LIMIT ?";
+
+  static final String NEXT_ROWS_BY_SHARD_SQL =
+      "SELECT id, storage_url FROM jupyter_notebooks_metadata"
+          + " WHERE (notebook_storage_shard(id), id) > (notebook_storage_shard(?), ?)"
+          + " ORDER BY notebook_storage_shard(id), id LIMIT ?";
+
+  static final String STALE_UNSTORED_SQL =
+      "SELECT id FROM jupyter_notebooks_metadata"
+          + " WHERE id = ANY(?) AND storage_url = '' AND created_at < ?";
+
+  static final String DELETE_REVISIONS_SQL =
+      "DELETE FROM jupyter_notebook_revisions WHERE notebook_id = ANY(?)";
+
+  /** Rechecks the storage URL, in case the upload completed since the row was read. */
+  static final String DELETE_UNSTORED_SQL =
+      "DELETE FROM jupyter_notebooks_metadata WHERE id = ANY(?) AND storage_url = ''";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final StorageService storageService;
+  private final Clock clock;
+
+  @Value("${notebook.reconcile.interval-ms:0}")
+  private long intervalMs;
+
+  @Value("${notebook.reconcile.page-size:1000}")
+  private int pageSize;
+
+  @Value("${notebook.reconcile.pages-per-run:100}")
+  private int pagesPerRun;
+
+  @Value("${notebook.reconcile.page-pause-ms:100}")
+  private long pagePauseMs;
+
+  @Value("${notebook.reconcile.grace-period-ms:86400000}")
+  private long gracePeriodMs;
+
+  @Value("${notebook.reconcile.repair:false}")
+  private boolean repair;
+
+  private ScheduledExecutorService scheduler;
+
+  public NotebookReconciler(JdbcTemplate jdbcTemplate, StorageService storageService) {
+    this(jdbcTemplate, storageService, Clock.systemUTC());
+  }
+
+  NotebookReconciler(JdbcTemplate jdbcTemplate, StorageService storageService, Clock clock) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.storageService = storageService;
+    this.clock = clock;
+  }
+
+  @Override
+  public void onApplicationEvent(@NonNull ApplicationReadyEvent event) {
+    if (intervalMs <= 0) {
+      return;
+    }
+    scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("notebook-reconciler").daemon().factory());
+    scheduler.scheduleWithFixedDelay(
+        this::runReconciliation, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+    }
+  }
+
+  /** Runs on a single connection so the advisory lock is held by one session throughout. */
+  void runReconciliation() {
+    try {
+      jdbcTemplate.execute(
+          (ConnectionCallback<Void>)
+              connection -> {
+                JdbcTemplate session =
+                    new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+                if (!Boolean.TRUE.equals(
+                    session.queryForObject(TRY_LOCK_SQL, Boolean.class, LOCK_KEY))) {
+                  return null;
+                }
+                try {
+                  reconcile(session);
+                } finally {
+                  session.queryForObject(UNLOCK_SQL, Boolean.class, LOCK_KEY);
+                }
+                return null;
+              });
+    } catch (RuntimeException e) {
+      log.error(
+          new StringMapMessage()
+              .with(MESSAGE, "Notebook reconciliation failed")
+              .with("Error", String.valueOf(e.getMessage())),
+          e);
+    }
+  }
+
+  /**
+   * Continues the current pass, or starts a new one, for up to {@code pages-per-run} pages.
+   *
+   * @return the checkpoint reached; its counters are the pass totals when the pass finished
+   */
+  Checkpoint reconcile(JdbcTemplate session) {
+    Checkpoint checkpoint =
+        session.queryForObject(LOAD_CHECKPOINT_SQL, Checkpoint.ROW_MAPPER);
+    if (checkpoint == null || checkpoint.passStartedAt() == null) {
+      checkpoint = Checkpoint.start(Timestamp.from(clock.instant()));
+    }
+    Instant cutoff = clock.instant().minusMillis(gracePeriodMs);
+
+    for (int page = 0; page < pagesPerRun; page++) {
+      PageResult result = reconcilePage(session, checkpoint, cutoff);
+      checkpoint = result.checkpoint();
+      if (result.complete()) {
+        log.info(
+            new StringMapMessage()
+                .with(MESSAGE, "Notebook reconciliation pass finished")
+                .with("PassStartedAt", checkpoint.passStartedAt().toString())
+                .with("OrphanObjects", String.valueOf(checkpoint.orphanObjects()))
+                .with("UnstoredRows", String.valueOf(checkpoint.unstoredRows()))
+                .with("MissingContent", String.valueOf(checkpoint.missingContent()))
+                .with("Repaired", String.valueOf(checkpoint.repaired())));
+        saveCheckpoint(session, Checkpoint.IDLE);
+        return checkpoint;
+      }
+      saveCheckpoint(session, checkpoint);
+      if (!pause()) {
+        break;
+      }
+    }
+    return checkpoint;
+  }
+
+  /**
+   * Merge-joins the next page of storage objects with the next page of metadata rows. Only keys up
+   * to the last key of a full page are reconciled, since the other side may continue past it; the
+   * rest is read again with the next page.
+   */
+  PageResult reconcilePage(JdbcTemplate session, Checkpoint checkpoint, Instant cutoff) {
+    ListingOrder listingOrder = storageService.listingOrder();
+    List<NotebookObject> objects =
+        storageService.listNotebooks(checkpoint.objectCursor(), pageSize);
+    List<NotebookRow> rows = readRows(session, listingOrder, checkpoint.rowCursor());
+
+    String bound = null;
+    if (objects.size() >= pageSize) {
+      bound = listingOrder.key(objects.get(objects.size() - 1).fileName());
+    }
+    if (rows.size() >= pageSize) {
+      String lastRowKey = listingOrder.key(fileName(rows.get(rows.size() - 1).id()));
+      if (bound == null || lastRowKey.compareTo(bound) < 0) {
+        bound = lastRowKey;
+      }
+    }
+
+    String objectCursor = checkpoint.objectCursor();
+    UUID rowCursor = checkpoint.rowCursor();
+    List<String> orphanObjects = new ArrayList<>();
+    List<UUID> unstored = new ArrayList<>();
+    List<UUID> missingContent = new ArrayList<>();
+    int i = 0;
+    int j = 0;
+    while (i < objects.size() || j < rows.size()) {
+      String objectKey = i < objects.size() ? listingOrder.key(objects.get(i).fileName()) : null;
+      String rowKey = j < rows.size() ? listingOrder.key(fileName(rows.get(j).id())) : null;
+      int order;
+      if (objectKey == null) {
+        order = 1;
+      } else if (rowKey == null) {
+        order = -1;
+      } else {
+        order = objectKey.compareTo(rowKey);
+      }
+      if (bound != null && (order <= 0 ? objectKey : rowKey).compareTo(bound) > 0) {
+        break;
+      }
+
+      NotebookObject object = order <= 0 ? objects.get(i++) : null;
+      NotebookRow row = order >= 0 ? rows.get(j++) : null;
+      if (object != null) {
+        objectCursor = object.fileName();
+      }
+      if (row != null) {
+        rowCursor = row.id();
+      }
+
+      if (row == null) {
+        if (NOTEBOOK_ID.matcher(idOf(object)).matches()
+            && object.lastModified().isBefore(cutoff)) {
+          orphanObjects.add(object.fileName());
+        }
+      } else if (row.storageUrl() == null || row.storageUrl().isEmpty()) {
+        unstored.add(row.id());
+      } else if (object == null) {
+        missingContent.add(row.id());
+      }
+    }
+
+    List<UUID> staleUnstored =
+        unstored.isEmpty()
+            ? List.of()
+            : session.queryForList(
+                STALE_UNSTORED_SQL,
+                UUID.class,
+                unstored.toArray(UUID[]::new),
+                Timestamp.from(cutoff));
+    report(orphanObjects, staleUnstored, missingContent);
+    long repaired = repair ? repair(session, orphanObjects, staleUnstored) : 0;
+
+    Checkpoint next =
+        new Checkpoint(
+            checkpoint.passStartedAt(),
+            objectCursor,
+            rowCursor,
+            checkpoint.orphanObjects() + orphanObjects.size(),
+            checkpoint.unstoredRows() + staleUnstored.size(),
+            checkpoint.missingContent() + missingContent.size(),
+            checkpoint.repaired() + repaired);
+    return new PageResult(next, bound == null);
+  }
+
+  /** The next page of metadata rows after {@code rowCursor}, in the storage listing's order. */
+  private List<NotebookRow> readRows(JdbcTemplate session, ListingOrder order, UUID rowCursor) {
+    boolean byShard = order == ListingOrder.SHARD;
+    if (rowCursor == null) {
+      return session.query(
+          byShard ? FIRST_ROWS_BY_SHARD_SQL : FIRST_ROWS_SQL, NotebookRow.ROW_MAPPER, pageSize);
+    }
+    return byShard
+        ? session.query(
+            NEXT_ROWS_BY_SHARD_SQL, NotebookRow.ROW_MAPPER, rowCursor, rowCursor, pageSize)
+        : session.query(NEXT_ROWS_SQL, NotebookRow.ROW_MAPPER, rowCursor, pageSize);
+  }
+
+  /** @return how many orphan objects and unstored rows were deleted */
+  private long repair(JdbcTemplate session, List<String> orphanObjects, List<UUID> staleUnstored) {
+    long repaired = 0;
+    if (!staleUnstored.isEmpty()) {
+      UUID[] ids = staleUnstored.toArray(UUID[]::new);
+      session.update(DELETE_REVISIONS_SQL, (Object) ids);
+      repaired += session.update(DELETE_UNSTORED_SQL, (Object) ids);
+      // Content may have been written before the upload failed
+      storageService.deleteNotebooks(
+          staleUnstored.stream().map(NotebookReconciler::fileName).toList());
+    }
+    if (!orphanObjects.isEmpty()) {
+      repaired += orphanObjects.size() - storageService.deleteNotebooks(orphanObjects).size();
+    }
+    return repaired;
+  }
+
+  private void report(List<String> orphanObjects, List<UUID> unstored, List<UUID> missingContent) {
+    if (orphanObjects.isEmpty() && unstored.isEmpty() && missingContent.isEmpty()) {
+      return;
+    }
+    log.warn(
+        new StringMapMessage()
+            .with(MESSAGE, "Notebook metadata and storage disagree")
+            .with("OrphanObjects", sample(orphanObjects))
+            .with("UnstoredRows", sample(unstored))
+            .with("MissingContent", sample(missingContent))
+            .with("Repair", String.valueOf(repair)));
+  }
+
+  private static String sample(List<?> values) {
+    if (values.size() <= MAX_LOGGED_IDS) {
+      return values.toString();
+    }
+    return values.subList(0, MAX_LOGGED_IDS)
+        + " and "
+        + (values.size() - MAX_LOGGED_IDS)
+        + " more";
+  }
+
+  private boolean pause() {
+    if (pagePauseMs <= 0) {
+      return true;
+    }
+    try {
+      Thread.sleep(pagePauseMs);
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  private void saveCheckpoint(JdbcTemplate session, Checkpoint checkpoint) {
+    session.update(
+        SAVE_CHECKPOINT_SQL,
+        checkpoint.passStartedAt(),
+        checkpoint.objectCursor(),
+        checkpoint.rowCursor(),
+        checkpoint.orphanObjects(),
+        checkpoint.unstoredRows(),
+        checkpoint.missingContent(),
+        checkpoint.repaired());
+  }
+
+  private static String fileName(UUID notebookId) {
+    return notebookId + NOTEBOOK_SUFFIX;
+  }
+
+  /** The notebook id a file name belongs to; file names of other objects are returned as is. */
+  private static String idOf(NotebookObject object) {
+    String fileName = object.fileName();
+    return fileName.endsWith(NOTEBOOK_SUFFIX)
+        ? fileName.substring(0, fileName.length() - NOTEBOOK_SUFFIX.length())
+        : fileName;
+  }
+
+  record NotebookRow(UUID id, String storageUrl) {
+    static final RowMapper<NotebookRow> ROW_MAPPER =
+        (resultSet, rowNum) ->
+            new NotebookRow(
+                resultSet.getObject("id", UUID.class), resultSet.getString("storage_url"));
+  }
+
+  record Checkpoint(
+      Timestamp passStartedAt,
+      String objectCursor,
+      UUID rowCursor,
+      long orphanObjects,
+      long unstoredRows,
+      long missingContent,
+      long repaired) {
+
+    static final Checkpoint IDLE = new Checkpoint(null, null, null, 0, 0, 0, 0);
+
+    static final RowMapper<Checkpoint> ROW_MAPPER =
+        (resultSet, rowNum) ->
+            new Checkpoint(
+                resultSet.getTimestamp("pass_started_at"),
+                resultSet.getString("object_cursor"),
+                resultSet.getObject("row_cursor", UUID.class),
+                resultSet.getLong("orphan_objects"),
+                resultSet.getLong("unstored_rows"),
+                resultSet.getLong("missing_content"),
+                resultSet.getLong("repaired"));
+
+    static Checkpoint start(Timestamp passStartedAt) {
+      return new Checkpoint(passStartedAt, null, null, 0, 0, 0, 0);
+    }
+  }
+
+  record PageResult(Checkpoint checkpoint, boolean complete) {}
+}
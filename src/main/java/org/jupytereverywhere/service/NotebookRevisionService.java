@@ -0,0 +1,319 @@
+package org.jupytereverywhere.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.logging.log4j.message.StringMapMessage;
+import org.jupytereverywhere.exception.NotebookNotFoundException;
+import org.jupytereverywhere.exception.NotebookStorageException;
+import org.jupytereverywhere.model.JupyterNotebookEntity;
+import org.jupytereverywhere.model.JupyterNotebookRevisionEntity;
+import org.jupytereverywhere.model.NotebookRevisionType;
+import org.jupytereverywhere.repository.JupyterNotebookRevisionRepository;
+import org.jupytereverywhere.repository.NotebookRevisionSummary;
+import org.jupytereverywhere.service.utils.BinaryDelta;
+import org.jupytereverywhere.utils.DateUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Keeps the history of a notebook's content across updates.
+ *
+ * <p>Revision 1 is the content a notebook had before its first tracked update; every update then
+ * adds the new content as the next revision. Revisions are stored as a gzip-compressed binary delta
+ * against the previous revision, with a full snapshot every {@code snapshot-interval} revisions (or
+ * whenever the delta would be larger than half the notebook) so that reconstructing any revision
+ * applies a bounded number of deltas. Optional retention limits ({@code max-revisions}, {@code
+ * max-age-days}) prune the oldest revisions whenever a snapshot is written.
+ */
+@Log4j2
+@Service
+public class NotebookRevisionService {
+
+  private static final String MESSAGE_KEY = "Message";
+  private static final String NOTEBOOK_ID_MESSAGE_KEY = "NotebookID";
+  private static final String REVISION_MESSAGE_KEY = "Revision";
+  public static final String REVISION_NOT_FOUND_MESSAGE = "Revision not found";
+
+  private final JupyterNotebookRevisionRepository revisionRepository;
+
+  @Value("${notebook.revisions.enabled:true}")
+  private boolean enabled;
+
+  @Value("${notebook.revisions.snapshot-interval:20}")
+  private int snapshotInterval;
+
+  @Value("${notebook.revisions.max-revisions:0}")
+  private int maxRevisions;
+
+  @Value("${notebook.revisions.max-age-days:0}")
+  private int maxAgeDays;
+
+  public NotebookRevisionService(JupyterNotebookRevisionRepository revisionRepository) {
+    this.revisionRepository = revisionRepository;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Records {@code newContent} as the next revision of the notebook. Must be called before the
+   * notebook's metadata is updated, so that a baseline revision is attributed to the original
+   * session.
+   *
+   * <p>The delta base is the latest revision, rebuilt from the revision history; {@code
+   * currentContent} is only consulted on the first tracked update, to keep the original version.
+   * Each new snapshot also applies the retention settings.
+   *
+   * @param notebook the notebook being updated
+   * @param sessionId the session performing the update
+   * @param currentContent supplies the content currently in storage, or null if it cannot be read
+   * @param newContent the content being saved
+   * @return the new revision number
+   */
+  public int recordRevision(
+      JupyterNotebookEntity notebook,
+      UUID sessionId,
+      Supplier<String> currentContent,
+      String newContent) {
+    UUID notebookId = notebook.getId();
+    byte[] newBytes = newContent.getBytes(StandardCharsets.UTF_8);
+    byte[] previousBytes = null;
+
+    int nextRevision;
+    int lastSnapshot;
+    Optional<NotebookRevisionSummary> latest =
+        revisionRepository.findFirstByNotebookIdOrderByRevisionNumberDesc(notebookId);
+
+    if (latest.isPresent()) {
+      int latestRevision = latest.get().getRevisionNumber();
+      nextRevision = latestRevision + 1;
+      lastSnapshot =
+          revisionRepository
+              .findFirstByNotebookIdAndRevisionTypeOrderByRevisionNumberDesc(
+                  notebookId, NotebookRevisionType.SNAPSHOT)
+              .map(NotebookRevisionSummary::getRevisionNumber)
+              .orElse(0);
+      if (nextRevision - lastSnapshot < snapshotInterval) {
+        previousBytes = latestRevisionContent(notebookId, latestRevision);
+      }
+    } else {
+      String previousContent = currentContent.get();
+      if (previousContent != null) {
+        // First tracked update: keep what the notebook looked like before it
+        previousBytes = previousContent.getBytes(StandardCharsets.UTF_8);
+        saveRevision(
+            notebookId,
+            1,
+            NotebookRevisionType.SNAPSHOT,
+            previousBytes,
+            previousBytes.length,
+            notebook.getSessionId());
+        nextRevision = 2;
+        lastSnapshot = 1;
+      } else {
+        nextRevision = 1;
+        lastSnapshot = 0;
+      }
+    }
+
+    boolean snapshotDue = previousBytes == null || nextRevision - lastSnapshot >= snapshotInterval;
+    if (!snapshotDue) {
+      byte[] delta = BinaryDelta.encode(previousBytes, newBytes);
+      if (delta.length * 2L <= newBytes.length) {
+        saveRevision(
+            notebookId,
+            nextRevision,
+            NotebookRevisionType.DELTA,
+            delta,
+            newBytes.length,
+            sessionId);
+        return nextRevision;
+      }
+    }
+
+    saveRevision(
+        notebookId,
+        nextRevision,
+        NotebookRevisionType.SNAPSHOT,
+        newBytes,
+        newBytes.length,
+        sessionId);
+    pruneRevisions(notebookId, nextRevision);
+    return nextRevision;
+  }
+
+  public List<NotebookRevisionSummary> listRevisions(UUID notebookId) {
+    return revisionRepository.findByNotebookIdOrderByRevisionNumberDesc(notebookId);
+  }
+
+  /**
+   * Reconstructs the content of a revision from the closest preceding snapshot.
+   *
+   * @throws NotebookNotFoundException if the revision does not exist
+   */
+  public String getRevisionContent(UUID notebookId, int revisionNumber) {
+    return new String(reconstruct(notebookId, revisionNumber), StandardCharsets.UTF_8);
+  }
+
+  private byte[] reconstruct(UUID notebookId, int revisionNumber) {
+    JupyterNotebookRevisionEntity snapshot =
+        revisionRepository
+            .findSnapshotAtOrBefore(notebookId, revisionNumber)
+            .orElseThrow(() -> revisionNotFound(notebookId, revisionNumber));
+
+    byte[] content = decompress(snapshot.getPayload());
+
+    if (snapshot.getRevisionNumber() < revisionNumber) {
+      List<JupyterNotebookRevisionEntity> chain =
+          revisionRepository.findByNotebookIdAndRevisionNumberBetweenOrderByRevisionNumberAsc(
+              notebookId, snapshot.getRevisionNumber() + 1, revisionNumber);
+      if (chain.size() != revisionNumber - snapshot.getRevisionNumber()) {
+        throw revisionNotFound(notebookId, revisionNumber);
+      }
+
+      for (JupyterNotebookRevisionEntity revision : chain) {
+        byte[] payload = decompress(revision.getPayload());
+        content =
+            revision.getRevisionType() == NotebookRevisionType.SNAPSHOT
+                ? payload
+                : BinaryDelta.apply(content, payload);
+      }
+    }
+
+    return content;
+  }
+
+  /** The latest revision's content, or null if it cannot be rebuilt and a snapshot is needed. */
+  private byte[] latestRevisionContent(UUID notebookId, int latestRevision) {
+    try {
+      return reconstruct(notebookId, latestRevision);
+    } catch (NotebookNotFoundException | NotebookStorageException e) {
+      log.warn(
+          new StringMapMessage()
+              .with(MESSAGE_KEY, "Could not rebuild latest revision, storing a snapshot")
+              .with(NOTEBOOK_ID_MESSAGE_KEY, notebookId.toString())
+              .with(REVISION_MESSAGE_KEY, String.valueOf(latestRevision))
+              .with("Error", String.valueOf(e.getMessage())));
+      return null;
+    }
+  }
+
+  /**
+   * Deletes the revisions that fall outside both retention limits. Deletion stops at the snapshot
+   * the oldest retained revision is rebuilt from, so history is pruned one snapshot interval at a
+   * time and every remaining revision stays readable.
+   */
+  private void pruneRevisions(UUID notebookId, int latestRevision) {
+    if (maxRevisions <= 0 && maxAgeDays <= 0) {
+      return;
+    }
+
+    int keepFrom = 1;
+    if (maxRevisions > 0) {
+      keepFrom = Math.max(keepFrom, latestRevision - maxRevisions + 1);
+    }
+    if (maxAgeDays > 0) {
+      Timestamp cutoff =
+          DateUtils.utcDateToTimestamp(
+              Date.from(Instant.now().minus(Duration.ofDays(maxAgeDays))));
+      int oldestRecent =
+          revisionRepository
+              .findFirstByNotebookIdAndCreatedAtGreaterThanEqualOrderByRevisionNumberAsc(
+                  notebookId, cutoff)
+              .map(NotebookRevisionSummary::getRevisionNumber)
+              .orElse(latestRevision);
+      keepFrom = Math.max(keepFrom, oldestRecent);
+    }
+
+    int pruneBefore =
+        revisionRepository
+            .findSnapshotNumberAtOrBefore(notebookId, Math.min(keepFrom, latestRevision))
+            .orElse(1);
+    if (pruneBefore <= 1) {
+      return;
+    }
+
+    int deleted = revisionRepository.deleteRevisionsBefore(notebookId, pruneBefore);
+    if (deleted > 0) {
+      log.info(
+          new StringMapMessage()
+              .with(MESSAGE_KEY, "Notebook revisions pruned")
+              .with(NOTEBOOK_ID_MESSAGE_KEY, notebookId.toString())
+              .with("OldestRevision", String.valueOf(pruneBefore))
+              .with("DeletedRevisions", String.valueOf(deleted)));
+    }
+  }
+
+  private void saveRevision(
+      UUID notebookId,
+      int revisionNumber,
+      NotebookRevisionType revisionType,
+      byte[] data,
+      long contentSizeBytes,
+      UUID sessionId) {
+    JupyterNotebookRevisionEntity revision = new JupyterNotebookRevisionEntity();
+    revision.setNotebookId(notebookId);
+    revision.setRevisionNumber(revisionNumber);
+    revision.setRevisionType(revisionType);
+    revision.setPayload(compress(data));
+    revision.setContentSizeBytes(contentSizeBytes);
+    revision.setSessionId(sessionId);
+    revision.setCreatedAt(DateUtils.utcDateToTimestamp(Date.from(Instant.now())));
+
+    revisionRepository.save(revision);
+
+    log.info(
+        new StringMapMessage()
+            .with(MESSAGE_KEY, "Notebook revision recorded")
+            .with(NOTEBOOK_ID_MESSAGE_KEY, notebookId.toString())
+            .with(REVISION_MESSAGE_KEY, String.valueOf(revisionNumber))
+            .with("RevisionType", revisionType.name())
+            .with("ContentSizeBytes", String.valueOf(contentSizeBytes))
+            .with("PayloadSizeBytes", String.valueOf(revision.getPayload().length)));
+  }
+
+  private NotebookNotFoundException revisionNotFound(UUID notebookId, int revisionNumber) {
+    log.error(
+        new StringMapMessage()
+            .with(MESSAGE_KEY, REVISION_NOT_FOUND_MESSAGE)
+            .with(NOTEBOOK_ID_MESSAGE_KEY, notebookId.toString())
+            .with(REVISION_MESSAGE_KEY, String.valueOf(revisionNumber)));
+    return new NotebookNotFoundException(REVISION_NOT_FOUND_MESSAGE);
+  }
+
+  static byte[] compress(byte[] data) {
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+    try (OutputStream gzip = new GZIPOutputStream(buffer)) {
+      gzip.write(data);
+    } catch (IOException e) {
+      throw new NotebookStorageException("Error compressing notebook revision", e);
+    }
+    return buffer.toByteArray();
+  }
+
+  static byte[] decompress(byte[] data) {
+    try (InputStream gzip = new GZIPInputStream(new ByteArrayInputStream(data))) {
+      return gzip.readAllBytes();
+    } catch (IOException e) {
+      throw new NotebookStorageException("Error decompressing notebook revision", e);
+    }
+  }
+}
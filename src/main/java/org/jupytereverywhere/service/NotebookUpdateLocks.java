@@ -0,0 +1,73 @@
+package org.jupytereverywhere.service;
+
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Striped per-notebook locks that serialize updates to the same notebook within this instance.
+ *
+ * <p>Concurrent writers of one notebook would otherwise all reach the storage write and the
+ * database row lock at the same time; queueing them here keeps at most one of them per notebook
+ * holding a connection on that row. A fixed number of stripes bounds memory regardless of how many
+ * notebooks are updated, at the cost of unrelated notebooks occasionally sharing a stripe.
+ */
+@Component
+public class NotebookUpdateLocks {
+
+  /** Releases the lock; a no-op when release is deferred to transaction completion. */
+  @FunctionalInterface
+  public interface Handle extends AutoCloseable {
+    @Override
+    void close();
+  }
+
+  private static final Handle RELEASED_ON_COMPLETION = () -> {};
+  private static final int MAX_STRIPES = 1 << 16;
+
+  private final ReentrantLock[] stripes;
+
+  public NotebookUpdateLocks(@Value("${notebook.update-lock-stripes:256}") int stripeCount) {
+    int requested = Math.min(stripeCount, MAX_STRIPES);
+    int size = requested <= 1 ? 1 : Integer.highestOneBit(requested - 1) << 1;
+    this.stripes = new ReentrantLock[size];
+    for (int i = 0; i < stripes.length; i++) {
+      stripes[i] = new ReentrantLock();
+    }
+  }
+
+  /**
+   * Blocks until the calling thread holds the lock for the notebook. Inside a transaction the lock
+   * is kept until the transaction completes, so the next writer only proceeds once this update is
+   * committed; outside a transaction it is released when the handle is closed.
+   */
+  public Handle acquire(UUID notebookId) {
+    ReentrantLock lock = stripeFor(notebookId);
+    lock.lock();
+
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+              lock.unlock();
+            }
+          });
+      return RELEASED_ON_COMPLETION;
+    }
+    return lock::unlock;
+  }
+
+  int stripeCount() {
+    return stripes.length;
+  }
+
+  ReentrantLock stripeFor(UUID notebookId) {
+    int hash = notebookId.hashCode();
+    return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+  }
+}
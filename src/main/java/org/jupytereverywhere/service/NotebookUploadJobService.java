@@ -0,0 +1,347 @@
+package org.jupytereverywhere.service;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.message.StringMapMessage;
+import org.jupytereverywhere.exception.InvalidNotebookException;
+import org.jupytereverywhere.exception.NotebookNotFoundException;
+import org.jupytereverywhere.model.JupyterNotebookEntity;
+import org.jupytereverywhere.model.NotebookUploadJobEntity;
+import org.jupytereverywhere.model.NotebookUploadJobStatus;
+import org.jupytereverywhere.model.request.JupyterNotebookRequest;
+import org.jupytereverywhere.model.response.JupyterNotebookSaved;
+import org.jupytereverywhere.model.response.JupyterNotebookUploadJob;
+import org.jupytereverywhere.repository.NotebookUploadJobRepository;
+import org.jupytereverywhere.repository.NotebookUploadJobSummary;
+import org.jupytereverywhere.utils.DateUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.transaction.Transactional;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Asynchronous notebook uploads.
+ *
+ * <p>Accepting an upload only checks its size, creates the notebook's metadata row and stages the
+ * compressed content in {@code notebook_upload_jobs}, so the request returns without waiting for
+ * validation or storage. A bounded pool of workers then validates and stores staged notebooks.
+ *
+ * <p>The database is the queue: a job is dispatched to the local pool once its transaction has
+ * committed, and a poller also picks up pending jobs, including ones that did not fit in the pool's
+ * queue, ones accepted by another instance and ones abandoned by a stopped instance. Workers claim
+ * a job with a conditional update, so each job runs once even when several instances see it.
+ */
+@Log4j2
+@Service
+public class NotebookUploadJobService implements ApplicationListener<ApplicationReadyEvent> {
+
+  private static final String MESSAGE_KEY = "Message";
+  private static final String JOB_ID_MESSAGE_KEY = "JobID";
+  private static final String NOTEBOOK_ID_MESSAGE_KEY = "NotebookID";
+  public static final String JOB_NOT_FOUND_MESSAGE = "Upload job not found";
+  private static final int MAX_ERROR_MESSAGE_LENGTH = 1024;
+  private static final String STORAGE_ERROR_MESSAGE = "Error storing notebook";
+
+  private final JupyterNotebookService notebookService;
+  private final NotebookUploadJobRepository jobRepository;
+
+  /** Jobs in the local pool that have not finished, so the poller does not queue them twice. */
+  private final Set<UUID> queuedJobs = ConcurrentHashMap.newKeySet();
+
+  @Value("${notebook.async-upload.enabled:false}")
+  private boolean enabled;
+
+  @Value("${notebook.async-upload.workers:4}")
+  private int workers;
+
+  @Value("${notebook.async-upload.queue-capacity:100}")
+  private int queueCapacity;
+
+  @Value("${notebook.async-upload.poll-interval-ms:5000}")
+  private long pollIntervalMs;
+
+  @Value("${notebook.async-upload.stale-after-ms:300000}")
+  private long staleAfterMs;
+
+  @Value("${notebook.async-upload.max-attempts:3}")
+  private int maxAttempts;
+
+  private ThreadPoolExecutor executor;
+  private ScheduledExecutorService poller;
+
+  public NotebookUploadJobService(
+      JupyterNotebookService notebookService, NotebookUploadJobRepository jobRepository) {
+    this.notebookService = notebookService;
+    this.jobRepository = jobRepository;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  @Override
+  public void onApplicationEvent(@NonNull ApplicationReadyEvent event) {
+    if (!enabled) {
+      return;
+    }
+    executor =
+        new ThreadPoolExecutor(
+            workers,
+            workers,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            Thread.ofPlatform().name("notebook-upload-", 0).factory());
+    poller =
+        Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("notebook-upload-poller").daemon().factory());
+    poller.scheduleWithFixedDelay(
+        this::pollPendingJobs, 0L, pollIntervalMs, TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    if (poller != null) {
+      poller.shutdownNow();
+    }
+    if (executor != null) {
+      // Queued jobs stay pending in the database and are picked up after restart
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Accepts an upload. The notebook's id and readable id are allocated immediately; its content is
+   * validated and stored by a worker once this transaction commits.
+   */
+  @Transactional
+  public JupyterNotebookUploadJob submit(
+      JupyterNotebookRequest jupyterNotebookRequest,
+      UUID sessionId,
+      String domain,
+      String rawNotebookJson) {
+    JupyterNotebookEntity notebookEntity =
+        notebookService.reserveNotebook(jupyterNotebookRequest, sessionId, domain, rawNotebookJson);
+
+    Timestamp now = now();
+    NotebookUploadJobEntity job = new NotebookUploadJobEntity();
+    job.setNotebookId(notebookEntity.getId());
+    job.setReadableId(notebookEntity.getReadableId());
+    job.setDomain(notebookEntity.getDomain());
+    job.setSessionId(sessionId);
+    job.setStatus(NotebookUploadJobStatus.PENDING);
+    job.setPayload(
+        NotebookRevisionService.compress(rawNotebookJson.getBytes(StandardCharsets.UTF_8)));
+    job.setCreatedAt(now);
+    job.setUpdatedAt(now);
+    NotebookUploadJobEntity savedJob = jobRepository.save(job);
+
+    log.info(
+        new StringMapMessage()
+            .with(MESSAGE_KEY, "Notebook upload accepted")
+            .with(JOB_ID_MESSAGE_KEY, savedJob.getId().toString())
+            .with(NOTEBOOK_ID_MESSAGE_KEY, notebookEntity.getId().toString())
+            .with("PayloadSizeBytes", String.valueOf(savedJob.getPayload().length)));
+
+    UUID jobId = savedJob.getId();
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              dispatch(jobId);
+            }
+          });
+    } else {
+      dispatch(jobId);
+    }
+
+    return toResponse(
+        jobId,
+        NotebookUploadJobStatus.PENDING,
+        notebookEntity.getId(),
+        notebookEntity.getDomain(),
+        notebookEntity.getReadableId(),
+        null);
+  }
+
+  /**
+   * Reports the status of a job started by the given session. Reads only the job's status columns.
+   *
+   * @throws NotebookNotFoundException if there is no such job for this session
+   */
+  public JupyterNotebookUploadJob getJob(UUID jobId, UUID sessionId) {
+    NotebookUploadJobSummary job =
+        jobRepository
+            .findSummaryById(jobId)
+            .filter(summary -> summary.getSessionId().equals(sessionId))
+            .orElseThrow(() -> new NotebookNotFoundException(JOB_NOT_FOUND_MESSAGE));
+
+    return toResponse(
+        job.getId(),
+        job.getStatus(),
+        job.getNotebookId(),
+        job.getDomain(),
+        job.getReadableId(),
+        job.getErrorMessage());
+  }
+
+  /** Validates and stores a staged notebook, unless another worker has already claimed the job. */
+  void process(UUID jobId) {
+    try {
+      if (jobRepository.claimPending(jobId).isEmpty()) {
+        return;
+      }
+      NotebookUploadJobEntity job = jobRepository.findById(jobId).orElse(null);
+      if (job == null) {
+        return;
+      }
+
+      String rawNotebookJson =
+          new String(NotebookRevisionService.decompress(job.getPayload()), StandardCharsets.UTF_8);
+
+      try {
+        notebookService.completeStagedUpload(job.getNotebookId(), rawNotebookJson);
+        finish(job, NotebookUploadJobStatus.SUCCEEDED, null);
+      } catch (InvalidNotebookException e) {
+        notebookService.discardStagedUpload(job.getNotebookId());
+        finish(job, NotebookUploadJobStatus.FAILED, e.getMessage());
+      } catch (RuntimeException e) {
+        if (job.getAttempts() >= maxAttempts) {
+          notebookService.discardStagedUpload(job.getNotebookId());
+          finish(job, NotebookUploadJobStatus.FAILED, STORAGE_ERROR_MESSAGE);
+        } else {
+          retryLater(job, e);
+        }
+      }
+    } finally {
+      queuedJobs.remove(jobId);
+    }
+  }
+
+  void pollPendingJobs() {
+    try {
+      // A job whose worker never got to record the outcome of its last attempt would otherwise be
+      // requeued forever, e.g. when processing it runs the instance out of memory
+      List<UUID> abandonedNotebookIds =
+          jobRepository.failStale(staleAfterMs, maxAttempts, STORAGE_ERROR_MESSAGE);
+      if (!abandonedNotebookIds.isEmpty()) {
+        abandonedNotebookIds.forEach(notebookService::discardStagedUpload);
+        log.warn(
+            new StringMapMessage()
+                .with(MESSAGE_KEY, "Failed abandoned notebook upload jobs out of attempts")
+                .with("Jobs", String.valueOf(abandonedNotebookIds.size())));
+      }
+
+      int requeued = jobRepository.requeueStale(staleAfterMs, maxAttempts);
+      if (requeued > 0) {
+        log.warn(
+            new StringMapMessage()
+                .with(MESSAGE_KEY, "Requeued abandoned notebook upload jobs")
+                .with("Jobs", String.valueOf(requeued)));
+      }
+
+      int capacity = executor != null ? executor.getQueue().remainingCapacity() : 0;
+      if (capacity <= 0) {
+        return;
+      }
+      List<UUID> pendingIds = jobRepository.findPendingIds(capacity);
+      pendingIds.forEach(this::dispatch);
+    } catch (RuntimeException e) {
+      // Keep polling: a failed run must not cancel the schedule
+      log.error(
+          new StringMapMessage()
+              .with(MESSAGE_KEY, "Error polling notebook upload jobs")
+              .with("Error", String.valueOf(e.getMessage())),
+          e);
+    }
+  }
+
+  /** Hands a job to the local pool; a job that does not fit stays pending for the poller. */
+  private void dispatch(UUID jobId) {
+    if (executor == null || !queuedJobs.add(jobId)) {
+      return;
+    }
+    try {
+      executor.execute(() -> process(jobId));
+    } catch (RejectedExecutionException e) {
+      queuedJobs.remove(jobId);
+      log.info(
+          new StringMapMessage()
+              .with(MESSAGE_KEY, "Notebook upload queue full, job left for the poller")
+              .with(JOB_ID_MESSAGE_KEY, jobId.toString()));
+    }
+  }
+
+  private void finish(NotebookUploadJobEntity job, NotebookUploadJobStatus status, String error) {
+    job.setStatus(status);
+    job.setPayload(null);
+    job.setErrorMessage(truncate(error));
+    job.setUpdatedAt(now());
+    jobRepository.save(job);
+
+    log.info(
+        new StringMapMessage()
+            .with(MESSAGE_KEY, "Notebook upload job finished")
+            .with(JOB_ID_MESSAGE_KEY, job.getId().toString())
+            .with(NOTEBOOK_ID_MESSAGE_KEY, job.getNotebookId().toString())
+            .with("Status", status.name())
+            .with("Attempts", String.valueOf(job.getAttempts())));
+  }
+
+  private void retryLater(NotebookUploadJobEntity job, RuntimeException e) {
+    job.setStatus(NotebookUploadJobStatus.PENDING);
+    job.setUpdatedAt(now());
+    jobRepository.save(job);
+
+    log.warn(
+        new StringMapMessage()
+            .with(MESSAGE_KEY, "Notebook upload job failed, will retry")
+            .with(JOB_ID_MESSAGE_KEY, job.getId().toString())
+            .with("Attempts", String.valueOf(job.getAttempts()))
+            .with("Error", String.valueOf(e.getMessage())),
+        e);
+  }
+
+  private static JupyterNotebookUploadJob toResponse(
+      UUID jobId,
+      NotebookUploadJobStatus status,
+      UUID notebookId,
+      String domain,
+      String readableId,
+      String error) {
+    return new JupyterNotebookUploadJob(
+        jobId, status, new JupyterNotebookSaved(notebookId, domain, readableId), error);
+  }
+
+  private static String truncate(String message) {
+    if (message == null || message.length() <= MAX_ERROR_MESSAGE_LENGTH) {
+      return message;
+    }
+    return message.substring(0, MAX_ERROR_MESSAGE_LENGTH);
+  }
+
+  private static Timestamp now() {
+    return DateUtils.utcDateToTimestamp(Date.from(Instant.now()));
+  }
+}
@@ -1,5 +1,16 @@
 package org.jupytereverywhere.service;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.jupytereverywhere.exception.NotebookNotFoundException;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -9,4 +20,87 @@ public interface StorageService {
   String downloadNotebookAsJson(String fileName);
 
   void deleteNotebook(String fileName);
+
+  /**
+   * Writes the stored notebook bytes straight to the given stream. Backends that can serve the
+   * content without materialising it as a String should override this.
+   *
+   * @param fileName the storage location, as accepted by {@link #downloadNotebookAsJson(String)}
+   * @param target the stream to write the raw notebook JSON to; it is not closed
+   * @throws IOException if writing to the target fails
+   */
+  default void transferNotebookTo(String fileName, OutputStream target) throws IOException {
+    target.write(downloadNotebookAsJson(fileName).getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Opens the stored notebook for reading. Callers that only need the start of the notebook may
+   * close the stream early. Backends that can read incrementally should override this.
+   *
+   * @param fileName the storage location, as accepted by {@link #downloadNotebookAsJson(String)}
+   * @throws IOException if the notebook cannot be opened
+   */
+  default InputStream openNotebook(String fileName) throws IOException {
+    return new ByteArrayInputStream(
+        downloadNotebookAsJson(fileName).getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Deletes several notebooks. Notebooks that are already gone count as deleted. Backends with a
+   * bulk delete operation should override this.
+   *
+   * @param fileNames the storage locations, as accepted by {@link #deleteNotebook(String)}
+   * @return the file names that could not be deleted
+   */
+  default Set<String> deleteNotebooks(Collection<String> fileNames) {
+    Set<String> failed = new HashSet<>();
+    for (String fileName : fileNames) {
+      try {
+        deleteNotebook(fileName);
+      } catch (NotebookNotFoundException e) {
+        // Already deleted
+      } catch (RuntimeException e) {
+        failed.add(fileName);
+      }
+    }
+    return failed;
+  }
+
+  /**
+   * Lists stored notebooks ({@code .ipynb} files) in ascending order of {@link #listingOrder}, for
+   * reconciling storage with the metadata table.
+   *
+   * @param startAfter only notebooks whose file name sorts after this one are listed; null to start
+   *     at the beginning
+   * @param limit the most notebooks to return; fewer are only returned at the end of the listing
+   */
+  List<NotebookObject> listNotebooks(String startAfter, int limit);
+
+  /** The order {@link #listNotebooks} lists notebooks in. */
+  ListingOrder listingOrder();
+
+  /** Orders in which a backend can list its notebooks. */
+  enum ListingOrder {
+    /** By file name, e.g. object storage listing keys in order. */
+    FILE_NAME {
+      @Override
+      public String key(String fileName) {
+        return fileName;
+      }
+    },
+
+    /**
+     * By the directory shard a file name is stored in (see {@link FileStorageService}), then by
+     * file name, so a listing can walk the shard directories one after another.
+     */
+    SHARD {
+      @Override
+      public String key(String fileName) {
+        return FileStorageService.shardHash(fileName) + fileName;
+      }
+    };
+
+    /** The value notebooks are listed in ascending order of. */
+    public abstract String key(String fileName);
+  }
 }
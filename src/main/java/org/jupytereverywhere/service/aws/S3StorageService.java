@@ -1,16 +1,25 @@
 package org.jupytereverywhere.service.aws;
 
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.logging.log4j.message.StringMapMessage;
+import org.jupytereverywhere.exception.NotebookStorageException;
 import org.jupytereverywhere.exception.S3DeleteException;
 import org.jupytereverywhere.exception.S3DownloadException;
 import org.jupytereverywhere.exception.S3UploadException;
+import org.jupytereverywhere.service.NotebookObject;
 import org.jupytereverywhere.service.StorageService;
 import org.jupytereverywhere.service.aws.secrets.SecretsService;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
@@ -18,12 +27,22 @@ import jakarta.annotation.PostConstruct;
 import lombok.extern.log4j.Log4j2;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.Delete;
 import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Object;
 
 @Log4j2
 @Service("s3StorageService")
@@ -35,6 +54,14 @@ public class S3StorageService implements StorageService {
   private static final String SECRET_KEY = "secret_key";
   private static final String BUCKET_URL = "url";
 
+  /** Most keys S3 accepts in one DeleteObjects request. */
+  static final int MAX_DELETE_KEYS = 1000;
+
+  /** Most keys S3 returns for one ListObjectsV2 request. */
+  static final int MAX_LIST_KEYS = 1000;
+
+  private static final String NOTEBOOK_SUFFIX = ".ipynb";
+
   @Value("${aws.s3.region}")
   private String region;
 
@@ -49,6 +76,10 @@ public class S3StorageService implements StorageService {
   @Value("${aws.s3.secret-key:}")
   private String configuredSecretKey;
 
+  // Tracing of S3 requests, see TracingConfig
+  @Autowired(required = false)
+  private List<ExecutionInterceptor> executionInterceptors = List.of();
+
   private final SecretsService secretsService;
   private S3Client s3Client;
   private String bucketName;
@@ -87,11 +118,16 @@ public class S3StorageService implements StorageService {
           S3Client.builder()
               .region(Region.of(region))
               .credentialsProvider(StaticCredentialsProvider.create(awsCreds))
+              .overrideConfiguration(clientOverrideConfiguration())
               .build();
       log.info(
           "S3 client initialized with explicit credentials from Secrets Manager or properties");
     } else {
-      this.s3Client = S3Client.builder().region(Region.of(region)).build();
+      this.s3Client =
+          S3Client.builder()
+              .region(Region.of(region))
+              .overrideConfiguration(clientOverrideConfiguration())
+              .build();
       log.info(
           "S3 client initialized with default AWS credentials provider chain (IAM role, EC2/ECS metadata, etc.)");
     }
@@ -106,6 +142,12 @@ public class S3StorageService implements StorageService {
     log.info(initLog);
   }
 
+  private ClientOverrideConfiguration clientOverrideConfiguration() {
+    return ClientOverrideConfiguration.builder()
+        .executionInterceptors(executionInterceptors)
+        .build();
+  }
+
   @Value("${aws.s3.secret-name:jupyter-s3}")
   private String s3SecretName = "jupyter-s3";
 
@@ -220,6 +262,29 @@ public class S3StorageService implements StorageService {
     }
   }
 
+  /**
+   * Returns the S3 object stream itself, so the notebook is read as the caller consumes it. Closing
+   * it before the end aborts the request, dropping the connection rather than draining the rest of
+   * the object to reuse it.
+   */
+  @Override
+  public InputStream openNotebook(String fileName) {
+    try {
+      return new AbortOnEarlyCloseInputStream(
+          s3Client.getObject(GetObjectRequest.builder().bucket(bucketName).key(fileName).build()));
+    } catch (Exception e) {
+      log.error(
+          new StringMapMessage()
+              .with("action", "openNotebook")
+              .with("status", "failure")
+              .with("fileName", fileName != null ? fileName : "N/A")
+              .with("bucketName", bucketName != null ? bucketName : "N/A")
+              .with("error", e.getMessage() != null ? e.getMessage() : "N/A"),
+          e);
+      throw new S3DownloadException("Error downloading notebook from S3", e);
+    }
+  }
+
   @Override
   public void deleteNotebook(String fileName) {
     try {
@@ -249,4 +314,125 @@ public class S3StorageService implements StorageService {
       throw new S3DeleteException("Error deleting notebook from S3", e);
     }
   }
+
+  /** Deletes the notebooks with one DeleteObjects request per {@value #MAX_DELETE_KEYS} keys. */
+  @Override
+  public Set<String> deleteNotebooks(Collection<String> fileNames) {
+    List<String> keys = new ArrayList<>(fileNames);
+    Set<String> failed = new HashSet<>();
+    for (int from = 0; from < keys.size(); from += MAX_DELETE_KEYS) {
+      List<String> chunk = keys.subList(from, Math.min(from + MAX_DELETE_KEYS, keys.size()));
+      List<ObjectIdentifier> objects =
+          chunk.stream().map(key -> ObjectIdentifier.builder().key(key).build()).toList();
+      try {
+        DeleteObjectsResponse response =
+            s3Client.deleteObjects(
+                DeleteObjectsRequest.builder()
+                    .bucket(bucketName)
+                    .delete(Delete.builder().objects(objects).quiet(true).build())
+                    .build());
+        response.errors().forEach(error -> failed.add(error.key()));
+      } catch (Exception e) {
+        log.error(
+            new StringMapMessage()
+                .with("action", "deleteNotebooks")
+                .with("status", "failure")
+                .with("count", String.valueOf(chunk.size()))
+                .with("bucketName", bucketName != null ? bucketName : "N/A")
+                .with("error", e.getMessage() != null ? e.getMessage() : "N/A"),
+            e);
+        failed.addAll(chunk);
+      }
+    }
+
+    log.info(
+        new StringMapMessage()
+            .with("action", "deleteNotebooks")
+            .with("status", failed.isEmpty() ? "success" : "partial")
+            .with("count", String.valueOf(keys.size()))
+            .with("failed", String.valueOf(failed.size()))
+            .with("bucketName", bucketName != null ? bucketName : "N/A"));
+    return failed;
+  }
+
+  /** Lists the bucket with ListObjectsV2, which returns keys in ascending order. */
+  @Override
+  public List<NotebookObject> listNotebooks(String startAfter, int limit) {
+    List<NotebookObject> notebooks = new ArrayList<>();
+    String continuationToken = null;
+    try {
+      do {
+        ListObjectsV2Request.Builder request =
+            ListObjectsV2Request.builder()
+                .bucket(bucketName)
+                .maxKeys(Math.min(limit - notebooks.size(), MAX_LIST_KEYS));
+        if (continuationToken != null) {
+          request.continuationToken(continuationToken);
+        } else if (startAfter != null) {
+          request.startAfter(startAfter);
+        }
+
+        ListObjectsV2Response response = s3Client.listObjectsV2(request.build());
+        for (S3Object object : response.contents()) {
+          if (object.key().endsWith(NOTEBOOK_SUFFIX)) {
+            notebooks.add(new NotebookObject(object.key(), object.lastModified()));
+          }
+        }
+        continuationToken =
+            Boolean.TRUE.equals(response.isTruncated()) ? response.nextContinuationToken() : null;
+      } while (continuationToken != null && notebooks.size() < limit);
+    } catch (Exception e) {
+      log.error(
+          new StringMapMessage()
+              .with("action", "listNotebooks")
+              .with("status", "failure")
+              .with("startAfter", startAfter != null ? startAfter : "N/A")
+              .with("bucketName", bucketName != null ? bucketName : "N/A")
+              .with("error", e.getMessage() != null ? e.getMessage() : "N/A"),
+          e);
+      throw new NotebookStorageException("Error listing notebooks in S3", e);
+    }
+    return notebooks;
+  }
+
+  @Override
+  public ListingOrder listingOrder() {
+    return ListingOrder.FILE_NAME;
+  }
+
+  /**
+   * {@link ResponseInputStream#close()} reads the rest of the object so the connection can go back
+   * to the pool, which costs a full download when only the first cells were needed.
+   */
+  static class AbortOnEarlyCloseInputStream extends FilterInputStream {
+    private final ResponseInputStream<?> response;
+    private boolean exhausted;
+
+    AbortOnEarlyCloseInputStream(ResponseInputStream<?> response) {
+      super(response);
+      this.response = response;
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = super.read();
+      exhausted |= b < 0;
+      return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+      int n = super.read(buffer, offset, length);
+      exhausted |= n < 0;
+      return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (!exhausted) {
+        response.abort();
+      }
+      super.close();
+    }
+  }
 }
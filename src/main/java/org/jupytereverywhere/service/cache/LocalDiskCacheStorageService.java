@@ -0,0 +1,387 @@
+package org.jupytereverywhere.service.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.message.StringMapMessage;
+import org.jupytereverywhere.service.NotebookObject;
+import org.jupytereverywhere.service.StorageService;
+
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Read-through and write-through cache that keeps recently used notebooks on local disk in front
+ * of any {@link StorageService} backend.
+ *
+ * <p>Entries are evicted in least-recently-used order once the total cached size exceeds the
+ * configured cap, and are dropped after a maximum age so that instances behind a load balancer
+ * eventually observe updates made elsewhere. Updates and deletes going through this instance
+ * invalidate the local copy immediately.
+ *
+ * <p>Cached files are keyed by the notebook file name, which is stable across the storage URL
+ * returned by the backend and the file name passed to {@link #deleteNotebook(String)}. They live in
+ * a subdirectory of the configured path that the cache creates, and every write gets a file name of
+ * its own, so files can be deleted outside the index lock without removing a newer write.
+ */
+@Log4j2
+public class LocalDiskCacheStorageService implements StorageService {
+
+  public static final String MESSAGE = "Message";
+  public static final String CACHE_KEY = "CacheKey";
+  public static final String ERROR = "Error";
+
+  private static final String FILES_DIRECTORY = "notebooks";
+  private static final String CACHE_SUFFIX = ".cached";
+  private static final String TEMP_SUFFIX = ".tmp";
+
+  private final StorageService delegate;
+  private final Path cacheDirectory;
+  private final Path filesDirectory;
+  private final long maxSizeBytes;
+  private final long maxAgeMillis;
+
+  /** Access-ordered index of cached files; guarded by its own monitor. */
+  private final LinkedHashMap<String, CacheEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+  /** Cache fills in flight, keyed by cache key; a fill only lands if its stamp is still here. */
+  private final Map<String, Long> pendingLoads = new ConcurrentHashMap<>();
+
+  private final AtomicLong loadSequence = new AtomicLong();
+  private long currentSizeBytes;
+
+  public LocalDiskCacheStorageService(
+      StorageService delegate, Path cacheDirectory, long maxSizeBytes, Duration maxAge) {
+    this.delegate = delegate;
+    this.cacheDirectory = cacheDirectory;
+    this.filesDirectory = cacheDirectory.resolve(FILES_DIRECTORY);
+    this.maxSizeBytes = maxSizeBytes;
+    this.maxAgeMillis = maxAge.toMillis();
+    initializeCacheDirectory();
+  }
+
+  /**
+   * Creates the cache directory and discards the cache files left behind by a previous run. Only
+   * files named by the cache are deleted, so a cache path that points at a directory holding other
+   * data, such as the storage directory, does not lose it.
+   */
+  private void initializeCacheDirectory() {
+    try {
+      Files.createDirectories(filesDirectory);
+      try (DirectoryStream<Path> stream = Files.newDirectoryStream(filesDirectory)) {
+        for (Path leftover : stream) {
+          String name = leftover.getFileName().toString();
+          if (Files.isRegularFile(leftover)
+              && (name.endsWith(CACHE_SUFFIX) || name.endsWith(TEMP_SUFFIX))) {
+            Files.deleteIfExists(leftover);
+          }
+        }
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException(
+          "Unable to initialize notebook cache directory: " + cacheDirectory, e);
+    }
+
+    log.info(
+        new StringMapMessage()
+            .with(MESSAGE, "Local disk notebook cache initialized")
+            .with("CacheDirectory", cacheDirectory.toString())
+            .with("MaxSizeBytes", String.valueOf(maxSizeBytes))
+            .with("MaxAgeMillis", String.valueOf(maxAgeMillis)));
+  }
+
+  @Override
+  public String uploadNotebook(String notebookJson, String fileName) {
+    String key = cacheKey(fileName);
+    invalidate(key);
+
+    String storageUrl = delegate.uploadNotebook(notebookJson, fileName);
+
+    store(key, notebookJson.getBytes(StandardCharsets.UTF_8), null);
+    return storageUrl;
+  }
+
+  @Override
+  public String downloadNotebookAsJson(String fileName) {
+    String key = cacheKey(fileName);
+    Path cached = lookup(key);
+    if (cached != null) {
+      try {
+        String content = Files.readString(cached, StandardCharsets.UTF_8);
+        log.debug(new StringMapMessage().with(MESSAGE, "Notebook cache hit").with(CACHE_KEY, key));
+        return content;
+      } catch (NoSuchFileException e) {
+        // Evicted or invalidated between lookup and open; fall through to the backend
+      } catch (IOException e) {
+        logCacheError("Error reading cached notebook", key, e);
+        invalidate(key);
+      }
+    }
+
+    return loadFromDelegate(key, fileName);
+  }
+
+  @Override
+  public void transferNotebookTo(String fileName, OutputStream target) throws IOException {
+    String key = cacheKey(fileName);
+    Path cached = lookup(key);
+    if (cached != null) {
+      try (FileChannel channel = FileChannel.open(cached, StandardOpenOption.READ)) {
+        transferFully(channel, Channels.newChannel(target));
+        log.debug(new StringMapMessage().with(MESSAGE, "Notebook cache hit").with(CACHE_KEY, key));
+        return;
+      } catch (NoSuchFileException e) {
+        // Evicted or invalidated between lookup and open; fall through to the backend
+      }
+    }
+
+    target.write(loadFromDelegate(key, fileName).getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Override
+  public InputStream openNotebook(String fileName) throws IOException {
+    String key = cacheKey(fileName);
+    Path cached = lookup(key);
+    if (cached != null) {
+      try {
+        InputStream in = Files.newInputStream(cached);
+        log.debug(new StringMapMessage().with(MESSAGE, "Notebook cache hit").with(CACHE_KEY, key));
+        return in;
+      } catch (NoSuchFileException e) {
+        // Evicted or invalidated between lookup and open; fall through to the backend
+      }
+    }
+
+    return new ByteArrayInputStream(
+        loadFromDelegate(key, fileName).getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Override
+  public void deleteNotebook(String fileName) {
+    String key = cacheKey(fileName);
+    invalidate(key);
+    try {
+      delegate.deleteNotebook(fileName);
+    } finally {
+      // A concurrent read may have repopulated the entry while the backend delete was running
+      invalidate(key);
+    }
+  }
+
+  @Override
+  public Set<String> deleteNotebooks(Collection<String> fileNames) {
+    fileNames.forEach(fileName -> invalidate(cacheKey(fileName)));
+    try {
+      return delegate.deleteNotebooks(fileNames);
+    } finally {
+      fileNames.forEach(fileName -> invalidate(cacheKey(fileName)));
+    }
+  }
+
+  @Override
+  public List<NotebookObject> listNotebooks(String startAfter, int limit) {
+    return delegate.listNotebooks(startAfter, limit);
+  }
+
+  @Override
+  public ListingOrder listingOrder() {
+    return delegate.listingOrder();
+  }
+
+  /** Returns the total size of the notebooks currently held on disk. */
+  public long getCurrentSizeBytes() {
+    synchronized (entries) {
+      return currentSizeBytes;
+    }
+  }
+
+  private String loadFromDelegate(String key, String fileName) {
+    long stamp = loadSequence.incrementAndGet();
+    pendingLoads.put(key, stamp);
+
+    String content;
+    try {
+      content = delegate.downloadNotebookAsJson(fileName);
+    } catch (RuntimeException e) {
+      pendingLoads.remove(key, stamp);
+      throw e;
+    }
+
+    log.debug(new StringMapMessage().with(MESSAGE, "Notebook cache miss").with(CACHE_KEY, key));
+    store(key, content.getBytes(StandardCharsets.UTF_8), stamp);
+    return content;
+  }
+
+  private Path lookup(String key) {
+    Path expired;
+    synchronized (entries) {
+      CacheEntry entry = entries.get(key);
+      if (entry == null) {
+        return null;
+      }
+      if (maxAgeMillis <= 0 || System.currentTimeMillis() - entry.storedAtMillis() < maxAgeMillis) {
+        return entry.path();
+      }
+      entries.remove(key);
+      currentSizeBytes -= entry.sizeBytes();
+      expired = entry.path();
+    }
+    deleteQuietly(expired);
+    return null;
+  }
+
+  /**
+   * Writes the content to the cache. When {@code loadStamp} is non-null the write only lands if no
+   * upload or delete for the same key has happened since the backend read began, so a slow read can
+   * never resurrect stale content.
+   */
+  private void store(String key, byte[] content, Long loadStamp) {
+    if (content.length > maxSizeBytes) {
+      if (loadStamp != null) {
+        pendingLoads.remove(key, loadStamp);
+      }
+      return;
+    }
+
+    Path tempFile = null;
+    List<Path> evicted = new ArrayList<>();
+    try {
+      tempFile = Files.createTempFile(filesDirectory, key, TEMP_SUFFIX);
+      Files.write(tempFile, content);
+
+      synchronized (entries) {
+        if (loadStamp == null) {
+          pendingLoads.remove(key);
+        } else if (!pendingLoads.remove(key, loadStamp)) {
+          return;
+        }
+
+        Path target =
+            filesDirectory.resolve(key + "." + loadSequence.incrementAndGet() + CACHE_SUFFIX);
+        moveIntoPlace(tempFile, target);
+        tempFile = null;
+
+        CacheEntry previous =
+            entries.put(key, new CacheEntry(target, content.length, System.currentTimeMillis()));
+        if (previous != null) {
+          currentSizeBytes -= previous.sizeBytes();
+          evicted.add(previous.path());
+        }
+        currentSizeBytes += content.length;
+
+        evictIfNeeded(key, evicted);
+      }
+    } catch (IOException e) {
+      logCacheError("Error writing notebook to cache", key, e);
+      invalidate(key);
+    } finally {
+      if (tempFile != null) {
+        deleteQuietly(tempFile);
+      }
+    }
+
+    evicted.forEach(this::deleteQuietly);
+  }
+
+  /** Must be called while holding the {@code entries} monitor. */
+  private void evictIfNeeded(String protectedKey, List<Path> evicted) {
+    Iterator<Map.Entry<String, CacheEntry>> iterator = entries.entrySet().iterator();
+    while (currentSizeBytes > maxSizeBytes && iterator.hasNext()) {
+      Map.Entry<String, CacheEntry> eldest = iterator.next();
+      if (eldest.getKey().equals(protectedKey)) {
+        continue;
+      }
+      iterator.remove();
+      currentSizeBytes -= eldest.getValue().sizeBytes();
+      evicted.add(eldest.getValue().path());
+    }
+  }
+
+  private void invalidate(String key) {
+    pendingLoads.remove(key);
+    CacheEntry removed;
+    synchronized (entries) {
+      removed = entries.remove(key);
+      if (removed == null) {
+        return;
+      }
+      currentSizeBytes -= removed.sizeBytes();
+    }
+    deleteQuietly(removed.path());
+  }
+
+  private static void moveIntoPlace(Path source, Path target) throws IOException {
+    try {
+      Files.move(
+          source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  private static void transferFully(FileChannel source, WritableByteChannel target)
+      throws IOException {
+    long position = 0;
+    long size = source.size();
+    while (position < size) {
+      long transferred = source.transferTo(position, size - position, target);
+      if (transferred <= 0) {
+        break;
+      }
+      position += transferred;
+    }
+  }
+
+  private static String cacheKey(String fileName) {
+    Path name = Paths.get(fileName).getFileName();
+    if (name == null) {
+      throw new IllegalArgumentException("Invalid notebook file name: " + fileName);
+    }
+    return name.toString();
+  }
+
+  private void deleteQuietly(Path path) {
+    try {
+      Files.deleteIfExists(path);
+    } catch (IOException e) {
+      log.warn(
+          new StringMapMessage()
+              .with(MESSAGE, "Could not delete cached notebook file")
+              .with("Path", path.toString())
+              .with(ERROR, e.getMessage()));
+    }
+  }
+
+  private void logCacheError(String message, String key, IOException e) {
+    log.warn(
+        new StringMapMessage()
+            .with(MESSAGE, message)
+            .with(CACHE_KEY, key)
+            .with(ERROR, e.getMessage() != null ? e.getMessage() : "N/A"));
+  }
+
+  private record CacheEntry(Path path, long sizeBytes, long storedAtMillis) {}
+}
@@ -0,0 +1,91 @@
+package org.jupytereverywhere.service.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.logging.log4j.message.StringMapMessage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Appends finished spans to a file, one JSON object per line, so traces can be looked at without a
+ * collector, e.g. after a local load test.
+ */
+@Log4j2
+public class FileSpanExporter implements SpanExporter {
+
+  private final Path path;
+  private final ObjectMapper objectMapper;
+
+  public FileSpanExporter(Path path, ObjectMapper objectMapper) throws IOException {
+    Path parent = path.toAbsolutePath().getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    this.path = path;
+    this.objectMapper = objectMapper;
+  }
+
+  @Override
+  public synchronized CompletableResultCode export(Collection<SpanData> spans) {
+    try (Writer writer =
+        Files.newBufferedWriter(
+            path,
+            StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.APPEND)) {
+      for (SpanData span : spans) {
+        writer.write(objectMapper.writeValueAsString(toJson(span)));
+        writer.write('\n');
+      }
+      return CompletableResultCode.ofSuccess();
+    } catch (IOException e) {
+      log.warn(
+          new StringMapMessage()
+              .with("Message", "Failed to write spans")
+              .with("Path", path.toString())
+              .with("Error", e.getMessage()));
+      return CompletableResultCode.ofFailure();
+    }
+  }
+
+  static Map<String, Object> toJson(SpanData span) {
+    Map<String, Object> json = new LinkedHashMap<>();
+    json.put("traceId", span.getTraceId());
+    json.put("spanId", span.getSpanId());
+    if (span.getParentSpanContext().isValid()) {
+      json.put("parentSpanId", span.getParentSpanId());
+    }
+    json.put("name", span.getName());
+    json.put("kind", span.getKind().name());
+    json.put("startEpochNanos", span.getStartEpochNanos());
+    json.put("durationNanos", span.getEndEpochNanos() - span.getStartEpochNanos());
+    json.put("status", span.getStatus().getStatusCode().name());
+    Map<String, Object> attributes = new LinkedHashMap<>();
+    span.getAttributes().forEach((key, value) -> attributes.put(key.getKey(), value));
+    json.put("attributes", attributes);
+    return json;
+  }
+
+  @Override
+  public CompletableResultCode flush() {
+    return CompletableResultCode.ofSuccess();
+  }
+
+  @Override
+  public CompletableResultCode shutdown() {
+    return CompletableResultCode.ofSuccess();
+  }
+}
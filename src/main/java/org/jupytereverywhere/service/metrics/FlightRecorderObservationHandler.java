@@ -0,0 +1,35 @@
+package org.jupytereverywhere.service.metrics;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+
+/**
+ * Records observations that carry an {@link ObservationEvent} as Flight Recorder events. The event
+ * spans the observation, and its fields are only filled in when a recording has it enabled.
+ */
+public class FlightRecorderObservationHandler
+    implements ObservationHandler<NotebookObservationContext> {
+
+  @Override
+  public void onStart(NotebookObservationContext context) {
+    ObservationEvent event = context.getEventFactory().get();
+    event.begin();
+    context.setEvent(event);
+  }
+
+  @Override
+  public void onStop(NotebookObservationContext context) {
+    ObservationEvent event = context.getEvent();
+    event.end();
+    if (event.shouldCommit()) {
+      event.fill(context);
+      event.commit();
+    }
+  }
+
+  @Override
+  public boolean supportsContext(Observation.Context context) {
+    return context instanceof NotebookObservationContext notebookContext
+        && notebookContext.getEventFactory() != null;
+  }
+}
@@ -0,0 +1,132 @@
+package org.jupytereverywhere.service.metrics;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import org.jupytereverywhere.config.TracingConstants;
+import org.jupytereverywhere.exception.NotebookNotFoundException;
+import org.jupytereverywhere.service.NotebookObject;
+import org.jupytereverywhere.service.StorageService;
+import org.jupytereverywhere.utils.ServerTiming;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+
+/**
+ * Observes every call to a storage backend as {@code notebook.storage}, tagged with the backend,
+ * the operation and its outcome: it is timed and traced, counted towards the {@code storage}
+ * Server-Timing stage and recorded as a {@link NotebookStorageEvent}. {@link #openNotebook} is
+ * observed until the stream is open, not until it has been read.
+ */
+public class MeteredStorageService implements StorageService {
+
+  private static final String OBSERVATION_NAME = "notebook.storage";
+  static final String BACKEND_TAG = "backend";
+  static final String OPERATION_TAG = "operation";
+  static final String FILE_NAME_TAG = "file.name";
+
+  private final StorageService delegate;
+  private final String backend;
+  private final ObservationRegistry observationRegistry;
+
+  @FunctionalInterface
+  private interface StorageCall<T, E extends Exception> {
+    T call() throws E;
+  }
+
+  /**
+   * @param delegate the backend to time
+   * @param backend the value of the {@code backend} tag, e.g. "s3"
+   */
+  public MeteredStorageService(
+      StorageService delegate, String backend, ObservationRegistry observationRegistry) {
+    this.delegate = delegate;
+    this.backend = backend;
+    this.observationRegistry = observationRegistry;
+  }
+
+  @Override
+  public String uploadNotebook(String notebookJson, String fileName) {
+    return time("put", fileName, () -> delegate.uploadNotebook(notebookJson, fileName));
+  }
+
+  @Override
+  public String downloadNotebookAsJson(String fileName) {
+    return time("get", fileName, () -> delegate.downloadNotebookAsJson(fileName));
+  }
+
+  @Override
+  public void transferNotebookTo(String fileName, OutputStream target) throws IOException {
+    time(
+        "transfer",
+        fileName,
+        () -> {
+          delegate.transferNotebookTo(fileName, target);
+          return null;
+        });
+  }
+
+  @Override
+  public InputStream openNotebook(String fileName) throws IOException {
+    return time("open", fileName, () -> delegate.openNotebook(fileName));
+  }
+
+  @Override
+  public void deleteNotebook(String fileName) {
+    time(
+        "delete",
+        fileName,
+        () -> {
+          delegate.deleteNotebook(fileName);
+          return null;
+        });
+  }
+
+  @Override
+  public Set<String> deleteNotebooks(Collection<String> fileNames) {
+    return time("delete_batch", "", () -> delegate.deleteNotebooks(fileNames));
+  }
+
+  @Override
+  public List<NotebookObject> listNotebooks(String startAfter, int limit) {
+    return time("list", "", () -> delegate.listNotebooks(startAfter, limit));
+  }
+
+  @Override
+  public ListingOrder listingOrder() {
+    return delegate.listingOrder();
+  }
+
+  private <T, E extends Exception> T time(
+      String operation, String fileName, StorageCall<T, E> call) throws E {
+    Observation observation =
+        NotebookObservationContext.observation(
+                OBSERVATION_NAME,
+                ServerTiming.Stage.STORAGE,
+                NotebookStorageEvent::new,
+                observationRegistry)
+            .contextualName(OBSERVATION_NAME + " " + operation)
+            .lowCardinalityKeyValue(BACKEND_TAG, backend)
+            .lowCardinalityKeyValue(OPERATION_TAG, operation)
+            .highCardinalityKeyValue(FILE_NAME_TAG, fileName)
+            .start();
+    String outcome = "error";
+    try (Observation.Scope ignored = observation.openScope()) {
+      T result = call.call();
+      outcome = "success";
+      return result;
+    } catch (NotebookNotFoundException e) {
+      outcome = "not_found";
+      throw e;
+    } catch (Exception e) {
+      observation.error(e);
+      throw e;
+    } finally {
+      observation.lowCardinalityKeyValue(TracingConstants.OUTCOME_TAG, outcome).stop();
+    }
+  }
+}
@@ -0,0 +1,85 @@
+package org.jupytereverywhere.service.metrics;
+
+import java.util.function.Supplier;
+
+import org.jupytereverywhere.utils.ServerTiming;
+import org.springframework.lang.Nullable;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+
+/**
+ * Context of an observation of the notebook pipeline. Besides the timer and span created by the
+ * registry's meter and tracing handlers, the observation can be counted towards a {@link
+ * ServerTiming} stage, by {@link ServerTimingObservationHandler}, and recorded as a Flight Recorder
+ * event, by {@link FlightRecorderObservationHandler}.
+ */
+public class NotebookObservationContext extends Observation.Context {
+
+  @Nullable private final ServerTiming.Stage stage;
+  @Nullable private final Supplier<? extends ObservationEvent> eventFactory;
+
+  private long stageBegunAt;
+  @Nullable private ObservationEvent event;
+
+  NotebookObservationContext(
+      @Nullable ServerTiming.Stage stage,
+      @Nullable Supplier<? extends ObservationEvent> eventFactory) {
+    this.stage = stage;
+    this.eventFactory = eventFactory;
+  }
+
+  /** An observation that is only timed and traced. */
+  public static Observation observation(String name, ObservationRegistry registry) {
+    return observation(name, null, null, registry);
+  }
+
+  /** An observation that is also counted towards a Server-Timing stage. */
+  public static Observation observation(
+      String name, ServerTiming.Stage stage, ObservationRegistry registry) {
+    return observation(name, stage, null, registry);
+  }
+
+  /**
+   * An observation that is also counted towards a Server-Timing stage and recorded as a Flight
+   * Recorder event.
+   *
+   * @param stage the stage, or null if the observation is not reported to clients
+   * @param eventFactory creates the event, or null if none is recorded
+   */
+  public static Observation observation(
+      String name,
+      @Nullable ServerTiming.Stage stage,
+      @Nullable Supplier<? extends ObservationEvent> eventFactory,
+      ObservationRegistry registry) {
+    return Observation.createNotStarted(
+        name, () -> new NotebookObservationContext(stage, eventFactory), registry);
+  }
+
+  @Nullable
+  ServerTiming.Stage getStage() {
+    return stage;
+  }
+
+  @Nullable
+  Supplier<? extends ObservationEvent> getEventFactory() {
+    return eventFactory;
+  }
+
+  long getStageBegunAt() {
+    return stageBegunAt;
+  }
+
+  void setStageBegunAt(long stageBegunAt) {
+    this.stageBegunAt = stageBegunAt;
+  }
+
+  @Nullable
+  ObservationEvent getEvent() {
+    return event;
+  }
+
+  void setEvent(ObservationEvent event) {
+    this.event = event;
+  }
+}
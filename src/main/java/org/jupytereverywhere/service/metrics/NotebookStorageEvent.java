@@ -0,0 +1,41 @@
+package org.jupytereverywhere.service.metrics;
+
+import org.jupytereverywhere.config.TracingConstants;
+
+import io.micrometer.observation.Observation;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** Flight Recorder event for a call to a notebook storage backend. */
+@Name("org.jupytereverywhere.NotebookStorage")
+@Label("Notebook Storage")
+@Category({"Jupyter Everywhere", "Storage"})
+@Description("Call to a notebook storage backend")
+@StackTrace(false)
+public class NotebookStorageEvent extends ObservationEvent {
+
+  @Label("Backend")
+  public String backend;
+
+  @Label("Operation")
+  public String operation;
+
+  @Label("File Name")
+  @Description("The notebook id followed by .ipynb; empty for batch operations")
+  public String fileName;
+
+  @Label("Outcome")
+  @Description("success, not_found or error")
+  public String outcome;
+
+  @Override
+  protected void fill(Observation.Context context) {
+    backend = keyValue(context, MeteredStorageService.BACKEND_TAG);
+    operation = keyValue(context, MeteredStorageService.OPERATION_TAG);
+    fileName = keyValue(context, MeteredStorageService.FILE_NAME_TAG);
+    outcome = keyValue(context, TracingConstants.OUTCOME_TAG);
+  }
+}
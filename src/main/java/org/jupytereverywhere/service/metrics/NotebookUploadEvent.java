@@ -0,0 +1,41 @@
+package org.jupytereverywhere.service.metrics;
+
+import org.jupytereverywhere.config.TracingConstants;
+
+import io.micrometer.observation.Observation;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for the validation and storage of an uploaded notebook, so GC and
+ * allocation spikes in a recording can be matched with the uploads that caused them.
+ */
+@Name("org.jupytereverywhere.NotebookUpload")
+@Label("Notebook Upload")
+@Category({"Jupyter Everywhere", "Notebooks"})
+@Description("Validation and storage of an uploaded notebook")
+@StackTrace(false)
+public class NotebookUploadEvent extends ObservationEvent {
+
+  @Label("Notebook Id")
+  public String notebookId;
+
+  @Label("Size")
+  @DataAmount
+  public long sizeBytes;
+
+  @Label("Outcome")
+  @Description("stored, too_large, invalid or error")
+  public String outcome;
+
+  @Override
+  protected void fill(Observation.Context context) {
+    notebookId = keyValue(context, TracingConstants.NOTEBOOK_ID_TAG);
+    sizeBytes = longKeyValue(context, TracingConstants.NOTEBOOK_SIZE_TAG);
+    outcome = keyValue(context, TracingConstants.OUTCOME_TAG);
+  }
+}
@@ -0,0 +1,37 @@
+package org.jupytereverywhere.service.metrics;
+
+import org.jupytereverywhere.config.TracingConstants;
+
+import io.micrometer.observation.Observation;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** Flight Recorder event for parsing a notebook and validating it against its nbformat schema. */
+@Name("org.jupytereverywhere.NotebookValidation")
+@Label("Notebook Validation")
+@Category({"Jupyter Everywhere", "Notebooks"})
+@Description("Parsing and schema validation of a notebook")
+@StackTrace(false)
+public class NotebookValidationEvent extends ObservationEvent {
+
+  @Label("Length")
+  @Description("Length of the notebook JSON, in characters")
+  public long length;
+
+  @Label("nbformat Version")
+  public String nbformat;
+
+  @Label("Outcome")
+  @Description("valid, invalid or error")
+  public String outcome;
+
+  @Override
+  protected void fill(Observation.Context context) {
+    length = longKeyValue(context, TracingConstants.NOTEBOOK_LENGTH_TAG);
+    nbformat = keyValue(context, TracingConstants.NOTEBOOK_NBFORMAT_TAG);
+    outcome = keyValue(context, TracingConstants.OUTCOME_TAG);
+  }
+}
@@ -0,0 +1,33 @@
+package org.jupytereverywhere.service.metrics;
+
+import org.springframework.lang.Nullable;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.observation.Observation;
+import jdk.jfr.Event;
+
+/**
+ * A Flight Recorder event recorded for an observation by {@link FlightRecorderObservationHandler},
+ * with its fields taken from the observation's key values.
+ */
+public abstract class ObservationEvent extends Event {
+
+  /** Copies the observation's key values into the event's fields. */
+  protected abstract void fill(Observation.Context context);
+
+  /** The value of a low or high cardinality key, or null if the observation does not have it. */
+  @Nullable
+  protected static String keyValue(Observation.Context context, String key) {
+    KeyValue keyValue = context.getLowCardinalityKeyValue(key);
+    if (keyValue == null) {
+      keyValue = context.getHighCardinalityKeyValue(key);
+    }
+    return keyValue != null ? keyValue.getValue() : null;
+  }
+
+  /** The numeric value of a key, or 0 if the observation does not have it. */
+  protected static long longKeyValue(Observation.Context context, String key) {
+    String value = keyValue(context, key);
+    return value != null ? Long.parseLong(value) : 0L;
+  }
+}
@@ -0,0 +1,31 @@
+package org.jupytereverywhere.service.metrics;
+
+import org.jupytereverywhere.utils.ServerTiming;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+
+/**
+ * Counts observations that name a {@link ServerTiming} stage towards that stage of the current
+ * request. Observations are started and stopped on the thread that makes the call, so the request
+ * thread's timing is the one updated.
+ */
+public class ServerTimingObservationHandler
+    implements ObservationHandler<NotebookObservationContext> {
+
+  @Override
+  public void onStart(NotebookObservationContext context) {
+    context.setStageBegunAt(ServerTiming.begin(context.getStage()));
+  }
+
+  @Override
+  public void onStop(NotebookObservationContext context) {
+    ServerTiming.end(context.getStage(), context.getStageBegunAt());
+  }
+
+  @Override
+  public boolean supportsContext(Observation.Context context) {
+    return context instanceof NotebookObservationContext notebookContext
+        && notebookContext.getStage() != null;
+  }
+}
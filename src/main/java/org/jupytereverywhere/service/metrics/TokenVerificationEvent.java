@@ -0,0 +1,28 @@
+package org.jupytereverywhere.service.metrics;
+
+import org.jupytereverywhere.config.TracingConstants;
+
+import io.micrometer.observation.Observation;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** Flight Recorder event for the verification of a JWT. */
+@Name("org.jupytereverywhere.TokenVerification")
+@Label("Token Verification")
+@Category({"Jupyter Everywhere", "Authentication"})
+@Description("Verification of a JWT")
+@StackTrace(false)
+public class TokenVerificationEvent extends ObservationEvent {
+
+  @Label("Outcome")
+  @Description("valid, invalid, expired or error")
+  public String outcome;
+
+  @Override
+  protected void fill(Observation.Context context) {
+    outcome = keyValue(context, TracingConstants.OUTCOME_TAG);
+  }
+}
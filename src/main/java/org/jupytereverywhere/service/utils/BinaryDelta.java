@@ -0,0 +1,220 @@
+package org.jupytereverywhere.service.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Byte-level delta encoding between two versions of a document, in the spirit of VCDIFF: the
+ * target is described as a sequence of COPY (range of the source) and INSERT (literal bytes)
+ * instructions.
+ *
+ * <p>Matches are found by indexing fixed-size blocks of the source with a rolling hash and
+ * scanning the target once, so encoding is linear in the size of both inputs. Because notebooks
+ * are stored byte-for-byte as uploaded, a byte-level delta (rather than a JSON-structural one)
+ * reproduces the exact previous upload.
+ */
+public final class BinaryDelta {
+
+  private static final int FORMAT_VERSION = 1;
+  private static final int OP_COPY = 1;
+  private static final int OP_INSERT = 2;
+
+  /** Size of the source blocks that are indexed for matching. */
+  private static final int BLOCK_SIZE = 32;
+
+  private static final int HASH_BASE = 257;
+
+  private BinaryDelta() {}
+
+  /**
+   * Encodes {@code target} as a delta against {@code source}.
+   *
+   * @param source the previous version
+   * @param target the new version
+   * @return the delta, to be passed to {@link #apply(byte[], byte[])} together with the source
+   */
+  public static byte[] encode(byte[] source, byte[] target) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    out.write(FORMAT_VERSION);
+    writeVarLong(out, target.length);
+
+    int[] index = buildIndex(source);
+    int mask = index.length - 1;
+    int highPower = power(HASH_BASE, BLOCK_SIZE - 1);
+
+    int literalStart = 0;
+    int position = 0;
+    int hash = target.length >= BLOCK_SIZE ? hash(target, 0) : 0;
+
+    while (position + BLOCK_SIZE <= target.length) {
+      int candidate = source.length >= BLOCK_SIZE ? index[hash & mask] - 1 : -1;
+      if (candidate >= 0 && regionMatches(source, candidate, target, position, BLOCK_SIZE)) {
+        int sourceStart = candidate;
+        int targetStart = position;
+
+        // Extend the match backwards into pending literals, then forwards
+        while (sourceStart > 0
+            && targetStart > literalStart
+            && source[sourceStart - 1] == target[targetStart - 1]) {
+          sourceStart--;
+          targetStart--;
+        }
+        int length = position - targetStart + BLOCK_SIZE;
+        while (sourceStart + length < source.length
+            && targetStart + length < target.length
+            && source[sourceStart + length] == target[targetStart + length]) {
+          length++;
+        }
+
+        writeInsert(out, target, literalStart, targetStart);
+        writeCopy(out, sourceStart, length);
+
+        position = targetStart + length;
+        literalStart = position;
+        if (position + BLOCK_SIZE <= target.length) {
+          hash = hash(target, position);
+        }
+        continue;
+      }
+
+      if (position + BLOCK_SIZE < target.length) {
+        hash =
+            (hash - (target[position] & 0xff) * highPower) * HASH_BASE
+                + (target[position + BLOCK_SIZE] & 0xff);
+      }
+      position++;
+    }
+
+    writeInsert(out, target, literalStart, target.length);
+    return out.toByteArray();
+  }
+
+  /**
+   * Reconstructs the target version from the source and a delta produced by {@link #encode}.
+   *
+   * @throws IllegalArgumentException if the delta is malformed or does not match the source
+   */
+  public static byte[] apply(byte[] source, byte[] delta) {
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(delta))) {
+      int version = in.read();
+      if (version != FORMAT_VERSION) {
+        throw new IllegalArgumentException("Unsupported delta format version: " + version);
+      }
+      long targetLength = readVarLong(in);
+      if (targetLength > Integer.MAX_VALUE) {
+        throw new IllegalArgumentException("Delta target too large: " + targetLength);
+      }
+
+      byte[] target = new byte[(int) targetLength];
+      int written = 0;
+      int op;
+      while ((op = in.read()) != -1) {
+        if (op == OP_COPY) {
+          int offset = (int) readVarLong(in);
+          int length = (int) readVarLong(in);
+          if (offset < 0 || length < 0 || offset + length > source.length) {
+            throw new IllegalArgumentException("Delta copy out of source bounds");
+          }
+          System.arraycopy(source, offset, target, written, length);
+          written += length;
+        } else if (op == OP_INSERT) {
+          int length = (int) readVarLong(in);
+          in.readFully(target, written, length);
+          written += length;
+        } else {
+          throw new IllegalArgumentException("Unknown delta instruction: " + op);
+        }
+      }
+
+      if (written != target.length) {
+        throw new IllegalArgumentException(
+            "Delta produced " + written + " bytes, expected " + target.length);
+      }
+      return target;
+    } catch (IOException | IndexOutOfBoundsException e) {
+      throw new IllegalArgumentException("Malformed delta", e);
+    }
+  }
+
+  /**
+   * Open-addressed table from block hash to (offset + 1) of the first source block with that hash.
+   * Collisions are resolved by byte comparison at match time, so later blocks simply lose.
+   */
+  private static int[] buildIndex(byte[] source) {
+    int blocks = source.length / BLOCK_SIZE;
+    int size = Integer.highestOneBit(Math.max(1, blocks * 2 - 1)) << 1;
+    int[] index = new int[size];
+    int mask = size - 1;
+    for (int block = 0; block < blocks; block++) {
+      int offset = block * BLOCK_SIZE;
+      int slot = hash(source, offset) & mask;
+      if (index[slot] == 0) {
+        index[slot] = offset + 1;
+      }
+    }
+    return index;
+  }
+
+  private static int hash(byte[] data, int offset) {
+    int h = 0;
+    for (int i = offset; i < offset + BLOCK_SIZE; i++) {
+      h = h * HASH_BASE + (data[i] & 0xff);
+    }
+    return h;
+  }
+
+  private static int power(int base, int exponent) {
+    int result = 1;
+    for (int i = 0; i < exponent; i++) {
+      result *= base;
+    }
+    return result;
+  }
+
+  private static boolean regionMatches(
+      byte[] source, int sourceOffset, byte[] target, int targetOffset, int length) {
+    return Arrays.equals(
+        source, sourceOffset, sourceOffset + length, target, targetOffset, targetOffset + length);
+  }
+
+  private static void writeCopy(ByteArrayOutputStream out, int offset, int length) {
+    out.write(OP_COPY);
+    writeVarLong(out, offset);
+    writeVarLong(out, length);
+  }
+
+  private static void writeInsert(ByteArrayOutputStream out, byte[] data, int from, int to) {
+    if (to <= from) {
+      return;
+    }
+    out.write(OP_INSERT);
+    writeVarLong(out, to - from);
+    out.write(data, from, to - from);
+  }
+
+  private static void writeVarLong(ByteArrayOutputStream out, long value) {
+    while ((value & ~0x7FL) != 0) {
+      out.write((int) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    out.write((int) value);
+  }
+
+  private static long readVarLong(DataInputStream in) throws IOException {
+    long value = 0;
+    int shift = 0;
+    int b;
+    do {
+      b = in.readUnsignedByte();
+      value |= (long) (b & 0x7F) << shift;
+      shift += 7;
+      if (shift > 63) {
+        throw new IOException("Varint too long");
+      }
+    } while ((b & 0x80) != 0);
+    return value;
+  }
+}
@@ -0,0 +1,236 @@
+package org.jupytereverywhere.service.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.jupytereverywhere.exception.InvalidNotebookPatchException;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Minimal RFC 6902 JSON Patch implementation over Jackson trees.
+ *
+ * <p>Operations are applied in place to the given document, one at a time, so callers can inspect
+ * the document between operations. A patch that fails part-way leaves the document partially
+ * modified; callers are expected to discard it.
+ */
+public final class JsonPatch {
+
+  public enum OperationType {
+    ADD,
+    REMOVE,
+    REPLACE,
+    MOVE,
+    COPY,
+    TEST
+  }
+
+  /** A single parsed patch operation; {@code from} and {@code value} are null when not used. */
+  public record Operation(OperationType type, JsonPointer path, JsonPointer from, JsonNode value) {}
+
+  private JsonPatch() {}
+
+  /**
+   * Parses and checks the structure of a patch document.
+   *
+   * @throws InvalidNotebookPatchException if the patch is not a well-formed RFC 6902 document
+   */
+  public static List<Operation> parse(JsonNode patch) {
+    if (patch == null || !patch.isArray()) {
+      throw new InvalidNotebookPatchException("Patch must be a JSON array of operations");
+    }
+
+    List<Operation> operations = new ArrayList<>(patch.size());
+    for (JsonNode node : patch) {
+      if (!node.isObject()) {
+        throw new InvalidNotebookPatchException("Patch operations must be JSON objects");
+      }
+
+      OperationType type = parseType(node.get("op"));
+      JsonPointer path = parsePointer(node, "path");
+      JsonPointer from = null;
+      JsonNode value = null;
+
+      if (type == OperationType.MOVE || type == OperationType.COPY) {
+        from = parsePointer(node, "from");
+      }
+      if (type == OperationType.ADD
+          || type == OperationType.REPLACE
+          || type == OperationType.TEST) {
+        if (!node.has("value")) {
+          throw new InvalidNotebookPatchException(
+              "Missing 'value' in '" + type.name().toLowerCase(Locale.ROOT) + "' operation");
+        }
+        value = node.get("value");
+      }
+
+      operations.add(new Operation(type, path, from, value));
+    }
+    return operations;
+  }
+
+  /**
+   * Applies a single operation to the document.
+   *
+   * @return the resulting document, which is a different node only when the root was replaced
+   * @throws InvalidNotebookPatchException if the operation cannot be applied
+   */
+  public static JsonNode apply(JsonNode document, Operation operation) {
+    return switch (operation.type()) {
+      case ADD -> add(document, operation.path(), operation.value().deepCopy());
+      case REMOVE -> {
+        remove(document, operation.path());
+        yield document;
+      }
+      case REPLACE -> replace(document, operation.path(), operation.value().deepCopy());
+      case MOVE -> move(document, operation.from(), operation.path());
+      case COPY -> add(document, operation.path(), get(document, operation.from()).deepCopy());
+      case TEST -> {
+        if (!get(document, operation.path()).equals(operation.value())) {
+          throw new InvalidNotebookPatchException("Test failed at '" + operation.path() + "'");
+        }
+        yield document;
+      }
+    };
+  }
+
+  /** Applies every operation in order. */
+  public static JsonNode apply(JsonNode document, List<Operation> operations) {
+    JsonNode result = document;
+    for (Operation operation : operations) {
+      result = apply(result, operation);
+    }
+    return result;
+  }
+
+  private static JsonNode add(JsonNode document, JsonPointer path, JsonNode value) {
+    if (path.matches()) {
+      return value;
+    }
+
+    JsonNode container = parent(document, path);
+    String token = path.last().getMatchingProperty();
+
+    if (container instanceof ObjectNode object) {
+      object.set(token, value);
+    } else if (container instanceof ArrayNode array) {
+      if ("-".equals(token)) {
+        array.add(value);
+      } else {
+        array.insert(arrayIndex(token, array.size(), path), value);
+      }
+    } else {
+      throw new InvalidNotebookPatchException("Cannot add to a scalar at '" + path + "'");
+    }
+    return document;
+  }
+
+  private static JsonNode remove(JsonNode document, JsonPointer path) {
+    if (path.matches()) {
+      throw new InvalidNotebookPatchException("Cannot remove the whole document");
+    }
+
+    JsonNode container = parent(document, path);
+    String token = path.last().getMatchingProperty();
+
+    if (container instanceof ObjectNode object) {
+      if (!object.has(token)) {
+        throw new InvalidNotebookPatchException("No value to remove at '" + path + "'");
+      }
+      return object.remove(token);
+    }
+    if (container instanceof ArrayNode array) {
+      return array.remove(arrayIndex(token, array.size() - 1, path));
+    }
+    throw new InvalidNotebookPatchException("No value to remove at '" + path + "'");
+  }
+
+  private static JsonNode replace(JsonNode document, JsonPointer path, JsonNode value) {
+    if (path.matches()) {
+      return value;
+    }
+
+    JsonNode container = parent(document, path);
+    String token = path.last().getMatchingProperty();
+
+    if (container instanceof ObjectNode object && object.has(token)) {
+      object.set(token, value);
+    } else if (container instanceof ArrayNode array) {
+      array.set(arrayIndex(token, array.size() - 1, path), value);
+    } else {
+      throw new InvalidNotebookPatchException("No value to replace at '" + path + "'");
+    }
+    return document;
+  }
+
+  private static JsonNode move(JsonNode document, JsonPointer from, JsonPointer path) {
+    if (from.equals(path)) {
+      get(document, from);
+      return document;
+    }
+    if (path.toString().startsWith(from + "/")) {
+      throw new InvalidNotebookPatchException(
+          "Cannot move '" + from + "' into one of its children");
+    }
+    JsonNode value = remove(document, from);
+    return add(document, path, value);
+  }
+
+  private static JsonNode get(JsonNode document, JsonPointer path) {
+    JsonNode node = document.at(path);
+    if (node.isMissingNode()) {
+      throw new InvalidNotebookPatchException("No value at '" + path + "'");
+    }
+    return node;
+  }
+
+  private static JsonNode parent(JsonNode document, JsonPointer path) {
+    JsonNode container = document.at(path.head());
+    if (container.isMissingNode()) {
+      throw new InvalidNotebookPatchException("Parent of '" + path + "' does not exist");
+    }
+    return container;
+  }
+
+  /** Parses an array index as RFC 6901 requires: no sign, no leading zeros, at most {@code max}. */
+  private static int arrayIndex(String token, int max, JsonPointer path) {
+    boolean wellFormed =
+        !token.isEmpty()
+            && token.length() <= 9
+            && token.chars().allMatch(c -> c >= '0' && c <= '9')
+            && (token.length() == 1 || token.charAt(0) != '0');
+    int index = wellFormed ? Integer.parseInt(token) : -1;
+    if (index < 0 || index > max) {
+      throw new InvalidNotebookPatchException("Invalid array index at '" + path + "'");
+    }
+    return index;
+  }
+
+  private static OperationType parseType(JsonNode op) {
+    if (op == null || !op.isTextual()) {
+      throw new InvalidNotebookPatchException("Missing 'op' in patch operation");
+    }
+    for (OperationType type : OperationType.values()) {
+      if (type.name().toLowerCase(Locale.ROOT).equals(op.asText())) {
+        return type;
+      }
+    }
+    throw new InvalidNotebookPatchException("Unknown patch operation: " + op.asText());
+  }
+
+  private static JsonPointer parsePointer(JsonNode operation, String field) {
+    JsonNode pointer = operation.get(field);
+    if (pointer == null || !pointer.isTextual()) {
+      throw new InvalidNotebookPatchException("Missing '" + field + "' in patch operation");
+    }
+    try {
+      return JsonPointer.compile(pointer.asText());
+    } catch (IllegalArgumentException e) {
+      throw new InvalidNotebookPatchException("Invalid JSON pointer: " + pointer.asText(), e);
+    }
+  }
+}
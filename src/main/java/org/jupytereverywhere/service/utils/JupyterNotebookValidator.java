@@ -1,22 +1,34 @@
 package org.jupytereverywhere.service.utils;
 
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import org.apache.logging.log4j.message.StringMapMessage;
+import org.jupytereverywhere.config.TracingConstants;
+import org.jupytereverywhere.model.response.NotebookValidationError;
+import org.jupytereverywhere.service.metrics.NotebookObservationContext;
+import org.jupytereverywhere.service.metrics.NotebookValidationEvent;
+import org.jupytereverywhere.utils.ServerTiming;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Component;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.networknt.schema.JsonSchema;
 import com.networknt.schema.JsonSchemaFactory;
 import com.networknt.schema.SpecVersion;
 import com.networknt.schema.ValidationMessage;
 
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import lombok.extern.log4j.Log4j2;
 
 /**
@@ -34,13 +46,32 @@ public class JupyterNotebookValidator {
   private static final int DEFAULT_MINOR_VERSION = 5;
   private static final int MIN_MINOR_VERSION = 0;
   private static final int MAX_MINOR_VERSION = 5;
+  private static final int MAX_MESSAGE_LENGTH = 200;
+  private static final String CELLS_FIELD = "cells";
 
   private final Map<Integer, JsonSchema> schemasByMinorVersion;
+  private final Map<Integer, JsonSchema> cellSchemasByMinorVersion;
   private final ObjectMapper objectMapper;
+  private final ObservationRegistry observationRegistry;
 
-  public JupyterNotebookValidator(ObjectMapper objectMapper) {
+  /** Violations reported to clients and logged per notebook; further ones are dropped. */
+  @Value("${notebook.validation.max-errors:10}")
+  private int maxErrors = 10;
+
+  /**
+   * Whether validation stops once {@code maxErrors} violations are found, instead of validating
+   * the whole notebook and reporting the first of them. The limit is checked between cells, so
+   * each cell, with all of its outputs, is validated in full.
+   */
+  @Value("${notebook.validation.fail-fast:true}")
+  private boolean failFast = true;
+
+  public JupyterNotebookValidator(
+      ObjectMapper objectMapper, ObservationRegistry observationRegistry) {
     this.objectMapper = objectMapper;
+    this.observationRegistry = observationRegistry;
     this.schemasByMinorVersion = loadAllSchemas();
+    this.cellSchemasByMinorVersion = loadCellSchemas();
 
     log.info(
         new StringMapMessage()
@@ -113,6 +144,48 @@ public class JupyterNotebookValidator {
     return Collections.unmodifiableMap(schemas);
   }
 
+  /**
+   * Builds, for every nbformat version, a schema that validates a single cell: the version's
+   * {@code #/definitions/cell} with the rest of its definitions in scope. Versions whose schema
+   * cannot be loaded fall back to the default version, as for whole notebooks.
+   */
+  private Map<Integer, JsonSchema> loadCellSchemas() {
+    Map<Integer, JsonSchema> schemas = new HashMap<>();
+    JsonSchemaFactory factory = JsonSchemaFactory.getInstance(SpecVersion.VersionFlag.V4);
+
+    for (int minorVersion = MIN_MINOR_VERSION; minorVersion <= MAX_MINOR_VERSION; minorVersion++) {
+      String schemaPath = SCHEMA_DIR + String.format(SCHEMA_TEMPLATE, minorVersion);
+      try (InputStream schemaStream = getClass().getResourceAsStream(schemaPath)) {
+        if (schemaStream == null) {
+          continue;
+        }
+        JsonNode notebookSchema = objectMapper.readTree(schemaStream);
+        ObjectNode cellSchema = objectMapper.createObjectNode();
+        cellSchema.set("$schema", notebookSchema.get("$schema"));
+        cellSchema.set("definitions", notebookSchema.get("definitions"));
+        cellSchema.put("$ref", "#/definitions/cell");
+        schemas.put(minorVersion, factory.getSchema(cellSchema));
+      } catch (Exception e) {
+        log.error(
+            new StringMapMessage()
+                .with(MESSAGE, "Failed to load cell schema for minor version")
+                .with("MinorVersion", String.valueOf(minorVersion))
+                .with("ExceptionType", e.getClass().getSimpleName())
+                .with("ExceptionMessage", e.getMessage()),
+            e);
+      }
+    }
+
+    if (!schemas.containsKey(DEFAULT_MINOR_VERSION)) {
+      throw new IllegalStateException(
+          "Failed to load default cell schema (v4."
+              + DEFAULT_MINOR_VERSION
+              + "). Validator cannot function.");
+    }
+
+    return Collections.unmodifiableMap(schemas);
+  }
+
   /**
    * Extracts the nbformat_minor field from the notebook JSON.
    *
@@ -184,44 +257,268 @@ public class JupyterNotebookValidator {
 
   /**
    * Validates a Jupyter Notebook JSON string against the appropriate nbformat v4 schema.
-   * Automatically selects the correct schema based on the notebook's nbformat_minor field.
    *
    * @param notebookJson The notebook JSON string to validate
    * @return true if the notebook is valid, false otherwise
+   * @see #validate(String)
    */
   public boolean validateNotebook(String notebookJson) {
-    try {
+    return validate(notebookJson).valid();
+  }
+
+  /**
+   * Validates a Jupyter Notebook JSON string against the appropriate nbformat v4 schema.
+   * Automatically selects the correct schema based on the notebook's nbformat_minor field.
+   *
+   * <p>At most {@code notebook.validation.max-errors} violations are reported and logged. In
+   * fail-fast mode the notebook is validated without its cells first, then cell by cell, and
+   * validation stops before the next cell once that many violations are found, so a notebook with
+   * thousands of broken cells costs no more than one with a few. The limit is only checked between
+   * cells: a single large cell, e.g. one with thousands of outputs, is still validated in full.
+   *
+   * <p>Parsing and validation are observed as {@code notebook.validation}, by nbformat version and
+   * outcome, counted towards the {@code validate} Server-Timing stage and recorded as a {@link
+   * NotebookValidationEvent}.
+   *
+   * @param notebookJson The notebook JSON string to validate
+   * @return whether the notebook is valid and, if not, the first violations found
+   */
+  public NotebookValidationResult validate(String notebookJson) {
+    Observation observation =
+        NotebookObservationContext.observation(
+                "notebook.validation",
+                ServerTiming.Stage.VALIDATE,
+                NotebookValidationEvent::new,
+                observationRegistry)
+            .highCardinalityKeyValue(
+                TracingConstants.NOTEBOOK_LENGTH_TAG, String.valueOf(notebookJson.length()))
+            .start();
+    Integer nbformatMinor = null;
+    String outcome = "error";
+    try (Observation.Scope ignored = observation.openScope()) {
       JsonNode jsonNode = objectMapper.readTree(notebookJson);
 
       // Extract nbformat_minor and select appropriate schema
-      Integer nbformatMinor = extractNbformatMinor(jsonNode);
+      nbformatMinor = extractNbformatMinor(jsonNode);
+      observation.highCardinalityKeyValue(
+          TracingConstants.NOTEBOOK_NBFORMAT_TAG, nbformatVersion(jsonNode));
       JsonSchema schema = selectSchema(nbformatMinor);
 
-      Set<ValidationMessage> errors = schema.validate(jsonNode);
+      ErrorCollector errors = new ErrorCollector(maxErrors);
+      JsonNode cells = jsonNode.path(CELLS_FIELD);
+      if (failFast && jsonNode.isObject() && cells.isArray()) {
+        // No part of the schema relates cells to each other or to the rest of the notebook, so
+        // the notebook without cells plus each cell on its own is the same check as the whole
+        ObjectNode withoutCells = objectMapper.createObjectNode();
+        withoutCells.setAll((ObjectNode) jsonNode);
+        withoutCells.putArray(CELLS_FIELD);
+        errors.addAll("$", schema.validate(withoutCells));
+        JsonSchema cellSchema = selectCellSchema(nbformatMinor);
+        for (int i = 0; i < cells.size(); i++) {
+          if (errors.isFull()) {
+            errors.stoppedEarly();
+            break;
+          }
+          errors.addAll(cellPath(i), cellSchema.validate(cells.get(i)));
+        }
+      } else {
+        errors.addAll("$", schema.validate(jsonNode));
+      }
 
-      if (errors.isEmpty()) {
+      NotebookValidationResult result = errors.result();
+      if (result.valid()) {
+        outcome = "valid";
         log.debug(
             new StringMapMessage()
                 .with(MESSAGE, "Notebook validation passed")
                 .with("NbformatMinor", String.valueOf(nbformatMinor)));
-        return true;
       } else {
+        outcome = "invalid";
         log.warn(
             new StringMapMessage()
                 .with(MESSAGE, "Notebook validation failed")
                 .with("NbformatMinor", String.valueOf(nbformatMinor))
-                .with("ErrorCount", String.valueOf(errors.size()))
-                .with("Errors", errors.toString()));
-        return false;
+                .with("ErrorCount", String.valueOf(result.errors().size()))
+                .with("Truncated", String.valueOf(result.truncated()))
+                .with("Errors", result.errors().toString()));
       }
+      return result;
     } catch (Exception e) {
+      observation.error(e);
       log.error(
           new StringMapMessage()
               .with(MESSAGE, "Exception during notebook validation")
               .with("ExceptionType", e.getClass().getSimpleName())
               .with("ExceptionMessage", e.getMessage()),
           e);
-      return false;
+      return NotebookValidationResult.invalid();
+    } finally {
+      observation
+          .lowCardinalityKeyValue("nbformat", supportedVersion(nbformatMinor))
+          .lowCardinalityKeyValue(TracingConstants.OUTCOME_TAG, outcome)
+          .stop();
+    }
+  }
+
+  /**
+   * Versions outside the supported range share one tag value, so clients cannot create a time
+   * series per value of nbformat_minor.
+   */
+  private static String supportedVersion(Integer nbformatMinor) {
+    return nbformatMinor != null
+            && nbformatMinor >= MIN_MINOR_VERSION
+            && nbformatMinor <= MAX_MINOR_VERSION
+        ? "4." + nbformatMinor
+        : "other";
+  }
+
+  /**
+   * Validates individual cells of a notebook against the cell definition of the notebook's nbformat
+   * version.
+   *
+   * @param notebook The parsed notebook, used to select the nbformat version
+   * @param cells The cells to validate
+   * @return true if every cell is valid, false otherwise
+   * @see #validate(JsonNode, Collection)
+   */
+  public boolean validateCells(JsonNode notebook, Collection<JsonNode> cells) {
+    return validate(notebook, cells).valid();
+  }
+
+  /**
+   * Validates individual cells of a notebook against the cell definition of the notebook's nbformat
+   * version, without validating the rest of the document. Used when only some cells of an already
+   * valid notebook have changed. Stops at the first invalid cell, and reports at most {@code
+   * notebook.validation.max-errors} of its violations.
+   *
+   * @param notebook The parsed notebook, used to select the nbformat version
+   * @param cells The cells to validate
+   * @return whether every cell is valid and, if not, the violations of the first invalid one
+   */
+  public NotebookValidationResult validate(JsonNode notebook, Collection<JsonNode> cells) {
+    Observation observation =
+        NotebookObservationContext.observation(
+                "notebook.cell.validation", ServerTiming.Stage.VALIDATE, observationRegistry)
+            .highCardinalityKeyValue(
+                TracingConstants.NOTEBOOK_NBFORMAT_TAG, nbformatVersion(notebook))
+            .highCardinalityKeyValue("notebook.cells", String.valueOf(cells.size()))
+            .start();
+    try (Observation.Scope ignored = observation.openScope()) {
+      Integer nbformatMinor = extractNbformatMinor(notebook);
+      JsonSchema schema = selectCellSchema(nbformatMinor);
+
+      for (JsonNode cell : cells) {
+        Set<ValidationMessage> messages = schema.validate(cell);
+        if (!messages.isEmpty()) {
+          ErrorCollector errors = new ErrorCollector(maxErrors);
+          errors.addAll(cellPath(notebook, cell), messages);
+          NotebookValidationResult result = errors.result();
+          log.warn(
+              new StringMapMessage()
+                  .with(MESSAGE, "Cell validation failed")
+                  .with("NbformatMinor", String.valueOf(nbformatMinor))
+                  .with("ErrorCount", String.valueOf(result.errors().size()))
+                  .with("Truncated", String.valueOf(result.truncated()))
+                  .with("Errors", result.errors().toString()));
+          return result;
+        }
+      }
+
+      log.debug(
+          new StringMapMessage()
+              .with(MESSAGE, "Cell validation passed")
+              .with("CellCount", String.valueOf(cells.size())));
+      return NotebookValidationResult.VALID;
+    } catch (Exception e) {
+      observation.error(e);
+      log.error(
+          new StringMapMessage()
+              .with(MESSAGE, "Exception during cell validation")
+              .with("ExceptionType", e.getClass().getSimpleName())
+              .with("ExceptionMessage", e.getMessage()),
+          e);
+      return NotebookValidationResult.invalid();
+    } finally {
+      observation.stop();
+    }
+  }
+
+  /** The cell schema of the nbformat version, or of the default version as for whole notebooks. */
+  private JsonSchema selectCellSchema(Integer nbformatMinor) {
+    return nbformatMinor != null && cellSchemasByMinorVersion.containsKey(nbformatMinor)
+        ? cellSchemasByMinorVersion.get(nbformatMinor)
+        : cellSchemasByMinorVersion.get(DEFAULT_MINOR_VERSION);
+  }
+
+  private static String cellPath(int index) {
+    return "$." + CELLS_FIELD + "[" + index + "]";
+  }
+
+  /** The path of a cell of the notebook, or the root path if it is not one of its cells. */
+  private static String cellPath(JsonNode notebook, JsonNode cell) {
+    JsonNode cells = notebook.path(CELLS_FIELD);
+    for (int i = 0; i < cells.size(); i++) {
+      if (cells.get(i) == cell) {
+        return cellPath(i);
+      }
+    }
+    return "$";
+  }
+
+  /** The nbformat version as given in the notebook, e.g. "4.5", for observation key values. */
+  private static String nbformatVersion(JsonNode notebook) {
+    return notebook.path("nbformat").asText() + "." + notebook.path("nbformat_minor").asText();
+  }
+
+  /**
+   * Keeps the first {@code maxErrors} violations, with paths relative to the whole notebook, and
+   * messages shortened so that a violation quoting a large value cannot flood the logs.
+   */
+  private static final class ErrorCollector {
+
+    private final int maxErrors;
+    private final List<NotebookValidationError> errors = new ArrayList<>();
+    private boolean truncated;
+
+    private ErrorCollector(int maxErrors) {
+      this.maxErrors = Math.max(1, maxErrors);
+    }
+
+    /**
+     * @param path the path of the validated node in the notebook; the messages' paths are relative
+     *     to it
+     */
+    private void addAll(String path, Set<ValidationMessage> messages) {
+      for (ValidationMessage message : messages) {
+        if (isFull()) {
+          truncated = true;
+          return;
+        }
+        String location = message.getInstanceLocation().toString();
+        String text = message.getMessage();
+        if (text.startsWith(location + ": ")) {
+          text = text.substring(location.length() + 2);
+        }
+        if (text.length() > MAX_MESSAGE_LENGTH) {
+          text = text.substring(0, MAX_MESSAGE_LENGTH) + "...";
+        }
+        String relative = location.startsWith("$") ? location.substring(1) : "." + location;
+        errors.add(new NotebookValidationError(path + relative, message.getType(), text));
+      }
+    }
+
+    private boolean isFull() {
+      return errors.size() >= maxErrors;
+    }
+
+    private void stoppedEarly() {
+      truncated = true;
+    }
+
+    private NotebookValidationResult result() {
+      return errors.isEmpty()
+          ? NotebookValidationResult.VALID
+          : NotebookValidationResult.invalid(errors, truncated);
     }
   }
 }
@@ -0,0 +1,88 @@
+package org.jupytereverywhere.service.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.jupytereverywhere.exception.NotebookTooLargeException;
+
+/**
+ * Reads newline-delimited JSON one line at a time. At most one line is held in memory, so a request
+ * body of any length can be consumed while memory stays bounded by the longest accepted line.
+ *
+ * <p>Lines are returned as text without checking that they are JSON; blank lines are skipped.
+ */
+public class NdjsonReader {
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final InputStream in;
+  private final long maxLineBytes;
+  private final byte[] buffer = new byte[BUFFER_SIZE];
+  private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+  private int position;
+  private int limit;
+
+  public NdjsonReader(InputStream in, long maxLineBytes) {
+    this.in = in;
+    this.maxLineBytes = maxLineBytes;
+  }
+
+  /**
+   * Returns the next non-blank line, or null once the stream is exhausted.
+   *
+   * @throws NotebookTooLargeException if the line is longer than the limit; the rest of that line
+   *     is skipped, so reading can continue with the following one
+   * @throws IOException if the underlying stream cannot be read
+   */
+  public String readLine() throws IOException {
+    while (true) {
+      line.reset();
+      long length = 0;
+      boolean terminated = false;
+
+      while (!terminated) {
+        if (position >= limit && !fill()) {
+          break;
+        }
+        int start = position;
+        while (position < limit && buffer[position] != '\n') {
+          position++;
+        }
+        int count = position - start;
+        if (length + count <= maxLineBytes) {
+          line.write(buffer, start, count);
+        }
+        length += count;
+        if (position < limit) {
+          position++;
+          terminated = true;
+        }
+      }
+
+      if (!terminated && length == 0) {
+        return null;
+      }
+      if (length > maxLineBytes) {
+        throw new NotebookTooLargeException(
+            String.format(
+                "Notebook size (%d bytes) exceeds maximum allowed size of %d MB",
+                length, maxLineBytes / (1024 * 1024)),
+            length,
+            maxLineBytes);
+      }
+
+      String text = line.toString(StandardCharsets.UTF_8).strip();
+      if (!text.isEmpty()) {
+        return text;
+      }
+    }
+  }
+
+  private boolean fill() throws IOException {
+    position = 0;
+    limit = in.read(buffer);
+    return limit > 0;
+  }
+}
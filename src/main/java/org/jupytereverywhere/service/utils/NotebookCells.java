@@ -0,0 +1,93 @@
+package org.jupytereverywhere.service.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Reads the {@code cells} array of notebook JSON with a streaming parser, without building a tree
+ * of the notebook.
+ *
+ * <p>Cells before the requested range are skipped token by token and reading stops after the last
+ * requested cell. Jupyter writes notebook keys in sorted order, so {@code cells} normally comes
+ * first and a preview of the first few cells only reads the start of the file.
+ */
+public final class NotebookCells {
+
+  private static final String CELLS_FIELD = "cells";
+
+  private NotebookCells() {}
+
+  /** Counts the cells of a notebook; a notebook without a {@code cells} array has none. */
+  public static int count(JsonFactory jsonFactory, byte[] notebookJson) throws IOException {
+    try (JsonParser parser = jsonFactory.createParser(notebookJson)) {
+      int count = 0;
+      if (seekCells(parser)) {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.END_ARRAY) {
+          parser.skipChildren();
+          count++;
+        }
+      }
+      return count;
+    }
+  }
+
+  /**
+   * Writes cells {@code start} to {@code start + count - 1} of the notebook read from {@code in} to
+   * {@code out} as a JSON array; fewer cells are written if the notebook ends first. The input
+   * stream is closed, the output stream is not.
+   *
+   * @return the number of cells written
+   * @throws IOException if the notebook cannot be read or is not a JSON object
+   */
+  public static int copyRange(
+      JsonFactory jsonFactory, InputStream in, OutputStream out, int start, int count)
+      throws IOException {
+    try (JsonParser parser = jsonFactory.createParser(in);
+        JsonGenerator generator = jsonFactory.createGenerator(out)) {
+      generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      generator.writeStartArray();
+
+      int written = 0;
+      if (seekCells(parser)) {
+        int index = 0;
+        JsonToken token;
+        while (written < count
+            && (token = parser.nextToken()) != null
+            && token != JsonToken.END_ARRAY) {
+          if (index++ < start) {
+            parser.skipChildren();
+          } else {
+            generator.copyCurrentStructure(parser);
+            written++;
+          }
+        }
+      }
+
+      generator.writeEndArray();
+      return written;
+    }
+  }
+
+  /** Advances the parser to the start of the top-level {@code cells} array, if there is one. */
+  private static boolean seekCells(JsonParser parser) throws IOException {
+    if (parser.nextToken() != JsonToken.START_OBJECT) {
+      throw new IOException("Notebook is not a JSON object");
+    }
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String name = parser.currentName();
+      JsonToken value = parser.nextToken();
+      if (CELLS_FIELD.equals(name) && value == JsonToken.START_ARRAY) {
+        return true;
+      }
+      parser.skipChildren();
+    }
+    return false;
+  }
+}
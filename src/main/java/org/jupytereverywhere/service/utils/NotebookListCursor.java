@@ -0,0 +1,43 @@
+package org.jupytereverywhere.service.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+import org.jupytereverywhere.exception.InvalidNotebookException;
+
+/**
+ * Position in a notebook listing: the creation time and id of the last notebook of the previous
+ * page. Clients get it as an opaque URL-safe string.
+ */
+public record NotebookListCursor(LocalDateTime createdAt, UUID id) {
+
+  private static final char SEPARATOR = '/';
+
+  public String encode() {
+    String position = createdAt.toString() + SEPARATOR + id;
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(position.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * @throws InvalidNotebookException if the cursor was not produced by {@link #encode()}
+   */
+  public static NotebookListCursor decode(String cursor) {
+    try {
+      String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      int separator = position.indexOf(SEPARATOR);
+      if (separator < 0) {
+        throw new InvalidNotebookException("Invalid cursor");
+      }
+      return new NotebookListCursor(
+          LocalDateTime.parse(position.substring(0, separator)),
+          UUID.fromString(position.substring(separator + 1)));
+    } catch (IllegalArgumentException | DateTimeParseException e) {
+      throw new InvalidNotebookException("Invalid cursor");
+    }
+  }
+}
@@ -0,0 +1,34 @@
+package org.jupytereverywhere.service.utils;
+
+import java.util.List;
+
+import org.jupytereverywhere.model.response.NotebookValidationError;
+
+/**
+ * Outcome of validating a notebook or some of its cells.
+ *
+ * @param valid whether no violation was found
+ * @param errors the first violations found, at most the validator's configured maximum
+ * @param truncated whether more violations were found or validation stopped before the end of the
+ *     document
+ */
+public record NotebookValidationResult(
+    boolean valid, List<NotebookValidationError> errors, boolean truncated) {
+
+  public static final NotebookValidationResult VALID =
+      new NotebookValidationResult(true, List.of(), false);
+
+  public NotebookValidationResult {
+    errors = List.copyOf(errors);
+  }
+
+  /** An invalid result without details, e.g. for a document that is not JSON at all. */
+  public static NotebookValidationResult invalid() {
+    return new NotebookValidationResult(false, List.of(), false);
+  }
+
+  public static NotebookValidationResult invalid(
+      List<NotebookValidationError> errors, boolean truncated) {
+    return new NotebookValidationResult(false, errors, truncated);
+  }
+}
@@ -69,6 +69,11 @@ public class CachedBodyHttpServletRequest extends HttpServletRequestWrapper {
     return outputStream.toByteArray();
   }
 
+  /** Gets the size of the cached request body in bytes. */
+  public int getCachedBodyLength() {
+    return cachedBody.length;
+  }
+
   /**
    * Gets the cached request body as a String.
    *
@@ -0,0 +1,65 @@
+package org.jupytereverywhere.utils;
+
+/**
+ * Read-your-writes state of the current request when reads are routed to a replica. After a write,
+ * clients are given the primary's WAL position in the {@code X-Last-Write-Lsn} response header and
+ * send the last value they received back in the same request header; reads are only sent to a
+ * replica that has replayed that position. As the position travels with the client, this holds
+ * whichever instance serves the next request.
+ *
+ * <p>Set up on the request thread by {@link org.jupytereverywhere.filter.ReadYourWritesFilter}.
+ * Without a current request, e.g. in background jobs, reads are not held back and writes are not
+ * recorded.
+ */
+public final class ReadYourWrites {
+
+  public static final String HEADER = "X-Last-Write-Lsn";
+
+  /** The required position when the client has not written, or sent no usable header. */
+  public static final long ANY_POSITION = -1L;
+
+  private static final ThreadLocal<ReadYourWrites> CURRENT = new ThreadLocal<>();
+
+  private final long requiredLsn;
+  private boolean wrote;
+
+  private ReadYourWrites(long requiredLsn) {
+    this.requiredLsn = requiredLsn;
+  }
+
+  /** Starts tracking the current thread's request, whose client last saw {@code requiredLsn}. */
+  public static ReadYourWrites start(long requiredLsn) {
+    ReadYourWrites state = new ReadYourWrites(requiredLsn);
+    CURRENT.set(state);
+    return state;
+  }
+
+  /** Stops tracking on the current thread; the state can still be read. */
+  public static void stop() {
+    CURRENT.remove();
+  }
+
+  /** Whether the current thread is handling a tracked request. */
+  public static boolean isTracking() {
+    return CURRENT.get() != null;
+  }
+
+  /** The WAL position reads of the current request must see, or {@link #ANY_POSITION}. */
+  public static long requiredLsn() {
+    ReadYourWrites state = CURRENT.get();
+    return state == null ? ANY_POSITION : state.requiredLsn;
+  }
+
+  /** Records that the current request committed a write. */
+  public static void recordWrite() {
+    ReadYourWrites state = CURRENT.get();
+    if (state != null) {
+      state.wrote = true;
+    }
+  }
+
+  /** Whether the request committed a write. */
+  public boolean wrote() {
+    return wrote;
+  }
+}
@@ -0,0 +1,112 @@
+package org.jupytereverywhere.utils;
+
+/**
+ * Time spent per stage while handling the current request, reported to clients in the {@code
+ * Server-Timing} response header by {@link org.jupytereverywhere.filter.ServerTimingFilter}.
+ *
+ * <p>Stages are timed with {@link #begin} and {@link #end} on the request thread. Work done on
+ * other threads, e.g. parallel storage reads, is not counted. When a stage is entered again before
+ * it ends, such as a storage call made by a storage decorator, only the outermost call is counted.
+ * Without a current request, e.g. in background jobs, both methods only read a thread local.
+ */
+public final class ServerTiming {
+
+  /** The stages reported, in header order. */
+  public enum Stage {
+    AUTH("auth"),
+    PARSE("parse"),
+    VALIDATE("validate"),
+    DB("db"),
+    STORAGE("storage");
+
+    private final String metricName;
+
+    Stage(String metricName) {
+      this.metricName = metricName;
+    }
+  }
+
+  private static final Stage[] STAGES = Stage.values();
+  private static final ThreadLocal<ServerTiming> CURRENT = new ThreadLocal<>();
+
+  private final long startedAt = System.nanoTime();
+  private final long[] durations = new long[STAGES.length];
+  private final int[] depths = new int[STAGES.length];
+
+  private ServerTiming() {}
+
+  /** Starts timing the current thread's request. */
+  public static ServerTiming start() {
+    ServerTiming timing = new ServerTiming();
+    CURRENT.set(timing);
+    return timing;
+  }
+
+  /** Stops timing on the current thread; the timing can still be read. */
+  public static void stop() {
+    CURRENT.remove();
+  }
+
+  /**
+   * Enters a stage of the current request.
+   *
+   * @return the value to pass to {@link #end}
+   */
+  public static long begin(Stage stage) {
+    ServerTiming timing = CURRENT.get();
+    if (timing == null) {
+      return 0L;
+    }
+    timing.depths[stage.ordinal()]++;
+    return System.nanoTime();
+  }
+
+  /** Leaves a stage entered by {@link #begin}, which returned {@code begunAt}. */
+  public static void end(Stage stage, long begunAt) {
+    ServerTiming timing = CURRENT.get();
+    if (timing == null) {
+      return;
+    }
+    int i = stage.ordinal();
+    if (--timing.depths[i] == 0) {
+      timing.durations[i] += System.nanoTime() - begunAt;
+    }
+  }
+
+  /** Nanoseconds spent in a stage so far. */
+  public long duration(Stage stage) {
+    return durations[stage.ordinal()];
+  }
+
+  /**
+   * The {@code Server-Timing} header value: the stages entered so far and the total, in
+   * milliseconds, e.g. {@code db;dur=1.25, storage;dur=8.02, total;dur=10.5}.
+   */
+  public String headerValue() {
+    StringBuilder header = new StringBuilder(96);
+    for (Stage stage : STAGES) {
+      long duration = durations[stage.ordinal()];
+      if (duration > 0) {
+        appendMetric(header, stage.metricName, duration);
+      }
+    }
+    appendMetric(header, "total", System.nanoTime() - startedAt);
+    return header.toString();
+  }
+
+  private static void appendMetric(StringBuilder header, String name, long nanos) {
+    if (!header.isEmpty()) {
+      header.append(", ");
+    }
+    // Milliseconds with two decimals, without the cost of String.format
+    long hundredths = nanos / 10_000;
+    long fraction = hundredths % 100;
+    header
+        .append(name)
+        .append(";dur=")
+        .append(hundredths / 100)
+        .append('.')
+        .append(fraction < 10 ? "0" : "")
+        .append(fraction);
+  }
+}
@@ -0,0 +1,23 @@
+--
+-- Asynchronous notebook uploads
+-- The notebook metadata row is created when the upload is accepted, so its id and readable id can
+-- be returned straight away; the gzip-compressed content waits here until a worker has validated
+-- and stored it. Jobs outlive their notebook row so a failed upload can still report why.
+--
+CREATE TABLE IF NOT EXISTS notebook_upload_jobs (
+    id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    notebook_id UUID NOT NULL,
+    readable_id VARCHAR(128),
+    domain VARCHAR(255) NOT NULL DEFAULT '',
+    session_id UUID NOT NULL,
+    status VARCHAR(16) NOT NULL,
+    payload BYTEA,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    error_message VARCHAR(1024),
+    created_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    updated_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+-- Workers pick pending jobs oldest first and requeue jobs abandoned by a stopped instance
+CREATE INDEX IF NOT EXISTS idx_notebook_upload_jobs_status_created_at
+    ON notebook_upload_jobs (status, created_at);
@@ -0,0 +1,9 @@
+--
+-- Content statistics captured whenever a notebook's content is written, so listing pages and
+-- previews can be served from this table without downloading the notebook from storage.
+-- Rows written before this migration have NULLs until their next update.
+--
+ALTER TABLE jupyter_notebooks_metadata
+    ADD COLUMN IF NOT EXISTS size_bytes BIGINT,
+    ADD COLUMN IF NOT EXISTS cell_count INTEGER,
+    ADD COLUMN IF NOT EXISTS content_digest VARCHAR(64);
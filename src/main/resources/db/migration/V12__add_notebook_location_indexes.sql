@@ -0,0 +1,11 @@
+--
+-- Covering indexes for reading notebook content
+-- Reads by id or readable id only need the columns of NotebookLocation; with them in the index
+-- PostgreSQL can answer those lookups with an index-only scan instead of visiting the heap row,
+-- which also carries the password hash and kernel metadata.
+--
+CREATE UNIQUE INDEX IF NOT EXISTS idx_jupyter_notebooks_metadata_id_location
+    ON jupyter_notebooks_metadata (id) INCLUDE (readable_id, domain, storage_url, version);
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_jupyter_notebooks_metadata_readable_id_location
+    ON jupyter_notebooks_metadata (readable_id) INCLUDE (id, domain, storage_url, version);
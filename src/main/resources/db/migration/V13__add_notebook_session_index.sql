@@ -0,0 +1,7 @@
+--
+-- Index for listing a session's notebooks
+-- Pages are read newest first by seeking to (created_at, id) of the previous page's last row, so
+-- listings never scan past rows they have already returned.
+--
+CREATE INDEX IF NOT EXISTS idx_jupyter_notebooks_metadata_session_created_at
+    ON jupyter_notebooks_metadata (session_id, created_at, id);
@@ -0,0 +1,7 @@
+--
+-- Index for purging notebooks past the retention period
+-- With notebook.retention.months set, NotebookExpirySweeper deletes notebooks created before the
+-- cut-off in (created_at, id) order, seeking past the previous batch's last row.
+--
+CREATE INDEX IF NOT EXISTS idx_jupyter_notebooks_metadata_created_at
+    ON jupyter_notebooks_metadata (created_at, id);
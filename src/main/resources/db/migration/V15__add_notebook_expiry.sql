@@ -0,0 +1,11 @@
+--
+-- Optional expiry time of a notebook, removed by NotebookExpirySweeper once it has passed.
+-- NULL means the notebook never expires. The partial index only holds expiring notebooks, in the
+-- order the sweeper visits them.
+--
+ALTER TABLE jupyter_notebooks_metadata
+    ADD COLUMN IF NOT EXISTS expires_at TIMESTAMP;
+
+CREATE INDEX IF NOT EXISTS idx_jupyter_notebooks_metadata_expires_at
+    ON jupyter_notebooks_metadata (expires_at, id)
+    WHERE expires_at IS NOT NULL;
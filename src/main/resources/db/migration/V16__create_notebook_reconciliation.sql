@@ -0,0 +1,18 @@
+--
+-- Checkpoint of NotebookReconciler, which walks the metadata table and the storage listing in
+-- file name order. A pass resumes from the cursors after a restart; the counters accumulate the
+-- mismatches found so far in the current pass. The table only ever holds the row with id 1.
+--
+CREATE TABLE IF NOT EXISTS notebook_reconciliation (
+    id SMALLINT PRIMARY KEY DEFAULT 1 CHECK (id = 1),
+    pass_started_at TIMESTAMP,
+    object_cursor TEXT,
+    row_cursor UUID,
+    orphan_objects BIGINT NOT NULL DEFAULT 0,
+    unstored_rows BIGINT NOT NULL DEFAULT 0,
+    missing_content BIGINT NOT NULL DEFAULT 0,
+    repaired BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+INSERT INTO notebook_reconciliation (id) VALUES (1) ON CONFLICT DO NOTHING;
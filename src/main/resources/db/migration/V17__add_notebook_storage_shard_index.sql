@@ -0,0 +1,13 @@
+--
+-- Storage shard of a notebook, as laid out by FileStorageService: the first two bytes, in hex, of
+-- the SHA-256 of its file name. File storage lists notebooks shard directory by shard directory,
+-- so NotebookReconciler reads metadata rows in (shard, id) order to merge-join them with it.
+--
+CREATE OR REPLACE FUNCTION notebook_storage_shard(notebook_id UUID) RETURNS TEXT
+    LANGUAGE sql IMMUTABLE STRICT PARALLEL SAFE AS $$
+    SELECT encode(
+        substring(sha256(decode(notebook_id::text || '.ipynb', 'escape')) FROM 1 FOR 2), 'hex')
+$$;
+
+CREATE INDEX IF NOT EXISTS idx_jupyter_notebooks_metadata_storage_shard
+    ON jupyter_notebooks_metadata (notebook_storage_shard(id), id);
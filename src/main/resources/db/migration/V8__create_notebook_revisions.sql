@@ -0,0 +1,17 @@
+--
+-- Notebook revision history
+-- Each update records the new content as a revision. Most revisions are stored as a binary delta
+-- against the previous revision; every few revisions a full snapshot bounds reconstruction cost.
+-- Payloads are gzip-compressed.
+--
+CREATE TABLE IF NOT EXISTS jupyter_notebook_revisions (
+    id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    notebook_id UUID NOT NULL REFERENCES jupyter_notebooks_metadata(id) ON DELETE CASCADE,
+    revision_number INTEGER NOT NULL,
+    revision_type VARCHAR(16) NOT NULL,
+    payload BYTEA NOT NULL,
+    content_size_bytes BIGINT NOT NULL,
+    session_id UUID NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    CONSTRAINT uq_notebook_revisions_notebook_revision UNIQUE (notebook_id, revision_number)
+);
@@ -0,0 +1,7 @@
+--
+-- Optimistic concurrency control for notebook updates
+-- Every successful update increments version; clients send it back in If-Match so a save based on
+-- an outdated copy is rejected instead of silently overwriting a newer one.
+--
+ALTER TABLE jupyter_notebooks_metadata
+    ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
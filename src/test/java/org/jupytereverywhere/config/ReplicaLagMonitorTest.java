@@ -0,0 +1,76 @@
+package org.jupytereverywhere.config;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicaLagMonitorTest {
+
+  @Mock private DataSource replica;
+
+  @Mock private Connection connection;
+
+  @Mock private Statement statement;
+
+  @Mock private ResultSet resultSet;
+
+  private void replicaReports(long lagMs, long replayedLsn) throws SQLException {
+    when(replica.getConnection()).thenReturn(connection);
+    when(connection.createStatement()).thenReturn(statement);
+    when(statement.executeQuery(ReplicaLagMonitor.REPLICATION_SQL)).thenReturn(resultSet);
+    when(resultSet.next()).thenReturn(true, false);
+    when(resultSet.getLong(1)).thenReturn(lagMs);
+    when(resultSet.getLong(2)).thenReturn(replayedLsn);
+  }
+
+  @Test
+  void testReplicaUsableOnlyWhileLagWithinLimit() throws SQLException {
+    ReplicaLagMonitor monitor = new ReplicaLagMonitor(replica, 1000, 1000);
+    assertFalse(monitor.isReplicaUsable(), "Replica should not be used before the first check");
+
+    replicaReports(250, 1000);
+    monitor.check();
+    assertTrue(monitor.isReplicaUsable());
+
+    when(resultSet.next()).thenReturn(true, false);
+    when(resultSet.getLong(1)).thenReturn(5000L);
+    monitor.check();
+    assertFalse(monitor.isReplicaUsable());
+  }
+
+  @Test
+  void testHasReplayedPositionsUpToTheLastMeasurement() throws SQLException {
+    ReplicaLagMonitor monitor = new ReplicaLagMonitor(replica, 1000, 1000);
+    assertTrue(monitor.hasReplayed(-1), "A client without a position needs nothing replayed");
+    assertFalse(monitor.hasReplayed(1), "Nothing should count as replayed before the first check");
+
+    replicaReports(0, 4096);
+    monitor.check();
+
+    assertTrue(monitor.hasReplayed(4096));
+    assertFalse(monitor.hasReplayed(4097));
+  }
+
+  @Test
+  void testUnreachableReplicaIsNotUsed() throws SQLException {
+    ReplicaLagMonitor monitor = new ReplicaLagMonitor(replica, 1000, 1000);
+    when(replica.getConnection()).thenThrow(new SQLException("connection refused"));
+
+    monitor.check();
+
+    assertFalse(monitor.isReplicaUsable());
+  }
+}
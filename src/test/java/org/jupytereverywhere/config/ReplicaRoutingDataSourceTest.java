@@ -0,0 +1,116 @@
+package org.jupytereverywhere.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.jupytereverywhere.utils.ReadYourWrites;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicaRoutingDataSourceTest {
+
+  private static final long LAST_WRITE_LSN = 42_000L;
+
+  @Mock private DataSource primary;
+
+  @Mock private DataSource replica;
+
+  @Mock private ReplicaLagMonitor lagMonitor;
+
+  private ReplicaRoutingDataSource routingDataSource;
+
+  @BeforeEach
+  void setUp() {
+    routingDataSource = new ReplicaRoutingDataSource(primary, replica, lagMonitor);
+    TransactionSynchronizationManager.initSynchronization();
+  }
+
+  @AfterEach
+  void tearDown() {
+    TransactionSynchronizationManager.clear();
+    ReadYourWrites.stop();
+  }
+
+  private void commit() {
+    List<TransactionSynchronization> synchronizations =
+        TransactionSynchronizationManager.getSynchronizations();
+    synchronizations.forEach(TransactionSynchronization::afterCommit);
+    TransactionSynchronizationManager.clearSynchronization();
+    TransactionSynchronizationManager.initSynchronization();
+  }
+
+  private Object routeReadOnly() {
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    try {
+      return routingDataSource.determineCurrentLookupKey();
+    } finally {
+      TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+  }
+
+  @Test
+  void testReadOnlyTransactionGoesToReplica() {
+    when(lagMonitor.isReplicaUsable()).thenReturn(true);
+    when(lagMonitor.hasReplayed(ReadYourWrites.ANY_POSITION)).thenReturn(true);
+
+    assertEquals(ReplicaRoutingDataSource.Target.REPLICA, routeReadOnly());
+  }
+
+  @Test
+  void testReadOnlyTransactionFallsBackToPrimaryWhileReplicaLags() {
+    when(lagMonitor.isReplicaUsable()).thenReturn(false);
+
+    assertEquals(ReplicaRoutingDataSource.Target.PRIMARY, routeReadOnly());
+  }
+
+  @Test
+  void testWriteTransactionGoesToPrimary() {
+    assertEquals(
+        ReplicaRoutingDataSource.Target.PRIMARY, routingDataSource.determineCurrentLookupKey());
+  }
+
+  @Test
+  void testClientReadsItsOwnWritesFromPrimaryUntilReplicaReplayedThem() {
+    when(lagMonitor.isReplicaUsable()).thenReturn(true);
+    when(lagMonitor.hasReplayed(LAST_WRITE_LSN)).thenReturn(false, true);
+    ReadYourWrites.start(LAST_WRITE_LSN);
+
+    assertEquals(ReplicaRoutingDataSource.Target.PRIMARY, routeReadOnly());
+    assertEquals(ReplicaRoutingDataSource.Target.REPLICA, routeReadOnly());
+  }
+
+  @Test
+  void testCommittedWriteIsRecordedForTheResponse() {
+    ReadYourWrites state = ReadYourWrites.start(ReadYourWrites.ANY_POSITION);
+
+    routingDataSource.determineCurrentLookupKey();
+    assertFalse(state.wrote(), "A write should only be recorded once it commits");
+    commit();
+
+    assertTrue(state.wrote());
+  }
+
+  @Test
+  void testRolledBackWriteIsNotRecorded() {
+    ReadYourWrites state = ReadYourWrites.start(ReadYourWrites.ANY_POSITION);
+
+    routingDataSource.determineCurrentLookupKey();
+    TransactionSynchronizationManager.clearSynchronization();
+    TransactionSynchronizationManager.initSynchronization();
+
+    assertFalse(state.wrote());
+  }
+}
@@ -5,10 +5,18 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayOutputStream;
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 
 import org.junit.jupiter.api.AfterEach;
@@ -17,29 +25,53 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.jupytereverywhere.dto.JupyterNotebookDTO;
 import org.jupytereverywhere.exception.InvalidNotebookException;
+import org.jupytereverywhere.exception.InvalidNotebookPatchException;
 import org.jupytereverywhere.exception.InvalidNotebookPasswordException;
 import org.jupytereverywhere.exception.NotebookNotFoundException;
 import org.jupytereverywhere.exception.NotebookTooLargeException;
+import org.jupytereverywhere.exception.NotebookVersionConflictException;
 import org.jupytereverywhere.exception.SessionMismatchException;
+import org.jupytereverywhere.exception.UnauthorizedNotebookAccessException;
+import org.jupytereverywhere.model.NotebookUploadJobStatus;
+import org.jupytereverywhere.model.request.JupyterNotebookBatchRequest;
 import org.jupytereverywhere.model.request.JupyterNotebookRequest;
+import org.jupytereverywhere.model.response.JupyterNotebookBatchItem;
+import org.jupytereverywhere.model.response.JupyterNotebookBulkUploadResult;
 import org.jupytereverywhere.model.response.JupyterNotebookErrorResponse;
+import org.jupytereverywhere.model.response.JupyterNotebookMetadataRetrieved;
+import org.jupytereverywhere.model.response.JupyterNotebookPage;
 import org.jupytereverywhere.model.response.JupyterNotebookResponse;
 import org.jupytereverywhere.model.response.JupyterNotebookRetrieved;
+import org.jupytereverywhere.model.response.JupyterNotebookRevisionInfo;
+import org.jupytereverywhere.model.response.JupyterNotebookRevisionRetrieved;
+import org.jupytereverywhere.model.response.JupyterNotebookRevisions;
 import org.jupytereverywhere.model.response.JupyterNotebookSaved;
 import org.jupytereverywhere.model.response.JupyterNotebookSavedResponse;
+import org.jupytereverywhere.model.response.JupyterNotebookStreamed;
+import org.jupytereverywhere.model.response.JupyterNotebookUploadJob;
+import org.jupytereverywhere.model.response.NotebookValidationError;
 import org.jupytereverywhere.service.JupyterNotebookService;
+import org.jupytereverywhere.service.NotebookBulkUploadService;
+import org.jupytereverywhere.service.NotebookUploadJobService;
 import org.jupytereverywhere.utils.HttpHeaderUtils;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import io.micrometer.observation.ObservationRegistry;
 import jakarta.servlet.http.HttpServletRequest;
 
 @ExtendWith(MockitoExtension.class)
@@ -49,8 +81,14 @@ class JupyterNotebookControllerTest {
 
   @Mock private JupyterNotebookService notebookService;
 
+  @Mock private NotebookUploadJobService uploadJobService;
+
+  @Mock private NotebookBulkUploadService bulkUploadService;
+
   @Mock private ObjectMapper objectMapper;
 
+  @Spy private ObservationRegistry observationRegistry = ObservationRegistry.create();
+
   @Mock private Authentication authentication;
 
   @Mock private HttpServletRequest request;
@@ -115,6 +153,20 @@ class JupyterNotebookControllerTest {
     assertEquals(notebookRetrieved, response.getBody());
   }
 
+  @Test
+  void testGetNotebookById_ReturnsVersionAsETag() {
+    UUID notebookId = UUID.randomUUID();
+    var notebookRetrieved =
+        new JupyterNotebookRetrieved(notebookId, domain, readableId, "{\"cells\":[]}", 7L);
+
+    when(notebookService.getNotebookContent(notebookId)).thenReturn(notebookRetrieved);
+
+    ResponseEntity<JupyterNotebookResponse> response = controller.getNotebook(notebookId);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals("\"7\"", response.getHeaders().getETag());
+  }
+
   @Test
   void testGetNotebookById_NotFound() {
     UUID notebookId = UUID.randomUUID();
@@ -189,6 +241,230 @@ class JupyterNotebookControllerTest {
     assertEquals(HttpStatus.INTERNAL_SERVER_ERROR.name(), errorResponse.getErrorCode());
   }
 
+  @Test
+  void testGetNotebookById_StreamingReadMode() {
+    ReflectionTestUtils.setField(controller, "readMode", "streaming");
+    UUID notebookId = UUID.randomUUID();
+    var notebookStreamed = new JupyterNotebookStreamed(notebookId, domain, readableId, t -> {});
+
+    when(notebookService.getStreamedNotebookContent(notebookId)).thenReturn(notebookStreamed);
+
+    ResponseEntity<JupyterNotebookResponse> response = controller.getNotebook(notebookId);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(notebookStreamed, response.getBody());
+  }
+
+  @Test
+  void testGetNotebookByReadableId_StreamingReadMode() {
+    ReflectionTestUtils.setField(controller, "readMode", "streaming");
+    UUID notebookId = UUID.randomUUID();
+    var notebookStreamed = new JupyterNotebookStreamed(notebookId, domain, readableId, t -> {});
+
+    when(notebookService.getStreamedNotebookContent(readableId)).thenReturn(notebookStreamed);
+
+    ResponseEntity<JupyterNotebookResponse> response = controller.getNotebook(readableId);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(notebookStreamed, response.getBody());
+  }
+
+  @Test
+  void testGetNotebookById_StreamingReadMode_NotFound() {
+    ReflectionTestUtils.setField(controller, "readMode", "streaming");
+    UUID notebookId = UUID.randomUUID();
+
+    when(notebookService.getStreamedNotebookContent(notebookId))
+        .thenThrow(new NotebookNotFoundException("Notebook not found"));
+
+    ResponseEntity<JupyterNotebookResponse> response = controller.getNotebook(notebookId);
+
+    assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+  }
+
+  @Test
+  void testListNotebooks_Success() {
+    UUID sessionId = UUID.randomUUID();
+    var page = new JupyterNotebookPage(List.of(new JupyterNotebookMetadataRetrieved()), "next");
+
+    when(authentication.getPrincipal()).thenReturn(sessionId);
+    when(notebookService.listSessionNotebooks(sessionId, null, 20)).thenReturn(page);
+
+    ResponseEntity<JupyterNotebookResponse> response =
+        controller.listNotebooks(null, 20, authentication);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(page, response.getBody());
+  }
+
+  @Test
+  void testListNotebooks_InvalidCursor() {
+    UUID sessionId = UUID.randomUUID();
+
+    when(authentication.getPrincipal()).thenReturn(sessionId);
+    when(notebookService.listSessionNotebooks(sessionId, "garbage", 20))
+        .thenThrow(new InvalidNotebookException("Invalid cursor"));
+
+    ResponseEntity<JupyterNotebookResponse> response =
+        controller.listNotebooks("garbage", 20, authentication);
+
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+  }
+
+  @Test
+  void testGetNotebookMetadata_ReturnsVersionAsETag() {
+    UUID notebookId = UUID.randomUUID();
+    var notebookMetadata = new JupyterNotebookMetadataRetrieved();
+    notebookMetadata.setId(notebookId);
+    notebookMetadata.setCellCount(12);
+    notebookMetadata.setVersion(3L);
+
+    when(notebookService.getNotebookMetadata(notebookId)).thenReturn(notebookMetadata);
+
+    ResponseEntity<JupyterNotebookResponse> response = controller.getNotebookMetadata(notebookId);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(notebookMetadata, response.getBody());
+    assertEquals("\"3\"", response.getHeaders().getETag());
+  }
+
+  @Test
+  void testGetNotebookMetadataByReadableId_NotFound() {
+    when(notebookService.getNotebookMetadata(readableId))
+        .thenThrow(new NotebookNotFoundException("Notebook not found"));
+
+    ResponseEntity<JupyterNotebookResponse> response = controller.getNotebookMetadata(readableId);
+
+    assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+  }
+
+  @Test
+  void testGetNotebookCells_InvalidRange() {
+    UUID notebookId = UUID.randomUUID();
+
+    when(notebookService.getNotebookCells(notebookId, 0, 500))
+        .thenThrow(new InvalidNotebookException("Cell range too large"));
+
+    ResponseEntity<JupyterNotebookResponse> response =
+        controller.getNotebookCells(notebookId, 0, 500);
+
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    JupyterNotebookErrorResponse errorResponse = (JupyterNotebookErrorResponse) response.getBody();
+    assertNotNull(errorResponse);
+    assertEquals("Cell range too large", errorResponse.getMessage());
+  }
+
+  @Test
+  void testGetNotebooks_StreamsNdjson() throws Exception {
+    UUID notebookId = UUID.randomUUID();
+    var batchRequest = new JupyterNotebookBatchRequest(List.of(notebookId), List.of());
+    var batch = new JupyterNotebookService.NotebookBatch(List.of(), List.of());
+    var item = JupyterNotebookBatchItem.notFound(notebookId, null);
+
+    when(notebookService.prepareBatch(List.of(notebookId), List.of())).thenReturn(batch);
+    when(objectMapper.writeValueAsBytes(item)).thenReturn("{\"error\":\"NOT_FOUND\"}".getBytes());
+    doAnswer(
+            invocation -> {
+              JupyterNotebookService.BatchItemWriter writer = invocation.getArgument(1);
+              writer.write(item);
+              return null;
+            })
+        .when(notebookService)
+        .streamBatch(eq(batch), any());
+
+    ResponseEntity<StreamingResponseBody> response = controller.getNotebooks(batchRequest);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    response.getBody().writeTo(out);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(MediaType.APPLICATION_NDJSON, response.getHeaders().getContentType());
+    assertEquals("{\"error\":\"NOT_FOUND\"}\n", out.toString());
+  }
+
+  @Test
+  void testGetNotebooks_InvalidBatch() throws Exception {
+    var batchRequest = new JupyterNotebookBatchRequest(List.of(), List.of());
+
+    when(notebookService.prepareBatch(List.of(), List.of()))
+        .thenThrow(new InvalidNotebookException("A batch must request at least one notebook"));
+    when(objectMapper.writeValueAsBytes(any())).thenReturn(new byte[0]);
+
+    ResponseEntity<StreamingResponseBody> response = controller.getNotebooks(batchRequest);
+
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+  }
+
+  @Test
+  void testListNotebookRevisions_Success() {
+    UUID notebookId = UUID.randomUUID();
+    var revisions =
+        new JupyterNotebookRevisions(
+            notebookId, List.of(new JupyterNotebookRevisionInfo(1, 100L, null)));
+
+    when(notebookService.listNotebookRevisions(notebookId)).thenReturn(revisions);
+
+    ResponseEntity<JupyterNotebookResponse> response = controller.listNotebookRevisions(notebookId);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(revisions, response.getBody());
+  }
+
+  @Test
+  void testListNotebookRevisions_NotFound() {
+    UUID notebookId = UUID.randomUUID();
+
+    when(notebookService.listNotebookRevisions(notebookId))
+        .thenThrow(new NotebookNotFoundException("Notebook not found"));
+
+    ResponseEntity<JupyterNotebookResponse> response = controller.listNotebookRevisions(notebookId);
+
+    assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+  }
+
+  @Test
+  void testGetNotebookRevision_Success() {
+    UUID notebookId = UUID.randomUUID();
+    var revision =
+        new JupyterNotebookRevisionRetrieved(notebookId, domain, readableId, 2, "{\"cells\":[]}");
+
+    when(notebookService.getNotebookRevision(notebookId, 2)).thenReturn(revision);
+
+    ResponseEntity<JupyterNotebookResponse> response =
+        controller.getNotebookRevision(notebookId, 2);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(revision, response.getBody());
+  }
+
+  @Test
+  void testGetNotebookRevision_RevisionNotFound() {
+    UUID notebookId = UUID.randomUUID();
+
+    when(notebookService.getNotebookRevision(notebookId, 7))
+        .thenThrow(new NotebookNotFoundException("Revision not found"));
+
+    ResponseEntity<JupyterNotebookResponse> response =
+        controller.getNotebookRevision(notebookId, 7);
+
+    assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    JupyterNotebookErrorResponse errorResponse = (JupyterNotebookErrorResponse) response.getBody();
+    assertNotNull(errorResponse);
+    assertEquals("Revision not found", errorResponse.getMessage());
+  }
+
+  @Test
+  void testGetNotebookRevision_Exception() {
+    UUID notebookId = UUID.randomUUID();
+
+    when(notebookService.getNotebookRevision(notebookId, 2))
+        .thenThrow(new RuntimeException("Unexpected error"));
+
+    ResponseEntity<JupyterNotebookResponse> response =
+        controller.getNotebookRevision(notebookId, 2);
+
+    assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+  }
+
   @Test
   void testUploadNotebook_Success() throws Exception {
     JupyterNotebookRequest notebookRequest = new JupyterNotebookRequest();
@@ -213,6 +489,118 @@ class JupyterNotebookControllerTest {
     assertEquals(expectedResponse, response.getBody());
   }
 
+  @Test
+  void testUploadNotebook_RespondAsyncReturnsAcceptedJob() throws Exception {
+    JupyterNotebookRequest notebookRequest = new JupyterNotebookRequest();
+    UUID sessionId = UUID.randomUUID();
+    UUID notebookId = UUID.randomUUID();
+    var uploadJob =
+        new JupyterNotebookUploadJob(
+            UUID.randomUUID(),
+            NotebookUploadJobStatus.PENDING,
+            new JupyterNotebookSaved(notebookId, domain, readableId),
+            null);
+
+    when(authentication.getPrincipal()).thenReturn(sessionId);
+    mockDomainExtraction();
+    mockCachedBody("{\"notebook\":{\"nbformat\":4}}");
+    when(uploadJobService.isEnabled()).thenReturn(true);
+    when(request.getHeaders("Prefer"))
+        .thenReturn(Collections.enumeration(List.of("wait=10, respond-async")));
+    when(uploadJobService.submit(eq(notebookRequest), eq(sessionId), eq(domain), anyString()))
+        .thenReturn(uploadJob);
+
+    ResponseEntity<JupyterNotebookResponse> response =
+        controller.uploadNotebook(notebookRequest, authentication, request);
+
+    assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+    assertEquals(uploadJob, response.getBody());
+    assertEquals("respond-async", response.getHeaders().getFirst("Preference-Applied"));
+    verifyNoInteractions(notebookService);
+  }
+
+  @Test
+  void testUploadNotebooks_StreamsOneResultPerNotebook() throws Exception {
+    UUID sessionId = UUID.randomUUID();
+    UUID notebookId = UUID.randomUUID();
+    NotebookBulkUploadService.BulkUploadSource source = () -> null;
+    var saved = JupyterNotebookBulkUploadResult.saved(0, notebookId, domain, readableId);
+
+    when(authentication.getPrincipal()).thenReturn(sessionId);
+    when(bulkUploadService.ndjsonSource(any())).thenReturn(source);
+    when(objectMapper.writeValueAsBytes(saved)).thenReturn("{\"index\":0}".getBytes());
+    doAnswer(
+            invocation -> {
+              NotebookBulkUploadService.BulkUploadResultWriter writer = invocation.getArgument(3);
+              writer.write(saved);
+              return null;
+            })
+        .when(bulkUploadService)
+        .upload(eq(sessionId), any(), eq(source), any());
+
+    ResponseEntity<StreamingResponseBody> response =
+        controller.uploadNotebooks(authentication, request);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    response.getBody().writeTo(out);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(MediaType.APPLICATION_NDJSON, response.getHeaders().getContentType());
+    assertEquals("{\"index\":0}\n", out.toString());
+  }
+
+  @Test
+  void testUploadNotebookFiles_ReadsOneNotebookPerFile() throws Exception {
+    UUID sessionId = UUID.randomUUID();
+    List<MultipartFile> files = List.of(mock(MultipartFile.class), mock(MultipartFile.class));
+    NotebookBulkUploadService.BulkUploadSource source = () -> null;
+
+    when(authentication.getPrincipal()).thenReturn(sessionId);
+    when(bulkUploadService.multipartSource(files)).thenReturn(source);
+
+    ResponseEntity<StreamingResponseBody> response =
+        controller.uploadNotebookFiles(files, authentication, request);
+    response.getBody().writeTo(new ByteArrayOutputStream());
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    verify(bulkUploadService).upload(eq(sessionId), any(), eq(source), any());
+  }
+
+  @Test
+  void testGetUploadJob_Success() {
+    UUID jobId = UUID.randomUUID();
+    UUID sessionId = UUID.randomUUID();
+    var uploadJob =
+        new JupyterNotebookUploadJob(
+            jobId,
+            NotebookUploadJobStatus.SUCCEEDED,
+            new JupyterNotebookSaved(UUID.randomUUID(), domain, readableId),
+            null);
+
+    when(authentication.getPrincipal()).thenReturn(sessionId);
+    when(uploadJobService.getJob(jobId, sessionId)).thenReturn(uploadJob);
+
+    ResponseEntity<JupyterNotebookResponse> response =
+        controller.getUploadJob(jobId, authentication);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(uploadJob, response.getBody());
+  }
+
+  @Test
+  void testGetUploadJob_NotFound() {
+    UUID jobId = UUID.randomUUID();
+    UUID sessionId = UUID.randomUUID();
+
+    when(authentication.getPrincipal()).thenReturn(sessionId);
+    when(uploadJobService.getJob(jobId, sessionId))
+        .thenThrow(new NotebookNotFoundException("Upload job not found"));
+
+    ResponseEntity<JupyterNotebookResponse> response =
+        controller.getUploadJob(jobId, authentication);
+
+    assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+  }
+
   @Test
   void testUploadNotebook_InvalidNotebookException() {
     JupyterNotebookRequest notebookRequest = new JupyterNotebookRequest();
@@ -235,6 +623,31 @@ class JupyterNotebookControllerTest {
     assertEquals(HttpStatus.UNPROCESSABLE_ENTITY.name(), errorResponse.getErrorCode());
   }
 
+  @Test
+  void testUploadNotebook_InvalidNotebookException_ReturnsValidationErrors() {
+    JupyterNotebookRequest notebookRequest = new JupyterNotebookRequest();
+    UUID sessionId = UUID.randomUUID();
+    List<NotebookValidationError> errors =
+        List.of(
+            new NotebookValidationError("$", "required", "required property 'cells' not found"));
+
+    when(authentication.getPrincipal()).thenReturn(sessionId);
+    mockDomainExtraction();
+    mockCachedBody("{\"notebook\":{\"nbformat\":4}}");
+    when(notebookService.uploadNotebook(
+            eq(notebookRequest), eq(sessionId), eq(domain), anyString()))
+        .thenThrow(new InvalidNotebookException("Notebook validation failed", errors, false));
+
+    ResponseEntity<JupyterNotebookResponse> response =
+        controller.uploadNotebook(notebookRequest, authentication, request);
+
+    assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, response.getStatusCode());
+    JupyterNotebookErrorResponse errorResponse = (JupyterNotebookErrorResponse) response.getBody();
+    assertNotNull(errorResponse);
+    assertEquals(errors, errorResponse.getDetails().get("validation_errors"));
+    assertEquals(false, errorResponse.getDetails().get("validation_errors_truncated"));
+  }
+
   @Test
   void testUploadNotebook_Exception() {
     JupyterNotebookRequest notebookRequest = new JupyterNotebookRequest();
@@ -272,7 +685,7 @@ class JupyterNotebookControllerTest {
     mockTokenExtraction(token);
     mockCachedBody("{\"nbformat\":4}");
     when(notebookService.updateNotebook(
-            eq(notebookId), eq(notebookDto), eq(sessionId), eq(token), anyString()))
+            eq(notebookId), eq(notebookDto), eq(sessionId), eq(token), anyString(), isNull()))
         .thenReturn(notebookSaved);
 
     ResponseEntity<JupyterNotebookResponse> response =
@@ -293,7 +706,7 @@ class JupyterNotebookControllerTest {
     mockTokenExtraction(token);
     mockCachedBody("{\"nbformat\":4}");
     when(notebookService.updateNotebook(
-            eq(notebookId), eq(notebookDto), eq(sessionId), eq(token), anyString()))
+            eq(notebookId), eq(notebookDto), eq(sessionId), eq(token), anyString(), isNull()))
         .thenThrow(new InvalidNotebookPasswordException("Invalid password"));
 
     ResponseEntity<JupyterNotebookResponse> response =
@@ -317,7 +730,7 @@ class JupyterNotebookControllerTest {
     mockTokenExtraction(token);
     mockCachedBody("{\"nbformat\":4}");
     when(notebookService.updateNotebook(
-            eq(notebookId), eq(notebookDto), eq(sessionId), eq(token), anyString()))
+            eq(notebookId), eq(notebookDto), eq(sessionId), eq(token), anyString(), isNull()))
         .thenThrow(new SessionMismatchException("Session ID mismatch"));
 
     ResponseEntity<JupyterNotebookResponse> response =
@@ -341,7 +754,7 @@ class JupyterNotebookControllerTest {
     mockTokenExtraction(token);
     mockCachedBody("{\"nbformat\":4}");
     when(notebookService.updateNotebook(
-            eq(notebookId), eq(notebookDto), eq(sessionId), eq(token), anyString()))
+            eq(notebookId), eq(notebookDto), eq(sessionId), eq(token), anyString(), isNull()))
         .thenThrow(new InvalidNotebookException("Invalid notebook format"));
 
     ResponseEntity<JupyterNotebookResponse> response =
@@ -365,7 +778,7 @@ class JupyterNotebookControllerTest {
     mockTokenExtraction(token);
     mockCachedBody("{\"nbformat\":4}");
     when(notebookService.updateNotebook(
-            eq(notebookId), eq(notebookDto), eq(sessionId), eq(token), anyString()))
+            eq(notebookId), eq(notebookDto), eq(sessionId), eq(token), anyString(), isNull()))
         .thenThrow(new RuntimeException("Unexpected error"));
 
     ResponseEntity<JupyterNotebookResponse> response =
@@ -378,6 +791,165 @@ class JupyterNotebookControllerTest {
     assertEquals(HttpStatus.INTERNAL_SERVER_ERROR.name(), errorResponse.getErrorCode());
   }
 
+  @Test
+  void testUpdateNotebookById_IfMatchPassedAndETagReturned() throws JsonProcessingException {
+    UUID notebookId = UUID.randomUUID();
+    JupyterNotebookDTO notebookDto = new JupyterNotebookDTO();
+    UUID sessionId = UUID.randomUUID();
+    String token = "valid-token";
+    var notebookSaved = new JupyterNotebookSaved(notebookId, domain, readableId, 4L);
+
+    when(authentication.getPrincipal()).thenReturn(sessionId);
+    mockTokenExtraction(token);
+    mockCachedBody("{\"nbformat\":4}");
+    when(request.getHeader(HttpHeaders.IF_MATCH)).thenReturn("\"3\"");
+    when(notebookService.updateNotebook(
+            eq(notebookId), eq(notebookDto), eq(sessionId), eq(token), anyString(), eq(3L)))
+        .thenReturn(notebookSaved);
+
+    ResponseEntity<JupyterNotebookResponse> response =
+        controller.updateNotebook(notebookId, notebookDto, authentication, request);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals("\"4\"", response.getHeaders().getETag());
+  }
+
+  @Test
+  void testUpdateNotebookById_VersionConflict() throws JsonProcessingException {
+    UUID notebookId = UUID.randomUUID();
+    JupyterNotebookDTO notebookDto = new JupyterNotebookDTO();
+    UUID sessionId = UUID.randomUUID();
+    String token = "valid-token";
+
+    when(authentication.getPrincipal()).thenReturn(sessionId);
+    mockTokenExtraction(token);
+    mockCachedBody("{\"nbformat\":4}");
+    when(request.getHeader(HttpHeaders.IF_MATCH)).thenReturn("\"3\"");
+    when(notebookService.updateNotebook(
+            eq(notebookId), eq(notebookDto), eq(sessionId), eq(token), anyString(), eq(3L)))
+        .thenThrow(new NotebookVersionConflictException("Notebook was modified since version 3"));
+
+    ResponseEntity<JupyterNotebookResponse> response =
+        controller.updateNotebook(notebookId, notebookDto, authentication, request);
+
+    assertEquals(HttpStatus.PRECONDITION_FAILED, response.getStatusCode());
+    JupyterNotebookErrorResponse errorResponse = (JupyterNotebookErrorResponse) response.getBody();
+    assertNotNull(errorResponse);
+    assertEquals("Notebook was modified since version 3", errorResponse.getMessage());
+    assertEquals(HttpStatus.PRECONDITION_FAILED.name(), errorResponse.getErrorCode());
+  }
+
+  @Test
+  void testUpdateNotebookById_WeakIfMatchFailsPrecondition() {
+    UUID notebookId = UUID.randomUUID();
+    JupyterNotebookDTO notebookDto = new JupyterNotebookDTO();
+    UUID sessionId = UUID.randomUUID();
+
+    when(authentication.getPrincipal()).thenReturn(sessionId);
+    mockTokenExtraction("valid-token");
+    mockCachedBody("{\"nbformat\":4}");
+    when(request.getHeader(HttpHeaders.IF_MATCH)).thenReturn("W/\"3\"");
+
+    ResponseEntity<JupyterNotebookResponse> response =
+        controller.updateNotebook(notebookId, notebookDto, authentication, request);
+
+    assertEquals(HttpStatus.PRECONDITION_FAILED, response.getStatusCode());
+    verifyNoInteractions(notebookService);
+  }
+
+  @Test
+  void testPatchNotebook_Success() throws JsonProcessingException {
+    UUID notebookId = UUID.randomUUID();
+    UUID sessionId = UUID.randomUUID();
+    String token = "jwt-token";
+    var patch = objectMapper().readTree("[{\"op\":\"replace\",\"path\":\"/cells/0\"}]");
+    var notebookSaved = new JupyterNotebookSaved(notebookId, domain, readableId);
+
+    when(authentication.getPrincipal()).thenReturn(sessionId);
+    mockTokenExtraction(token);
+    when(notebookService.patchNotebook(notebookId, patch, sessionId, token, null))
+        .thenReturn(notebookSaved);
+
+    ResponseEntity<JupyterNotebookResponse> response =
+        controller.patchNotebook(notebookId, patch, authentication, request);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    var body = (JupyterNotebookSavedResponse) response.getBody();
+    assertNotNull(body);
+    assertEquals(notebookSaved, body.getNotebook());
+  }
+
+  @Test
+  void testPatchNotebook_InvalidPatch() throws JsonProcessingException {
+    UUID notebookId = UUID.randomUUID();
+    UUID sessionId = UUID.randomUUID();
+    var patch = objectMapper().readTree("{}");
+
+    when(authentication.getPrincipal()).thenReturn(sessionId);
+    mockTokenExtraction("jwt-token");
+    when(notebookService.patchNotebook(notebookId, patch, sessionId, "jwt-token", null))
+        .thenThrow(new InvalidNotebookPatchException("Patch must be a JSON array of operations"));
+
+    ResponseEntity<JupyterNotebookResponse> response =
+        controller.patchNotebook(notebookId, patch, authentication, request);
+
+    assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, response.getStatusCode());
+    JupyterNotebookErrorResponse errorResponse = (JupyterNotebookErrorResponse) response.getBody();
+    assertNotNull(errorResponse);
+    assertEquals("Patch must be a JSON array of operations", errorResponse.getMessage());
+  }
+
+  @Test
+  void testPatchNotebook_InvalidResultingNotebook() throws JsonProcessingException {
+    UUID notebookId = UUID.randomUUID();
+    UUID sessionId = UUID.randomUUID();
+    var patch = objectMapper().readTree("[]");
+
+    when(authentication.getPrincipal()).thenReturn(sessionId);
+    mockTokenExtraction("jwt-token");
+    when(notebookService.patchNotebook(notebookId, patch, sessionId, "jwt-token", null))
+        .thenThrow(new InvalidNotebookException("Notebook validation failed"));
+
+    ResponseEntity<JupyterNotebookResponse> response =
+        controller.patchNotebook(notebookId, patch, authentication, request);
+
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+  }
+
+  @Test
+  void testPatchNotebook_Unauthorized() throws JsonProcessingException {
+    UUID notebookId = UUID.randomUUID();
+    UUID sessionId = UUID.randomUUID();
+    var patch = objectMapper().readTree("[]");
+
+    when(authentication.getPrincipal()).thenReturn(sessionId);
+    mockTokenExtraction("jwt-token");
+    when(notebookService.patchNotebook(notebookId, patch, sessionId, "jwt-token", null))
+        .thenThrow(new UnauthorizedNotebookAccessException("No permission"));
+
+    ResponseEntity<JupyterNotebookResponse> response =
+        controller.patchNotebook(notebookId, patch, authentication, request);
+
+    assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+  }
+
+  @Test
+  void testPatchNotebook_NotFound() throws JsonProcessingException {
+    UUID notebookId = UUID.randomUUID();
+    UUID sessionId = UUID.randomUUID();
+    var patch = objectMapper().readTree("[]");
+
+    when(authentication.getPrincipal()).thenReturn(sessionId);
+    mockTokenExtraction("jwt-token");
+    when(notebookService.patchNotebook(notebookId, patch, sessionId, "jwt-token", null))
+        .thenThrow(new NotebookNotFoundException("Notebook not found"));
+
+    ResponseEntity<JupyterNotebookResponse> response =
+        controller.patchNotebook(notebookId, patch, authentication, request);
+
+    assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+  }
+
   @Test
   void testUpdateNotebookByReadableId_Success() throws JsonProcessingException {
     JupyterNotebookDTO notebookDto = new JupyterNotebookDTO();
@@ -392,7 +964,7 @@ class JupyterNotebookControllerTest {
     mockTokenExtraction(token);
     mockCachedBody("{\"nbformat\":4}");
     when(notebookService.updateNotebook(
-            eq(readableId), eq(notebookDto), eq(sessionId), eq(token), anyString()))
+            eq(readableId), eq(notebookDto), eq(sessionId), eq(token), anyString(), isNull()))
         .thenReturn(notebookSaved);
 
     ResponseEntity<JupyterNotebookResponse> response =
@@ -412,7 +984,7 @@ class JupyterNotebookControllerTest {
     mockTokenExtraction(token);
     mockCachedBody("{\"nbformat\":4}");
     when(notebookService.updateNotebook(
-            eq(readableId), eq(notebookDto), eq(sessionId), eq(token), anyString()))
+            eq(readableId), eq(notebookDto), eq(sessionId), eq(token), anyString(), isNull()))
         .thenThrow(new SessionMismatchException("Session ID mismatch"));
 
     ResponseEntity<JupyterNotebookResponse> response =
@@ -435,7 +1007,7 @@ class JupyterNotebookControllerTest {
     mockTokenExtraction(token);
     mockCachedBody("{\"nbformat\":4}");
     when(notebookService.updateNotebook(
-            eq(readableId), eq(notebookDto), eq(sessionId), eq(token), anyString()))
+            eq(readableId), eq(notebookDto), eq(sessionId), eq(token), anyString(), isNull()))
         .thenThrow(new InvalidNotebookException("Invalid notebook format"));
 
     ResponseEntity<JupyterNotebookResponse> response =
@@ -458,7 +1030,7 @@ class JupyterNotebookControllerTest {
     mockTokenExtraction(token);
     mockCachedBody("{\"nbformat\":4}");
     when(notebookService.updateNotebook(
-            eq(readableId), eq(notebookDto), eq(sessionId), eq(token), anyString()))
+            eq(readableId), eq(notebookDto), eq(sessionId), eq(token), anyString(), isNull()))
         .thenThrow(new RuntimeException("Unexpected error"));
 
     ResponseEntity<JupyterNotebookResponse> response =
@@ -506,7 +1078,7 @@ class JupyterNotebookControllerTest {
     mockTokenExtraction(token);
     mockCachedBody("{\"nbformat\":4}");
     when(notebookService.updateNotebook(
-            eq(notebookId), eq(notebookDto), eq(sessionId), eq(token), anyString()))
+            eq(notebookId), eq(notebookDto), eq(sessionId), eq(token), anyString(), isNull()))
         .thenThrow(
             new NotebookTooLargeException(
                 "Notebook size (11534336 bytes) exceeds maximum allowed size of 10 MB"));
@@ -531,7 +1103,7 @@ class JupyterNotebookControllerTest {
     mockTokenExtraction(token);
     mockCachedBody("{\"nbformat\":4}");
     when(notebookService.updateNotebook(
-            eq(readableId), eq(notebookDto), eq(sessionId), eq(token), anyString()))
+            eq(readableId), eq(notebookDto), eq(sessionId), eq(token), anyString(), isNull()))
         .thenThrow(
             new NotebookTooLargeException(
                 "Notebook size (11534336 bytes) exceeds maximum allowed size of 10 MB"));
@@ -0,0 +1,155 @@
+package org.jupytereverywhere.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.jupytereverywhere.corpus.NotebookCorpus;
+import org.jupytereverywhere.corpus.NotebookShape;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Upload latency and allocation through the whole request path, filters included, against file
+ * storage and PostgreSQL. Run by {@code ./gradlew performanceTest} and the performance gate, not by
+ * {@code ./gradlew test}; the results are written to {@code upload.json} in the report directory.
+ */
+@Tag("performance")
+@Testcontainers
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(
+    properties = {
+      "storage.type=file",
+      "security.jwt.token.secret-key=performance-test-secret-key-at-least-256-bits"
+    })
+class NotebookUploadPerformanceTest {
+
+  private static final int CORPUS_SIZE = 20;
+  private static final int WARMUP_UPLOADS = 100;
+  private static final int MEASURED_UPLOADS = 500;
+  private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+  static {
+    System.setProperty("DB_USERNAME", "test");
+    System.setProperty("DB_PASSWORD", "test");
+  }
+
+  @SuppressWarnings("resource")
+  @Container
+  private static final PostgreSQLContainer<?> postgresContainer =
+      new PostgreSQLContainer<>("postgres:15")
+          .withDatabaseName("testdb")
+          .withUsername("test")
+          .withPassword("test");
+
+  @TempDir static Path tempDir;
+
+  @DynamicPropertySource
+  static void setDataSourceProperties(DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", postgresContainer::getJdbcUrl);
+    registry.add("spring.datasource.username", () -> "test");
+    registry.add("spring.datasource.password", () -> "test");
+    registry.add("spring.datasource.driver-class-name", postgresContainer::getDriverClassName);
+    registry.add("storage.path.local", () -> tempDir.toString());
+  }
+
+  @Autowired private MockMvc mockMvc;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @Test
+  void testUpload_RecordsLatencyAndAllocation() throws Exception {
+    String token = issueToken();
+    List<String> bodies =
+        new NotebookCorpus(NotebookCorpus.DEFAULT_SEED)
+            .notebooks(NotebookShape.DEFAULT, CORPUS_SIZE)
+            .stream()
+            .map(notebook -> "{\"notebook\": " + notebook + "}")
+            .toList();
+
+    for (int i = 0; i < WARMUP_UPLOADS; i++) {
+      upload(token, bodies.get(i % bodies.size()));
+    }
+
+    // Counts what the request thread allocates; uploads are handled synchronously on it
+    com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long threadId = Thread.currentThread().threadId();
+    Histogram latencies = new Histogram(3);
+    long allocatedBytes = 0;
+    for (int i = 0; i < MEASURED_UPLOADS; i++) {
+      String body = bodies.get(i % bodies.size());
+      long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+      long startedAt = System.nanoTime();
+      upload(token, body);
+      latencies.recordValue(System.nanoTime() - startedAt);
+      allocatedBytes += threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+    }
+
+    writeReport(latencies, allocatedBytes / MEASURED_UPLOADS);
+    assertEquals(MEASURED_UPLOADS, latencies.getTotalCount());
+  }
+
+  private String issueToken() throws Exception {
+    String response =
+        mockMvc
+            .perform(post("/api/v1/auth/issue"))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    return objectMapper.readTree(response).get("token").asText();
+  }
+
+  private void upload(String token, String body) throws Exception {
+    mockMvc
+        .perform(
+            post("/api/v1/notebooks")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+        .andExpect(status().isCreated());
+  }
+
+  private void writeReport(Histogram latencies, long allocatedBytesPerUpload) throws IOException {
+    Map<String, Object> report = new LinkedHashMap<>();
+    report.put("uploads", latencies.getTotalCount());
+    report.put("p50Millis", latencies.getValueAtPercentile(50.0) / NANOS_PER_MILLI);
+    report.put("p99Millis", latencies.getValueAtPercentile(99.0) / NANOS_PER_MILLI);
+    report.put("maxMillis", latencies.getMaxValue() / NANOS_PER_MILLI);
+    report.put("allocatedBytesPerUpload", allocatedBytesPerUpload);
+
+    Path reportDir =
+        Paths.get(System.getProperty("performance.reportDir", "build/reports/performance"));
+    Files.createDirectories(reportDir);
+    objectMapper
+        .writerWithDefaultPrettyPrinter()
+        .writeValue(reportDir.resolve("upload.json").toFile(), report);
+  }
+}
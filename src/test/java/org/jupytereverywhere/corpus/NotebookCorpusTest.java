@@ -0,0 +1,224 @@
+package org.jupytereverywhere.corpus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jupytereverywhere.service.utils.JupyterNotebookValidator;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import io.micrometer.observation.ObservationRegistry;
+
+class NotebookCorpusTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final NotebookCorpus corpus = new NotebookCorpus(NotebookCorpus.DEFAULT_SEED);
+  private JupyterNotebookValidator validator;
+
+  @BeforeEach
+  void setUp() {
+    validator = new JupyterNotebookValidator(objectMapper, ObservationRegistry.NOOP);
+  }
+
+  @Test
+  void testNotebook_IsValidForEveryMinorVersion() throws Exception {
+    for (int minor = 0; minor <= 5; minor++) {
+      String notebook = corpus.notebook(NotebookShape.DEFAULT.withNbformatMinor(minor), minor);
+
+      assertTrue(validator.validateNotebook(notebook), "nbformat 4." + minor);
+      JsonNode cell = objectMapper.readTree(notebook).get("cells").get(0);
+      assertEquals(minor >= 5, cell.has("id"), "nbformat 4." + minor);
+    }
+  }
+
+  @Test
+  void testNotebook_IsValidWithEveryOutputType() {
+    for (OutputType type : OutputType.values()) {
+      NotebookShape shape =
+          NotebookShape.DEFAULT
+              .withMarkdownRatio(0)
+              .withOutputsPerCell(2)
+              .withOutputMix(Map.of(type, 1))
+              .withImageBytes(256);
+      for (int minor = 0; minor <= 5; minor++) {
+        assertTrue(
+            validator.validateNotebook(corpus.notebook(shape.withNbformatMinor(minor), 0)),
+            type + " in nbformat 4." + minor);
+      }
+    }
+  }
+
+  @Test
+  void testNotebook_FollowsShape() throws Exception {
+    NotebookShape shape =
+        NotebookShape.DEFAULT
+            .withCells(12)
+            .withMarkdownRatio(0)
+            .withSourceLines(4)
+            .withOutputsPerCell(3)
+            .withOutputMix(Map.of(OutputType.DISPLAY_DATA, 1))
+            .withImageBytes(300)
+            .withMetadataDepth(3)
+            .withDuplicationRatio(0);
+
+    JsonNode notebook = objectMapper.readTree(corpus.notebook(shape, 0));
+
+    JsonNode cells = notebook.get("cells");
+    assertEquals(12, cells.size());
+    for (JsonNode cell : cells) {
+      assertEquals("code", cell.get("cell_type").asText());
+      assertEquals(4, cell.get("source").size());
+      assertEquals(3, cell.get("outputs").size());
+      String image = cell.get("outputs").get(0).get("data").get("image/png").asText();
+      assertEquals(400, image.length());
+      assertEquals(3, depth(cell.get("metadata").get("corpus")));
+    }
+    assertEquals(3, depth(notebook.get("metadata").get("corpus")));
+  }
+
+  @Test
+  void testNotebook_DuplicatesCellsButNotIds() throws Exception {
+    NotebookShape shape = NotebookShape.DEFAULT.withCells(30).withDuplicationRatio(1);
+
+    JsonNode cells = objectMapper.readTree(corpus.notebook(shape, 0)).get("cells");
+
+    Set<String> ids = new HashSet<>();
+    for (JsonNode cell : cells) {
+      assertTrue(ids.add(cell.get("id").asText()));
+      ObjectNode content = (ObjectNode) cell.deepCopy();
+      content.remove("id");
+      ObjectNode first = (ObjectNode) cells.get(0).deepCopy();
+      first.remove("id");
+      assertEquals(first, content);
+    }
+  }
+
+  @Test
+  void testNotebook_IsReproducible() {
+    NotebookCorpus sameSeed = new NotebookCorpus(NotebookCorpus.DEFAULT_SEED);
+    NotebookCorpus otherSeed = new NotebookCorpus(NotebookCorpus.DEFAULT_SEED + 1);
+
+    assertEquals(
+        corpus.notebooks(NotebookShape.DEFAULT, 3), sameSeed.notebooks(NotebookShape.DEFAULT, 3));
+    assertNotEquals(
+        corpus.notebook(NotebookShape.DEFAULT, 0), otherSeed.notebook(NotebookShape.DEFAULT, 0));
+    assertNotEquals(
+        corpus.notebook(NotebookShape.DEFAULT, 0), corpus.notebook(NotebookShape.DEFAULT, 1));
+  }
+
+  @Test
+  void testNotebookOfSize_ReachesSize() {
+    String notebook = corpus.notebookOfSize(NotebookShape.DEFAULT.withNbformatMinor(3), 200_000, 0);
+
+    assertTrue(notebook.length() >= 200_000);
+    assertTrue(validator.validateNotebook(notebook));
+  }
+
+  @Test
+  void testValidate_FailFastGivesTheSameVerdictAsWholeNotebookValidation() throws Exception {
+    ReflectionTestUtils.setField(validator, "maxErrors", 1);
+    JupyterNotebookValidator wholeNotebook =
+        new JupyterNotebookValidator(objectMapper, ObservationRegistry.NOOP);
+    ReflectionTestUtils.setField(wholeNotebook, "failFast", false);
+
+    Map<String, String> valid = new LinkedHashMap<>();
+    for (int minor = 0; minor <= 5; minor++) {
+      valid.put("4." + minor, corpus.notebook(NotebookShape.DEFAULT.withNbformatMinor(minor), 0));
+    }
+    for (OutputType type : OutputType.values()) {
+      valid.put(
+          type.toString(),
+          corpus.notebook(
+              NotebookShape.DEFAULT.withOutputsPerCell(3).withOutputMix(Map.of(type, 1)), 0));
+    }
+    valid.put("no cells", corpus.notebook(NotebookShape.DEFAULT.withCells(0), 0));
+    valid.put(
+        "duplicated cells", corpus.notebook(NotebookShape.DEFAULT.withDuplicationRatio(1), 0));
+    valid.put("200 KB", corpus.notebookOfSize(NotebookShape.DEFAULT, 200_000, 0));
+
+    String notebook = corpus.notebook(NotebookShape.DEFAULT.withMarkdownRatio(0.5), 0);
+    Map<String, String> invalid = new LinkedHashMap<>();
+    invalid.put("not json", "{ invalid json }");
+    invalid.put("cells not an array", change(notebook, root -> root.putObject("cells")));
+    invalid.put("no metadata", change(notebook, root -> root.remove("metadata")));
+    invalid.put("unknown property", change(notebook, root -> root.put("extra", true)));
+    invalid.put("cell without id", change(notebook, root -> cell(root, 0).remove("id")));
+    invalid.put(
+        "last cell without source", change(notebook, root -> lastCell(root).remove("source")));
+    invalid.put(
+        "unknown cell type", change(notebook, root -> cell(root, 1).put("cell_type", "chart")));
+    invalid.put(
+        "broken output",
+        change(
+            notebook,
+            root -> {
+              for (JsonNode cell : root.get("cells")) {
+                if (cell.has("outputs")) {
+                  ((ArrayNode) cell.get("outputs")).addObject().put("output_type", "unknown");
+                }
+              }
+            }));
+    invalid.put(
+        "broken notebook and cells",
+        change(
+            notebook,
+            root -> {
+              root.remove("metadata");
+              root.get("cells").forEach(cell -> ((ObjectNode) cell).remove("source"));
+            }));
+
+    valid.forEach(
+        (name, json) -> {
+          assertTrue(wholeNotebook.validateNotebook(json), name);
+          assertTrue(validator.validateNotebook(json), name);
+        });
+    invalid.forEach(
+        (name, json) -> {
+          assertFalse(wholeNotebook.validateNotebook(json), name);
+          assertFalse(validator.validateNotebook(json), name);
+        });
+  }
+
+  @Test
+  void testShape_RejectsInvalidValues() {
+    NotebookShape shape = NotebookShape.DEFAULT;
+
+    assertThrows(IllegalArgumentException.class, () -> shape.withNbformatMinor(6));
+    assertThrows(IllegalArgumentException.class, () -> shape.withDuplicationRatio(1.5));
+    assertThrows(IllegalArgumentException.class, () -> shape.withOutputMix(Map.of()));
+    assertFalse(shape.outputMix().isEmpty());
+  }
+
+  private String change(String notebook, Consumer<ObjectNode> change) throws Exception {
+    ObjectNode root = (ObjectNode) objectMapper.readTree(notebook);
+    change.accept(root);
+    return objectMapper.writeValueAsString(root);
+  }
+
+  private static ObjectNode cell(ObjectNode notebook, int index) {
+    return (ObjectNode) notebook.get("cells").get(index);
+  }
+
+  private static ObjectNode lastCell(ObjectNode notebook) {
+    return cell(notebook, notebook.get("cells").size() - 1);
+  }
+
+  private static int depth(JsonNode metadata) {
+    return metadata.has("nested") ? 1 + depth(metadata.get("nested")) : 1;
+  }
+}
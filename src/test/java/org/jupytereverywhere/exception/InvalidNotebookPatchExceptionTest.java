@@ -0,0 +1,41 @@
+package org.jupytereverywhere.exception;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+class InvalidNotebookPatchExceptionTest {
+
+  @Test
+  void testInvalidNotebookPatchExceptionMessage() {
+    String expectedMessage = "Invalid notebook patch";
+    InvalidNotebookPatchException exception = new InvalidNotebookPatchException(expectedMessage);
+
+    assertEquals(expectedMessage, exception.getMessage());
+  }
+
+  @Test
+  void testInvalidNotebookPatchExceptionThrowing() {
+    String expectedMessage = "This is a test message";
+
+    Exception exception =
+        assertThrows(
+            InvalidNotebookPatchException.class,
+            () -> {
+              throw new InvalidNotebookPatchException(expectedMessage);
+            });
+
+    assertEquals(expectedMessage, exception.getMessage());
+  }
+
+  @Test
+  void testInvalidNotebookPatchExceptionWithCause() {
+    Throwable cause = new IllegalArgumentException("Bad pointer");
+
+    InvalidNotebookPatchException exception =
+        new InvalidNotebookPatchException("Invalid notebook patch", cause);
+
+    assertEquals(cause, exception.getCause());
+  }
+}
@@ -0,0 +1,32 @@
+package org.jupytereverywhere.exception;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+class NotebookVersionConflictExceptionTest {
+
+  @Test
+  void testNotebookVersionConflictExceptionMessage() {
+    String expectedMessage = "Notebook was modified concurrently";
+    NotebookVersionConflictException exception =
+        new NotebookVersionConflictException(expectedMessage);
+
+    assertEquals(expectedMessage, exception.getMessage());
+  }
+
+  @Test
+  void testNotebookVersionConflictExceptionThrowing() {
+    String expectedMessage = "This is a test message";
+
+    Exception exception =
+        assertThrows(
+            NotebookVersionConflictException.class,
+            () -> {
+              throw new NotebookVersionConflictException(expectedMessage);
+            });
+
+    assertEquals(expectedMessage, exception.getMessage());
+  }
+}
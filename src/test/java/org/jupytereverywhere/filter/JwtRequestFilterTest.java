@@ -11,16 +11,17 @@ import static org.mockito.Mockito.when;
 import java.io.IOException;
 import java.util.UUID;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.jupytereverywhere.service.JwtTokenService;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
 
 import io.jsonwebtoken.ExpiredJwtException;
+import io.micrometer.observation.ObservationRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletResponse;
@@ -28,7 +29,7 @@ import jakarta.servlet.http.HttpServletResponse;
 @ExtendWith(MockitoExtension.class)
 class JwtRequestFilterTest {
 
-  @InjectMocks private JwtRequestFilter jwtRequestFilter;
+  private JwtRequestFilter jwtRequestFilter;
 
   @Mock private JwtTokenService jwtTokenService;
 
@@ -36,6 +37,12 @@ class JwtRequestFilterTest {
 
   @Mock private JwtValidator jwtValidator;
 
+  @BeforeEach
+  void setUp() {
+    jwtRequestFilter =
+        new JwtRequestFilter(jwtTokenService, jwtExtractor, jwtValidator, ObservationRegistry.NOOP);
+  }
+
   @Test
   void testDoFilterInternal_InvalidToken() throws ServletException, IOException {
     String invalidToken = "invalidTokenString";
@@ -1,5 +1,6 @@
 package org.jupytereverywhere.filter;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -13,17 +14,25 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
 
 @ExtendWith(MockitoExtension.class)
 class JwtValidatorTest {
 
   @Mock private JwtTokenService jwtTokenService;
 
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
   private JwtValidator jwtValidator;
 
   @BeforeEach
   void setUp() {
-    jwtValidator = new JwtValidator(jwtTokenService);
+    ObservationRegistry observationRegistry = ObservationRegistry.create();
+    observationRegistry
+        .observationConfig()
+        .observationHandler(new DefaultMeterObservationHandler(meterRegistry));
+    jwtValidator = new JwtValidator(jwtTokenService, observationRegistry);
   }
 
   @Test
@@ -49,4 +58,20 @@ class JwtValidatorTest {
 
     assertThrows(JwtException.class, () -> jwtValidator.isValid(token));
   }
+
+  @Test
+  void testIsValid_TimesVerificationByOutcome() {
+    when(jwtTokenService.validateToken("valid")).thenReturn(true);
+    when(jwtTokenService.validateToken("invalid")).thenReturn(false);
+    when(jwtTokenService.validateToken("broken")).thenThrow(new JwtException("Invalid JWT token"));
+
+    jwtValidator.isValid("valid");
+    jwtValidator.isValid("invalid");
+    assertThrows(JwtException.class, () -> jwtValidator.isValid("broken"));
+
+    for (String outcome : new String[] {"valid", "invalid", "error"}) {
+      assertEquals(
+          1, meterRegistry.get("jwt.verification").tag("outcome", outcome).timer().count());
+    }
+  }
 }
@@ -0,0 +1,110 @@
+package org.jupytereverywhere.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.jupytereverywhere.utils.ReadYourWrites;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import jakarta.servlet.ServletException;
+
+@ExtendWith(MockitoExtension.class)
+class ReadYourWritesFilterTest {
+
+  @Mock private DataSource primary;
+
+  @Mock private Connection connection;
+
+  @Mock private Statement statement;
+
+  @Mock private ResultSet resultSet;
+
+  @Mock private ResultSetMetaData resultSetMetaData;
+
+  private ReadYourWritesFilter filter;
+  private MockHttpServletRequest request;
+  private MockHttpServletResponse response;
+
+  @BeforeEach
+  void setUp() {
+    filter = new ReadYourWritesFilter(primary);
+    request = new MockHttpServletRequest("GET", "/api/v1/notebooks/abc");
+    response = new MockHttpServletResponse();
+  }
+
+  private void primaryIsAt(long lsn) throws SQLException {
+    when(primary.getConnection()).thenReturn(connection);
+    when(connection.createStatement()).thenReturn(statement);
+    when(statement.executeQuery(ReadYourWritesFilter.CURRENT_LSN_SQL)).thenReturn(resultSet);
+    when(resultSet.next()).thenReturn(true, false);
+    when(resultSet.getMetaData()).thenReturn(resultSetMetaData);
+    when(resultSetMetaData.getColumnCount()).thenReturn(1);
+    when(resultSet.getLong(1)).thenReturn(lsn);
+  }
+
+  @Test
+  void testRequiredPositionIsReadFromTheRequestHeader() throws ServletException, IOException {
+    request.addHeader(ReadYourWrites.HEADER, "4096");
+    AtomicLong requiredLsn = new AtomicLong();
+
+    filter.doFilter(
+        request,
+        response,
+        (chainRequest, chainResponse) -> requiredLsn.set(ReadYourWrites.requiredLsn()));
+
+    assertEquals(4096L, requiredLsn.get());
+    assertFalse(ReadYourWrites.isTracking(), "State should not outlive the request");
+  }
+
+  @Test
+  void testReturnsPrimaryPositionBeforeBodyAfterAWrite()
+      throws ServletException, IOException, SQLException {
+    primaryIsAt(8192L);
+
+    filter.doFilter(
+        request,
+        response,
+        (chainRequest, chainResponse) -> {
+          ReadYourWrites.recordWrite();
+          chainResponse.getOutputStream().write('{');
+          chainResponse.flushBuffer();
+        });
+
+    assertEquals("8192", response.getHeader(ReadYourWrites.HEADER));
+  }
+
+  @Test
+  void testReadsDoNotQueryThePrimary() throws ServletException, IOException {
+    filter.doFilter(request, response, (chainRequest, chainResponse) -> {});
+
+    assertNull(response.getHeader(ReadYourWrites.HEADER));
+    verifyNoInteractions(primary);
+  }
+
+  @Test
+  void testUnusableHeaderRequiresNoPosition() {
+    assertEquals(ReadYourWrites.ANY_POSITION, ReadYourWritesFilter.parseLsn(null));
+    assertEquals(ReadYourWrites.ANY_POSITION, ReadYourWritesFilter.parseLsn(" "));
+    assertEquals(ReadYourWrites.ANY_POSITION, ReadYourWritesFilter.parseLsn("0/16B3748"));
+    assertEquals(42L, ReadYourWritesFilter.parseLsn(" 42 "));
+  }
+}
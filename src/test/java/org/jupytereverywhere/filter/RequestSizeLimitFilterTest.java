@@ -7,11 +7,11 @@ import java.io.IOException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import io.micrometer.observation.ObservationRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -26,13 +26,16 @@ class RequestSizeLimitFilterTest {
 
   @Mock private FilterChain filterChain;
 
-  @InjectMocks private RequestSizeLimitFilter filter;
+  private RequestSizeLimitFilter filter;
 
   private static final long MAX_NOTEBOOK_SIZE_BYTES = 10485760L; // 10 MB
+  private static final long MAX_BULK_REQUEST_BYTES = 1073741824L; // 1 GB
 
   @BeforeEach
   void setUp() {
+    filter = new RequestSizeLimitFilter(ObservationRegistry.NOOP);
     ReflectionTestUtils.setField(filter, "maxNotebookSizeBytes", MAX_NOTEBOOK_SIZE_BYTES);
+    ReflectionTestUtils.setField(filter, "maxBulkRequestBytes", MAX_BULK_REQUEST_BYTES);
   }
 
   @Test
@@ -96,6 +99,33 @@ class RequestSizeLimitFilterTest {
     verify(filterChain, never()).doFilter(request, response);
   }
 
+  @Test
+  void testFilterAllowsLargeBulkUpload() throws ServletException, IOException {
+    // Request size: 100 MB to the bulk upload endpoint (within the bulk limit)
+    when(request.getHeader("Content-Length")).thenReturn("104857600");
+    when(request.getRequestURI()).thenReturn("/api/v1/notebooks/bulk");
+    when(request.getMethod()).thenReturn("POST");
+
+    filter.doFilterInternal(request, response, filterChain);
+
+    verify(filterChain, times(1)).doFilter(request, response);
+    verify(response, never()).sendError(anyInt(), anyString());
+  }
+
+  @Test
+  void testFilterRejectsBulkUploadExceedingBulkLimit() throws ServletException, IOException {
+    // Request size: 2 GB to the bulk upload endpoint
+    when(request.getHeader("Content-Length")).thenReturn("2147483648");
+    when(request.getRequestURI()).thenReturn("/api/v1/notebooks/bulk");
+    when(request.getMethod()).thenReturn("POST");
+
+    filter.doFilterInternal(request, response, filterChain);
+
+    verify(response, times(1))
+        .sendError(eq(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE), contains("1024 MB"));
+    verify(filterChain, never()).doFilter(request, response);
+  }
+
   @Test
   void testFilterAllowsRequestWithoutContentLength() throws ServletException, IOException {
     // No Content-Length header (e.g., chunked encoding or GET request)
@@ -0,0 +1,75 @@
+package org.jupytereverywhere.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jupytereverywhere.utils.ServerTiming;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+
+class ServerTimingFilterTest {
+
+  private ServerTimingFilter filter;
+  private MockHttpServletResponse response;
+
+  @BeforeEach
+  void setUp() {
+    filter = new ServerTimingFilter();
+    ReflectionTestUtils.setField(filter, "enabled", true);
+    ReflectionTestUtils.setField(filter, "allowOrigin", "");
+    response = new MockHttpServletResponse();
+  }
+
+  private static MockHttpServletRequest request(String uri) {
+    return new MockHttpServletRequest("GET", uri);
+  }
+
+  @Test
+  void testAddsHeaderBeforeBodyIsWritten() throws ServletException, IOException {
+    FilterChain chain =
+        (request, chainResponse) -> {
+          ServerTiming.end(ServerTiming.Stage.DB, ServerTiming.begin(ServerTiming.Stage.DB));
+          chainResponse.getOutputStream().write('{');
+          chainResponse.flushBuffer();
+        };
+
+    filter.doFilter(request("/api/v1/notebooks/abc"), response, chain);
+
+    String header = response.getHeader(ServerTimingFilter.SERVER_TIMING_HEADER);
+    assertTrue(header.contains("total;dur="), header);
+    assertNull(response.getHeader(ServerTimingFilter.TIMING_ALLOW_ORIGIN_HEADER));
+  }
+
+  @Test
+  void testAddsHeaderToResponseWithoutBody() throws ServletException, IOException {
+    ReflectionTestUtils.setField(filter, "allowOrigin", "https://example.org");
+
+    filter.doFilter(request("/api/v1/notebooks/abc"), response, (request, chainResponse) -> {});
+
+    assertTrue(response.containsHeader(ServerTimingFilter.SERVER_TIMING_HEADER));
+    assertEquals(
+        "https://example.org", response.getHeader(ServerTimingFilter.TIMING_ALLOW_ORIGIN_HEADER));
+  }
+
+  @Test
+  void testSkipsOtherEndpointsAndDisabledFilter() throws ServletException, IOException {
+    FilterChain chain = (request, chainResponse) -> {};
+
+    filter.doFilter(request("/api/v1/auth/issue"), response, chain);
+    ReflectionTestUtils.setField(filter, "enabled", false);
+    MockHttpServletResponse disabledResponse = new MockHttpServletResponse();
+    filter.doFilter(request("/api/v1/notebooks/abc"), disabledResponse, chain);
+
+    assertNull(response.getHeader(ServerTimingFilter.SERVER_TIMING_HEADER));
+    assertNull(disabledResponse.getHeader(ServerTimingFilter.SERVER_TIMING_HEADER));
+  }
+}
@@ -0,0 +1,54 @@
+package org.jupytereverywhere.model.response;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class JupyterNotebookStreamedTest {
+
+  private static final String NOTEBOOK_JSON =
+      "{\"nbformat\":4,\"nbformat_minor\":5,\"metadata\":{},\"cells\":[]}";
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  void testSerializesLikeRetrievedNotebook_ToOutputStream() throws Exception {
+    UUID id = UUID.randomUUID();
+    var retrieved = new JupyterNotebookRetrieved(id, "example.com", "readable-id", NOTEBOOK_JSON);
+    var streamed =
+        new JupyterNotebookStreamed(
+            id,
+            "example.com",
+            "readable-id",
+            target -> target.write(NOTEBOOK_JSON.getBytes(StandardCharsets.UTF_8)));
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    objectMapper.writeValue(out, streamed);
+
+    assertEquals(
+        objectMapper.readTree(objectMapper.writeValueAsString(retrieved)),
+        objectMapper.readTree(out.toString(StandardCharsets.UTF_8)));
+  }
+
+  @Test
+  void testSerializesLikeRetrievedNotebook_ToString() throws Exception {
+    UUID id = UUID.randomUUID();
+    var retrieved = new JupyterNotebookRetrieved(id, "example.com", "readable-id", NOTEBOOK_JSON);
+    var streamed =
+        new JupyterNotebookStreamed(
+            id,
+            "example.com",
+            "readable-id",
+            target -> target.write(NOTEBOOK_JSON.getBytes(StandardCharsets.UTF_8)));
+
+    assertEquals(
+        objectMapper.readTree(objectMapper.writeValueAsString(retrieved)),
+        objectMapper.readTree(objectMapper.writeValueAsString(streamed)));
+  }
+}
@@ -158,6 +158,71 @@ class JupyterNotebookRepositoryTest {
     assertEquals(2, notebooks.size(), "Should find 2 notebooks with the same session ID");
   }
 
+  @Test
+  void testFindLocation() {
+    JupyterNotebookEntity notebook = createNotebook("s3://bucket/notebook9.ipynb");
+    notebook.setReadableId("test-readable-id-for-location");
+    JupyterNotebookEntity savedNotebook = notebookRepository.saveAndFlush(notebook);
+
+    Optional<NotebookLocation> byId = notebookRepository.findLocationById(savedNotebook.getId());
+    Optional<NotebookLocation> byReadableId =
+        notebookRepository.findLocationByReadableId("test-readable-id-for-location");
+
+    assertTrue(byId.isPresent(), "Location should be found by ID");
+    assertEquals("s3://bucket/notebook9.ipynb", byId.get().getStorageUrl());
+    assertEquals("example.com", byId.get().getDomain());
+    assertEquals("test-readable-id-for-location", byId.get().getReadableId());
+    assertTrue(byReadableId.isPresent(), "Location should be found by readable id");
+    assertEquals(savedNotebook.getId(), byReadableId.get().getId());
+  }
+
+  @Test
+  void testFindLocationsByIdInOrReadableIdIn() {
+    JupyterNotebookEntity byId =
+        notebookRepository.save(createNotebook("s3://bucket/notebook10.ipynb"));
+    JupyterNotebookEntity byReadableId = createNotebook("s3://bucket/notebook11.ipynb");
+    byReadableId.setReadableId("test-readable-id-for-batch");
+    notebookRepository.save(byReadableId);
+    notebookRepository.save(createNotebook("s3://bucket/notebook12.ipynb"));
+    notebookRepository.flush();
+
+    List<NotebookLocation> locations =
+        notebookRepository.findLocationsByIdInOrReadableIdIn(
+            List.of(byId.getId()), List.of("test-readable-id-for-batch"));
+
+    assertEquals(2, locations.size(), "Should find both requested notebooks");
+  }
+
+  @Test
+  void testFindSessionPages() {
+    UUID sessionId = UUID.randomUUID();
+    Timestamp createdAt = Timestamp.from(Instant.now());
+    for (int i = 0; i < 5; i++) {
+      JupyterNotebookEntity notebook =
+          createNotebook("s3://bucket/session-notebook" + i + ".ipynb", sessionId);
+      // Two notebooks share a creation time, so the id has to break the tie
+      notebook.setCreatedAt(new Timestamp(createdAt.getTime() - Math.min(i, 3) * 1000L));
+      notebookRepository.save(notebook);
+    }
+    notebookRepository.save(createNotebook("", sessionId));
+    notebookRepository.save(createNotebook("s3://bucket/other-session.ipynb"));
+    notebookRepository.flush();
+
+    List<NotebookSummary> firstPage = notebookRepository.findSessionPage(sessionId, 3);
+    NotebookSummary last = firstPage.get(2);
+    List<NotebookSummary> secondPage =
+        notebookRepository.findSessionPageAfter(
+            sessionId, last.getCreatedAt().toLocalDateTime(), last.getId(), 3);
+
+    assertEquals(3, firstPage.size(), "First page should be full");
+    assertEquals(2, secondPage.size(), "Second page should hold the remaining notebooks");
+    assertTrue(
+        firstPage.stream()
+            .map(NotebookSummary::getId)
+            .noneMatch(id -> secondPage.stream().anyMatch(s -> s.getId().equals(id))),
+        "Pages should not overlap");
+  }
+
   private JupyterNotebookEntity createNotebook(String storageUrl) {
     return createNotebook(storageUrl, UUID.randomUUID());
   }
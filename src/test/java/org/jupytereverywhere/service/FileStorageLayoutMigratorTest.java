@@ -0,0 +1,101 @@
+package org.jupytereverywhere.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.jupytereverywhere.repository.JupyterNotebookRepository;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+class FileStorageLayoutMigratorTest {
+
+  @TempDir Path tempDir;
+
+  @Mock private JupyterNotebookRepository notebookRepository;
+
+  private FileStorageService fileStorageService;
+  private FileStorageLayoutMigrator migrator;
+
+  @BeforeEach
+  void setUp() {
+    fileStorageService = new FileStorageService();
+    ReflectionTestUtils.setField(fileStorageService, "localStoragePath", tempDir.toString());
+    migrator = new FileStorageLayoutMigrator(fileStorageService, notebookRepository);
+  }
+
+  @Test
+  void testMigrateFlatLayout_MovesFilesAndRepointsRows() throws IOException {
+    Path flatPath = Files.writeString(tempDir.resolve("a.ipynb"), "{\"v\":1}");
+    Path shardedPath = fileStorageService.resolveNotebookPath("a.ipynb");
+
+    FileStorageLayoutMigrator.MigrationResult result = migrator.migrateFlatLayout();
+
+    assertEquals(1, result.migrated());
+    assertEquals(0, result.failed());
+    assertFalse(Files.exists(flatPath));
+    assertEquals("{\"v\":1}", Files.readString(shardedPath));
+    verify(notebookRepository).updateStorageUrl(flatPath.toString(), shardedPath.toString());
+  }
+
+  @Test
+  void testMigrateFlatLayout_KeepsNewerShardCopy() throws IOException {
+    Path flatPath = Files.writeString(tempDir.resolve("a.ipynb"), "{\"v\":1}");
+    Path shardedPath = fileStorageService.resolveNotebookPath("a.ipynb");
+    Files.createDirectories(shardedPath.getParent());
+    Files.writeString(shardedPath, "{\"v\":2}");
+
+    migrator.migrateFlatLayout();
+
+    assertFalse(Files.exists(flatPath));
+    assertEquals("{\"v\":2}", Files.readString(shardedPath));
+    verify(notebookRepository).updateStorageUrl(flatPath.toString(), shardedPath.toString());
+  }
+
+  @Test
+  void testMigrateFlatLayout_IgnoresShardDirectoriesAndOtherFiles() throws IOException {
+    String shardedUrl = fileStorageService.uploadNotebook("{}", "b.ipynb");
+    Files.writeString(tempDir.resolve("notes.txt"), "not a notebook");
+
+    FileStorageLayoutMigrator.MigrationResult result = migrator.migrateFlatLayout();
+
+    assertEquals(0, result.migrated());
+    assertTrue(Files.exists(Path.of(shardedUrl)));
+    assertTrue(Files.exists(tempDir.resolve("notes.txt")));
+    verify(notebookRepository, never()).updateStorageUrl(anyString(), anyString());
+  }
+
+  @Test
+  void testMigrateFlatLayout_IsIdempotent() throws IOException {
+    Files.writeString(tempDir.resolve("a.ipynb"), "{}");
+
+    migrator.migrateFlatLayout();
+    FileStorageLayoutMigrator.MigrationResult second = migrator.migrateFlatLayout();
+
+    assertEquals(0, second.migrated());
+    assertEquals(0, second.failed());
+  }
+
+  @Test
+  void testMigrateFlatLayout_MissingRootIsNoOp() {
+    ReflectionTestUtils.setField(
+        fileStorageService, "localStoragePath", tempDir.resolve("missing").toString());
+
+    FileStorageLayoutMigrator.MigrationResult result = migrator.migrateFlatLayout();
+
+    assertEquals(new FileStorageLayoutMigrator.MigrationResult(0, 0, 0), result);
+  }
+}
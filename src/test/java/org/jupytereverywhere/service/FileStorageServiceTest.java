@@ -2,22 +2,28 @@ package org.jupytereverywhere.service;
 
 import static com.jayway.jsonpath.internal.path.PathCompiler.fail;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mockStatic;
-import static org.mockito.Mockito.times;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.jupytereverywhere.dto.CodemirrorModeDTO;
 import org.jupytereverywhere.dto.JupyterNotebookDTO;
 import org.jupytereverywhere.dto.KernelspecDTO;
@@ -29,7 +35,6 @@ import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -37,6 +42,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 class FileStorageServiceTest {
 
   private FileStorageService fileStorageService;
+
+  @TempDir Path tempDir;
   private final ObjectMapper objectMapper;
 
   public FileStorageServiceTest() {
@@ -52,74 +59,66 @@ class FileStorageServiceTest {
 
   @Test
   void testSaveNotebook_Success() throws IOException {
-    ReflectionTestUtils.setField(fileStorageService, "localStoragePath", "/path/to/notebooks");
+    ReflectionTestUtils.setField(fileStorageService, "localStoragePath", tempDir.toString());
 
     JupyterNotebookDTO notebookDto = new JupyterNotebookDTO();
-    MetadataDTO metadata =
-        new MetadataDTO(
-            new KernelspecDTO("python3", "Python 3", "python"),
-            new LanguageInfoDTO(
-                new CodemirrorModeDTO("python", 3),
-                ".py",
-                "text/x-python",
-                "python",
-                "python",
-                "3.8.5"));
-    notebookDto.setMetadata(metadata);
-
+    notebookDto.setMetadata(createSampleMetadata());
+    String jsonString = objectMapper.writeValueAsString(notebookDto);
     String fileName = "testNotebook.ipynb";
-    String directoryPath = "/path/to/notebooks";
-    Path testPath = Paths.get(directoryPath, fileName);
 
-    String jsonString = objectMapper.writeValueAsString(notebookDto);
+    String resultPath = fileStorageService.uploadNotebook(jsonString, fileName);
 
-    try (MockedStatic<Files> filesMock = mockStatic(Files.class)) {
-      filesMock
-          .when(() -> Files.createDirectories(testPath.getParent()))
-          .thenReturn(testPath.getParent());
-      filesMock.when(() -> Files.write(eq(testPath), any(byte[].class))).thenReturn(testPath);
+    String hash = FileStorageService.shardHash(fileName);
+    Path expectedPath =
+        tempDir.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(fileName);
+    assertEquals(expectedPath.toString(), resultPath);
+    assertEquals(jsonString, Files.readString(expectedPath, StandardCharsets.UTF_8));
+  }
 
-      String resultPath = fileStorageService.uploadNotebook(jsonString, fileName);
+  @Test
+  void testSaveNotebook_LeavesNoTemporaryFiles() throws IOException {
+    ReflectionTestUtils.setField(fileStorageService, "localStoragePath", tempDir.toString());
 
-      assertNotNull(resultPath);
-      assertEquals(testPath.toString(), resultPath);
+    String resultPath = fileStorageService.uploadNotebook("{}", "testNotebook.ipynb");
+    fileStorageService.uploadNotebook("{\"updated\":true}", "testNotebook.ipynb");
 
-      filesMock.verify(
-          () -> Files.write(eq(testPath), eq(jsonString.getBytes(StandardCharsets.UTF_8))));
+    Path shardDir = Paths.get(resultPath).getParent();
+    try (Stream<Path> files = Files.list(shardDir)) {
+      assertEquals(1, files.count());
     }
+    assertEquals("{\"updated\":true}", Files.readString(Paths.get(resultPath)));
   }
 
   @Test
-  void testSaveNotebook_ThrowsIOException() throws JsonProcessingException {
-    JupyterNotebookDTO notebookDto = new JupyterNotebookDTO();
-    MetadataDTO metadata =
-        new MetadataDTO(
-            new KernelspecDTO("python3", "Python 3", "python"),
-            new LanguageInfoDTO(
-                new CodemirrorModeDTO("python", 3),
-                ".py",
-                "text/x-python",
-                "python",
-                "python",
-                "3.8.5"));
-    notebookDto.setMetadata(metadata);
+  void testSaveNotebook_ReplacesLegacyFlatFile() throws IOException {
+    ReflectionTestUtils.setField(fileStorageService, "localStoragePath", tempDir.toString());
+    Path legacyPath = Files.writeString(tempDir.resolve("testNotebook.ipynb"), "{}");
 
-    String fileName = "testNotebook.ipynb";
-    String directoryPath = "/path/to/notebooks";
-    Path testPath = Paths.get(directoryPath, fileName);
+    String resultPath = fileStorageService.uploadNotebook("{\"v\":2}", "testNotebook.ipynb");
 
-    try (MockedStatic<Files> filesMock = mockStatic(Files.class)) {
-      filesMock
-          .when(() -> Files.createDirectories(testPath.getParent()))
-          .thenReturn(testPath.getParent());
-      filesMock
-          .when(() -> Files.write(eq(testPath), any(byte[].class)))
-          .thenThrow(new IOException("Simulated IO Exception"));
+    assertFalse(Files.exists(legacyPath));
+    assertEquals("{\"v\":2}", fileStorageService.downloadNotebookAsJson(legacyPath.toString()));
+    assertEquals("{\"v\":2}", fileStorageService.downloadNotebookAsJson(resultPath));
+  }
 
-      String jsonString = objectMapper.writeValueAsString(notebookDto);
-      assertThrows(
-          RuntimeException.class, () -> fileStorageService.uploadNotebook(jsonString, fileName));
-    }
+  @Test
+  void testSaveNotebook_ThrowsIOException() throws IOException {
+    // A regular file where the shard directory should be makes directory creation fail
+    Path blocker = Files.writeString(tempDir.resolve("blocker"), "");
+    ReflectionTestUtils.setField(fileStorageService, "localStoragePath", blocker.toString());
+
+    assertThrows(
+        NotebookStorageException.class,
+        () -> fileStorageService.uploadNotebook("{}", "testNotebook.ipynb"));
+  }
+
+  @Test
+  void testShardHash_IsStableAndHex() {
+    String hash = FileStorageService.shardHash("testNotebook.ipynb");
+
+    assertEquals(4, hash.length());
+    assertTrue(hash.matches("[0-9a-f]{4}"));
+    assertEquals(hash, FileStorageService.shardHash("testNotebook.ipynb"));
   }
 
   @Test
@@ -179,55 +178,118 @@ class FileStorageServiceTest {
   }
 
   @Test
-  void testDeleteNotebook_Success() {
-    ReflectionTestUtils.setField(fileStorageService, "localStoragePath", "/path/to/notebooks");
+  void testTransferNotebookTo_Success() throws IOException {
+    ReflectionTestUtils.setField(fileStorageService, "localStoragePath", tempDir.toString());
+    String content = "{\"nbformat\":4,\"cells\":[]}";
+    String resultPath = fileStorageService.uploadNotebook(content, "testNotebook.ipynb");
 
-    String fileName = "testNotebook.ipynb";
-    Path directoryPath = Paths.get("/path/to/notebooks");
-    Path notebookPath = Paths.get(directoryPath.toString(), fileName);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    fileStorageService.transferNotebookTo(resultPath, out);
 
-    try (MockedStatic<Files> filesMock = mockStatic(Files.class)) {
-      filesMock.when(() -> Files.exists(notebookPath)).thenReturn(true);
-      filesMock.when(() -> Files.delete(notebookPath)).thenAnswer(invocation -> null);
+    assertEquals(content, out.toString(StandardCharsets.UTF_8));
+  }
 
-      fileStorageService.deleteNotebook(fileName);
-      filesMock.verify(() -> Files.delete(notebookPath), times(1));
-    }
+  @Test
+  void testTransferNotebookTo_RelocatedLegacyPath() throws IOException {
+    ReflectionTestUtils.setField(fileStorageService, "localStoragePath", tempDir.toString());
+    fileStorageService.uploadNotebook("{}", "testNotebook.ipynb");
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    fileStorageService.transferNotebookTo(tempDir.resolve("testNotebook.ipynb").toString(), out);
+
+    assertEquals("{}", out.toString(StandardCharsets.UTF_8));
   }
 
   @Test
-  void testDeleteNotebook_NotFound() {
-    String fileName = "testNotebook.ipynb";
-    String localStoragePath = "/path/to/notebooks";
-    Path directoryPath = Paths.get(localStoragePath);
-    Path notebookPath = Paths.get(directoryPath.toString(), fileName);
+  void testTransferNotebookTo_NotFound() {
+    ReflectionTestUtils.setField(fileStorageService, "localStoragePath", tempDir.toString());
+    String missingPath = tempDir.resolve("missing.ipynb").toString();
 
-    ReflectionTestUtils.setField(fileStorageService, "localStoragePath", localStoragePath);
+    assertThrows(
+        NotebookNotFoundException.class,
+        () -> fileStorageService.transferNotebookTo(missingPath, new ByteArrayOutputStream()));
+  }
 
-    try (MockedStatic<Files> filesMock = mockStatic(Files.class)) {
-      filesMock.when(() -> Files.exists(notebookPath)).thenReturn(false);
-      assertThrows(
-          NotebookNotFoundException.class, () -> fileStorageService.deleteNotebook(fileName));
-      filesMock.verify(() -> Files.exists(notebookPath), times(1));
-    }
+  @Test
+  void testDeleteNotebook_Success() throws IOException {
+    ReflectionTestUtils.setField(fileStorageService, "localStoragePath", tempDir.toString());
+    String resultPath = fileStorageService.uploadNotebook("{}", "testNotebook.ipynb");
+
+    fileStorageService.deleteNotebook("testNotebook.ipynb");
+
+    assertFalse(Files.exists(Paths.get(resultPath)));
   }
 
   @Test
-  void testDeleteNotebook_ThrowsIOException() {
-    ReflectionTestUtils.setField(fileStorageService, "localStoragePath", "/path/to/notebooks");
+  void testDeleteNotebook_LegacyFlatFile() throws IOException {
+    ReflectionTestUtils.setField(fileStorageService, "localStoragePath", tempDir.toString());
+    Path legacyPath = Files.writeString(tempDir.resolve("testNotebook.ipynb"), "{}");
 
-    String fileName = "testNotebook.ipynb";
-    Path directoryPath = Paths.get("/path/to/notebooks");
-    Path notebookPath = Paths.get(directoryPath.toString(), fileName);
+    fileStorageService.deleteNotebook("testNotebook.ipynb");
+
+    assertFalse(Files.exists(legacyPath));
+  }
+
+  @Test
+  void testDeleteNotebook_NotFound() {
+    ReflectionTestUtils.setField(fileStorageService, "localStoragePath", tempDir.toString());
+
+    assertThrows(
+        NotebookNotFoundException.class,
+        () -> fileStorageService.deleteNotebook("testNotebook.ipynb"));
+  }
+
+  @Test
+  void testDeleteNotebook_ThrowsIOException() throws IOException {
+    ReflectionTestUtils.setField(fileStorageService, "localStoragePath", tempDir.toString());
+    String resultPath = fileStorageService.uploadNotebook("{}", "testNotebook.ipynb");
+    Path notebookPath = Paths.get(resultPath);
 
     try (MockedStatic<Files> filesMock = mockStatic(Files.class)) {
-      filesMock.when(() -> Files.exists(notebookPath)).thenReturn(true);
       filesMock
-          .when(() -> Files.delete(notebookPath))
+          .when(() -> Files.deleteIfExists(notebookPath))
           .thenThrow(new IOException("Simulated IO Exception"));
 
       assertThrows(
-          NotebookStorageException.class, () -> fileStorageService.deleteNotebook(fileName));
+          NotebookStorageException.class,
+          () -> fileStorageService.deleteNotebook("testNotebook.ipynb"));
     }
   }
+
+  @Test
+  void testListNotebooks_InShardOrderAfterCursor() throws IOException {
+    ReflectionTestUtils.setField(fileStorageService, "localStoragePath", tempDir.toString());
+    List<String> names = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      names.add(UUID.randomUUID() + ".ipynb");
+      fileStorageService.uploadNotebook("{}", names.get(i));
+    }
+    names.sort(Comparator.comparing(StorageService.ListingOrder.SHARD::key));
+    // Flat-layout notebooks and other files are not listed
+    Files.writeString(tempDir.resolve(UUID.randomUUID() + ".ipynb"), "{}");
+    Path shard = fileStorageService.resolveNotebookPath(names.get(0)).getParent();
+    Files.writeString(shard.resolve("notes.txt"), "");
+
+    List<NotebookObject> firstPage = fileStorageService.listNotebooks(null, 2);
+    List<NotebookObject> nextPage = fileStorageService.listNotebooks(names.get(1), 2);
+    List<NotebookObject> lastPage = fileStorageService.listNotebooks(names.get(3), 2);
+
+    assertEquals(names.subList(0, 2), firstPage.stream().map(NotebookObject::fileName).toList());
+    assertEquals(names.subList(2, 4), nextPage.stream().map(NotebookObject::fileName).toList());
+    assertEquals(names.subList(4, 5), lastPage.stream().map(NotebookObject::fileName).toList());
+    assertTrue(fileStorageService.listNotebooks(names.get(4), 2).isEmpty());
+    assertEquals(StorageService.ListingOrder.SHARD, fileStorageService.listingOrder());
+  }
+
+  private MetadataDTO createSampleMetadata() {
+    return new MetadataDTO(
+        new KernelspecDTO("python3", "Python 3", "python"),
+        new LanguageInfoDTO(
+            new CodemirrorModeDTO("python", 3),
+            ".py",
+            "text/x-python",
+            "python",
+            "python",
+            "3.8.5"));
+  }
 }
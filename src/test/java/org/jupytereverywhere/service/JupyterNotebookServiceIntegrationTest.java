@@ -9,6 +9,8 @@ import java.util.UUID;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
+import org.jupytereverywhere.corpus.NotebookCorpus;
+import org.jupytereverywhere.corpus.NotebookShape;
 import org.jupytereverywhere.dto.JupyterNotebookDTO;
 import org.jupytereverywhere.model.request.JupyterNotebookRequest;
 import org.jupytereverywhere.model.response.JupyterNotebookRetrieved;
@@ -161,4 +163,29 @@ class JupyterNotebookServiceIntegrationTest {
     assertNotNull(parsedNotebook.getMetadata().getLanguageInfo());
     // Note: empty string in language_info.name is preserved in the file but not stored in DB
   }
+
+  /**
+   * Tests that generated notebooks of every supported nbformat version, with all output types, go
+   * through upload and retrieval unchanged.
+   */
+  @Test
+  void testCorpusNotebooks_RoundTripForEveryMinorVersion() throws IOException {
+    NotebookCorpus corpus = new NotebookCorpus(NotebookCorpus.DEFAULT_SEED);
+    UUID sessionId = UUID.randomUUID();
+
+    for (int minor = 0; minor <= 5; minor++) {
+      String notebookJson = corpus.notebook(NotebookShape.DEFAULT.withNbformatMinor(minor), minor);
+      JupyterNotebookRequest request = new JupyterNotebookRequest();
+      request.setNotebook(objectMapper.readValue(notebookJson, JupyterNotebookDTO.class));
+
+      JupyterNotebookSaved saved =
+          notebookService.uploadNotebook(request, sessionId, "test.example.com", notebookJson);
+      JupyterNotebookRetrieved retrieved = notebookService.getNotebookContent(saved.getId());
+
+      assertEquals(
+          objectMapper.readTree(notebookJson),
+          objectMapper.readTree(retrieved.getNotebookContent()),
+          "nbformat 4." + minor);
+    }
+  }
 }
@@ -4,14 +4,28 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -21,25 +35,46 @@ import org.jupytereverywhere.dto.KernelspecDTO;
 import org.jupytereverywhere.dto.LanguageInfoDTO;
 import org.jupytereverywhere.dto.MetadataDTO;
 import org.jupytereverywhere.exception.InvalidNotebookException;
+import org.jupytereverywhere.exception.InvalidNotebookPatchException;
 import org.jupytereverywhere.exception.NotebookNotFoundException;
 import org.jupytereverywhere.exception.NotebookStorageException;
 import org.jupytereverywhere.exception.NotebookTooLargeException;
+import org.jupytereverywhere.exception.NotebookVersionConflictException;
 import org.jupytereverywhere.exception.UnauthorizedNotebookAccessException;
 import org.jupytereverywhere.model.JupyterNotebookEntity;
 import org.jupytereverywhere.model.request.JupyterNotebookRequest;
+import org.jupytereverywhere.model.response.JupyterNotebookBatchItem;
+import org.jupytereverywhere.model.response.JupyterNotebookCells;
+import org.jupytereverywhere.model.response.JupyterNotebookMetadataRetrieved;
+import org.jupytereverywhere.model.response.JupyterNotebookPage;
 import org.jupytereverywhere.model.response.JupyterNotebookRetrieved;
+import org.jupytereverywhere.model.response.JupyterNotebookRevisionRetrieved;
+import org.jupytereverywhere.model.response.JupyterNotebookRevisions;
 import org.jupytereverywhere.model.response.JupyterNotebookSaved;
+import org.jupytereverywhere.model.response.JupyterNotebookStreamed;
+import org.jupytereverywhere.model.response.NotebookValidationError;
 import org.jupytereverywhere.repository.JupyterNotebookRepository;
+import org.jupytereverywhere.repository.NotebookLocation;
+import org.jupytereverywhere.repository.NotebookSummary;
+import org.jupytereverywhere.repository.NotebookRevisionSummary;
 import org.jupytereverywhere.service.utils.JupyterNotebookValidator;
+import org.jupytereverywhere.service.utils.NotebookListCursor;
+import org.jupytereverywhere.service.utils.NotebookValidationResult;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
 import jakarta.persistence.EntityManager;
 
 @ExtendWith(MockitoExtension.class)
@@ -61,6 +96,14 @@ class JupyterNotebookServiceTest {
 
   @Mock private PasswordEncoder passwordEncoder;
 
+  @Mock private NotebookRevisionService notebookRevisionService;
+
+  @Mock private NotebookUpdateLocks notebookUpdateLocks;
+
+  @Spy private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  @Spy private ObservationRegistry observationRegistry = ObservationRegistry.create();
+
   private UUID notebookId;
   private UUID sessionId;
   private String domain;
@@ -68,6 +111,9 @@ class JupyterNotebookServiceTest {
   private String token;
 
   // Sample valid notebook JSON for testing
+  private static final ProjectionFactory PROJECTION_FACTORY =
+      new SpelAwareProxyProjectionFactory();
+
   private static final String SAMPLE_NOTEBOOK_JSON =
       "{\"nbformat\":4,\"nbformat_minor\":5,\"metadata\":{},\"cells\":[]}";
 
@@ -81,6 +127,21 @@ class JupyterNotebookServiceTest {
 
     // Set the maxNotebookSizeBytes field to 10MB (same as application.properties default)
     ReflectionTestUtils.setField(notebookService, "maxNotebookSizeBytes", 10485760L);
+    ReflectionTestUtils.setField(notebookService, "maxBatchSize", 100);
+    ReflectionTestUtils.setField(notebookService, "batchFetchConcurrency", 8);
+    ReflectionTestUtils.setField(notebookService, "maxCellRange", 100);
+    ReflectionTestUtils.setField(notebookService, "maxListPageSize", 100);
+
+    // Updates claim the next version; by default nobody else has updated the notebook
+    lenient().when(notebookRepository.incrementVersion(any())).thenReturn(Optional.of(1L));
+  }
+
+  private static NotebookLocation locationOf(JupyterNotebookEntity notebookEntity) {
+    return PROJECTION_FACTORY.createProjection(NotebookLocation.class, notebookEntity);
+  }
+
+  private static NotebookSummary summaryOf(JupyterNotebookEntity notebookEntity) {
+    return PROJECTION_FACTORY.createProjection(NotebookSummary.class, notebookEntity);
   }
 
   private JupyterNotebookDTO createSampleNotebookDTO() {
@@ -112,7 +173,8 @@ class JupyterNotebookServiceTest {
     JupyterNotebookEntity notebookEntity = createSampleNotebookEntity();
     String notebookJson = "{\"nbformat\":4,\"nbformat_minor\":2,\"metadata\":{},\"cells\":[]}";
 
-    when(notebookRepository.findById(notebookId)).thenReturn(Optional.of(notebookEntity));
+    when(notebookRepository.findLocationById(notebookId))
+        .thenReturn(Optional.of(locationOf(notebookEntity)));
     when(storageService.downloadNotebookAsJson(notebookEntity.getStorageUrl()))
         .thenReturn(notebookJson);
 
@@ -127,7 +189,7 @@ class JupyterNotebookServiceTest {
 
   @Test
   void testGetNotebookContent_ByUUID_NotFound() {
-    when(notebookRepository.findById(notebookId)).thenReturn(Optional.empty());
+    when(notebookRepository.findLocationById(notebookId)).thenReturn(Optional.empty());
 
     NotebookNotFoundException exception =
         assertThrows(
@@ -143,7 +205,8 @@ class JupyterNotebookServiceTest {
   void testGetNotebookContent_ByUUID_StorageException() {
     JupyterNotebookEntity notebookEntity = createSampleNotebookEntity();
 
-    when(notebookRepository.findById(notebookId)).thenReturn(Optional.of(notebookEntity));
+    when(notebookRepository.findLocationById(notebookId))
+        .thenReturn(Optional.of(locationOf(notebookEntity)));
     when(storageService.downloadNotebookAsJson(notebookEntity.getStorageUrl()))
         .thenThrow(new NotebookStorageException("Storage error"));
 
@@ -157,12 +220,137 @@ class JupyterNotebookServiceTest {
     assertEquals("Error fetching notebook content from storage", exception.getMessage());
   }
 
+  @Test
+  void testGetStreamedNotebookContent_ByUUID_Success() throws Exception {
+    JupyterNotebookEntity notebookEntity = createSampleNotebookEntity();
+    when(notebookRepository.findLocationById(notebookId))
+        .thenReturn(Optional.of(locationOf(notebookEntity)));
+
+    JupyterNotebookStreamed result = notebookService.getStreamedNotebookContent(notebookId);
+
+    assertEquals(notebookId, result.getId());
+    assertEquals(domain, result.getDomain());
+    assertEquals(readableId, result.getReadableId());
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    result.getNotebookContent().writeTo(out);
+    verify(storageService).transferNotebookTo("storage-url", out);
+  }
+
+  @Test
+  void testGetStreamedNotebookContent_ByReadableId_NotFound() {
+    when(notebookRepository.findLocationByReadableId(readableId)).thenReturn(Optional.empty());
+
+    assertThrows(
+        NotebookNotFoundException.class,
+        () -> notebookService.getStreamedNotebookContent(readableId));
+    verifyNoInteractions(storageService);
+  }
+
+  @Test
+  void testGetNotebookMetadata_DoesNotReadStorage() {
+    JupyterNotebookEntity notebookEntity = createSampleNotebookEntity();
+    notebookEntity.setSizeBytes(1234L);
+    notebookEntity.setCellCount(7);
+    when(notebookRepository.findById(notebookId)).thenReturn(Optional.of(notebookEntity));
+
+    JupyterNotebookMetadataRetrieved result = notebookService.getNotebookMetadata(notebookId);
+
+    assertEquals(notebookId, result.getId());
+    assertEquals(readableId, result.getReadableId());
+    assertEquals(1234L, result.getSizeBytes());
+    assertEquals(7, result.getCellCount());
+    verifyNoInteractions(storageService);
+  }
+
+  @Test
+  void testGetNotebookMetadata_ByReadableId_NotFound() {
+    when(notebookRepository.findByReadableId(readableId)).thenReturn(Optional.empty());
+
+    assertThrows(
+        NotebookNotFoundException.class, () -> notebookService.getNotebookMetadata(readableId));
+  }
+
+  @Test
+  void testListSessionNotebooks_ReturnsCursorWhenMoreRemain() {
+    JupyterNotebookEntity newest = createSampleNotebookEntity();
+    JupyterNotebookEntity older = createSampleNotebookEntity();
+    older.setId(UUID.randomUUID());
+    older.setCreatedAt(Timestamp.valueOf("2025-01-01 10:00:00.5"));
+    JupyterNotebookEntity oldest = createSampleNotebookEntity();
+    oldest.setId(UUID.randomUUID());
+
+    when(notebookRepository.findSessionPage(sessionId, 3))
+        .thenReturn(List.of(summaryOf(newest), summaryOf(older), summaryOf(oldest)));
+
+    JupyterNotebookPage page = notebookService.listSessionNotebooks(sessionId, null, 2);
+
+    assertEquals(2, page.getNotebooks().size());
+    assertEquals(notebookId, page.getNotebooks().get(0).getId());
+    assertEquals(
+        new NotebookListCursor(older.getCreatedAt().toLocalDateTime(), older.getId()),
+        NotebookListCursor.decode(page.getNextCursor()));
+  }
+
+  @Test
+  void testListSessionNotebooks_SeeksPastCursor() {
+    NotebookListCursor cursor =
+        new NotebookListCursor(LocalDateTime.of(2025, 1, 1, 10, 0), UUID.randomUUID());
+
+    when(notebookRepository.findSessionPageAfter(sessionId, cursor.createdAt(), cursor.id(), 21))
+        .thenReturn(List.of(summaryOf(createSampleNotebookEntity())));
+
+    JupyterNotebookPage page = notebookService.listSessionNotebooks(sessionId, cursor.encode(), 20);
+
+    assertEquals(1, page.getNotebooks().size());
+    assertNull(page.getNextCursor());
+  }
+
+  @Test
+  void testListSessionNotebooks_InvalidLimit() {
+    assertThrows(
+        InvalidNotebookException.class,
+        () -> notebookService.listSessionNotebooks(sessionId, null, 0));
+    assertThrows(
+        InvalidNotebookException.class,
+        () -> notebookService.listSessionNotebooks(sessionId, null, 101));
+    verifyNoInteractions(notebookRepository);
+  }
+
+  @Test
+  void testGetNotebookCells_StreamsRequestedRange() throws Exception {
+    JupyterNotebookEntity notebookEntity = createSampleNotebookEntity();
+    notebookEntity.setCellCount(3);
+    String notebookJson = "{\"cells\":[{\"id\":\"a\"},{\"id\":\"b\"},{\"id\":\"c\"}]}";
+    when(notebookRepository.findById(notebookId)).thenReturn(Optional.of(notebookEntity));
+    when(storageService.openNotebook("storage-url"))
+        .thenReturn(new ByteArrayInputStream(notebookJson.getBytes(StandardCharsets.UTF_8)));
+
+    JupyterNotebookCells result = notebookService.getNotebookCells(notebookId, 1, 2);
+
+    assertEquals(1, result.getStart());
+    assertEquals(3, result.getCellCount());
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    result.getCells().writeTo(out);
+    assertEquals("[{\"id\":\"b\"},{\"id\":\"c\"}]", out.toString(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void testGetNotebookCells_InvalidRange() {
+    assertThrows(
+        InvalidNotebookException.class, () -> notebookService.getNotebookCells(notebookId, -1, 5));
+    assertThrows(
+        InvalidNotebookException.class, () -> notebookService.getNotebookCells(notebookId, 0, 101));
+    verifyNoInteractions(notebookRepository, storageService);
+  }
+
   @Test
   void testGetNotebookContent_ByReadableId_Success() {
     JupyterNotebookEntity notebookEntity = createSampleNotebookEntity();
     String notebookJson = "{\"nbformat\":4,\"nbformat_minor\":2,\"metadata\":{},\"cells\":[]}";
 
-    when(notebookRepository.findByReadableId(readableId)).thenReturn(Optional.of(notebookEntity));
+    when(notebookRepository.findLocationByReadableId(readableId))
+        .thenReturn(Optional.of(locationOf(notebookEntity)));
     when(storageService.downloadNotebookAsJson(notebookEntity.getStorageUrl()))
         .thenReturn(notebookJson);
 
@@ -177,7 +365,7 @@ class JupyterNotebookServiceTest {
 
   @Test
   void testGetNotebookContent_ByReadableId_NotFound() {
-    when(notebookRepository.findByReadableId(readableId)).thenReturn(Optional.empty());
+    when(notebookRepository.findLocationByReadableId(readableId)).thenReturn(Optional.empty());
 
     NotebookNotFoundException exception =
         assertThrows(
@@ -195,7 +383,7 @@ class JupyterNotebookServiceTest {
     notebookRequest.setNotebook(createSampleNotebookDTO());
     notebookRequest.setPassword("password");
 
-    when(jupyterNotebookValidator.validateNotebook(anyString())).thenReturn(true);
+    when(jupyterNotebookValidator.validate(anyString())).thenReturn(NotebookValidationResult.VALID);
     when(storageService.uploadNotebook(anyString(), anyString())).thenReturn("storage-url");
     when(notebookRepository.saveAndFlush(any(JupyterNotebookEntity.class)))
         .thenAnswer(
@@ -215,6 +403,86 @@ class JupyterNotebookServiceTest {
     assertEquals(notebookId, result.getId());
     assertEquals(domain, result.getDomain());
     assertNotNull(result.getReadableId());
+    assertEquals(1, meterRegistry.get("notebook.size.check").timer().count());
+    assertEquals(1, meterRegistry.get("notebook.db.insert").timer().count());
+    assertEquals(1, meterRegistry.get("notebook.readable.id.assignment").timer().count());
+  }
+
+  @Test
+  void testUploadNotebook_RecordsContentStats() throws Exception {
+    JupyterNotebookRequest notebookRequest = new JupyterNotebookRequest();
+    notebookRequest.setNotebook(createSampleNotebookDTO());
+    String notebookJson =
+        "{\"cells\":[{\"cell_type\":\"code\"},{\"cell_type\":\"markdown\"}],\"metadata\":{}}";
+
+    when(jupyterNotebookValidator.validate(anyString())).thenReturn(NotebookValidationResult.VALID);
+    when(storageService.uploadNotebook(anyString(), anyString())).thenReturn("storage-url");
+    when(notebookRepository.saveAndFlush(any(JupyterNotebookEntity.class)))
+        .thenAnswer(
+            invocation -> {
+              JupyterNotebookEntity entity = invocation.getArgument(0);
+              entity.setId(notebookId);
+              return entity;
+            });
+
+    notebookService.uploadNotebook(notebookRequest, sessionId, domain, notebookJson);
+
+    ArgumentCaptor<JupyterNotebookEntity> saved =
+        ArgumentCaptor.forClass(JupyterNotebookEntity.class);
+    verify(notebookRepository).save(saved.capture());
+    assertEquals(notebookJson.length(), saved.getValue().getSizeBytes());
+    assertEquals(2, saved.getValue().getCellCount());
+    assertEquals(64, saved.getValue().getContentDigest().length());
+  }
+
+  @Test
+  void testUploadNotebook_RequestedTtl() throws Exception {
+    ReflectionTestUtils.setField(notebookService, "defaultTtlSeconds", 86400L);
+    JupyterNotebookRequest notebookRequest = new JupyterNotebookRequest();
+    notebookRequest.setNotebook(createSampleNotebookDTO());
+    notebookRequest.setTtlSeconds(3600L);
+
+    when(jupyterNotebookValidator.validate(anyString())).thenReturn(NotebookValidationResult.VALID);
+    when(storageService.uploadNotebook(anyString(), anyString())).thenReturn("storage-url");
+    when(notebookRepository.saveAndFlush(any(JupyterNotebookEntity.class)))
+        .thenAnswer(
+            invocation -> {
+              JupyterNotebookEntity entity = invocation.getArgument(0);
+              entity.setId(notebookId);
+              return entity;
+            });
+
+    notebookService.uploadNotebook(notebookRequest, sessionId, domain, SAMPLE_NOTEBOOK_JSON);
+
+    ArgumentCaptor<JupyterNotebookEntity> saved =
+        ArgumentCaptor.forClass(JupyterNotebookEntity.class);
+    verify(notebookRepository).save(saved.capture());
+    JupyterNotebookEntity notebook = saved.getValue();
+    assertEquals(
+        notebook.getCreatedAt().getTime() + 3600_000L, notebook.getExpiresAt().getTime());
+  }
+
+  @Test
+  void testNewNotebookEntity_DefaultTtl() {
+    MetadataDTO metadata = createSampleNotebookDTO().getMetadata();
+    assertNull(notebookService.newNotebookEntity(sessionId, metadata, domain, null).getExpiresAt());
+
+    ReflectionTestUtils.setField(notebookService, "defaultTtlSeconds", 60L);
+    JupyterNotebookEntity notebook =
+        notebookService.newNotebookEntity(sessionId, metadata, domain, null);
+
+    assertEquals(notebook.getCreatedAt().getTime() + 60_000L, notebook.getExpiresAt().getTime());
+  }
+
+  @Test
+  void testApplyTtl_OutOfRange() {
+    ReflectionTestUtils.setField(notebookService, "maxTtlSeconds", 3600L);
+    JupyterNotebookEntity notebook = createSampleNotebookEntity();
+    notebook.setCreatedAt(new Timestamp(System.currentTimeMillis()));
+
+    assertThrows(InvalidNotebookException.class, () -> notebookService.applyTtl(notebook, 0L));
+    assertThrows(InvalidNotebookException.class, () -> notebookService.applyTtl(notebook, 3601L));
+    assertNull(notebook.getExpiresAt());
   }
 
   @Test
@@ -222,7 +490,8 @@ class JupyterNotebookServiceTest {
     JupyterNotebookRequest notebookRequest = new JupyterNotebookRequest();
     notebookRequest.setNotebook(createSampleNotebookDTO());
 
-    when(jupyterNotebookValidator.validateNotebook(anyString())).thenReturn(false);
+    when(jupyterNotebookValidator.validate(anyString()))
+        .thenReturn(NotebookValidationResult.invalid());
 
     InvalidNotebookException exception =
         assertThrows(
@@ -235,13 +504,36 @@ class JupyterNotebookServiceTest {
     assertEquals("Notebook validation failed", exception.getMessage());
   }
 
+  @Test
+  void testUploadNotebook_InvalidNotebookCarriesValidationErrors() {
+    JupyterNotebookRequest notebookRequest = new JupyterNotebookRequest();
+    notebookRequest.setNotebook(createSampleNotebookDTO());
+    List<NotebookValidationError> errors =
+        List.of(
+            new NotebookValidationError(
+                "$.cells[0]", "required", "required property 'source' not found"));
+
+    when(jupyterNotebookValidator.validate(anyString()))
+        .thenReturn(NotebookValidationResult.invalid(errors, true));
+
+    InvalidNotebookException exception =
+        assertThrows(
+            InvalidNotebookException.class,
+            () ->
+                notebookService.uploadNotebook(
+                    notebookRequest, sessionId, domain, SAMPLE_NOTEBOOK_JSON));
+
+    assertEquals(errors, exception.getValidationErrors());
+    assertTrue(exception.isValidationErrorsTruncated());
+  }
+
   @Test
   void testUpdateNotebook_ByUUID_Success() throws Exception {
     JupyterNotebookDTO notebookDto = createSampleNotebookDTO();
     JupyterNotebookEntity notebookEntity = createSampleNotebookEntity();
 
     when(notebookRepository.findById(notebookId)).thenReturn(Optional.of(notebookEntity));
-    when(jupyterNotebookValidator.validateNotebook(anyString())).thenReturn(true);
+    when(jupyterNotebookValidator.validate(anyString())).thenReturn(NotebookValidationResult.VALID);
     when(storageService.uploadNotebook(anyString(), anyString())).thenReturn("storage-url");
 
     JupyterNotebookSaved result =
@@ -269,7 +561,7 @@ class JupyterNotebookServiceTest {
 
     when(notebookRepository.findById(notebookId)).thenReturn(Optional.of(notebookEntity));
     when(jwtTokenService.extractNotebookIdFromToken(token)).thenReturn(notebookId.toString());
-    when(jupyterNotebookValidator.validateNotebook(anyString())).thenReturn(true);
+    when(jupyterNotebookValidator.validate(anyString())).thenReturn(NotebookValidationResult.VALID);
     when(storageService.uploadNotebook(anyString(), anyString())).thenReturn("storage-url");
 
     JupyterNotebookSaved result =
@@ -336,7 +628,7 @@ class JupyterNotebookServiceTest {
     when(notebookRepository.findById(notebookEntity.getId()))
         .thenReturn(Optional.of(notebookEntity));
 
-    when(jupyterNotebookValidator.validateNotebook(anyString())).thenReturn(true);
+    when(jupyterNotebookValidator.validate(anyString())).thenReturn(NotebookValidationResult.VALID);
     when(storageService.uploadNotebook(anyString(), anyString())).thenReturn("storage-url");
 
     JupyterNotebookSaved result =
@@ -373,14 +665,15 @@ class JupyterNotebookServiceTest {
     notebookDto.setMetadata(new MetadataDTO()); // DTO has metadata but JSON doesn't
 
     // Mock validator to reject the invalid JSON
-    when(jupyterNotebookValidator.validateNotebook(anyString())).thenReturn(false);
+    when(jupyterNotebookValidator.validate(anyString()))
+        .thenReturn(NotebookValidationResult.invalid());
 
     InvalidNotebookException exception =
         assertThrows(
             InvalidNotebookException.class,
             () -> {
               notebookService.validateAndStoreNotebook(
-                  notebookDto, sessionId, domain, "password", invalidNotebookJson);
+                  notebookDto, sessionId, domain, "password", null, invalidNotebookJson);
             });
 
     assertEquals("Notebook validation failed", exception.getMessage());
@@ -434,7 +727,7 @@ class JupyterNotebookServiceTest {
     notebookRequest.setNotebook(notebookDto);
     notebookRequest.setPassword("password");
 
-    when(jupyterNotebookValidator.validateNotebook(anyString())).thenReturn(true);
+    when(jupyterNotebookValidator.validate(anyString())).thenReturn(NotebookValidationResult.VALID);
     when(storageService.uploadNotebook(anyString(), anyString())).thenReturn("storage-url");
     when(passwordEncoder.encode(anyString())).thenReturn("encoded-password");
     when(notebookRepository.saveAndFlush(any(JupyterNotebookEntity.class)))
@@ -471,7 +764,7 @@ class JupyterNotebookServiceTest {
     existingEntity.setStorageUrl("existing-storage-url");
 
     when(notebookRepository.findById(notebookId)).thenReturn(Optional.of(existingEntity));
-    when(jupyterNotebookValidator.validateNotebook(anyString())).thenReturn(true);
+    when(jupyterNotebookValidator.validate(anyString())).thenReturn(NotebookValidationResult.VALID);
     when(storageService.uploadNotebook(anyString(), anyString())).thenReturn("updated-storage-url");
     when(notebookRepository.save(any(JupyterNotebookEntity.class))).thenReturn(existingEntity);
 
@@ -483,6 +776,516 @@ class JupyterNotebookServiceTest {
     assertEquals(domain, result.getDomain());
   }
 
+  @Test
+  void testUpdateNotebook_PersistsStorageUrlReturnedByBackend() throws Exception {
+    JupyterNotebookDTO notebookDto = createSampleNotebookDTO();
+
+    JupyterNotebookEntity existingEntity = createSampleNotebookEntity();
+    existingEntity.setStorageUrl("/storage/" + notebookId + ".ipynb");
+
+    when(notebookRepository.findById(notebookId)).thenReturn(Optional.of(existingEntity));
+    when(jupyterNotebookValidator.validate(anyString())).thenReturn(NotebookValidationResult.VALID);
+    when(storageService.uploadNotebook(anyString(), anyString()))
+        .thenReturn("/storage/ab/cd/" + notebookId + ".ipynb");
+    when(notebookRepository.save(any(JupyterNotebookEntity.class))).thenReturn(existingEntity);
+
+    notebookService.updateNotebook(notebookId, notebookDto, sessionId, token, SAMPLE_NOTEBOOK_JSON);
+
+    assertEquals("/storage/ab/cd/" + notebookId + ".ipynb", existingEntity.getStorageUrl());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void testUpdateNotebook_RecordsRevisionOfPreviousAndNewContent() throws Exception {
+    JupyterNotebookDTO notebookDto = createSampleNotebookDTO();
+    JupyterNotebookEntity existingEntity = createSampleNotebookEntity();
+    String previousJson =
+        "{\"nbformat\":4,\"nbformat_minor\":5,\"metadata\":{\"v\":1},\"cells\":[]}";
+
+    when(notebookRepository.findById(notebookId)).thenReturn(Optional.of(existingEntity));
+    when(jupyterNotebookValidator.validate(anyString())).thenReturn(NotebookValidationResult.VALID);
+    when(notebookRevisionService.isEnabled()).thenReturn(true);
+    when(storageService.uploadNotebook(anyString(), anyString())).thenReturn("storage-url");
+
+    notebookService.updateNotebook(notebookId, notebookDto, sessionId, token, SAMPLE_NOTEBOOK_JSON);
+
+    ArgumentCaptor<Supplier<String>> currentContent = ArgumentCaptor.forClass(Supplier.class);
+    verify(notebookRevisionService)
+        .recordRevision(
+            eq(existingEntity), eq(sessionId), currentContent.capture(), eq(SAMPLE_NOTEBOOK_JSON));
+    // Storage is only read if the revision service asks for the current content
+    verify(storageService, never()).downloadNotebookAsJson(anyString());
+
+    when(storageService.downloadNotebookAsJson("storage-url")).thenReturn(previousJson);
+    assertEquals(previousJson, currentContent.getValue().get());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void testUpdateNotebook_UnreadablePreviousContentStillRecordsRevision() throws Exception {
+    JupyterNotebookDTO notebookDto = createSampleNotebookDTO();
+    JupyterNotebookEntity existingEntity = createSampleNotebookEntity();
+
+    when(notebookRepository.findById(notebookId)).thenReturn(Optional.of(existingEntity));
+    when(jupyterNotebookValidator.validate(anyString())).thenReturn(NotebookValidationResult.VALID);
+    when(notebookRevisionService.isEnabled()).thenReturn(true);
+    when(storageService.uploadNotebook(anyString(), anyString())).thenReturn("storage-url");
+
+    notebookService.updateNotebook(notebookId, notebookDto, sessionId, token, SAMPLE_NOTEBOOK_JSON);
+
+    ArgumentCaptor<Supplier<String>> currentContent = ArgumentCaptor.forClass(Supplier.class);
+    verify(notebookRevisionService)
+        .recordRevision(
+            eq(existingEntity), eq(sessionId), currentContent.capture(), eq(SAMPLE_NOTEBOOK_JSON));
+
+    when(storageService.downloadNotebookAsJson("storage-url"))
+        .thenThrow(new NotebookStorageException("unavailable"));
+    assertNull(currentContent.getValue().get());
+  }
+
+  @Test
+  void testUpdateNotebook_RevisionsDisabled_DoesNotReadPreviousContent() throws Exception {
+    JupyterNotebookDTO notebookDto = createSampleNotebookDTO();
+    JupyterNotebookEntity existingEntity = createSampleNotebookEntity();
+
+    when(notebookRepository.findById(notebookId)).thenReturn(Optional.of(existingEntity));
+    when(jupyterNotebookValidator.validate(anyString())).thenReturn(NotebookValidationResult.VALID);
+    when(storageService.uploadNotebook(anyString(), anyString())).thenReturn("storage-url");
+
+    notebookService.updateNotebook(notebookId, notebookDto, sessionId, token, SAMPLE_NOTEBOOK_JSON);
+
+    verify(storageService, never()).downloadNotebookAsJson(anyString());
+    verify(notebookRevisionService, never()).recordRevision(any(), any(), any(), anyString());
+  }
+
+  @Test
+  void testUpdateNotebook_IfMatchClaimsNextVersionUnderLock() throws Exception {
+    JupyterNotebookDTO notebookDto = createSampleNotebookDTO();
+    JupyterNotebookEntity existingEntity = createSampleNotebookEntity();
+    existingEntity.setVersion(3L);
+
+    when(notebookRepository.findById(notebookId)).thenReturn(Optional.of(existingEntity));
+    when(jupyterNotebookValidator.validate(anyString())).thenReturn(NotebookValidationResult.VALID);
+    when(notebookRepository.incrementVersionIfMatches(notebookId, 3L)).thenReturn(Optional.of(4L));
+    when(storageService.uploadNotebook(anyString(), anyString())).thenReturn("storage-url");
+
+    JupyterNotebookSaved result =
+        notebookService.updateNotebook(
+            notebookId, notebookDto, sessionId, token, SAMPLE_NOTEBOOK_JSON, 3L);
+
+    assertEquals(4L, result.getVersion());
+    assertEquals(4L, existingEntity.getVersion());
+    verify(notebookUpdateLocks).acquire(notebookId);
+    verify(notebookRepository, never()).incrementVersion(any());
+  }
+
+  @Test
+  void testUpdateNotebook_WithoutIfMatchSetsClaimedVersionOnLoadedEntity() throws Exception {
+    JupyterNotebookDTO notebookDto = createSampleNotebookDTO();
+    JupyterNotebookEntity existingEntity = createSampleNotebookEntity();
+    existingEntity.setVersion(3L);
+
+    when(notebookRepository.findById(notebookId)).thenReturn(Optional.of(existingEntity));
+    when(jupyterNotebookValidator.validate(anyString())).thenReturn(NotebookValidationResult.VALID);
+    when(notebookRepository.incrementVersion(notebookId)).thenReturn(Optional.of(4L));
+    when(storageService.uploadNotebook(anyString(), anyString())).thenReturn("storage-url");
+
+    notebookService.updateNotebook(notebookId, notebookDto, sessionId, token, SAMPLE_NOTEBOOK_JSON);
+
+    // The version query bypasses the persistence context, so the entity is updated by hand
+    assertEquals(4L, existingEntity.getVersion());
+    verify(entityManager, never()).refresh(any());
+  }
+
+  @Test
+  void testUpdateNotebook_StaleIfMatchRejectedBeforeValidation() {
+    JupyterNotebookDTO notebookDto = createSampleNotebookDTO();
+    JupyterNotebookEntity existingEntity = createSampleNotebookEntity();
+    existingEntity.setVersion(5L);
+
+    when(notebookRepository.findById(notebookId)).thenReturn(Optional.of(existingEntity));
+
+    assertThrows(
+        NotebookVersionConflictException.class,
+        () ->
+            notebookService.updateNotebook(
+                notebookId, notebookDto, sessionId, token, SAMPLE_NOTEBOOK_JSON, 3L));
+    verifyNoInteractions(jupyterNotebookValidator, storageService, notebookUpdateLocks);
+  }
+
+  @Test
+  void testUpdateNotebook_ConcurrentUpdateWinsVersionClaim() {
+    JupyterNotebookDTO notebookDto = createSampleNotebookDTO();
+    JupyterNotebookEntity existingEntity = createSampleNotebookEntity();
+    existingEntity.setVersion(3L);
+
+    when(notebookRepository.findById(notebookId)).thenReturn(Optional.of(existingEntity));
+    when(jupyterNotebookValidator.validate(anyString())).thenReturn(NotebookValidationResult.VALID);
+    when(notebookRepository.incrementVersionIfMatches(eq(notebookId), eq(3L)))
+        .thenReturn(Optional.empty());
+
+    assertThrows(
+        NotebookVersionConflictException.class,
+        () ->
+            notebookService.updateNotebook(
+                notebookId, notebookDto, sessionId, token, SAMPLE_NOTEBOOK_JSON, 3L));
+    verify(storageService, never()).uploadNotebook(anyString(), anyString());
+  }
+
+  @Test
+  void testUpdateNotebook_WithoutIfMatchRefreshesWhenUpdatedElsewhere() throws Exception {
+    JupyterNotebookDTO notebookDto = createSampleNotebookDTO();
+    JupyterNotebookEntity existingEntity = createSampleNotebookEntity();
+
+    when(notebookRepository.findById(notebookId)).thenReturn(Optional.of(existingEntity));
+    when(jupyterNotebookValidator.validate(anyString())).thenReturn(NotebookValidationResult.VALID);
+    when(notebookRepository.incrementVersion(notebookId)).thenReturn(Optional.of(9L));
+    when(storageService.uploadNotebook(anyString(), anyString())).thenReturn("storage-url");
+
+    JupyterNotebookSaved result =
+        notebookService.updateNotebook(
+            notebookId, notebookDto, sessionId, token, SAMPLE_NOTEBOOK_JSON);
+
+    assertEquals(9L, result.getVersion());
+    verify(entityManager).refresh(existingEntity);
+  }
+
+  @Test
+  void testReserveNotebook_SavesMetadataWithoutValidatingOrStoring() {
+    JupyterNotebookRequest request = new JupyterNotebookRequest();
+    request.setNotebook(createSampleNotebookDTO());
+    JupyterNotebookEntity reserved = createSampleNotebookEntity();
+    reserved.setStorageUrl("");
+
+    when(notebookRepository.saveAndFlush(any(JupyterNotebookEntity.class))).thenReturn(reserved);
+
+    JupyterNotebookEntity result =
+        notebookService.reserveNotebook(request, sessionId, domain, SAMPLE_NOTEBOOK_JSON);
+
+    assertEquals(readableId, result.getReadableId());
+    verifyNoInteractions(jupyterNotebookValidator, storageService);
+  }
+
+  @Test
+  void testCompleteStagedUpload_ValidatesAndStores() {
+    JupyterNotebookEntity reserved = createSampleNotebookEntity();
+    reserved.setStorageUrl("");
+
+    when(notebookRepository.findNotebookById(notebookId)).thenReturn(Optional.of(reserved));
+    when(jupyterNotebookValidator.validate(SAMPLE_NOTEBOOK_JSON))
+        .thenReturn(NotebookValidationResult.VALID);
+    when(storageService.uploadNotebook(SAMPLE_NOTEBOOK_JSON, notebookId + ".ipynb"))
+        .thenReturn("storage-url");
+
+    notebookService.completeStagedUpload(notebookId, SAMPLE_NOTEBOOK_JSON);
+
+    assertEquals("storage-url", reserved.getStorageUrl());
+    verify(notebookRepository).save(reserved);
+  }
+
+  @Test
+  void testDiscardStagedUpload_KeepsStoredNotebook() {
+    JupyterNotebookEntity stored = createSampleNotebookEntity();
+
+    when(notebookRepository.findById(notebookId)).thenReturn(Optional.of(stored));
+
+    notebookService.discardStagedUpload(notebookId);
+
+    verify(notebookRepository, never()).delete(any());
+  }
+
+  @Test
+  void testGetNotebookContent_PendingUploadNotFound() {
+    JupyterNotebookEntity reserved = createSampleNotebookEntity();
+    reserved.setStorageUrl("");
+
+    when(notebookRepository.findLocationById(notebookId))
+        .thenReturn(Optional.of(locationOf(reserved)));
+
+    assertThrows(
+        NotebookNotFoundException.class, () -> notebookService.getNotebookContent(notebookId));
+    verifyNoInteractions(storageService);
+  }
+
+  @Test
+  void testPrepareBatch_ResolvesIdsAndReadableIdsInOneQuery() {
+    JupyterNotebookEntity byId = createSampleNotebookEntity();
+    JupyterNotebookEntity byReadableId = createSampleNotebookEntity();
+    byReadableId.setId(UUID.randomUUID());
+    byReadableId.setReadableId("brave-bold-bear");
+    UUID missingId = UUID.randomUUID();
+
+    when(notebookRepository.findLocationsByIdInOrReadableIdIn(any(), any()))
+        .thenReturn(List.of(locationOf(byId), locationOf(byReadableId)));
+
+    JupyterNotebookService.NotebookBatch batch =
+        notebookService.prepareBatch(
+            List.of(notebookId, missingId, notebookId),
+            List.of("brave-bold-bear", "missing-readable-id"));
+
+    assertEquals(
+        List.of(notebookId, byReadableId.getId()),
+        batch.notebooks().stream().map(NotebookLocation::getId).toList());
+    assertEquals(
+        List.of(
+            JupyterNotebookBatchItem.notFound(missingId, null),
+            JupyterNotebookBatchItem.notFound(null, "missing-readable-id")),
+        batch.missing());
+  }
+
+  @Test
+  void testPrepareBatch_TooManyNotebooks() {
+    ReflectionTestUtils.setField(notebookService, "maxBatchSize", 1);
+    List<UUID> ids = List.of(UUID.randomUUID(), UUID.randomUUID());
+
+    assertThrows(InvalidNotebookException.class, () -> notebookService.prepareBatch(ids, null));
+    verifyNoInteractions(notebookRepository);
+  }
+
+  @Test
+  void testStreamBatch_WritesEveryNotebookAndReportsStorageErrors() throws Exception {
+    ReflectionTestUtils.setField(notebookService, "batchFetchConcurrency", 2);
+    JupyterNotebookEntity readable = createSampleNotebookEntity();
+    JupyterNotebookEntity unreadable = createSampleNotebookEntity();
+    unreadable.setId(UUID.randomUUID());
+    unreadable.setStorageUrl("broken-url");
+    JupyterNotebookBatchItem missing = JupyterNotebookBatchItem.notFound(UUID.randomUUID(), null);
+
+    when(storageService.downloadNotebookAsJson("storage-url")).thenReturn(SAMPLE_NOTEBOOK_JSON);
+    when(storageService.downloadNotebookAsJson("broken-url"))
+        .thenThrow(new RuntimeException("unavailable"));
+
+    List<JupyterNotebookBatchItem> written = new ArrayList<>();
+    notebookService.streamBatch(
+        new JupyterNotebookService.NotebookBatch(
+            List.of(locationOf(readable), locationOf(unreadable)), List.of(missing)),
+        written::add);
+
+    assertEquals(3, written.size());
+    assertEquals(missing, written.get(0));
+    JupyterNotebookBatchItem readableItem =
+        written.stream().filter(item -> notebookId.equals(item.getId())).findFirst().orElseThrow();
+    assertEquals(SAMPLE_NOTEBOOK_JSON, readableItem.getNotebookContent());
+    JupyterNotebookBatchItem unreadableItem =
+        written.stream()
+            .filter(item -> unreadable.getId().equals(item.getId()))
+            .findFirst()
+            .orElseThrow();
+    assertEquals(JupyterNotebookBatchItem.STORAGE_ERROR, unreadableItem.getError());
+  }
+
+  @Test
+  void testStreamBatch_HoldsAtMostFetchConcurrencyUnwrittenNotebooks() throws Exception {
+    ReflectionTestUtils.setField(notebookService, "batchFetchConcurrency", 1);
+    List<NotebookLocation> locations = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      JupyterNotebookEntity notebookEntity = createSampleNotebookEntity();
+      notebookEntity.setId(UUID.randomUUID());
+      locations.add(locationOf(notebookEntity));
+    }
+    AtomicInteger reads = new AtomicInteger();
+    when(storageService.downloadNotebookAsJson("storage-url"))
+        .thenAnswer(
+            invocation -> {
+              reads.incrementAndGet();
+              return SAMPLE_NOTEBOOK_JSON;
+            });
+
+    List<Integer> readsWhenWritten = new ArrayList<>();
+    notebookService.streamBatch(
+        new JupyterNotebookService.NotebookBatch(locations, List.of()),
+        item -> readsWhenWritten.add(reads.get()));
+
+    // The next read only starts once the previous notebook has been written
+    assertEquals(List.of(1, 2, 3), readsWhenWritten);
+  }
+
+  @Test
+  void testListNotebookRevisions_Success() {
+    JupyterNotebookEntity notebookEntity = createSampleNotebookEntity();
+    Timestamp createdAt = Timestamp.valueOf("2024-01-01 10:00:00");
+    NotebookRevisionSummary summary =
+        new NotebookRevisionSummary() {
+          @Override
+          public int getRevisionNumber() {
+            return 2;
+          }
+
+          @Override
+          public long getContentSizeBytes() {
+            return 42L;
+          }
+
+          @Override
+          public Timestamp getCreatedAt() {
+            return createdAt;
+          }
+        };
+
+    when(notebookRepository.findNotebookById(notebookId)).thenReturn(Optional.of(notebookEntity));
+    when(notebookRevisionService.listRevisions(notebookId)).thenReturn(List.of(summary));
+
+    JupyterNotebookRevisions result = notebookService.listNotebookRevisions(notebookId);
+
+    assertEquals(notebookId, result.getId());
+    assertEquals(1, result.getRevisions().size());
+    assertEquals(2, result.getRevisions().get(0).getRevision());
+    assertEquals(42L, result.getRevisions().get(0).getSizeBytes());
+    assertEquals(createdAt, result.getRevisions().get(0).getCreatedAt());
+  }
+
+  @Test
+  void testGetNotebookRevision_Success() {
+    JupyterNotebookEntity notebookEntity = createSampleNotebookEntity();
+
+    when(notebookRepository.findNotebookById(notebookId)).thenReturn(Optional.of(notebookEntity));
+    when(notebookRevisionService.getRevisionContent(notebookId, 3))
+        .thenReturn(SAMPLE_NOTEBOOK_JSON);
+
+    JupyterNotebookRevisionRetrieved result = notebookService.getNotebookRevision(notebookId, 3);
+
+    assertEquals(notebookId, result.getId());
+    assertEquals(readableId, result.getReadableId());
+    assertEquals(3, result.getRevision());
+    assertEquals(SAMPLE_NOTEBOOK_JSON, result.getNotebookContent());
+  }
+
+  @Test
+  void testGetNotebookRevision_NotebookNotFound() {
+    when(notebookRepository.findNotebookById(notebookId)).thenReturn(Optional.empty());
+
+    assertThrows(
+        NotebookNotFoundException.class, () -> notebookService.getNotebookRevision(notebookId, 1));
+    verifyNoInteractions(notebookRevisionService);
+  }
+
+  private static final String STORED_NOTEBOOK_JSON =
+      "{\"nbformat\":4,\"nbformat_minor\":5,\"metadata\":{},\"cells\":["
+          + "{\"cell_type\":\"markdown\",\"id\":\"a\",\"metadata\":{},\"source\":\"one\"},"
+          + "{\"cell_type\":\"markdown\",\"id\":\"b\",\"metadata\":{},\"source\":\"two\"}]}";
+
+  private void mockStoredNotebookForPatch(JupyterNotebookEntity entity) {
+    when(notebookRepository.findById(notebookId)).thenReturn(Optional.of(entity));
+    when(storageService.downloadNotebookAsJson("storage-url")).thenReturn(STORED_NOTEBOOK_JSON);
+  }
+
+  @Test
+  void testPatchNotebook_CellEditValidatesOnlyThatCell() throws Exception {
+    JupyterNotebookEntity entity = createSampleNotebookEntity();
+    mockStoredNotebookForPatch(entity);
+    when(jupyterNotebookValidator.validate(any(), any()))
+        .thenReturn(NotebookValidationResult.VALID);
+    when(storageService.uploadNotebook(anyString(), anyString())).thenReturn("storage-url");
+
+    JupyterNotebookSaved result =
+        notebookService.patchNotebook(
+            notebookId,
+            objectMapper.readTree(
+                "[{\"op\":\"replace\",\"path\":\"/cells/1/source\",\"value\":\"edited\"}]"),
+            sessionId,
+            token,
+            null);
+
+    assertEquals(notebookId, result.getId());
+    ArgumentCaptor<List<JsonNode>> cells = ArgumentCaptor.forClass(List.class);
+    verify(jupyterNotebookValidator).validate(any(), cells.capture());
+    assertEquals(1, cells.getValue().size());
+    assertEquals("b", cells.getValue().get(0).get("id").asText());
+    verify(jupyterNotebookValidator, never()).validate(anyString());
+
+    ArgumentCaptor<String> stored = ArgumentCaptor.forClass(String.class);
+    verify(storageService).uploadNotebook(stored.capture(), anyString());
+    JsonNode storedNotebook = objectMapper.readTree(stored.getValue());
+    assertEquals("one", storedNotebook.at("/cells/0/source").asText());
+    assertEquals("edited", storedNotebook.at("/cells/1/source").asText());
+  }
+
+  @Test
+  void testPatchNotebook_RemovedCellsAreNotValidated() throws Exception {
+    JupyterNotebookEntity entity = createSampleNotebookEntity();
+    mockStoredNotebookForPatch(entity);
+    when(jupyterNotebookValidator.validate(any(), any()))
+        .thenReturn(NotebookValidationResult.VALID);
+    when(storageService.uploadNotebook(anyString(), anyString())).thenReturn("storage-url");
+
+    notebookService.patchNotebook(
+        notebookId,
+        objectMapper.readTree(
+            "[{\"op\":\"replace\",\"path\":\"/cells/0/source\",\"value\":\"x\"},"
+                + "{\"op\":\"remove\",\"path\":\"/cells/0\"}]"),
+        sessionId,
+        token,
+        null);
+
+    ArgumentCaptor<List<JsonNode>> cells = ArgumentCaptor.forClass(List.class);
+    verify(jupyterNotebookValidator).validate(any(), cells.capture());
+    assertEquals(0, cells.getValue().size());
+  }
+
+  @Test
+  void testPatchNotebook_MetadataEditValidatesWholeNotebook() throws Exception {
+    JupyterNotebookEntity entity = createSampleNotebookEntity();
+    mockStoredNotebookForPatch(entity);
+    when(jupyterNotebookValidator.validate(anyString())).thenReturn(NotebookValidationResult.VALID);
+    when(storageService.uploadNotebook(anyString(), anyString())).thenReturn("storage-url");
+
+    notebookService.patchNotebook(
+        notebookId,
+        objectMapper.readTree(
+            "[{\"op\":\"add\",\"path\":\"/metadata/kernelspec\","
+                + "\"value\":{\"name\":\"ir\",\"display_name\":\"R\"}}]"),
+        sessionId,
+        token,
+        null);
+
+    verify(jupyterNotebookValidator).validate(anyString());
+    verify(jupyterNotebookValidator, never()).validate(any(), any());
+    assertEquals("ir", entity.getKernelName());
+    verify(notebookRepository).save(entity);
+  }
+
+  @Test
+  void testPatchNotebook_InvalidCellRejected() throws Exception {
+    JupyterNotebookEntity entity = createSampleNotebookEntity();
+    mockStoredNotebookForPatch(entity);
+    when(jupyterNotebookValidator.validate(any(), any()))
+        .thenReturn(NotebookValidationResult.invalid());
+    JsonNode patch =
+        objectMapper.readTree("[{\"op\":\"remove\",\"path\":\"/cells/0/source\"}]");
+
+    assertThrows(
+        InvalidNotebookException.class,
+        () -> notebookService.patchNotebook(notebookId, patch, sessionId, token, null));
+    verify(storageService, never()).uploadNotebook(anyString(), anyString());
+  }
+
+  @Test
+  void testPatchNotebook_UnapplicablePatchRejected() throws Exception {
+    JupyterNotebookEntity entity = createSampleNotebookEntity();
+    mockStoredNotebookForPatch(entity);
+    JsonNode patch =
+        objectMapper.readTree("[{\"op\":\"remove\",\"path\":\"/cells/7/source\"}]");
+
+    assertThrows(
+        InvalidNotebookPatchException.class,
+        () -> notebookService.patchNotebook(notebookId, patch, sessionId, token, null));
+    verify(storageService, never()).uploadNotebook(anyString(), anyString());
+  }
+
+  @Test
+  void testPatchNotebook_OtherSessionWithoutNotebookToken() throws Exception {
+    JupyterNotebookEntity entity = createSampleNotebookEntity();
+    when(notebookRepository.findById(notebookId)).thenReturn(Optional.of(entity));
+    when(jwtTokenService.extractNotebookIdFromToken(token)).thenReturn(null);
+    JsonNode patch = objectMapper.readTree("[]");
+    UUID otherSessionId = UUID.randomUUID();
+
+    assertThrows(
+        UnauthorizedNotebookAccessException.class,
+        () -> notebookService.patchNotebook(notebookId, patch, otherSessionId, token, null));
+    verifyNoInteractions(storageService);
+  }
+
   @Test
   void testUpdateNotebookByReadableId_ReadableIdRemainsUnchanged() throws Exception {
     // This test ensures that updating a notebook by readable ID doesn't change the readable ID
@@ -496,7 +1299,7 @@ class JupyterNotebookServiceTest {
     when(notebookRepository.findByReadableId("original-readable-id"))
         .thenReturn(Optional.of(existingEntity));
     when(notebookRepository.findById(notebookId)).thenReturn(Optional.of(existingEntity));
-    when(jupyterNotebookValidator.validateNotebook(anyString())).thenReturn(true);
+    when(jupyterNotebookValidator.validate(anyString())).thenReturn(NotebookValidationResult.VALID);
     when(storageService.uploadNotebook(anyString(), anyString())).thenReturn("updated-storage-url");
     when(notebookRepository.save(any(JupyterNotebookEntity.class))).thenReturn(existingEntity);
 
@@ -0,0 +1,214 @@
+package org.jupytereverywhere.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.jupytereverywhere.model.JupyterNotebookEntity;
+import org.jupytereverywhere.model.response.JupyterNotebookBulkUploadResult;
+import org.jupytereverywhere.repository.JupyterNotebookBulkRepository;
+import org.jupytereverywhere.service.utils.JupyterNotebookValidator;
+import org.jupytereverywhere.service.utils.NotebookValidationResult;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@ExtendWith(MockitoExtension.class)
+class NotebookBulkUploadServiceTest {
+
+  private static final String NOTEBOOK_JSON =
+      "{\"nbformat\":4,\"nbformat_minor\":5,\"metadata\":{},\"cells\":[]}";
+
+  @InjectMocks private NotebookBulkUploadService bulkUploadService;
+
+  @Mock private JupyterNotebookService notebookService;
+
+  @Mock private JupyterNotebookValidator jupyterNotebookValidator;
+
+  @Mock private JupyterNotebookBulkRepository bulkRepository;
+
+  @Mock private StorageService storageService;
+
+  @Spy private ObjectMapper objectMapper = new ObjectMapper();
+
+  private UUID sessionId;
+  private final String domain = "example.com";
+
+  @BeforeEach
+  void setUp() {
+    sessionId = UUID.randomUUID();
+    ReflectionTestUtils.setField(bulkUploadService, "maxNotebookSizeBytes", 10485760L);
+    ReflectionTestUtils.setField(bulkUploadService, "concurrency", 4);
+    ReflectionTestUtils.setField(bulkUploadService, "insertBatchSize", 100);
+    ReflectionTestUtils.setField(bulkUploadService, "maxItems", 1000);
+
+    lenient()
+        .when(jupyterNotebookValidator.validate(anyString()))
+        .thenReturn(NotebookValidationResult.VALID);
+    lenient()
+        .when(notebookService.newNotebookEntity(eq(sessionId), any(), eq(domain), any()))
+        .thenAnswer(
+            invocation -> {
+              JupyterNotebookEntity notebook = new JupyterNotebookEntity();
+              notebook.setSessionId(sessionId);
+              notebook.setDomain(domain);
+              return notebook;
+            });
+    lenient()
+        .doAnswer(
+            invocation -> {
+              JupyterNotebookEntity notebook = invocation.getArgument(0);
+              notebook.setStorageUrl("stored/" + notebook.getId() + ".ipynb");
+              return null;
+            })
+        .when(notebookService)
+        .storeContent(any(), anyString());
+    lenient()
+        .when(bulkRepository.insertAll(anyList()))
+        .thenAnswer(
+            invocation -> {
+              List<JupyterNotebookEntity> notebooks = invocation.getArgument(0);
+              Map<UUID, String> readableIds = new HashMap<>();
+              notebooks.forEach(n -> readableIds.put(n.getId(), "readable-" + n.getId()));
+              return readableIds;
+            });
+  }
+
+  private static NotebookBulkUploadService.BulkUploadSource sourceOf(String... documents) {
+    Iterator<String> remaining = List.of(documents).iterator();
+    return () -> remaining.hasNext() ? remaining.next() : null;
+  }
+
+  private List<JupyterNotebookBulkUploadResult> upload(
+      NotebookBulkUploadService.BulkUploadSource source) throws Exception {
+    List<JupyterNotebookBulkUploadResult> results = new ArrayList<>();
+    bulkUploadService.upload(sessionId, domain, source, results::add);
+    results.sort(Comparator.comparingInt(JupyterNotebookBulkUploadResult::getIndex));
+    return results;
+  }
+
+  @Test
+  void testUpload_SavesNotebooksAndInsertsMetadataInBatches() throws Exception {
+    ReflectionTestUtils.setField(bulkUploadService, "insertBatchSize", 2);
+
+    List<JupyterNotebookBulkUploadResult> results =
+        upload(sourceOf(NOTEBOOK_JSON, NOTEBOOK_JSON, NOTEBOOK_JSON));
+
+    assertEquals(3, results.size());
+    for (int i = 0; i < 3; i++) {
+      JupyterNotebookBulkUploadResult result = results.get(i);
+      assertEquals(i, result.getIndex());
+      assertNull(result.getError());
+      assertEquals(domain, result.getDomain());
+      assertEquals("readable-" + result.getId(), result.getReadableId());
+      verify(notebookService)
+          .storeContent(argThat(n -> result.getId().equals(n.getId())), eq(NOTEBOOK_JSON));
+    }
+    verify(bulkRepository, times(2)).insertAll(anyList());
+  }
+
+  @Test
+  void testUpload_AcceptsRequestWrapperWithPassword() throws Exception {
+    String wrapped = "{\"password\":\"secret\",\"notebook\":" + NOTEBOOK_JSON + "}";
+
+    List<JupyterNotebookBulkUploadResult> results = upload(sourceOf(wrapped));
+
+    assertNull(results.get(0).getError());
+    verify(notebookService).newNotebookEntity(eq(sessionId), any(), eq(domain), eq("secret"));
+    verify(notebookService).storeContent(any(), eq(NOTEBOOK_JSON));
+  }
+
+  @Test
+  void testUpload_RejectedDocumentsDoNotFailTheOthers() throws Exception {
+    String invalid = "{\"nbformat\":4,\"cells\":[]}";
+    when(jupyterNotebookValidator.validate(invalid)).thenReturn(NotebookValidationResult.invalid());
+
+    List<JupyterNotebookBulkUploadResult> results =
+        upload(sourceOf("{not json", invalid, NOTEBOOK_JSON));
+
+    assertEquals(JupyterNotebookBulkUploadResult.INVALID_NOTEBOOK, results.get(0).getError());
+    assertEquals("Malformed JSON", results.get(0).getMessage());
+    assertEquals(JupyterNotebookBulkUploadResult.INVALID_NOTEBOOK, results.get(1).getError());
+    assertNull(results.get(2).getError());
+    verify(notebookService, times(1)).storeContent(any(), anyString());
+  }
+
+  @Test
+  void testUpload_StorageFailureIsReportedPerNotebook() throws Exception {
+    doThrow(new RuntimeException("bucket unavailable"))
+        .when(notebookService)
+        .storeContent(any(), anyString());
+
+    List<JupyterNotebookBulkUploadResult> results = upload(sourceOf(NOTEBOOK_JSON));
+
+    assertEquals(JupyterNotebookBulkUploadResult.STORAGE_ERROR, results.get(0).getError());
+    verify(bulkRepository, never()).insertAll(anyList());
+  }
+
+  @Test
+  void testUpload_MetadataInsertFailureDeletesStoredContent() throws Exception {
+    when(bulkRepository.insertAll(anyList())).thenThrow(new RuntimeException("db down"));
+
+    List<JupyterNotebookBulkUploadResult> results = upload(sourceOf(NOTEBOOK_JSON, NOTEBOOK_JSON));
+
+    assertEquals(2, results.size());
+    results.forEach(
+        result ->
+            assertEquals(JupyterNotebookBulkUploadResult.STORAGE_ERROR, result.getError()));
+    verify(storageService, times(2)).deleteNotebook(anyString());
+  }
+
+  @Test
+  void testUpload_StopsAfterMaxItems() throws Exception {
+    ReflectionTestUtils.setField(bulkUploadService, "maxItems", 1);
+
+    List<JupyterNotebookBulkUploadResult> results =
+        upload(sourceOf(NOTEBOOK_JSON, NOTEBOOK_JSON, NOTEBOOK_JSON));
+
+    assertEquals(2, results.size());
+    assertNull(results.get(0).getError());
+    assertEquals(JupyterNotebookBulkUploadResult.TOO_MANY_NOTEBOOKS, results.get(1).getError());
+  }
+
+  @Test
+  void testUpload_OversizedDocumentFromSourceIsReported() throws Exception {
+    String tooLarge = "{\"cells\":[\"" + "x".repeat(64) + "\"]}";
+    ReflectionTestUtils.setField(bulkUploadService, "maxNotebookSizeBytes", 60L);
+
+    List<JupyterNotebookBulkUploadResult> results =
+        upload(
+            bulkUploadService.ndjsonSource(
+                new ByteArrayInputStream(
+                    (tooLarge + "\n" + NOTEBOOK_JSON).getBytes(StandardCharsets.UTF_8))));
+
+    assertEquals(JupyterNotebookBulkUploadResult.NOTEBOOK_TOO_LARGE, results.get(0).getError());
+    assertNull(results.get(1).getError());
+  }
+}
@@ -0,0 +1,162 @@
+package org.jupytereverywhere.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.jupytereverywhere.service.NotebookExpirySweeper.DELETE_NOTEBOOKS_SQL;
+import static org.jupytereverywhere.service.NotebookExpirySweeper.DELETE_REVISIONS_SQL;
+import static org.jupytereverywhere.service.NotebookExpirySweeper.SELECT_EXPIRED_SQL;
+import static org.jupytereverywhere.service.NotebookExpirySweeper.SELECT_PAST_RETENTION_SQL;
+import static org.jupytereverywhere.service.NotebookExpirySweeper.START;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.jupytereverywhere.service.NotebookExpirySweeper.ExpiredNotebook;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+class NotebookExpirySweeperTest {
+
+  private static final Instant NOW = Instant.parse("2026-10-19T12:00:00Z");
+
+  @Mock private JdbcTemplate jdbcTemplate;
+  @Mock private PlatformTransactionManager transactionManager;
+  @Mock private StorageService storageService;
+
+  private NotebookExpirySweeper sweeper;
+
+  @BeforeEach
+  void setUp() {
+    sweeper =
+        new NotebookExpirySweeper(
+            jdbcTemplate, transactionManager, storageService, Clock.fixed(NOW, ZoneOffset.UTC));
+    ReflectionTestUtils.setField(sweeper, "batchSize", 2);
+    ReflectionTestUtils.setField(sweeper, "deleteConcurrency", 2);
+    ReflectionTestUtils.setField(sweeper, "maxDeletesPerSecond", 0);
+  }
+
+  private static ExpiredNotebook expired(String storageUrl, long expiredSecondsAgo) {
+    return new ExpiredNotebook(
+        UUID.randomUUID(), storageUrl, Timestamp.from(NOW.minusSeconds(expiredSecondsAgo)));
+  }
+
+  private void stubBatch(ExpiredNotebook after, List<ExpiredNotebook> batch) {
+    when(jdbcTemplate.query(
+            eq(SELECT_EXPIRED_SQL),
+            ArgumentMatchers.<RowMapper<ExpiredNotebook>>any(),
+            eq(Timestamp.from(NOW)),
+            eq(after.expiresAt()),
+            eq(after.id()),
+            eq(2)))
+        .thenReturn(batch);
+  }
+
+  private List<UUID[]> deletedIds(String sql) {
+    ArgumentCaptor<Object> ids = ArgumentCaptor.forClass(Object.class);
+    verify(jdbcTemplate, atLeastOnce()).update(eq(sql), ids.capture());
+    return ids.getAllValues().stream().map(UUID[].class::cast).toList();
+  }
+
+  @Test
+  void testSweepExpired_DeletesContentAndRowsBatchByBatch() {
+    ExpiredNotebook first = expired("storage-url", 300);
+    ExpiredNotebook unstored = expired("", 200);
+    ExpiredNotebook last = expired("storage-url", 100);
+    stubBatch(START, List.of(first, unstored));
+    stubBatch(unstored, List.of(last));
+
+    NotebookExpirySweeper.SweepResult result = sweeper.sweepExpired();
+
+    assertEquals(3, result.deleted());
+    assertEquals(0, result.failed());
+    verify(storageService).deleteNotebooks(List.of(first.id() + ".ipynb"));
+    verify(storageService).deleteNotebooks(List.of(last.id() + ".ipynb"));
+    List<UUID[]> deleted = deletedIds(DELETE_NOTEBOOKS_SQL);
+    assertArrayEquals(new UUID[] {first.id(), unstored.id()}, deleted.get(0));
+    assertArrayEquals(new UUID[] {last.id()}, deleted.get(1));
+    assertEquals(2, deletedIds(DELETE_REVISIONS_SQL).size());
+  }
+
+  @Test
+  void testSweepExpired_KeepsNotebooksWhoseContentCouldNotBeDeleted() {
+    ExpiredNotebook kept = expired("storage-url", 200);
+    ExpiredNotebook deleted = expired("storage-url", 100);
+    stubBatch(START, List.of(kept, deleted));
+    // The kept notebook is not selected again: the next batch starts after the batch's last row
+    stubBatch(deleted, List.of());
+    when(storageService.deleteNotebooks(anyCollection()))
+        .thenAnswer(
+            invocation ->
+                invocation.<Collection<String>>getArgument(0).contains(kept.id() + ".ipynb")
+                    ? Set.of(kept.id() + ".ipynb")
+                    : Set.of());
+
+    NotebookExpirySweeper.SweepResult result = sweeper.sweepExpired();
+
+    assertEquals(1, result.deleted());
+    assertEquals(1, result.failed());
+    assertArrayEquals(new UUID[] {deleted.id()}, deletedIds(DELETE_NOTEBOOKS_SQL).get(0));
+  }
+
+  @Test
+  void testSweepExpired_NothingExpired() {
+    NotebookExpirySweeper.SweepResult result = sweeper.sweepExpired();
+
+    assertEquals(0, result.deleted());
+    verify(storageService, never()).deleteNotebooks(anyCollection());
+    verify(jdbcTemplate, never()).update(anyString(), any(Object.class));
+  }
+
+  @Test
+  void testSweepPastRetention_DeletesNotebooksCreatedBeforeTheCutOff() {
+    ReflectionTestUtils.setField(sweeper, "retentionMonths", 6);
+    ExpiredNotebook old = expired("storage-url", 400L * 24 * 3600);
+    when(jdbcTemplate.query(
+            eq(SELECT_PAST_RETENTION_SQL),
+            ArgumentMatchers.<RowMapper<ExpiredNotebook>>any(),
+            eq(Timestamp.from(Instant.parse("2026-04-19T12:00:00Z"))),
+            eq(START.expiresAt()),
+            eq(START.id()),
+            eq(2)))
+        .thenReturn(List.of(old));
+
+    NotebookExpirySweeper.SweepResult result = sweeper.sweepPastRetention();
+
+    assertEquals(1, result.deleted());
+    verify(storageService).deleteNotebooks(List.of(old.id() + ".ipynb"));
+    assertArrayEquals(new UUID[] {old.id()}, deletedIds(DELETE_NOTEBOOKS_SQL).get(0));
+  }
+
+  @Test
+  void testSweepPastRetention_DisabledWithoutRetentionPeriod() {
+    NotebookExpirySweeper.SweepResult result = sweeper.sweepPastRetention();
+
+    assertEquals(0, result.deleted());
+    verifyNoInteractions(jdbcTemplate, storageService);
+  }
+}
@@ -0,0 +1,199 @@
+package org.jupytereverywhere.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.jupytereverywhere.service.NotebookReconciler.DELETE_REVISIONS_SQL;
+import static org.jupytereverywhere.service.NotebookReconciler.DELETE_UNSTORED_SQL;
+import static org.jupytereverywhere.service.NotebookReconciler.FIRST_ROWS_BY_SHARD_SQL;
+import static org.jupytereverywhere.service.NotebookReconciler.FIRST_ROWS_SQL;
+import static org.jupytereverywhere.service.NotebookReconciler.LOAD_CHECKPOINT_SQL;
+import static org.jupytereverywhere.service.NotebookReconciler.NEXT_ROWS_SQL;
+import static org.jupytereverywhere.service.NotebookReconciler.SAVE_CHECKPOINT_SQL;
+import static org.jupytereverywhere.service.NotebookReconciler.STALE_UNSTORED_SQL;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.jupytereverywhere.service.NotebookReconciler.Checkpoint;
+import org.jupytereverywhere.service.NotebookReconciler.NotebookRow;
+import org.jupytereverywhere.service.NotebookReconciler.PageResult;
+import org.jupytereverywhere.service.StorageService.ListingOrder;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+class NotebookReconcilerTest {
+
+  private static final Instant NOW = Instant.parse("2026-10-19T12:00:00Z");
+  private static final Instant CUTOFF = NOW.minusSeconds(86400);
+  private static final Instant OLD = CUTOFF.minusSeconds(60);
+
+  private static final UUID A = UUID.fromString("00000000-0000-0000-0000-00000000000a");
+  private static final UUID B = UUID.fromString("00000000-0000-0000-0000-00000000000b");
+  private static final UUID C = UUID.fromString("00000000-0000-0000-0000-00000000000c");
+  private static final UUID D = UUID.fromString("00000000-0000-0000-0000-00000000000d");
+  private static final UUID E = UUID.fromString("00000000-0000-0000-0000-00000000000e");
+
+  @Mock private JdbcTemplate jdbcTemplate;
+  @Mock private JdbcTemplate session;
+  @Mock private StorageService storageService;
+
+  private NotebookReconciler reconciler;
+
+  @BeforeEach
+  void setUp() {
+    reconciler =
+        new NotebookReconciler(jdbcTemplate, storageService, Clock.fixed(NOW, ZoneOffset.UTC));
+    ReflectionTestUtils.setField(reconciler, "pageSize", 10);
+    ReflectionTestUtils.setField(reconciler, "pagesPerRun", 1);
+    ReflectionTestUtils.setField(reconciler, "pagePauseMs", 0L);
+    ReflectionTestUtils.setField(reconciler, "gracePeriodMs", 86400000L);
+    when(storageService.listingOrder()).thenReturn(ListingOrder.FILE_NAME);
+  }
+
+  private static NotebookObject object(UUID id, Instant lastModified) {
+    return new NotebookObject(id + ".ipynb", lastModified);
+  }
+
+  private void stubFirstRows(int pageSize, List<NotebookRow> rows) {
+    when(session.query(
+            eq(FIRST_ROWS_SQL), ArgumentMatchers.<RowMapper<NotebookRow>>any(), eq(pageSize)))
+        .thenReturn(rows);
+  }
+
+  @Test
+  void testReconcilePage_ClassifiesAndRepairsMismatches() {
+    ReflectionTestUtils.setField(reconciler, "repair", true);
+    when(storageService.listNotebooks(null, 10))
+        .thenReturn(
+            List.of(
+                object(A, OLD),
+                object(B, OLD),
+                object(E, NOW),
+                new NotebookObject("readme.ipynb", OLD)));
+    stubFirstRows(
+        10,
+        List.of(
+            new NotebookRow(B, "storage-url"),
+            new NotebookRow(C, "storage-url"),
+            new NotebookRow(D, "")));
+    when(session.queryForList(
+            eq(STALE_UNSTORED_SQL), eq(UUID.class), any(), eq(Timestamp.from(CUTOFF))))
+        .thenReturn(List.of(D));
+    when(session.update(eq(DELETE_UNSTORED_SQL), any(Object.class))).thenReturn(1);
+
+    PageResult result =
+        reconciler.reconcilePage(session, Checkpoint.start(Timestamp.from(NOW)), CUTOFF);
+
+    assertTrue(result.complete());
+    Checkpoint checkpoint = result.checkpoint();
+    assertEquals(1, checkpoint.orphanObjects());
+    assertEquals(1, checkpoint.unstoredRows());
+    assertEquals(1, checkpoint.missingContent());
+    assertEquals(2, checkpoint.repaired());
+    assertEquals("readme.ipynb", checkpoint.objectCursor());
+    assertEquals(D, checkpoint.rowCursor());
+    verify(storageService).deleteNotebooks(List.of(A + ".ipynb"));
+    verify(storageService).deleteNotebooks(List.of(D + ".ipynb"));
+    verify(session).update(eq(DELETE_REVISIONS_SQL), any(Object.class));
+  }
+
+  @Test
+  void testReconcilePage_StopsAtTheEndOfAFullPage() {
+    ReflectionTestUtils.setField(reconciler, "pageSize", 2);
+    when(storageService.listNotebooks(null, 2))
+        .thenReturn(List.of(object(A, OLD), object(B, OLD)));
+    // C may still have content on the next storage page
+    stubFirstRows(2, List.of(new NotebookRow(C, "storage-url")));
+
+    PageResult result =
+        reconciler.reconcilePage(session, Checkpoint.start(Timestamp.from(NOW)), CUTOFF);
+
+    assertFalse(result.complete());
+    assertEquals(2, result.checkpoint().orphanObjects());
+    assertEquals(0, result.checkpoint().missingContent());
+    assertEquals(B + ".ipynb", result.checkpoint().objectCursor());
+    assertNull(result.checkpoint().rowCursor());
+    verify(storageService, never()).deleteNotebooks(anyCollection());
+  }
+
+  @Test
+  void testReconcile_ResumesFromCheckpoint() {
+    ReflectionTestUtils.setField(reconciler, "pageSize", 2);
+    Timestamp passStartedAt = Timestamp.from(OLD);
+    when(session.queryForObject(
+            eq(LOAD_CHECKPOINT_SQL), ArgumentMatchers.<RowMapper<Checkpoint>>any()))
+        .thenReturn(new Checkpoint(passStartedAt, A + ".ipynb", A, 3, 0, 0, 0));
+    when(storageService.listNotebooks(A + ".ipynb", 2))
+        .thenReturn(List.of(object(B, NOW), object(C, NOW)));
+    when(session.query(
+            eq(NEXT_ROWS_SQL), ArgumentMatchers.<RowMapper<NotebookRow>>any(), eq(A), eq(2)))
+        .thenReturn(List.of(new NotebookRow(B, "storage-url"), new NotebookRow(C, "storage-url")));
+
+    Checkpoint checkpoint = reconciler.reconcile(session);
+
+    assertEquals(3, checkpoint.orphanObjects());
+    verify(session).update(SAVE_CHECKPOINT_SQL, passStartedAt, C + ".ipynb", C, 3L, 0L, 0L, 0L);
+  }
+
+  @Test
+  void testReconcile_FinishedPassResetsCheckpoint() {
+    when(session.queryForObject(
+            eq(LOAD_CHECKPOINT_SQL), ArgumentMatchers.<RowMapper<Checkpoint>>any()))
+        .thenReturn(Checkpoint.IDLE);
+    when(storageService.listNotebooks(null, 10)).thenReturn(List.of());
+    stubFirstRows(10, List.of());
+
+    Checkpoint checkpoint = reconciler.reconcile(session);
+
+    assertEquals(Timestamp.from(NOW), checkpoint.passStartedAt());
+    verify(session).update(SAVE_CHECKPOINT_SQL, null, null, null, 0L, 0L, 0L, 0L);
+    verify(session, never()).update(eq(DELETE_UNSTORED_SQL), any(Object.class));
+    verify(session, never()).queryForList(anyString(), eq(UUID.class), any(), any());
+  }
+
+  @Test
+  void testReconcilePage_MergesShardOrderedListingWithRowsInTheSameOrder() {
+    when(storageService.listingOrder()).thenReturn(ListingOrder.SHARD);
+    List<UUID> ids =
+        List.of(A, B, C, D).stream()
+            .sorted(Comparator.comparing(id -> ListingOrder.SHARD.key(id + ".ipynb")))
+            .toList();
+    // The first notebook by shard order is an orphan, the last has no content
+    when(storageService.listNotebooks(null, 10))
+        .thenReturn(ids.subList(0, 3).stream().map(id -> object(id, OLD)).toList());
+    when(session.query(
+            eq(FIRST_ROWS_BY_SHARD_SQL), ArgumentMatchers.<RowMapper<NotebookRow>>any(), eq(10)))
+        .thenReturn(
+            ids.subList(1, 4).stream().map(id -> new NotebookRow(id, "storage-url")).toList());
+
+    PageResult result =
+        reconciler.reconcilePage(session, Checkpoint.start(Timestamp.from(NOW)), CUTOFF);
+
+    assertTrue(result.complete());
+    assertEquals(1, result.checkpoint().orphanObjects());
+    assertEquals(1, result.checkpoint().missingContent());
+    assertEquals(ids.get(3), result.checkpoint().rowCursor());
+  }
+}
@@ -0,0 +1,335 @@
+package org.jupytereverywhere.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.jupytereverywhere.exception.NotebookNotFoundException;
+import org.jupytereverywhere.model.JupyterNotebookEntity;
+import org.jupytereverywhere.model.JupyterNotebookRevisionEntity;
+import org.jupytereverywhere.model.NotebookRevisionType;
+import org.jupytereverywhere.repository.JupyterNotebookRevisionRepository;
+import org.jupytereverywhere.repository.NotebookRevisionSummary;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+class NotebookRevisionServiceTest {
+
+  @Mock private JupyterNotebookRevisionRepository revisionRepository;
+
+  @InjectMocks private NotebookRevisionService revisionService;
+
+  /** Rows "stored" by the mocked repository. */
+  private final List<JupyterNotebookRevisionEntity> rows = new ArrayList<>();
+
+  private JupyterNotebookEntity notebook;
+  private UUID originalSessionId;
+
+  @BeforeEach
+  void setUp() {
+    ReflectionTestUtils.setField(revisionService, "enabled", true);
+    ReflectionTestUtils.setField(revisionService, "snapshotInterval", 5);
+
+    originalSessionId = UUID.randomUUID();
+    notebook = new JupyterNotebookEntity();
+    notebook.setId(UUID.randomUUID());
+    notebook.setSessionId(originalSessionId);
+
+    lenient()
+        .when(revisionRepository.save(any(JupyterNotebookRevisionEntity.class)))
+        .thenAnswer(
+            invocation -> {
+              JupyterNotebookRevisionEntity revision = invocation.getArgument(0);
+              rows.add(revision);
+              return revision;
+            });
+    lenient()
+        .when(revisionRepository.findFirstByNotebookIdOrderByRevisionNumberDesc(any(UUID.class)))
+        .thenAnswer(
+            invocation ->
+                rows.stream()
+                    .max(Comparator.comparingInt(JupyterNotebookRevisionEntity::getRevisionNumber))
+                    .map(NotebookRevisionServiceTest::summaryOf));
+    lenient()
+        .when(
+            revisionRepository.findFirstByNotebookIdAndRevisionTypeOrderByRevisionNumberDesc(
+                any(UUID.class), any(NotebookRevisionType.class)))
+        .thenAnswer(
+            invocation ->
+                rows.stream()
+                    .filter(r -> r.getRevisionType() == invocation.getArgument(1))
+                    .max(Comparator.comparingInt(JupyterNotebookRevisionEntity::getRevisionNumber))
+                    .map(NotebookRevisionServiceTest::summaryOf));
+    lenient()
+        .when(revisionRepository.findSnapshotAtOrBefore(any(UUID.class), anyInt()))
+        .thenAnswer(
+            invocation -> {
+              int revisionNumber = invocation.getArgument(1);
+              return rows.stream()
+                  .filter(r -> r.getRevisionType() == NotebookRevisionType.SNAPSHOT)
+                  .filter(r -> r.getRevisionNumber() <= revisionNumber)
+                  .max(Comparator.comparingInt(JupyterNotebookRevisionEntity::getRevisionNumber));
+            });
+    lenient()
+        .when(
+            revisionRepository.findByNotebookIdAndRevisionNumberBetweenOrderByRevisionNumberAsc(
+                any(UUID.class), anyInt(), anyInt()))
+        .thenAnswer(
+            invocation -> {
+              int from = invocation.getArgument(1);
+              int to = invocation.getArgument(2);
+              return rows.stream()
+                  .filter(r -> r.getRevisionNumber() >= from && r.getRevisionNumber() <= to)
+                  .sorted(Comparator.comparingInt(JupyterNotebookRevisionEntity::getRevisionNumber))
+                  .toList();
+            });
+    lenient()
+        .when(revisionRepository.findSnapshotNumberAtOrBefore(any(UUID.class), anyInt()))
+        .thenAnswer(
+            invocation -> {
+              int revisionNumber = invocation.getArgument(1);
+              return rows.stream()
+                  .filter(r -> r.getRevisionType() == NotebookRevisionType.SNAPSHOT)
+                  .map(JupyterNotebookRevisionEntity::getRevisionNumber)
+                  .filter(number -> number <= revisionNumber)
+                  .max(Integer::compare);
+            });
+    lenient()
+        .when(
+            revisionRepository
+                .findFirstByNotebookIdAndCreatedAtGreaterThanEqualOrderByRevisionNumberAsc(
+                    any(UUID.class), any(Timestamp.class)))
+        .thenAnswer(
+            invocation -> {
+              Timestamp cutoff = invocation.getArgument(1);
+              return rows.stream()
+                  .filter(r -> !r.getCreatedAt().before(cutoff))
+                  .min(Comparator.comparingInt(JupyterNotebookRevisionEntity::getRevisionNumber))
+                  .map(NotebookRevisionServiceTest::summaryOf);
+            });
+    lenient()
+        .when(revisionRepository.deleteRevisionsBefore(any(UUID.class), anyInt()))
+        .thenAnswer(
+            invocation -> {
+              int revisionNumber = invocation.getArgument(1);
+              int before = rows.size();
+              rows.removeIf(r -> r.getRevisionNumber() < revisionNumber);
+              return before - rows.size();
+            });
+  }
+
+  private static NotebookRevisionSummary summaryOf(JupyterNotebookRevisionEntity revision) {
+    return new NotebookRevisionSummary() {
+      @Override
+      public int getRevisionNumber() {
+        return revision.getRevisionNumber();
+      }
+
+      @Override
+      public long getContentSizeBytes() {
+        return revision.getContentSizeBytes();
+      }
+
+      @Override
+      public Timestamp getCreatedAt() {
+        return revision.getCreatedAt();
+      }
+    };
+  }
+
+  private static String notebookWithSource(String source) {
+    return "{\"cells\":[{\"cell_type\":\"code\",\"source\":[\""
+        + source
+        + "\"]}],\"metadata\":{\"padding\":\""
+        + "x".repeat(2_000)
+        + "\"},\"nbformat\":4,\"nbformat_minor\":5}";
+  }
+
+  private int record(String previous, String next) {
+    return revisionService.recordRevision(notebook, UUID.randomUUID(), () -> previous, next);
+  }
+
+  private int oldestRevision() {
+    return rows.stream().mapToInt(JupyterNotebookRevisionEntity::getRevisionNumber).min().orElse(0);
+  }
+
+  private Optional<JupyterNotebookRevisionEntity> row(int revisionNumber) {
+    return rows.stream().filter(r -> r.getRevisionNumber() == revisionNumber).findFirst();
+  }
+
+  @Test
+  void testRecordRevision_FirstUpdateKeepsOriginalAsBaseline() {
+    UUID editorSessionId = UUID.randomUUID();
+
+    int revision =
+        revisionService.recordRevision(
+            notebook, editorSessionId, () -> notebookWithSource("v1"), notebookWithSource("v2"));
+
+    assertEquals(2, revision);
+    assertEquals(NotebookRevisionType.SNAPSHOT, row(1).orElseThrow().getRevisionType());
+    assertEquals(originalSessionId, row(1).orElseThrow().getSessionId());
+    assertEquals(NotebookRevisionType.DELTA, row(2).orElseThrow().getRevisionType());
+    assertEquals(editorSessionId, row(2).orElseThrow().getSessionId());
+  }
+
+  @Test
+  void testRecordRevision_UnknownPreviousContentStoresSnapshot() {
+    int revision = revisionService.recordRevision(notebook, UUID.randomUUID(), () -> null, "{}");
+
+    assertEquals(1, revision);
+    assertEquals(1, rows.size());
+    assertEquals(NotebookRevisionType.SNAPSHOT, row(1).orElseThrow().getRevisionType());
+  }
+
+  @Test
+  void testRecordRevision_DeltasAreSmallAndSnapshotsArePeriodic() {
+    String previous = notebookWithSource("v1");
+    for (int i = 2; i <= 12; i++) {
+      String next = notebookWithSource("v" + i);
+      record(previous, next);
+      previous = next;
+    }
+
+    assertEquals(12, rows.size());
+    assertEquals(NotebookRevisionType.SNAPSHOT, row(1).orElseThrow().getRevisionType());
+    assertEquals(NotebookRevisionType.SNAPSHOT, row(6).orElseThrow().getRevisionType());
+    assertEquals(NotebookRevisionType.SNAPSHOT, row(11).orElseThrow().getRevisionType());
+    JupyterNotebookRevisionEntity delta = row(7).orElseThrow();
+    assertEquals(NotebookRevisionType.DELTA, delta.getRevisionType());
+    assertTrue(delta.getPayload().length * 10 < delta.getContentSizeBytes());
+  }
+
+  @Test
+  void testRecordRevision_LargeRewriteStoredAsSnapshot() {
+    record(notebookWithSource("v1"), "{}");
+
+    assertEquals(NotebookRevisionType.SNAPSHOT, row(2).orElseThrow().getRevisionType());
+  }
+
+  @Test
+  void testRecordRevision_DeltaBaseIsLatestRevisionNotStorage() {
+    record(notebookWithSource("v1"), notebookWithSource("v2"));
+
+    revisionService.recordRevision(
+        notebook,
+        UUID.randomUUID(),
+        () -> {
+          throw new AssertionError("current content should not be read");
+        },
+        notebookWithSource("v3"));
+
+    assertEquals(NotebookRevisionType.DELTA, row(3).orElseThrow().getRevisionType());
+    assertEquals(notebookWithSource("v3"), revisionService.getRevisionContent(notebook.getId(), 3));
+  }
+
+  @Test
+  void testRecordRevision_MaxRevisionsPrunesWholeSnapshotIntervals() {
+    ReflectionTestUtils.setField(revisionService, "maxRevisions", 4);
+    List<String> versions = new ArrayList<>();
+    versions.add(notebookWithSource("v1"));
+    for (int i = 2; i <= 12; i++) {
+      String next = notebookWithSource("v" + i);
+      record(versions.get(versions.size() - 1), next);
+      versions.add(next);
+    }
+
+    // Snapshots at 1, 6 and 11: writing 11 keeps 8..11, so everything before snapshot 6 goes
+    assertEquals(6, oldestRevision());
+    assertEquals(7, rows.size());
+    for (int i = 6; i <= 12; i++) {
+      assertEquals(versions.get(i - 1), revisionService.getRevisionContent(notebook.getId(), i));
+    }
+    UUID notebookId = notebook.getId();
+    assertThrows(
+        NotebookNotFoundException.class, () -> revisionService.getRevisionContent(notebookId, 5));
+  }
+
+  @Test
+  void testRecordRevision_MaxAgeDaysPrunesOldRevisions() {
+    ReflectionTestUtils.setField(revisionService, "maxAgeDays", 30);
+    String previous = notebookWithSource("v1");
+    for (int i = 2; i <= 10; i++) {
+      String next = notebookWithSource("v" + i);
+      record(previous, next);
+      previous = next;
+    }
+    Timestamp old = Timestamp.from(Instant.now().minus(Duration.ofDays(60)));
+    rows.forEach(r -> r.setCreatedAt(old));
+    previous = notebookWithSource("v11");
+
+    record(notebookWithSource("v10"), previous);
+
+    // Snapshot 11 is the only recent revision, so both expired intervals before it are dropped
+    assertEquals(11, oldestRevision());
+    assertEquals(previous, revisionService.getRevisionContent(notebook.getId(), 11));
+  }
+
+  @Test
+  void testRecordRevision_NoRetentionKeepsEverything() {
+    String previous = notebookWithSource("v1");
+    for (int i = 2; i <= 12; i++) {
+      String next = notebookWithSource("v" + i);
+      record(previous, next);
+      previous = next;
+    }
+
+    assertEquals(12, rows.size());
+    verify(revisionRepository, never()).deleteRevisionsBefore(any(UUID.class), anyInt());
+  }
+
+  @Test
+  void testGetRevisionContent_ReconstructsEveryRevision() {
+    List<String> versions = new ArrayList<>();
+    versions.add(notebookWithSource("v1"));
+    for (int i = 2; i <= 12; i++) {
+      String next = notebookWithSource("v" + i);
+      record(versions.get(versions.size() - 1), next);
+      versions.add(next);
+    }
+
+    for (int i = 1; i <= versions.size(); i++) {
+      assertEquals(versions.get(i - 1), revisionService.getRevisionContent(notebook.getId(), i));
+    }
+  }
+
+  @Test
+  void testGetRevisionContent_UnknownRevision() {
+    record(notebookWithSource("v1"), notebookWithSource("v2"));
+
+    UUID notebookId = notebook.getId();
+    assertThrows(
+        NotebookNotFoundException.class, () -> revisionService.getRevisionContent(notebookId, 3));
+    assertThrows(
+        NotebookNotFoundException.class, () -> revisionService.getRevisionContent(notebookId, 0));
+  }
+
+  @Test
+  void testCompressRoundTrip() {
+    byte[] data = notebookWithSource("compress").getBytes();
+
+    byte[] compressed = NotebookRevisionService.compress(data);
+
+    assertTrue(compressed.length < data.length);
+    assertEquals(new String(data), new String(NotebookRevisionService.decompress(compressed)));
+  }
+}
@@ -0,0 +1,71 @@
+package org.jupytereverywhere.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class NotebookUpdateLocksTest {
+
+  private final NotebookUpdateLocks locks = new NotebookUpdateLocks(100);
+
+  @AfterEach
+  void tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  void testStripeCountRoundedUpToPowerOfTwo() {
+    assertEquals(128, locks.stripeCount());
+    assertEquals(1, new NotebookUpdateLocks(0).stripeCount());
+  }
+
+  @Test
+  void testSameNotebookAlwaysMapsToSameStripe() {
+    UUID notebookId = UUID.randomUUID();
+
+    UUID sameNotebookId = UUID.fromString(notebookId.toString());
+
+    assertSame(locks.stripeFor(notebookId), locks.stripeFor(sameNotebookId));
+  }
+
+  @Test
+  void testOutsideTransactionLockReleasedOnClose() {
+    UUID notebookId = UUID.randomUUID();
+    ReentrantLock stripe = locks.stripeFor(notebookId);
+
+    try (NotebookUpdateLocks.Handle handle = locks.acquire(notebookId)) {
+      assertTrue(stripe.isHeldByCurrentThread());
+    }
+
+    assertFalse(stripe.isLocked());
+  }
+
+  @Test
+  void testInsideTransactionLockHeldUntilCompletion() {
+    UUID notebookId = UUID.randomUUID();
+    ReentrantLock stripe = locks.stripeFor(notebookId);
+    TransactionSynchronizationManager.initSynchronization();
+
+    try (NotebookUpdateLocks.Handle handle = locks.acquire(notebookId)) {
+      assertTrue(stripe.isHeldByCurrentThread());
+    }
+    assertTrue(stripe.isHeldByCurrentThread());
+
+    for (TransactionSynchronization synchronization :
+        TransactionSynchronizationManager.getSynchronizations()) {
+      synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+    }
+    assertFalse(stripe.isLocked());
+  }
+}
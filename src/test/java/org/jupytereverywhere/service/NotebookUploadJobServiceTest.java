@@ -0,0 +1,233 @@
+package org.jupytereverywhere.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.jupytereverywhere.exception.InvalidNotebookException;
+import org.jupytereverywhere.exception.NotebookNotFoundException;
+import org.jupytereverywhere.exception.NotebookStorageException;
+import org.jupytereverywhere.model.JupyterNotebookEntity;
+import org.jupytereverywhere.model.NotebookUploadJobEntity;
+import org.jupytereverywhere.model.NotebookUploadJobStatus;
+import org.jupytereverywhere.model.request.JupyterNotebookRequest;
+import org.jupytereverywhere.model.response.JupyterNotebookUploadJob;
+import org.jupytereverywhere.repository.NotebookUploadJobRepository;
+import org.jupytereverywhere.repository.NotebookUploadJobSummary;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+class NotebookUploadJobServiceTest {
+
+  private static final String NOTEBOOK_JSON =
+      "{\"nbformat\":4,\"nbformat_minor\":5,\"metadata\":{},\"cells\":[]}";
+
+  @InjectMocks private NotebookUploadJobService uploadJobService;
+
+  @Mock private JupyterNotebookService notebookService;
+
+  @Mock private NotebookUploadJobRepository jobRepository;
+
+  private UUID jobId;
+  private UUID notebookId;
+  private UUID sessionId;
+
+  @BeforeEach
+  void setUp() {
+    jobId = UUID.randomUUID();
+    notebookId = UUID.randomUUID();
+    sessionId = UUID.randomUUID();
+    ReflectionTestUtils.setField(uploadJobService, "maxAttempts", 3);
+  }
+
+  private NotebookUploadJobEntity stagedJob(int attempts) {
+    NotebookUploadJobEntity job = new NotebookUploadJobEntity();
+    job.setId(jobId);
+    job.setNotebookId(notebookId);
+    job.setSessionId(sessionId);
+    job.setStatus(NotebookUploadJobStatus.PROCESSING);
+    job.setAttempts(attempts);
+    job.setPayload(
+        NotebookRevisionService.compress(NOTEBOOK_JSON.getBytes(StandardCharsets.UTF_8)));
+    return job;
+  }
+
+  private void mockClaimedJob(NotebookUploadJobEntity job) {
+    when(jobRepository.claimPending(jobId)).thenReturn(Optional.of(jobId));
+    when(jobRepository.findById(jobId)).thenReturn(Optional.of(job));
+  }
+
+  @Test
+  void testSubmit_StagesContentAndReturnsAllocatedIds() {
+    JupyterNotebookRequest notebookRequest = new JupyterNotebookRequest();
+    JupyterNotebookEntity notebookEntity = new JupyterNotebookEntity();
+    notebookEntity.setId(notebookId);
+    notebookEntity.setDomain("example.com");
+    notebookEntity.setReadableId("brave-bold-bear");
+
+    when(notebookService.reserveNotebook(notebookRequest, sessionId, "example.com", NOTEBOOK_JSON))
+        .thenReturn(notebookEntity);
+    when(jobRepository.save(any(NotebookUploadJobEntity.class)))
+        .thenAnswer(
+            invocation -> {
+              NotebookUploadJobEntity job = invocation.getArgument(0);
+              job.setId(jobId);
+              return job;
+            });
+
+    JupyterNotebookUploadJob result =
+        uploadJobService.submit(notebookRequest, sessionId, "example.com", NOTEBOOK_JSON);
+
+    assertEquals(jobId, result.getJobId());
+    assertEquals(NotebookUploadJobStatus.PENDING, result.getStatus());
+    assertEquals(notebookId, result.getNotebook().getId());
+    assertEquals("brave-bold-bear", result.getNotebook().getReadableId());
+
+    ArgumentCaptor<NotebookUploadJobEntity> saved =
+        ArgumentCaptor.forClass(NotebookUploadJobEntity.class);
+    verify(jobRepository).save(saved.capture());
+    assertEquals(sessionId, saved.getValue().getSessionId());
+    assertEquals(
+        NOTEBOOK_JSON,
+        new String(
+            NotebookRevisionService.decompress(saved.getValue().getPayload()),
+            StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void testProcess_StoresNotebookAndClearsPayload() {
+    NotebookUploadJobEntity job = stagedJob(1);
+    mockClaimedJob(job);
+
+    uploadJobService.process(jobId);
+
+    verify(notebookService).completeStagedUpload(notebookId, NOTEBOOK_JSON);
+    verify(jobRepository).save(job);
+    assertEquals(NotebookUploadJobStatus.SUCCEEDED, job.getStatus());
+    assertNull(job.getPayload());
+  }
+
+  @Test
+  void testProcess_InvalidNotebookFailsJobAndDiscardsNotebook() {
+    NotebookUploadJobEntity job = stagedJob(1);
+    mockClaimedJob(job);
+    doThrow(new InvalidNotebookException("Notebook validation failed"))
+        .when(notebookService)
+        .completeStagedUpload(notebookId, NOTEBOOK_JSON);
+
+    uploadJobService.process(jobId);
+
+    verify(notebookService).discardStagedUpload(notebookId);
+    assertEquals(NotebookUploadJobStatus.FAILED, job.getStatus());
+    assertEquals("Notebook validation failed", job.getErrorMessage());
+  }
+
+  @Test
+  void testProcess_StorageErrorRetriedUntilMaxAttempts() {
+    NotebookUploadJobEntity job = stagedJob(1);
+    mockClaimedJob(job);
+    doThrow(new NotebookStorageException("unavailable"))
+        .when(notebookService)
+        .completeStagedUpload(notebookId, NOTEBOOK_JSON);
+
+    uploadJobService.process(jobId);
+
+    assertEquals(NotebookUploadJobStatus.PENDING, job.getStatus());
+    verify(notebookService, never()).discardStagedUpload(any());
+
+    job.setAttempts(3);
+    uploadJobService.process(jobId);
+
+    assertEquals(NotebookUploadJobStatus.FAILED, job.getStatus());
+    verify(notebookService).discardStagedUpload(notebookId);
+  }
+
+  @Test
+  void testPollPendingJobs_FailsAbandonedJobsOutOfAttempts() {
+    ReflectionTestUtils.setField(uploadJobService, "staleAfterMs", 300_000L);
+    when(jobRepository.failStale(300_000L, 3, "Error storing notebook"))
+        .thenReturn(List.of(notebookId));
+
+    uploadJobService.pollPendingJobs();
+
+    verify(notebookService).discardStagedUpload(notebookId);
+    verify(jobRepository).requeueStale(300_000L, 3);
+  }
+
+  @Test
+  void testProcess_JobClaimedElsewhereIsSkipped() {
+    when(jobRepository.claimPending(jobId)).thenReturn(Optional.empty());
+
+    uploadJobService.process(jobId);
+
+    verify(jobRepository, never()).findById(any());
+    verify(notebookService, never()).completeStagedUpload(any(), anyString());
+  }
+
+  @Test
+  void testGetJob_OtherSessionNotFound() {
+    NotebookUploadJobSummary summary =
+        new NotebookUploadJobSummary() {
+          @Override
+          public UUID getId() {
+            return jobId;
+          }
+
+          @Override
+          public UUID getNotebookId() {
+            return notebookId;
+          }
+
+          @Override
+          public String getReadableId() {
+            return "brave-bold-bear";
+          }
+
+          @Override
+          public String getDomain() {
+            return "example.com";
+          }
+
+          @Override
+          public UUID getSessionId() {
+            return sessionId;
+          }
+
+          @Override
+          public NotebookUploadJobStatus getStatus() {
+            return NotebookUploadJobStatus.PROCESSING;
+          }
+
+          @Override
+          public String getErrorMessage() {
+            return null;
+          }
+        };
+    when(jobRepository.findSummaryById(jobId)).thenReturn(Optional.of(summary));
+
+    assertEquals(
+        NotebookUploadJobStatus.PROCESSING,
+        uploadJobService.getJob(jobId, sessionId).getStatus());
+    assertThrows(
+        NotebookNotFoundException.class,
+        () -> uploadJobService.getJob(jobId, UUID.randomUUID()));
+  }
+}
@@ -1,23 +1,31 @@
 package org.jupytereverywhere.service.aws;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.jupytereverywhere.exception.S3DownloadException;
 import org.jupytereverywhere.service.aws.secrets.SecretsService;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -26,9 +34,13 @@ import org.springframework.test.util.ReflectionTestUtils;
 import software.amazon.awssdk.core.ResponseInputStream;
 import software.amazon.awssdk.http.AbortableInputStream;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
 import software.amazon.awssdk.services.s3.model.GetObjectResponse;
 import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.S3Error;
+import software.amazon.awssdk.services.s3.model.S3Exception;
 
 @ExtendWith(MockitoExtension.class)
 class S3StorageServiceTest {
@@ -173,4 +185,78 @@ class S3StorageServiceTest {
     assertTrue(result.contains("\"R\""));
     // With the new code, we return raw JSON string, avoiding deserialization issues
   }
+
+  @Test
+  void testDeleteNotebooks_ReturnsKeysThatFailed() {
+    ReflectionTestUtils.setField(s3StorageService, "s3Client", s3Client);
+    ReflectionTestUtils.setField(s3StorageService, "bucketName", bucketName);
+    when(s3Client.deleteObjects(any(DeleteObjectsRequest.class)))
+        .thenReturn(
+            DeleteObjectsResponse.builder()
+                .errors(S3Error.builder().key("b.ipynb").code("AccessDenied").build())
+                .build());
+
+    Set<String> failed = s3StorageService.deleteNotebooks(List.of("a.ipynb", "b.ipynb"));
+
+    assertEquals(Set.of("b.ipynb"), failed);
+    ArgumentCaptor<DeleteObjectsRequest> request =
+        ArgumentCaptor.forClass(DeleteObjectsRequest.class);
+    verify(s3Client).deleteObjects(request.capture());
+    assertEquals(bucketName, request.getValue().bucket());
+    assertEquals(2, request.getValue().delete().objects().size());
+  }
+
+  @Test
+  void testDeleteNotebooks_SplitsIntoRequestsOfAtMostMaxKeys() {
+    ReflectionTestUtils.setField(s3StorageService, "s3Client", s3Client);
+    ReflectionTestUtils.setField(s3StorageService, "bucketName", bucketName);
+    List<String> fileNames =
+        IntStream.range(0, S3StorageService.MAX_DELETE_KEYS + 1)
+            .mapToObj(i -> i + ".ipynb")
+            .toList();
+    when(s3Client.deleteObjects(any(DeleteObjectsRequest.class)))
+        .thenReturn(DeleteObjectsResponse.builder().build())
+        .thenThrow(S3Exception.builder().message("unavailable").build());
+
+    Set<String> failed = s3StorageService.deleteNotebooks(fileNames);
+
+    assertEquals(Set.of(S3StorageService.MAX_DELETE_KEYS + ".ipynb"), failed);
+    verify(s3Client, times(2)).deleteObjects(any(DeleteObjectsRequest.class));
+  }
+
+  @Test
+  void testOpenNotebook_ClosingEarlyAbortsTheRequest() throws Exception {
+    AtomicBoolean aborted = new AtomicBoolean();
+    stubGetObject(aborted);
+
+    try (InputStream in = s3StorageService.openNotebook(fileName)) {
+      assertEquals('{', in.read());
+    }
+
+    assertTrue(aborted.get());
+  }
+
+  @Test
+  void testOpenNotebook_ClosingAfterTheEndDoesNotAbort() throws Exception {
+    AtomicBoolean aborted = new AtomicBoolean();
+    stubGetObject(aborted);
+
+    try (InputStream in = s3StorageService.openNotebook(fileName)) {
+      assertEquals(notebookJson, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    assertFalse(aborted.get());
+  }
+
+  private void stubGetObject(AtomicBoolean aborted) {
+    ReflectionTestUtils.setField(s3StorageService, "s3Client", s3Client);
+    ReflectionTestUtils.setField(s3StorageService, "bucketName", bucketName);
+    InputStream inputStream =
+        new ByteArrayInputStream(notebookJson.getBytes(StandardCharsets.UTF_8));
+    when(s3Client.getObject(any(GetObjectRequest.class)))
+        .thenReturn(
+            new ResponseInputStream<>(
+                GetObjectResponse.builder().build(),
+                AbortableInputStream.create(inputStream, () -> aborted.set(true))));
+  }
 }
@@ -0,0 +1,220 @@
+package org.jupytereverywhere.service.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.jupytereverywhere.exception.NotebookNotFoundException;
+import org.jupytereverywhere.service.StorageService;
+
+class LocalDiskCacheStorageServiceTest {
+
+  private static final String NOTEBOOK_JSON =
+      "{\"nbformat\":4,\"nbformat_minor\":5,\"metadata\":{},\"cells\":[]}";
+
+  @TempDir Path cacheDir;
+
+  private StorageService backend;
+  private LocalDiskCacheStorageService cache;
+
+  @BeforeEach
+  void setUp() {
+    backend = mock(StorageService.class);
+    cache = new LocalDiskCacheStorageService(backend, cacheDir, 1024, Duration.ofMinutes(5));
+  }
+
+  @Test
+  void testDownload_MissThenHit() {
+    when(backend.downloadNotebookAsJson("a.ipynb")).thenReturn(NOTEBOOK_JSON);
+
+    assertEquals(NOTEBOOK_JSON, cache.downloadNotebookAsJson("a.ipynb"));
+    assertEquals(NOTEBOOK_JSON, cache.downloadNotebookAsJson("a.ipynb"));
+
+    verify(backend, times(1)).downloadNotebookAsJson("a.ipynb");
+    assertTrue(isCached("a.ipynb"));
+  }
+
+  @Test
+  void testUpload_WritesThroughAndServesFromCache() {
+    when(backend.uploadNotebook(NOTEBOOK_JSON, "a.ipynb")).thenReturn("/storage/a.ipynb");
+
+    assertEquals("/storage/a.ipynb", cache.uploadNotebook(NOTEBOOK_JSON, "a.ipynb"));
+    assertEquals(NOTEBOOK_JSON, cache.downloadNotebookAsJson("/storage/a.ipynb"));
+
+    verify(backend, never()).downloadNotebookAsJson("/storage/a.ipynb");
+  }
+
+  @Test
+  void testUpdate_ReplacesCachedContent() {
+    String updated = "{\"nbformat\":4,\"nbformat_minor\":5,\"metadata\":{},\"cells\":[{}]}";
+    when(backend.downloadNotebookAsJson("a.ipynb")).thenReturn(NOTEBOOK_JSON);
+
+    cache.downloadNotebookAsJson("a.ipynb");
+    cache.uploadNotebook(updated, "a.ipynb");
+
+    assertEquals(updated, cache.downloadNotebookAsJson("a.ipynb"));
+    verify(backend, times(1)).downloadNotebookAsJson("a.ipynb");
+  }
+
+  @Test
+  void testDelete_InvalidatesEntry() {
+    when(backend.downloadNotebookAsJson("a.ipynb")).thenReturn(NOTEBOOK_JSON);
+    cache.downloadNotebookAsJson("a.ipynb");
+
+    cache.deleteNotebook("a.ipynb");
+
+    verify(backend).deleteNotebook("a.ipynb");
+    assertFalse(isCached("a.ipynb"));
+    assertEquals(0, cache.getCurrentSizeBytes());
+  }
+
+  @Test
+  void testDownload_BackendFailureIsNotCached() {
+    when(backend.downloadNotebookAsJson("missing.ipynb"))
+        .thenThrow(new NotebookNotFoundException("Notebook not found"));
+
+    assertThrows(
+        NotebookNotFoundException.class, () -> cache.downloadNotebookAsJson("missing.ipynb"));
+    assertFalse(isCached("missing.ipynb"));
+  }
+
+  @Test
+  void testEviction_LeastRecentlyUsedFirst() {
+    String content = "x".repeat(400);
+    when(backend.downloadNotebookAsJson("a.ipynb")).thenReturn(content);
+    when(backend.downloadNotebookAsJson("b.ipynb")).thenReturn(content);
+    when(backend.downloadNotebookAsJson("c.ipynb")).thenReturn(content);
+
+    cache.downloadNotebookAsJson("a.ipynb");
+    cache.downloadNotebookAsJson("b.ipynb");
+    cache.downloadNotebookAsJson("a.ipynb");
+    cache.downloadNotebookAsJson("c.ipynb");
+
+    assertTrue(isCached("a.ipynb"));
+    assertFalse(isCached("b.ipynb"));
+    assertTrue(isCached("c.ipynb"));
+    assertEquals(800, cache.getCurrentSizeBytes());
+  }
+
+  @Test
+  void testOversizedNotebook_IsNotCached() {
+    String content = "x".repeat(2048);
+    when(backend.downloadNotebookAsJson("big.ipynb")).thenReturn(content);
+
+    assertEquals(content, cache.downloadNotebookAsJson("big.ipynb"));
+
+    assertFalse(isCached("big.ipynb"));
+    assertEquals(0, cache.getCurrentSizeBytes());
+  }
+
+  @Test
+  void testExpiredEntry_IsRefetched() throws InterruptedException {
+    cache = new LocalDiskCacheStorageService(backend, cacheDir, 1024, Duration.ofMillis(1));
+    when(backend.downloadNotebookAsJson("a.ipynb")).thenReturn(NOTEBOOK_JSON);
+
+    cache.downloadNotebookAsJson("a.ipynb");
+    Thread.sleep(5);
+    cache.downloadNotebookAsJson("a.ipynb");
+
+    verify(backend, times(2)).downloadNotebookAsJson("a.ipynb");
+  }
+
+  @Test
+  void testNonPositiveMaxAge_DisablesExpiry() {
+    cache = new LocalDiskCacheStorageService(backend, cacheDir, 1024, Duration.ZERO);
+    when(backend.downloadNotebookAsJson("a.ipynb")).thenReturn(NOTEBOOK_JSON);
+
+    cache.downloadNotebookAsJson("a.ipynb");
+    cache.downloadNotebookAsJson("a.ipynb");
+
+    verify(backend, times(1)).downloadNotebookAsJson("a.ipynb");
+  }
+
+  @Test
+  void testTransferNotebookTo_ServesCachedFile() throws IOException {
+    when(backend.uploadNotebook(NOTEBOOK_JSON, "a.ipynb")).thenReturn("a.ipynb");
+    cache.uploadNotebook(NOTEBOOK_JSON, "a.ipynb");
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    cache.transferNotebookTo("a.ipynb", out);
+
+    assertEquals(NOTEBOOK_JSON, out.toString(StandardCharsets.UTF_8));
+    verify(backend, never()).downloadNotebookAsJson("a.ipynb");
+  }
+
+  @Test
+  void testTransferNotebookTo_MissPopulatesCache() throws IOException {
+    when(backend.downloadNotebookAsJson("a.ipynb")).thenReturn(NOTEBOOK_JSON);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    cache.transferNotebookTo("a.ipynb", out);
+
+    assertEquals(NOTEBOOK_JSON, out.toString(StandardCharsets.UTF_8));
+    assertTrue(isCached("a.ipynb"));
+  }
+
+  @Test
+  void testStartup_ClearsLeftoverFiles() throws IOException {
+    Path leftover =
+        Files.writeString(cacheDir.resolve("notebooks/stale.ipynb.7.cached"), NOTEBOOK_JSON);
+    Path partialWrite =
+        Files.writeString(cacheDir.resolve("notebooks/stale.ipynb123.tmp"), NOTEBOOK_JSON);
+
+    new LocalDiskCacheStorageService(backend, cacheDir, 1024, Duration.ofMinutes(5));
+
+    assertFalse(Files.exists(leftover));
+    assertFalse(Files.exists(partialWrite));
+  }
+
+  @Test
+  void testStartup_KeepsFilesTheCacheDidNotWrite() throws IOException {
+    Path notebook = Files.writeString(cacheDir.resolve("a.ipynb"), NOTEBOOK_JSON);
+    Path other = Files.writeString(cacheDir.resolve("notebooks/b.ipynb"), NOTEBOOK_JSON);
+
+    new LocalDiskCacheStorageService(backend, cacheDir, 1024, Duration.ofMinutes(5));
+
+    assertTrue(Files.exists(notebook));
+    assertTrue(Files.exists(other));
+  }
+
+  @Test
+  void testUpdate_LeavesOneFilePerNotebook() throws IOException {
+    when(backend.uploadNotebook(NOTEBOOK_JSON, "a.ipynb")).thenReturn("/storage/a.ipynb");
+
+    cache.uploadNotebook(NOTEBOOK_JSON, "a.ipynb");
+    cache.uploadNotebook(NOTEBOOK_JSON, "a.ipynb");
+
+    try (Stream<Path> files = Files.list(cacheDir.resolve("notebooks"))) {
+      assertEquals(1, files.count());
+    }
+  }
+
+  /** Whether the cache holds a file for the notebook. */
+  private boolean isCached(String fileName) {
+    try (Stream<Path> files = Files.list(cacheDir.resolve("notebooks"))) {
+      return files
+          .map(file -> file.getFileName().toString())
+          .anyMatch(name -> name.startsWith(fileName + ".") && name.endsWith(".cached"));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,57 @@
+package org.jupytereverywhere.service.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+
+class FileSpanExporterTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  void testExport_WritesOneLinePerSpan(@TempDir Path dir) throws IOException {
+    Path file = dir.resolve("traces/spans.jsonl");
+    SdkTracerProvider tracerProvider =
+        SdkTracerProvider.builder()
+            .addSpanProcessor(SimpleSpanProcessor.create(new FileSpanExporter(file, objectMapper)))
+            .build();
+    Tracer tracer = tracerProvider.get("test");
+
+    Span parent = tracer.spanBuilder("notebook.upload").startSpan();
+    try (Scope ignored = parent.makeCurrent()) {
+      tracer
+          .spanBuilder("notebook.validation")
+          .setAttribute("notebook.nbformat", "4.5")
+          .startSpan()
+          .end();
+    } finally {
+      parent.end();
+    }
+
+    List<String> lines = Files.readAllLines(file);
+    assertEquals(2, lines.size());
+    JsonNode child = objectMapper.readTree(lines.get(0));
+    JsonNode root = objectMapper.readTree(lines.get(1));
+    assertEquals("notebook.validation", child.get("name").asText());
+    assertEquals("4.5", child.get("attributes").get("notebook.nbformat").asText());
+    assertEquals(root.get("spanId").asText(), child.get("parentSpanId").asText());
+    assertEquals(root.get("traceId").asText(), child.get("traceId").asText());
+    assertFalse(root.has("parentSpanId"));
+  }
+}
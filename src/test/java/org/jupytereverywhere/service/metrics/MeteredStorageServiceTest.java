@@ -0,0 +1,182 @@
+package org.jupytereverywhere.service.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.jupytereverywhere.exception.NotebookNotFoundException;
+import org.jupytereverywhere.service.StorageService;
+import org.jupytereverywhere.utils.ServerTiming;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.tracing.handler.DefaultTracingObservationHandler;
+import io.micrometer.tracing.otel.bridge.OtelBaggageManager;
+import io.micrometer.tracing.otel.bridge.OtelCurrentTraceContext;
+import io.micrometer.tracing.otel.bridge.OtelTracer;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+@ExtendWith(MockitoExtension.class)
+class MeteredStorageServiceTest {
+
+  @Mock private StorageService backend;
+
+  private SimpleMeterRegistry meterRegistry;
+  private InMemorySpanExporter spans;
+  private MeteredStorageService storageService;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    spans = InMemorySpanExporter.create();
+    SdkTracerProvider tracerProvider =
+        SdkTracerProvider.builder().addSpanProcessor(SimpleSpanProcessor.create(spans)).build();
+    OtelCurrentTraceContext currentTraceContext = new OtelCurrentTraceContext();
+    OtelTracer tracer =
+        new OtelTracer(
+            tracerProvider.get("test"),
+            currentTraceContext,
+            event -> {},
+            new OtelBaggageManager(currentTraceContext, List.of(), List.of()));
+    ObservationRegistry observationRegistry = ObservationRegistry.create();
+    observationRegistry
+        .observationConfig()
+        .observationHandler(new DefaultMeterObservationHandler(meterRegistry))
+        .observationHandler(new DefaultTracingObservationHandler(tracer))
+        .observationHandler(new ServerTimingObservationHandler())
+        .observationHandler(new FlightRecorderObservationHandler());
+    storageService = new MeteredStorageService(backend, "s3", observationRegistry);
+  }
+
+  private long count(String operation, String outcome) {
+    return meterRegistry
+        .get("notebook.storage")
+        .tag("backend", "s3")
+        .tag("operation", operation)
+        .tag("outcome", outcome)
+        .timer()
+        .count();
+  }
+
+  @Test
+  void testUploadNotebook_TimedAsPut() {
+    when(backend.uploadNotebook("{}", "a.ipynb")).thenReturn("s3://bucket/a.ipynb");
+
+    assertEquals("s3://bucket/a.ipynb", storageService.uploadNotebook("{}", "a.ipynb"));
+    assertEquals(1, count("put", "success"));
+  }
+
+  @Test
+  void testDownloadNotebookAsJson_NotFound() {
+    when(backend.downloadNotebookAsJson("a.ipynb"))
+        .thenThrow(new NotebookNotFoundException("Notebook not found"));
+
+    assertThrows(
+        NotebookNotFoundException.class, () -> storageService.downloadNotebookAsJson("a.ipynb"));
+    assertEquals(1, count("get", "not_found"));
+  }
+
+  @Test
+  void testTransferNotebookTo_Error() throws IOException {
+    doThrow(new IOException("Broken pipe"))
+        .when(backend)
+        .transferNotebookTo(any(), any());
+
+    assertThrows(
+        IOException.class,
+        () -> storageService.transferNotebookTo("a.ipynb", new ByteArrayOutputStream()));
+    assertEquals(1, count("transfer", "error"));
+  }
+
+  @Test
+  void testUploadNotebook_Traced() {
+    when(backend.uploadNotebook("{}", "a.ipynb")).thenReturn("s3://bucket/a.ipynb");
+
+    storageService.uploadNotebook("{}", "a.ipynb");
+
+    List<SpanData> finished = spans.getFinishedSpanItems();
+    assertEquals(1, finished.size());
+    SpanData span = finished.get(0);
+    assertEquals("notebook.storage put", span.getName());
+    assertEquals("s3", span.getAttributes().get(AttributeKey.stringKey("backend")));
+    assertEquals("success", span.getAttributes().get(AttributeKey.stringKey("outcome")));
+  }
+
+  @Test
+  void testUploadNotebook_CountedTowardsStorageStage() {
+    when(backend.uploadNotebook("{}", "a.ipynb"))
+        .thenAnswer(
+            invocation -> {
+              Thread.sleep(2);
+              return "s3://bucket/a.ipynb";
+            });
+
+    ServerTiming timing = ServerTiming.start();
+    try {
+      storageService.uploadNotebook("{}", "a.ipynb");
+    } finally {
+      ServerTiming.stop();
+    }
+
+    assertTrue(timing.duration(ServerTiming.Stage.STORAGE) > 0);
+  }
+
+  @Test
+  void testDownloadNotebookAsJson_RecordedAsFlightRecorderEvent(@TempDir Path dir)
+      throws IOException {
+    when(backend.downloadNotebookAsJson("a.ipynb"))
+        .thenThrow(new NotebookNotFoundException("Notebook not found"));
+    Path file = dir.resolve("storage.jfr");
+
+    try (Recording recording = new Recording()) {
+      recording.enable(NotebookStorageEvent.class);
+      recording.start();
+      assertThrows(
+          NotebookNotFoundException.class, () -> storageService.downloadNotebookAsJson("a.ipynb"));
+      recording.stop();
+      recording.dump(file);
+    }
+
+    List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+    assertEquals(1, events.size());
+    RecordedEvent event = events.get(0);
+    assertEquals("s3", event.getString("backend"));
+    assertEquals("get", event.getString("operation"));
+    assertEquals("a.ipynb", event.getString("fileName"));
+    assertEquals("not_found", event.getString("outcome"));
+  }
+
+  @Test
+  void testDeleteNotebook_FailureMarksSpanAsError() {
+    doThrow(new IllegalStateException("Access denied")).when(backend).deleteNotebook("a.ipynb");
+
+    assertThrows(IllegalStateException.class, () -> storageService.deleteNotebook("a.ipynb"));
+
+    SpanData span = spans.getFinishedSpanItems().get(0);
+    assertEquals(StatusCode.ERROR, span.getStatus().getStatusCode());
+    assertEquals("error", span.getAttributes().get(AttributeKey.stringKey("outcome")));
+  }
+}
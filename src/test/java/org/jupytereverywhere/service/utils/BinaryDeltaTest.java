@@ -0,0 +1,88 @@
+package org.jupytereverywhere.service.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class BinaryDeltaTest {
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static byte[] randomBytes(int length, long seed) {
+    byte[] data = new byte[length];
+    new Random(seed).nextBytes(data);
+    return data;
+  }
+
+  private static void assertRoundTrip(byte[] source, byte[] target) {
+    byte[] delta = BinaryDelta.encode(source, target);
+    assertArrayEquals(target, BinaryDelta.apply(source, delta));
+  }
+
+  @Test
+  void testRoundTrip_IdenticalContent() {
+    byte[] data = randomBytes(10_000, 1);
+
+    byte[] delta = BinaryDelta.encode(data, data);
+
+    assertArrayEquals(data, BinaryDelta.apply(data, delta));
+    assertTrue(delta.length < 16, "identical content should encode as a single copy");
+  }
+
+  @Test
+  void testRoundTrip_SmallEditInLargeDocument() {
+    byte[] source = randomBytes(200_000, 2);
+    byte[] target = source.clone();
+    target[100_000] ^= 0x55;
+
+    byte[] delta = BinaryDelta.encode(source, target);
+
+    assertArrayEquals(target, BinaryDelta.apply(source, delta));
+    assertTrue(delta.length < 64, "a one-byte edit should produce a tiny delta");
+  }
+
+  @Test
+  void testRoundTrip_InsertionsAndDeletions() {
+    String cell = "{\"cell_type\":\"code\",\"source\":[\"print('hello world')\"],\"outputs\":[]},";
+    String source = "{\"cells\":[" + cell.repeat(50) + "]}";
+    String target =
+        "{\"cells\":[" + "{\"cell_type\":\"markdown\"}," + cell.repeat(20) + cell.repeat(25) + "]}";
+
+    assertRoundTrip(bytes(source), bytes(target));
+  }
+
+  @Test
+  void testRoundTrip_EmptyAndShortInputs() {
+    assertRoundTrip(new byte[0], new byte[0]);
+    assertRoundTrip(new byte[0], bytes("new content"));
+    assertRoundTrip(bytes("old content"), new byte[0]);
+    assertRoundTrip(bytes("short"), bytes("shorter"));
+  }
+
+  @Test
+  void testRoundTrip_UnrelatedContent() {
+    assertRoundTrip(randomBytes(5_000, 3), randomBytes(7_000, 4));
+  }
+
+  @Test
+  void testApply_RejectsDeltaForDifferentSource() {
+    byte[] source = randomBytes(1_000, 5);
+    byte[] delta = BinaryDelta.encode(source, source);
+
+    assertThrows(IllegalArgumentException.class, () -> BinaryDelta.apply(new byte[10], delta));
+  }
+
+  @Test
+  void testApply_RejectsMalformedDelta() {
+    assertThrows(IllegalArgumentException.class, () -> BinaryDelta.apply(new byte[0], new byte[0]));
+    assertThrows(
+        IllegalArgumentException.class, () -> BinaryDelta.apply(new byte[0], new byte[] {1, 5}));
+  }
+}
@@ -0,0 +1,129 @@
+package org.jupytereverywhere.service.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import org.jupytereverywhere.exception.InvalidNotebookPatchException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class JsonPatchTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private JsonNode json(String value) throws Exception {
+    return objectMapper.readTree(value.replace('\'', '"'));
+  }
+
+  private JsonNode patch(String document, String patch) throws Exception {
+    return JsonPatch.apply(json(document), JsonPatch.parse(json(patch)));
+  }
+
+  @Test
+  void testAdd_ObjectMemberAndArrayElements() throws Exception {
+    JsonNode result =
+        patch(
+            "{'a':[1,3]}",
+            "[{'op':'add','path':'/b','value':true},"
+                + "{'op':'add','path':'/a/1','value':2},"
+                + "{'op':'add','path':'/a/-','value':4}]");
+
+    assertEquals(json("{'a':[1,2,3,4],'b':true}"), result);
+  }
+
+  @Test
+  void testRemoveAndReplace() throws Exception {
+    JsonNode result =
+        patch(
+            "{'a':[1,2,3],'b':'x','c':0}",
+            "[{'op':'remove','path':'/a/0'},"
+                + "{'op':'remove','path':'/c'},"
+                + "{'op':'replace','path':'/b','value':'y'}]");
+
+    assertEquals(json("{'a':[2,3],'b':'y'}"), result);
+  }
+
+  @Test
+  void testMoveAndCopy() throws Exception {
+    JsonNode result =
+        patch(
+            "{'a':{'x':1},'b':[]}",
+            "[{'op':'copy','from':'/a/x','path':'/b/0'},"
+                + "{'op':'move','from':'/a','path':'/c'}]");
+
+    assertEquals(json("{'b':[1],'c':{'x':1}}"), result);
+  }
+
+  @Test
+  void testTest_PassesAndFails() throws Exception {
+    assertEquals(json("{'a':1}"), patch("{'a':1}", "[{'op':'test','path':'/a','value':1}]"));
+    assertThrows(
+        InvalidNotebookPatchException.class,
+        () -> patch("{'a':1}", "[{'op':'test','path':'/a','value':2}]"));
+  }
+
+  @Test
+  void testReplaceRoot() throws Exception {
+    assertEquals(json("[1]"), patch("{'a':1}", "[{'op':'replace','path':'','value':[1]}]"));
+  }
+
+  @Test
+  void testEscapedPointerTokens() throws Exception {
+    JsonNode result = patch("{'a/b':1,'m~n':2}", "[{'op':'remove','path':'/a~1b'}]");
+
+    assertEquals(json("{'m~n':2}"), result);
+  }
+
+  @Test
+  void testApply_RejectsUnapplicableOperations() {
+    assertThrows(
+        InvalidNotebookPatchException.class,
+        () -> patch("{'a':1}", "[{'op':'remove','path':'/b'}]"));
+    assertThrows(
+        InvalidNotebookPatchException.class,
+        () -> patch("{'a':1}", "[{'op':'replace','path':'/b','value':1}]"));
+    assertThrows(
+        InvalidNotebookPatchException.class,
+        () -> patch("{'a':[1]}", "[{'op':'add','path':'/a/5','value':1}]"));
+    assertThrows(
+        InvalidNotebookPatchException.class,
+        () -> patch("{'a':[1,2]}", "[{'op':'remove','path':'/a/01'}]"));
+    assertThrows(
+        InvalidNotebookPatchException.class,
+        () -> patch("{'a':{'b':1}}", "[{'op':'move','from':'/a','path':'/a/c'}]"));
+    assertThrows(
+        InvalidNotebookPatchException.class,
+        () -> patch("{'a':1}", "[{'op':'add','path':'/x/y','value':1}]"));
+  }
+
+  @Test
+  void testParse_RejectsMalformedPatches() {
+    assertThrows(InvalidNotebookPatchException.class, () -> JsonPatch.parse(json("{}")));
+    assertThrows(InvalidNotebookPatchException.class, () -> JsonPatch.parse(json("[1]")));
+    assertThrows(
+        InvalidNotebookPatchException.class,
+        () -> JsonPatch.parse(json("[{'op':'frobnicate','path':'/a'}]")));
+    assertThrows(
+        InvalidNotebookPatchException.class, () -> JsonPatch.parse(json("[{'op':'add'}]")));
+    assertThrows(
+        InvalidNotebookPatchException.class,
+        () -> JsonPatch.parse(json("[{'op':'add','path':'/a'}]")));
+    assertThrows(
+        InvalidNotebookPatchException.class,
+        () -> JsonPatch.parse(json("[{'op':'move','path':'/a'}]")));
+  }
+
+  @Test
+  void testAddedValuesAreCopies() throws Exception {
+    JsonNode patchDocument =
+        json("[{'op':'add','path':'/a','value':{'x':1}},{'op':'add','path':'/a/y','value':2}]");
+    JsonNode first = JsonPatch.apply(json("{}"), JsonPatch.parse(patchDocument));
+    JsonNode second = JsonPatch.apply(json("{}"), JsonPatch.parse(patchDocument));
+
+    assertEquals(json("{'a':{'x':1,'y':2}}"), first);
+    assertEquals(first, second);
+    assertEquals(json("{'x':1}"), patchDocument.get(0).get("value"));
+  }
+}
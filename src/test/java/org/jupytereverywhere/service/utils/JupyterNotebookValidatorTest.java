@@ -1,23 +1,61 @@
 package org.jupytereverywhere.service.utils;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.List;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.jupytereverywhere.config.TracingConstants;
+import org.jupytereverywhere.model.response.NotebookValidationError;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.tracing.handler.DefaultTracingObservationHandler;
+import io.micrometer.tracing.otel.bridge.OtelBaggageManager;
+import io.micrometer.tracing.otel.bridge.OtelCurrentTraceContext;
+import io.micrometer.tracing.otel.bridge.OtelTracer;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+
 class JupyterNotebookValidatorTest {
 
   private JupyterNotebookValidator validator;
   private ObjectMapper objectMapper;
+  private SimpleMeterRegistry meterRegistry;
+  private InMemorySpanExporter spans;
 
   @BeforeEach
   void setUp() {
     objectMapper = new ObjectMapper();
-    validator = new JupyterNotebookValidator(objectMapper);
+    meterRegistry = new SimpleMeterRegistry();
+    spans = InMemorySpanExporter.create();
+    SdkTracerProvider tracerProvider =
+        SdkTracerProvider.builder().addSpanProcessor(SimpleSpanProcessor.create(spans)).build();
+    OtelCurrentTraceContext currentTraceContext = new OtelCurrentTraceContext();
+    OtelTracer tracer =
+        new OtelTracer(
+            tracerProvider.get("test"),
+            currentTraceContext,
+            event -> {},
+            new OtelBaggageManager(currentTraceContext, List.of(), List.of()));
+    ObservationRegistry observationRegistry = ObservationRegistry.create();
+    observationRegistry
+        .observationConfig()
+        .observationHandler(new DefaultMeterObservationHandler(meterRegistry))
+        .observationHandler(new DefaultTracingObservationHandler(tracer));
+    validator = new JupyterNotebookValidator(objectMapper, observationRegistry);
   }
 
   @Test
@@ -645,6 +683,52 @@ class JupyterNotebookValidatorTest {
     assertTrue(result, "Notebook with very large nbformat_minor should fall back to v4.5");
   }
 
+  @Test
+  void testValidateNotebook_TimedByVersionAndOutcome() {
+    validator.validateNotebook(
+        """
+        {"cells": [], "metadata": {}, "nbformat": 4, "nbformat_minor": 4}
+        """);
+    validator.validateNotebook(
+        """
+        {"cells": [], "metadata": {}, "nbformat": 4, "nbformat_minor": 100}
+        """);
+    validator.validateNotebook("{ invalid json }");
+
+    assertEquals(1, validationCount("4.4", "valid"));
+    assertEquals(1, validationCount("other", "valid"));
+    assertEquals(1, validationCount("other", "error"));
+  }
+
+  @Test
+  void testValidateNotebook_TracedWithNbformatVersion() {
+    validator.validateNotebook(
+        """
+        {"cells": [], "metadata": {}, "nbformat": 4, "nbformat_minor": 4}
+        """);
+
+    List<SpanData> finished = spans.getFinishedSpanItems();
+    assertEquals(1, finished.size());
+    assertEquals("notebook.validation", finished.get(0).getName());
+    assertEquals(
+        "4.4",
+        finished
+            .get(0)
+            .getAttributes()
+            .get(AttributeKey.stringKey(TracingConstants.NOTEBOOK_NBFORMAT_TAG)));
+    assertEquals(
+        "valid", finished.get(0).getAttributes().get(AttributeKey.stringKey("outcome")));
+  }
+
+  private long validationCount(String nbformat, String outcome) {
+    return meterRegistry
+        .get("notebook.validation")
+        .tag("nbformat", nbformat)
+        .tag("outcome", outcome)
+        .timer()
+        .count();
+  }
+
   @Test
   void testValidateNotebook_MinorVersionAsString() {
     String notebook =
@@ -722,4 +806,109 @@ class JupyterNotebookValidatorTest {
     boolean result = validator.validateNotebook(v45NotebookWithoutIds);
     assertFalse(result, "v4.5 notebook without cell IDs should fail validation");
   }
+
+  @Test
+  void testValidateCells_ValidAndInvalidCells() throws Exception {
+    JsonNode notebook = objectMapper.readTree("{\"nbformat\":4,\"nbformat_minor\":5}");
+    JsonNode validCell =
+        objectMapper.readTree(
+            "{\"cell_type\":\"markdown\",\"id\":\"cell-1\",\"metadata\":{},\"source\":\"# Hi\"}");
+    JsonNode cellWithoutSource =
+        objectMapper.readTree(
+            "{\"cell_type\":\"markdown\",\"id\":\"cell-2\",\"metadata\":{}}");
+
+    assertTrue(validator.validateCells(notebook, List.of(validCell)));
+    assertFalse(validator.validateCells(notebook, List.of(validCell, cellWithoutSource)));
+    assertTrue(validator.validateCells(notebook, List.of()));
+  }
+
+  @Test
+  void testValidateCells_UsesNotebookMinorVersion() throws Exception {
+    JsonNode cellWithoutId =
+        objectMapper.readTree("{\"cell_type\":\"markdown\",\"metadata\":{},\"source\":\"\"}");
+
+    JsonNode v44 = objectMapper.readTree("{\"nbformat\":4,\"nbformat_minor\":4}");
+    JsonNode v45 = objectMapper.readTree("{\"nbformat\":4,\"nbformat_minor\":5}");
+
+    assertTrue(validator.validateCells(v44, List.of(cellWithoutId)));
+    assertFalse(validator.validateCells(v45, List.of(cellWithoutId)));
+  }
+
+  @Test
+  void testValidate_ValidNotebookHasNoErrors() {
+    NotebookValidationResult result = validator.validate(notebookWithCellsWithoutSource(0));
+
+    assertTrue(result.valid());
+    assertTrue(result.errors().isEmpty());
+    assertFalse(result.truncated());
+  }
+
+  @Test
+  void testValidate_FailFastStopsAtMaxErrors() {
+    ReflectionTestUtils.setField(validator, "maxErrors", 3);
+
+    NotebookValidationResult result = validator.validate(notebookWithCellsWithoutSource(50));
+
+    assertFalse(result.valid());
+    assertEquals(3, result.errors().size());
+    assertTrue(result.truncated());
+    for (NotebookValidationError error : result.errors()) {
+      assertTrue(error.path().matches("\\$\\.cells\\[[0-2]\\].*"), error.path());
+      assertNotNull(error.keyword());
+      assertFalse(error.message().startsWith("$"), error.message());
+    }
+  }
+
+  @Test
+  void testValidate_WithoutFailFastReportsMaxErrors() {
+    ReflectionTestUtils.setField(validator, "maxErrors", 3);
+    ReflectionTestUtils.setField(validator, "failFast", false);
+
+    NotebookValidationResult result = validator.validate(notebookWithCellsWithoutSource(50));
+
+    assertFalse(result.valid());
+    assertEquals(3, result.errors().size());
+    assertTrue(result.truncated());
+    assertTrue(result.errors().get(0).path().startsWith("$.cells["));
+  }
+
+  @Test
+  void testValidate_FailFastReportsNotebookLevelErrors() {
+    String notebook =
+        """
+        {
+          "cells": [{"cell_type": "markdown", "id": "cell-0", "metadata": {}}],
+          "nbformat": 4,
+          "nbformat_minor": 5
+        }
+        """;
+
+    NotebookValidationResult result = validator.validate(notebook);
+
+    assertFalse(result.valid());
+    assertFalse(result.truncated());
+    assertTrue(result.errors().stream().anyMatch(error -> error.path().equals("$")));
+    assertTrue(result.errors().stream().anyMatch(error -> error.path().startsWith("$.cells[0]")));
+  }
+
+  @Test
+  void testValidate_CellErrorsUseThePathInTheNotebook() throws Exception {
+    JsonNode notebook = objectMapper.readTree(notebookWithCellsWithoutSource(2));
+    JsonNode secondCell = notebook.get("cells").get(1);
+
+    NotebookValidationResult result = validator.validate(notebook, List.of(secondCell));
+
+    assertFalse(result.valid());
+    assertTrue(result.errors().get(0).path().startsWith("$.cells[1]"));
+  }
+
+  private static String notebookWithCellsWithoutSource(int count) {
+    StringBuilder cells = new StringBuilder();
+    for (int i = 0; i < count; i++) {
+      cells.append(i == 0 ? "" : ",");
+      cells.append("{\"cell_type\":\"markdown\",\"id\":\"cell-").append(i);
+      cells.append("\",\"metadata\":{}}");
+    }
+    return "{\"cells\":[" + cells + "],\"metadata\":{},\"nbformat\":4,\"nbformat_minor\":5}";
+  }
 }
@@ -0,0 +1,56 @@
+package org.jupytereverywhere.service.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+import org.jupytereverywhere.exception.NotebookTooLargeException;
+
+class NdjsonReaderTest {
+
+  private static NdjsonReader readerOf(String body, long maxLineBytes) {
+    return new NdjsonReader(
+        new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), maxLineBytes);
+  }
+
+  @Test
+  void testReadLine_ReturnsLinesAndSkipsBlankOnes() throws IOException {
+    NdjsonReader reader = readerOf("{\"a\":1}\r\n\n  \n{\"b\":2}", 100);
+
+    assertEquals("{\"a\":1}", reader.readLine());
+    assertEquals("{\"b\":2}", reader.readLine());
+    assertNull(reader.readLine());
+    assertNull(reader.readLine());
+  }
+
+  @Test
+  void testReadLine_EmptyBody() throws IOException {
+    assertNull(readerOf("", 100).readLine());
+  }
+
+  @Test
+  void testReadLine_TooLongLineIsSkipped() throws IOException {
+    NdjsonReader reader = readerOf("{\"long\":\"" + "x".repeat(50) + "\"}\n{\"b\":2}\n", 20);
+
+    NotebookTooLargeException exception =
+        assertThrows(NotebookTooLargeException.class, reader::readLine);
+    assertEquals(61, exception.getNotebookSizeBytes());
+    assertEquals("{\"b\":2}", reader.readLine());
+    assertNull(reader.readLine());
+  }
+
+  @Test
+  void testReadLine_LinesLongerThanTheBuffer() throws IOException {
+    String line = "\"" + "y".repeat(200_000) + "\"";
+    NdjsonReader reader = readerOf(line + "\n" + line, 1_000_000);
+
+    assertEquals(line, reader.readLine());
+    assertEquals(line, reader.readLine());
+    assertNull(reader.readLine());
+  }
+}
@@ -0,0 +1,70 @@
+package org.jupytereverywhere.service.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.JsonFactory;
+
+class NotebookCellsTest {
+
+  private static final String NOTEBOOK_JSON =
+      "{\"cells\":[{\"id\":\"a\",\"source\":[\"x = 1\"]},{\"id\":\"b\",\"outputs\":[{}]},"
+          + "{\"id\":\"c\"}],\"metadata\":{},\"nbformat\":4,\"nbformat_minor\":5}";
+
+  private final JsonFactory jsonFactory = new JsonFactory();
+
+  private String copyRange(String notebookJson, int start, int count) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    NotebookCells.copyRange(
+        jsonFactory,
+        new ByteArrayInputStream(notebookJson.getBytes(StandardCharsets.UTF_8)),
+        out,
+        start,
+        count);
+    return out.toString(StandardCharsets.UTF_8);
+  }
+
+  @Test
+  void testCount() throws IOException {
+    byte[] notebookJson = NOTEBOOK_JSON.getBytes(StandardCharsets.UTF_8);
+
+    assertEquals(3, NotebookCells.count(jsonFactory, notebookJson));
+  }
+
+  @Test
+  void testCount_NoCells() throws IOException {
+    byte[] notebookJson = "{\"metadata\":{}}".getBytes(StandardCharsets.UTF_8);
+
+    assertEquals(0, NotebookCells.count(jsonFactory, notebookJson));
+  }
+
+  @Test
+  void testCopyRange_CopiesOnlyRequestedCells() throws IOException {
+    assertEquals("[{\"id\":\"b\",\"outputs\":[{}]}]", copyRange(NOTEBOOK_JSON, 1, 1));
+  }
+
+  @Test
+  void testCopyRange_StopsAtLastCell() throws IOException {
+    assertEquals("[{\"id\":\"c\"}]", copyRange(NOTEBOOK_JSON, 2, 10));
+    assertEquals("[]", copyRange(NOTEBOOK_JSON, 5, 1));
+  }
+
+  @Test
+  void testCopyRange_CellsAfterOtherKeys() throws IOException {
+    assertEquals(
+        "[{\"id\":\"a\"}]",
+        copyRange("{\"metadata\":{\"cells\":[1]},\"cells\":[{\"id\":\"a\"}]}", 0, 1));
+  }
+
+  @Test
+  void testCopyRange_NotAJsonObject() {
+    assertThrows(IOException.class, () -> copyRange("[1, 2]", 0, 1));
+  }
+}
@@ -0,0 +1,27 @@
+package org.jupytereverywhere.service.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.jupytereverywhere.exception.InvalidNotebookException;
+
+class NotebookListCursorTest {
+
+  @Test
+  void testEncodeDecode_RoundTrip() {
+    LocalDateTime createdAt = LocalDateTime.of(2025, 3, 4, 5, 6, 7, 123_456_000);
+    NotebookListCursor cursor = new NotebookListCursor(createdAt, UUID.randomUUID());
+
+    assertEquals(cursor, NotebookListCursor.decode(cursor.encode()));
+  }
+
+  @Test
+  void testDecode_InvalidCursor() {
+    assertThrows(InvalidNotebookException.class, () -> NotebookListCursor.decode("not a cursor"));
+    assertThrows(InvalidNotebookException.class, () -> NotebookListCursor.decode("bm8tc2xhc2g"));
+  }
+}
@@ -0,0 +1,64 @@
+package org.jupytereverywhere.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.jupytereverywhere.utils.ServerTiming.Stage;
+
+class ServerTimingTest {
+
+  @AfterEach
+  void tearDown() {
+    ServerTiming.stop();
+  }
+
+  private static void sleep(long millis) {
+    try {
+      TimeUnit.MILLISECONDS.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Test
+  void testHeaderValue_ListsEnteredStagesAndTotal() {
+    ServerTiming timing = ServerTiming.start();
+
+    long begunAt = ServerTiming.begin(Stage.DB);
+    sleep(2);
+    ServerTiming.end(Stage.DB, begunAt);
+
+    String header = timing.headerValue();
+    assertTrue(header.matches("db;dur=\\d+\\.\\d{2}, total;dur=\\d+\\.\\d{2}"), header);
+    assertTrue(timing.duration(Stage.DB) >= TimeUnit.MILLISECONDS.toNanos(2));
+  }
+
+  @Test
+  void testEnd_CountsOnlyTheOutermostOfNestedCalls() {
+    ServerTiming timing = ServerTiming.start();
+
+    long outer = ServerTiming.begin(Stage.STORAGE);
+    long inner = ServerTiming.begin(Stage.STORAGE);
+    sleep(2);
+    ServerTiming.end(Stage.STORAGE, inner);
+    long afterInner = timing.duration(Stage.STORAGE);
+    ServerTiming.end(Stage.STORAGE, outer);
+
+    assertEquals(0, afterInner);
+    assertTrue(timing.duration(Stage.STORAGE) >= TimeUnit.MILLISECONDS.toNanos(2));
+  }
+
+  @Test
+  void testBeginAndEnd_WithoutRequestDoNothing() {
+    ServerTiming timing = ServerTiming.start();
+    ServerTiming.stop();
+
+    ServerTiming.end(Stage.AUTH, ServerTiming.begin(Stage.AUTH));
+
+    assertEquals(0, timing.duration(Stage.AUTH));
+  }
+}
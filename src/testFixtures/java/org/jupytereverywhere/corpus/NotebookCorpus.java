@@ -0,0 +1,283 @@
+package org.jupytereverywhere.corpus;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Seeded generator of valid nbformat 4.0 to 4.5 notebooks, shared by the tests, the JMH benchmarks
+ * and the load generator so that they all work on the same reproducible inputs.
+ *
+ * <p>The same seed, shape and index always give the same notebook, byte for byte. Sources and
+ * outputs are drawn from Python and Markdown line templates with random numbers, so they neither
+ * compress nor deduplicate unrealistically well, except for the cells that {@link
+ * NotebookShape#duplicationRatio()} repeats on purpose.
+ */
+public final class NotebookCorpus {
+
+  /** The seed of the corpus shared by the benchmarks, the load generator and the tests. */
+  public static final long DEFAULT_SEED = 42;
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'};
+
+  private static final String[] CODE_LINES = {
+    "import pandas as pd",
+    "df_%d = pd.read_csv('data/measurements_%d.csv')",
+    "df['ratio_%d'] = df['value'] / df['total'] * %d",
+    "summary = df.groupby('label').agg({'value': ['mean', 'std']})",
+    "for i in range(%d):",
+    "    total += weights[i] * %d",
+    "fig, ax = plt.subplots(figsize=(%d, 4))",
+    "ax.plot(x, y_%d, label='run %d')",
+    "model_%d = LinearRegression().fit(X_train, y_train)",
+    "print(f'run %d accuracy: {score:.3f}')",
+  };
+  private static final String[] MARKDOWN_LINES = {
+    "## Section %d",
+    "This analysis covers the %d measurements collected in week %d.",
+    "- Step %d: clean the input data",
+    "$$ \\hat{y}_%d = \\beta_0 + \\beta_1 x $$",
+    "See [the documentation](https://example.org/docs/%d) for details.",
+  };
+  private static final String[] OUTPUT_LINES = {
+    "   id  value  label  ratio_%d",
+    "%d  0.4821   a      %d.13",
+    "Epoch %d/%d - loss: 0.%d",
+    "accuracy: 0.%d",
+  };
+
+  private final long seed;
+
+  public NotebookCorpus(long seed) {
+    this.seed = seed;
+  }
+
+  /** The {@code index}th notebook of the corpus. */
+  public String notebook(NotebookShape shape, int index) {
+    return write(shape, random(index), shape.cells(), 0);
+  }
+
+  /** The first {@code count} notebooks of the corpus. */
+  public List<String> notebooks(NotebookShape shape, int count) {
+    List<String> notebooks = new ArrayList<>(count);
+    for (int index = 0; index < count; index++) {
+      notebooks.add(notebook(shape, index));
+    }
+    return notebooks;
+  }
+
+  /**
+   * The {@code index}th notebook of the corpus, with as many cells as it takes to be at least
+   * {@code sizeBytes} long instead of {@link NotebookShape#cells()}.
+   */
+  public String notebookOfSize(NotebookShape shape, int sizeBytes, int index) {
+    return write(shape, random(index), 1, sizeBytes);
+  }
+
+  private Random random(int index) {
+    // The algorithm of java.util.Random is specified, so a seed gives the same corpus on any JDK
+    return new Random(seed * 0x9E3779B97F4A7C15L + index);
+  }
+
+  private static String write(NotebookShape shape, Random random, int minCells, int minLength) {
+    StringWriter out = new StringWriter();
+    CellGenerator cells = new CellGenerator(shape, random);
+    try (JsonGenerator json = MAPPER.createGenerator(out)) {
+      json.writeStartObject();
+      json.writeArrayFieldStart("cells");
+      for (int index = 0; index < minCells || out.getBuffer().length() < minLength; index++) {
+        json.writeTree(cells.next(index));
+        json.flush();
+      }
+      json.writeEndArray();
+      json.writeFieldName("metadata");
+      json.writeTree(notebookMetadata(shape, random));
+      json.writeNumberField("nbformat", 4);
+      json.writeNumberField("nbformat_minor", shape.nbformatMinor());
+      json.writeEndObject();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return out.toString();
+  }
+
+  private static ObjectNode notebookMetadata(NotebookShape shape, Random random) {
+    ObjectNode metadata = MAPPER.createObjectNode();
+    metadata
+        .putObject("kernelspec")
+        .put("name", "python3")
+        .put("display_name", "Python 3 (ipykernel)")
+        .put("language", "python");
+    ObjectNode languageInfo = metadata.putObject("language_info");
+    languageInfo.put("name", "python").put("version", "3.12." + random.nextInt(10));
+    languageInfo.putObject("codemirror_mode").put("name", "ipython").put("version", 3);
+    languageInfo.put("file_extension", ".py").put("mimetype", "text/x-python");
+    if (shape.metadataDepth() > 0) {
+      metadata.set("corpus", nestedMetadata(shape.metadataDepth(), random));
+    }
+    return metadata;
+  }
+
+  private static ObjectNode nestedMetadata(int depth, Random random) {
+    ObjectNode node = MAPPER.createObjectNode();
+    node.put("level", depth).put("seed", random.nextInt(1_000_000));
+    node.putArray("tags").add("tag-" + random.nextInt(100)).add("tag-" + random.nextInt(100));
+    if (depth > 1) {
+      node.set("nested", nestedMetadata(depth - 1, random));
+    }
+    return node;
+  }
+
+  /** Generates the cells of one notebook, remembering them for duplication. */
+  private static final class CellGenerator {
+
+    private final NotebookShape shape;
+    private final Random random;
+    private final List<ObjectNode> originals = new ArrayList<>();
+    private final OutputType[] outputTypes;
+    private final int[] cumulativeWeights;
+    private int executionCount;
+
+    private CellGenerator(NotebookShape shape, Random random) {
+      this.shape = shape;
+      this.random = random;
+      Map<OutputType, Integer> mix = shape.outputMix();
+      this.outputTypes = mix.keySet().toArray(OutputType[]::new);
+      this.cumulativeWeights = new int[outputTypes.length];
+      int total = 0;
+      for (int i = 0; i < outputTypes.length; i++) {
+        total += mix.get(outputTypes[i]);
+        cumulativeWeights[i] = total;
+      }
+    }
+
+    private ObjectNode next(int index) {
+      if (!originals.isEmpty() && random.nextDouble() < shape.duplicationRatio()) {
+        ObjectNode copy = originals.get(random.nextInt(originals.size())).deepCopy();
+        if (copy.has("id")) {
+          copy.put("id", cellId(index));
+        }
+        return copy;
+      }
+      ObjectNode cell =
+          random.nextDouble() < shape.markdownRatio() ? markdownCell(index) : codeCell(index);
+      originals.add(cell);
+      return cell;
+    }
+
+    private ObjectNode markdownCell(int index) {
+      ObjectNode cell = startCell("markdown", index);
+      cell.set("source", lines(MARKDOWN_LINES, shape.sourceLines(), true));
+      return cell;
+    }
+
+    private ObjectNode codeCell(int index) {
+      ObjectNode cell = startCell("code", index);
+      cell.set("source", lines(CODE_LINES, shape.sourceLines(), true));
+      cell.put("execution_count", ++executionCount);
+      ArrayNode outputs = cell.putArray("outputs");
+      for (int i = 0; i < shape.outputsPerCell(); i++) {
+        outputs.add(output(nextOutputType()));
+      }
+      return cell;
+    }
+
+    private ObjectNode startCell(String cellType, int index) {
+      ObjectNode cell = MAPPER.createObjectNode();
+      cell.put("cell_type", cellType);
+      // Cell ids were introduced in 4.5; earlier schemas reject them
+      if (shape.nbformatMinor() >= 5) {
+        cell.put("id", cellId(index));
+      }
+      ObjectNode metadata = cell.putObject("metadata");
+      if (shape.metadataDepth() > 0) {
+        metadata.set("corpus", nestedMetadata(shape.metadataDepth(), random));
+      }
+      return cell;
+    }
+
+    private String cellId(int index) {
+      byte[] bytes = new byte[4];
+      random.nextBytes(bytes);
+      return HexFormat.of().formatHex(bytes) + "-" + index;
+    }
+
+    private OutputType nextOutputType() {
+      int roll = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+      for (int i = 0; i < cumulativeWeights.length; i++) {
+        if (roll < cumulativeWeights[i]) {
+          return outputTypes[i];
+        }
+      }
+      throw new IllegalStateException("Unreachable");
+    }
+
+    private ObjectNode output(OutputType type) {
+      ObjectNode output = MAPPER.createObjectNode();
+      switch (type) {
+        case STREAM -> {
+          output.put("output_type", "stream").put("name", "stdout");
+          output.set("text", lines(OUTPUT_LINES, shape.sourceLines(), false));
+        }
+        case EXECUTE_RESULT -> {
+          output.put("output_type", "execute_result").put("execution_count", executionCount);
+          ObjectNode data = output.putObject("data");
+          data.set("text/plain", lines(OUTPUT_LINES, shape.sourceLines(), false));
+          data.put("text/html", "<table><tr><td>" + random.nextInt(10_000) + "</td></tr></table>");
+          output.putObject("metadata");
+        }
+        case DISPLAY_DATA -> {
+          output.put("output_type", "display_data");
+          ObjectNode data = output.putObject("data");
+          data.put("image/png", image());
+          data.put("text/plain", "<Figure size 640x480 with 1 Axes>");
+          output.putObject("metadata");
+        }
+        case ERROR -> {
+          int line = random.nextInt(100);
+          output.put("output_type", "error").put("ename", "ValueError");
+          output.put("evalue", "could not convert string to float: 'n/a " + line + "'");
+          output
+              .putArray("traceback")
+              .add("\u001b[0;31mValueError\u001b[0m Traceback (most recent call last)")
+              .add("Cell \u001b[0;32mIn[" + executionCount + "], line " + line + "\u001b[0m")
+              .add("\u001b[0;31mValueError\u001b[0m: could not convert string to float");
+        }
+      }
+      return output;
+    }
+
+    /** A PNG signature followed by random bytes: the right size and entropy, not decodable. */
+    private String image() {
+      byte[] bytes = new byte[Math.max(shape.imageBytes(), PNG_SIGNATURE.length)];
+      random.nextBytes(bytes);
+      System.arraycopy(PNG_SIGNATURE, 0, bytes, 0, PNG_SIGNATURE.length);
+      return Base64.getEncoder().encodeToString(bytes);
+    }
+
+    /** Source or text lines; every line but the last ends with a newline, as Jupyter saves them. */
+    private ArrayNode lines(String[] templates, int count, boolean sequential) {
+      ArrayNode lines = MAPPER.createArrayNode();
+      int offset = random.nextInt(templates.length);
+      for (int i = 0; i < count; i++) {
+        int template =
+            sequential ? (offset + i) % templates.length : random.nextInt(templates.length);
+        String line = templates[template].replace("%d", String.valueOf(random.nextInt(1000)));
+        lines.add(i < count - 1 ? line + "\n" : line);
+      }
+      return lines;
+    }
+  }
+}
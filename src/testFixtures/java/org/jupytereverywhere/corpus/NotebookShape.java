@@ -0,0 +1,186 @@
+package org.jupytereverywhere.corpus;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * What generated notebooks look like. Start from {@link #DEFAULT} and change what matters to the
+ * test, e.g. {@code NotebookShape.DEFAULT.withNbformatMinor(0).withImageBytes(0)}.
+ *
+ * @param nbformatMinor nbformat 4 minor version, 0 to 5; cells have ids from 4.5 on
+ * @param cells number of cells
+ * @param markdownRatio share of markdown cells, the rest being code cells
+ * @param sourceLines lines of source per cell
+ * @param outputsPerCell outputs per code cell
+ * @param outputMix relative weight of each output type
+ * @param imageBytes size of each display_data image before base64 encoding
+ * @param metadataDepth nesting depth of the extra metadata of the notebook and of each cell
+ * @param duplicationRatio share of cells that repeat the content of an earlier cell
+ */
+public record NotebookShape(
+    int nbformatMinor,
+    int cells,
+    double markdownRatio,
+    int sourceLines,
+    int outputsPerCell,
+    Map<OutputType, Integer> outputMix,
+    int imageBytes,
+    int metadataDepth,
+    double duplicationRatio) {
+
+  /** A mid-sized 4.5 notebook, mostly code with stream outputs and the occasional plot. */
+  public static final NotebookShape DEFAULT =
+      new NotebookShape(
+          5,
+          20,
+          0.3,
+          10,
+          1,
+          Map.of(
+              OutputType.STREAM, 6,
+              OutputType.EXECUTE_RESULT, 2,
+              OutputType.DISPLAY_DATA, 1,
+              OutputType.ERROR, 1),
+          4096,
+          2,
+          0.1);
+
+  public NotebookShape {
+    if (nbformatMinor < 0 || nbformatMinor > 5) {
+      throw new IllegalArgumentException("nbformatMinor must be between 0 and 5");
+    }
+    if (cells < 0 || sourceLines < 0 || outputsPerCell < 0 || imageBytes < 0) {
+      throw new IllegalArgumentException("Counts and sizes must not be negative");
+    }
+    if (metadataDepth < 0) {
+      throw new IllegalArgumentException("metadataDepth must not be negative");
+    }
+    if (markdownRatio < 0 || markdownRatio > 1 || duplicationRatio < 0 || duplicationRatio > 1) {
+      throw new IllegalArgumentException("Ratios must be between 0 and 1");
+    }
+    if (outputMix.values().stream().anyMatch(weight -> weight < 0)
+        || outputMix.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+      throw new IllegalArgumentException("outputMix needs non-negative weights, one positive");
+    }
+    // In enum order, so that the same seed picks the same output types
+    outputMix = Collections.unmodifiableMap(new EnumMap<>(outputMix));
+  }
+
+  public NotebookShape withNbformatMinor(int nbformatMinor) {
+    return new NotebookShape(
+        nbformatMinor,
+        cells,
+        markdownRatio,
+        sourceLines,
+        outputsPerCell,
+        outputMix,
+        imageBytes,
+        metadataDepth,
+        duplicationRatio);
+  }
+
+  public NotebookShape withCells(int cells) {
+    return new NotebookShape(
+        nbformatMinor,
+        cells,
+        markdownRatio,
+        sourceLines,
+        outputsPerCell,
+        outputMix,
+        imageBytes,
+        metadataDepth,
+        duplicationRatio);
+  }
+
+  public NotebookShape withMarkdownRatio(double markdownRatio) {
+    return new NotebookShape(
+        nbformatMinor,
+        cells,
+        markdownRatio,
+        sourceLines,
+        outputsPerCell,
+        outputMix,
+        imageBytes,
+        metadataDepth,
+        duplicationRatio);
+  }
+
+  public NotebookShape withSourceLines(int sourceLines) {
+    return new NotebookShape(
+        nbformatMinor,
+        cells,
+        markdownRatio,
+        sourceLines,
+        outputsPerCell,
+        outputMix,
+        imageBytes,
+        metadataDepth,
+        duplicationRatio);
+  }
+
+  public NotebookShape withOutputsPerCell(int outputsPerCell) {
+    return new NotebookShape(
+        nbformatMinor,
+        cells,
+        markdownRatio,
+        sourceLines,
+        outputsPerCell,
+        outputMix,
+        imageBytes,
+        metadataDepth,
+        duplicationRatio);
+  }
+
+  public NotebookShape withOutputMix(Map<OutputType, Integer> outputMix) {
+    return new NotebookShape(
+        nbformatMinor,
+        cells,
+        markdownRatio,
+        sourceLines,
+        outputsPerCell,
+        outputMix,
+        imageBytes,
+        metadataDepth,
+        duplicationRatio);
+  }
+
+  public NotebookShape withImageBytes(int imageBytes) {
+    return new NotebookShape(
+        nbformatMinor,
+        cells,
+        markdownRatio,
+        sourceLines,
+        outputsPerCell,
+        outputMix,
+        imageBytes,
+        metadataDepth,
+        duplicationRatio);
+  }
+
+  public NotebookShape withMetadataDepth(int metadataDepth) {
+    return new NotebookShape(
+        nbformatMinor,
+        cells,
+        markdownRatio,
+        sourceLines,
+        outputsPerCell,
+        outputMix,
+        imageBytes,
+        metadataDepth,
+        duplicationRatio);
+  }
+
+  public NotebookShape withDuplicationRatio(double duplicationRatio) {
+    return new NotebookShape(
+        nbformatMinor,
+        cells,
+        markdownRatio,
+        sourceLines,
+        outputsPerCell,
+        outputMix,
+        imageBytes,
+        metadataDepth,
+        duplicationRatio);
+  }
+}
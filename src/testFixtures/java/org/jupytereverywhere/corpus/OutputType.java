@@ -0,0 +1,13 @@
+package org.jupytereverywhere.corpus;
+
+/** The output types of generated code cells. */
+public enum OutputType {
+  /** stdout text, as printed by the cell. */
+  STREAM,
+  /** A plain text and HTML result, as the value of the cell's last expression. */
+  EXECUTE_RESULT,
+  /** A base64 PNG image with a plain text fallback, as drawn by a plotting library. */
+  DISPLAY_DATA,
+  /** An exception with an ANSI-coloured traceback. */
+  ERROR
+}